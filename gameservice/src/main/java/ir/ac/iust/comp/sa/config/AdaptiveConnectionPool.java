@@ -0,0 +1,392 @@
+package ir.ac.iust.comp.sa.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.pool.PoolMetrics;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import io.r2dbc.spi.Option;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.pool.AllocationStrategy;
+import reactor.pool.PoolMetricsRecorder;
+
+/**
+ * R2DBC {@link ConnectionPool} recording acquire latency and connection evictions, and resizing itself within the
+ * configured bounds according to the time spent waiting for a connection.
+ * <p>
+ * The pool grows by one step when the average acquire time exceeds the target or when acquirers are pending, and
+ * shrinks by one step when connections sit unused. Failed acquires, e.g. timed out, count as taking at least the max
+ * acquire time, so that a saturated pool grows rather than averaging its failures out. Shrinking only lowers the limit:
+ * connections above it are released as they reach their max idle or max life time.
+ * <p>
+ * The gameservice, gateway and uaa are built independently, without a shared module, so each of them keeps an
+ * identical copy of this class.
+ */
+public class AdaptiveConnectionPool extends ConnectionPool {
+
+    private static final String METRIC_PREFIX = "r2dbc.pool.";
+
+    private final Logger log = LoggerFactory.getLogger(AdaptiveConnectionPool.class);
+
+    private final AdaptiveAllocationStrategy allocationStrategy;
+
+    private final ApplicationProperties.Pool properties;
+
+    private final Duration failedAcquireTime;
+
+    private final Timer acquireSuccess;
+
+    private final Timer acquireFailure;
+
+    private final LongAdder acquireCount = new LongAdder();
+
+    private final LongAdder acquireNanos = new LongAdder();
+
+    private final Counter growths;
+
+    private final Counter shrinks;
+
+    private final Disposable.Swap resizing = Disposables.swap();
+
+    private AdaptiveConnectionPool(
+        ConnectionPoolConfiguration configuration,
+        AdaptiveAllocationStrategy allocationStrategy,
+        ApplicationProperties.Pool properties,
+        Duration maxAcquireTime,
+        String name,
+        MeterRegistry meterRegistry
+    ) {
+        super(configuration);
+        this.allocationStrategy = allocationStrategy;
+        this.properties = properties;
+        this.failedAcquireTime = maxAcquireTime == null ? properties.getTargetAcquireTime() : maxAcquireTime;
+        this.acquireSuccess = acquireTimer(name, "success", meterRegistry);
+        this.acquireFailure = acquireTimer(name, "failure", meterRegistry);
+        this.growths = resizeCounter(name, "up", meterRegistry);
+        this.shrinks = resizeCounter(name, "down", meterRegistry);
+        if (properties.isAdaptive()) {
+            resizing.update(Flux.interval(properties.getResizeInterval()).subscribe(tick -> resize()));
+        }
+    }
+
+    /**
+     * Creates the factory of the connections to pool from the {@code spring.r2dbc} settings, as Spring Boot does: the
+     * url, then the username, password, database name and driver options overriding it. A {@code r2dbc:pool:} url is
+     * unwrapped, the connections being pooled by this class.
+     *
+     * @param r2dbcProperties the {@code spring.r2dbc} settings.
+     * @return the factory of unpooled connections.
+     */
+    public static ConnectionFactory unpooledConnectionFactory(R2dbcProperties r2dbcProperties) {
+        ConnectionFactoryOptions urlOptions = ConnectionFactoryOptions.parse(r2dbcProperties.getUrl());
+        ConnectionFactoryOptions.Builder options = urlOptions.mutate();
+        if ("pool".equals(urlOptions.getValue(ConnectionFactoryOptions.DRIVER))) {
+            String[] protocol = ((String) urlOptions.getRequiredValue(ConnectionFactoryOptions.PROTOCOL)).split(":", 2);
+            options.option(ConnectionFactoryOptions.DRIVER, protocol[0]);
+            options.option(ConnectionFactoryOptions.PROTOCOL, protocol.length > 1 ? protocol[1] : "");
+        }
+        if (r2dbcProperties.getUsername() != null) {
+            options.option(ConnectionFactoryOptions.USER, r2dbcProperties.getUsername());
+        }
+        if (r2dbcProperties.getPassword() != null) {
+            options.option(ConnectionFactoryOptions.PASSWORD, r2dbcProperties.getPassword());
+        }
+        String database = r2dbcProperties.isGenerateUniqueName() ? r2dbcProperties.determineUniqueName() : r2dbcProperties.getName();
+        if (database != null) {
+            options.option(ConnectionFactoryOptions.DATABASE, database);
+        }
+        r2dbcProperties.getProperties().forEach((key, value) -> options.option(Option.valueOf(key), value));
+        return ConnectionFactories.get(options.build());
+    }
+
+    /**
+     * Creates a pool of connections from the given factory.
+     *
+     * @param connectionFactory the factory creating the pooled connections.
+     * @param pool the {@code spring.r2dbc.pool} settings.
+     * @param properties the {@code application.database.pool} settings.
+     * @param name the name tagging the pool metrics.
+     * @param meterRegistry the registry of the pool metrics.
+     * @return the pool.
+     */
+    public static AdaptiveConnectionPool create(
+        ConnectionFactory connectionFactory,
+        R2dbcProperties.Pool pool,
+        ApplicationProperties.Pool properties,
+        String name,
+        MeterRegistry meterRegistry
+    ) {
+        int lowerBound = properties.isAdaptive() ? properties.getMinSize() : pool.getMaxSize();
+        int upperBound = properties.isAdaptive() ? Math.max(lowerBound, properties.getMaxSize()) : pool.getMaxSize();
+        int limit = Math.min(Math.max(pool.getMaxSize(), lowerBound), upperBound);
+        AdaptiveAllocationStrategy allocationStrategy = new AdaptiveAllocationStrategy(
+            Math.min(pool.getInitialSize(), limit),
+            lowerBound,
+            upperBound,
+            limit
+        );
+        ConnectionPoolConfiguration.Builder builder = ConnectionPoolConfiguration
+            .builder(connectionFactory)
+            .name(name)
+            .initialSize(allocationStrategy.permitMinimum())
+            .maxSize(limit)
+            .maxIdleTime(pool.getMaxIdleTime())
+            .metricsRecorder(new MicrometerPoolMetricsRecorder(name, pool.getMaxLifeTime(), meterRegistry))
+            .customizer(poolBuilder -> poolBuilder.allocationStrategy(allocationStrategy));
+        if (pool.getMaxLifeTime() != null) {
+            builder.maxLifeTime(pool.getMaxLifeTime());
+        }
+        if (pool.getMaxAcquireTime() != null) {
+            builder.maxAcquireTime(pool.getMaxAcquireTime());
+        }
+        if (pool.getMaxCreateConnectionTime() != null) {
+            builder.maxCreateConnectionTime(pool.getMaxCreateConnectionTime());
+        }
+        if (pool.getValidationQuery() != null) {
+            builder.validationQuery(pool.getValidationQuery());
+        }
+        builder.validationDepth(pool.getValidationDepth());
+        return new AdaptiveConnectionPool(builder.build(), allocationStrategy, properties, pool.getMaxAcquireTime(), name, meterRegistry);
+    }
+
+    @Override
+    public Mono<Connection> create() {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return AdaptiveConnectionPool.super
+                .create()
+                .doOnNext(connection -> recordAcquire(acquireSuccess, System.nanoTime() - start))
+                .doOnError(e -> recordAcquire(acquireFailure, Math.max(System.nanoTime() - start, failedAcquireTime.toNanos())));
+        });
+    }
+
+    private void recordAcquire(Timer timer, long nanos) {
+        timer.record(nanos, TimeUnit.NANOSECONDS);
+        acquireCount.increment();
+        acquireNanos.add(nanos);
+    }
+
+    @Override
+    public Mono<Void> disposeLater() {
+        return Mono.defer(() -> {
+            resizing.dispose();
+            return AdaptiveConnectionPool.super.disposeLater();
+        });
+    }
+
+    /**
+     * @return the current maximum number of connections of the pool.
+     */
+    public int getSizeLimit() {
+        return allocationStrategy.permitMaximum();
+    }
+
+    void resize() {
+        long count = acquireCount.sumThenReset();
+        long nanos = acquireNanos.sumThenReset();
+        Duration averageAcquireTime = Duration.ofNanos(count == 0 ? 0 : nanos / count);
+        int pending = getMetrics().map(PoolMetrics::pendingAcquireSize).orElse(0);
+        int acquired = getMetrics().map(PoolMetrics::acquiredSize).orElse(0);
+        int limit = allocationStrategy.permitMaximum();
+        int step = properties.getResizeStep();
+        int newLimit = limit;
+        if (pending > 0 || averageAcquireTime.compareTo(properties.getTargetAcquireTime()) > 0) {
+            newLimit = allocationStrategy.resize(limit + step);
+        } else if (
+            averageAcquireTime.compareTo(properties.getTargetAcquireTime().dividedBy(2)) < 0 && acquired + 2 * step <= limit
+        ) {
+            newLimit = allocationStrategy.resize(limit - step);
+        }
+        if (newLimit > limit) {
+            growths.increment();
+            log.info(
+                "Grew the connection pool to {} connections: {} pending, {}ms average acquire time",
+                newLimit,
+                pending,
+                averageAcquireTime.toMillis()
+            );
+        } else if (newLimit < limit) {
+            shrinks.increment();
+            log.debug("Shrank the connection pool to {} connections: {} in use", newLimit, acquired);
+        }
+    }
+
+    private static Timer acquireTimer(String name, String outcome, MeterRegistry meterRegistry) {
+        return Timer
+            .builder(METRIC_PREFIX + "acquire")
+            .description("Time spent waiting for a connection, failed acquires counting as at least the max acquire time")
+            .tag("name", name)
+            .tag("outcome", outcome)
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+    }
+
+    private static Counter resizeCounter(String name, String direction, MeterRegistry meterRegistry) {
+        return Counter
+            .builder(METRIC_PREFIX + "resizes")
+            .description("Changes of the maximum size of the pool")
+            .tag("name", name)
+            .tag("direction", direction)
+            .register(meterRegistry);
+    }
+
+    /**
+     * {@link AllocationStrategy} whose maximum number of connections can be changed at runtime within fixed bounds.
+     */
+    static class AdaptiveAllocationStrategy implements AllocationStrategy {
+
+        private final int minimum;
+        private final int lowerBound;
+        private final int upperBound;
+        private final AtomicInteger granted = new AtomicInteger();
+        private volatile int limit;
+
+        AdaptiveAllocationStrategy(int minimum, int lowerBound, int upperBound, int limit) {
+            this.minimum = minimum;
+            this.lowerBound = lowerBound;
+            this.upperBound = upperBound;
+            this.limit = limit;
+        }
+
+        /**
+         * Changes the maximum number of connections, within the bounds of the strategy.
+         *
+         * @param newLimit the requested maximum.
+         * @return the applied maximum.
+         */
+        int resize(int newLimit) {
+            limit = Math.min(Math.max(newLimit, lowerBound), upperBound);
+            return limit;
+        }
+
+        @Override
+        public int estimatePermitCount() {
+            return Math.max(0, limit - granted.get());
+        }
+
+        @Override
+        public int getPermits(int desired) {
+            if (desired <= 0) {
+                return 0;
+            }
+            for (;;) {
+                int current = granted.get();
+                int permits = Math.min(desired, Math.max(0, limit - current));
+                if (permits == 0 || granted.compareAndSet(current, current + permits)) {
+                    return permits;
+                }
+            }
+        }
+
+        @Override
+        public int permitGranted() {
+            return granted.get();
+        }
+
+        @Override
+        public int permitMinimum() {
+            return minimum;
+        }
+
+        @Override
+        public int permitMaximum() {
+            return limit;
+        }
+
+        @Override
+        public void returnPermits(int returned) {
+            granted.addAndGet(-returned);
+        }
+    }
+
+    /**
+     * Records connection creation and destruction, counting the connections evicted on reaching their max life time.
+     */
+    static class MicrometerPoolMetricsRecorder implements PoolMetricsRecorder {
+
+        private final Timer allocationSuccess;
+        private final Timer allocationFailure;
+        private final Timer lifetime;
+        private final Counter maxLifeEvictions;
+        private final Duration maxLifeTime;
+
+        MicrometerPoolMetricsRecorder(String name, Duration maxLifeTime, MeterRegistry meterRegistry) {
+            this.maxLifeTime = maxLifeTime;
+            this.allocationSuccess = allocationTimer(name, "success", meterRegistry);
+            this.allocationFailure = allocationTimer(name, "failure", meterRegistry);
+            this.lifetime =
+                Timer
+                    .builder(METRIC_PREFIX + "lifetime")
+                    .description("Lifetime of the closed connections")
+                    .tag("name", name)
+                    .register(meterRegistry);
+            this.maxLifeEvictions =
+                Counter
+                    .builder(METRIC_PREFIX + "evictions")
+                    .description("Connections closed on reaching their max life time")
+                    .tag("name", name)
+                    .tag("cause", "max-life")
+                    .register(meterRegistry);
+        }
+
+        private static Timer allocationTimer(String name, String outcome, MeterRegistry meterRegistry) {
+            return Timer
+                .builder(METRIC_PREFIX + "allocation")
+                .description("Time spent opening new connections")
+                .tag("name", name)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+        }
+
+        @Override
+        public void recordAllocationSuccessAndLatency(long latencyMs) {
+            allocationSuccess.record(latencyMs, TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public void recordAllocationFailureAndLatency(long latencyMs) {
+            allocationFailure.record(latencyMs, TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public void recordLifetimeDuration(long millisecondsSinceAllocation) {
+            lifetime.record(millisecondsSinceAllocation, TimeUnit.MILLISECONDS);
+            if (maxLifeTime != null && millisecondsSinceAllocation >= maxLifeTime.toMillis()) {
+                maxLifeEvictions.increment();
+            }
+        }
+
+        @Override
+        public void recordResetLatency(long latencyMs) {}
+
+        @Override
+        public void recordDestroyLatency(long latencyMs) {}
+
+        @Override
+        public void recordRecycled() {}
+
+        @Override
+        public void recordIdleTime(long millisecondsIdle) {}
+
+        @Override
+        public void recordSlowPath() {}
+
+        @Override
+        public void recordFastPath() {}
+    }
+}
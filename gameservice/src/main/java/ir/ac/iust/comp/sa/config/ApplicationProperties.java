@@ -1,5 +1,8 @@
 package ir.ac.iust.comp.sa.config;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 /**
@@ -9,4 +12,921 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
  * See {@link tech.jhipster.config.JHipsterProperties} for a good example.
  */
 @ConfigurationProperties(prefix = "application", ignoreUnknownFields = false)
-public class ApplicationProperties {}
+public class ApplicationProperties {
+
+    private final Database database = new Database();
+
+    private final Search search = new Search();
+
+    private final Changes changes = new Changes();
+
+    private final Streams streams = new Streams();
+
+    private final Screens screens = new Screens();
+
+    private final Inputs inputs = new Inputs();
+
+    private final Scenes scenes = new Scenes();
+
+    private final Events events = new Events();
+
+    private final KafkaConsumers kafkaConsumers = new KafkaConsumers();
+
+    private final Commands commands = new Commands();
+
+    private final CacheInvalidation cacheInvalidation = new CacheInvalidation();
+
+    public Database getDatabase() {
+        return database;
+    }
+
+    public Search getSearch() {
+        return search;
+    }
+
+    public Changes getChanges() {
+        return changes;
+    }
+
+    public Streams getStreams() {
+        return streams;
+    }
+
+    public Screens getScreens() {
+        return screens;
+    }
+
+    public Inputs getInputs() {
+        return inputs;
+    }
+
+    public Scenes getScenes() {
+        return scenes;
+    }
+
+    public Events getEvents() {
+        return events;
+    }
+
+    public KafkaConsumers getKafkaConsumers() {
+        return kafkaConsumers;
+    }
+
+    public Commands getCommands() {
+        return commands;
+    }
+
+    public CacheInvalidation getCacheInvalidation() {
+        return cacheInvalidation;
+    }
+
+    public static class Database {
+
+        private final Pool pool = new Pool();
+
+        private final ReadReplicas readReplicas = new ReadReplicas();
+
+        public Pool getPool() {
+            return pool;
+        }
+
+        public ReadReplicas getReadReplicas() {
+            return readReplicas;
+        }
+    }
+
+    public static class Pool {
+
+        private boolean adaptive = true;
+
+        private int minSize = 5;
+
+        private int maxSize = 30;
+
+        private Duration targetAcquireTime = Duration.ofMillis(50);
+
+        private Duration resizeInterval = Duration.ofSeconds(10);
+
+        private int resizeStep = 2;
+
+        public boolean isAdaptive() {
+            return adaptive;
+        }
+
+        public void setAdaptive(boolean adaptive) {
+            this.adaptive = adaptive;
+        }
+
+        public int getMinSize() {
+            return minSize;
+        }
+
+        public void setMinSize(int minSize) {
+            this.minSize = minSize;
+        }
+
+        public int getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(int maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        public Duration getTargetAcquireTime() {
+            return targetAcquireTime;
+        }
+
+        public void setTargetAcquireTime(Duration targetAcquireTime) {
+            this.targetAcquireTime = targetAcquireTime;
+        }
+
+        public Duration getResizeInterval() {
+            return resizeInterval;
+        }
+
+        public void setResizeInterval(Duration resizeInterval) {
+            this.resizeInterval = resizeInterval;
+        }
+
+        public int getResizeStep() {
+            return resizeStep;
+        }
+
+        public void setResizeStep(int resizeStep) {
+            this.resizeStep = resizeStep;
+        }
+    }
+
+    public static class ReadReplicas {
+
+        private List<Replica> targets = new ArrayList<>();
+
+        private int maxPoolSize = 10;
+
+        private Duration maxLag = Duration.ofSeconds(5);
+
+        private Duration lagCheckInterval = Duration.ofSeconds(5);
+
+        private String lagQuery =
+            "SELECT CASE WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+            "ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) END";
+
+        public List<Replica> getTargets() {
+            return targets;
+        }
+
+        public void setTargets(List<Replica> targets) {
+            this.targets = targets;
+        }
+
+        public int getMaxPoolSize() {
+            return maxPoolSize;
+        }
+
+        public void setMaxPoolSize(int maxPoolSize) {
+            this.maxPoolSize = maxPoolSize;
+        }
+
+        public Duration getMaxLag() {
+            return maxLag;
+        }
+
+        public void setMaxLag(Duration maxLag) {
+            this.maxLag = maxLag;
+        }
+
+        public Duration getLagCheckInterval() {
+            return lagCheckInterval;
+        }
+
+        public void setLagCheckInterval(Duration lagCheckInterval) {
+            this.lagCheckInterval = lagCheckInterval;
+        }
+
+        public String getLagQuery() {
+            return lagQuery;
+        }
+
+        public void setLagQuery(String lagQuery) {
+            this.lagQuery = lagQuery;
+        }
+    }
+
+    public static class Replica {
+
+        private String url;
+
+        private String username;
+
+        private String password;
+
+        public String getUrl() {
+            return url;
+        }
+
+        public void setUrl(String url) {
+            this.url = url;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public void setUsername(String username) {
+            this.username = username;
+        }
+
+        public String getPassword() {
+            return password;
+        }
+
+        public void setPassword(String password) {
+            this.password = password;
+        }
+    }
+
+    public static class Search {
+
+        private final Indexer indexer = new Indexer();
+
+        private final Reindex reindex = new Reindex();
+
+        private final Lucene lucene = new Lucene();
+
+        private final Cache cache = new Cache();
+
+        public Indexer getIndexer() {
+            return indexer;
+        }
+
+        public Reindex getReindex() {
+            return reindex;
+        }
+
+        public Lucene getLucene() {
+            return lucene;
+        }
+
+        public Cache getCache() {
+            return cache;
+        }
+    }
+
+    public static class Indexer {
+
+        private boolean enabled = true;
+
+        private int batchSize = 500;
+
+        private Duration pollInterval = Duration.ofSeconds(1);
+
+        private int maxRetries = 5;
+
+        private Duration retryBackoff = Duration.ofMillis(500);
+
+        private Duration leaseDuration = Duration.ofMinutes(1);
+
+        private float moveResolution = 64;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public Duration getPollInterval() {
+            return pollInterval;
+        }
+
+        public void setPollInterval(Duration pollInterval) {
+            this.pollInterval = pollInterval;
+        }
+
+        public int getMaxRetries() {
+            return maxRetries;
+        }
+
+        public void setMaxRetries(int maxRetries) {
+            this.maxRetries = maxRetries;
+        }
+
+        public Duration getRetryBackoff() {
+            return retryBackoff;
+        }
+
+        public void setRetryBackoff(Duration retryBackoff) {
+            this.retryBackoff = retryBackoff;
+        }
+
+        public Duration getLeaseDuration() {
+            return leaseDuration;
+        }
+
+        public void setLeaseDuration(Duration leaseDuration) {
+            this.leaseDuration = leaseDuration;
+        }
+
+        public float getMoveResolution() {
+            return moveResolution;
+        }
+
+        public void setMoveResolution(float moveResolution) {
+            this.moveResolution = moveResolution;
+        }
+    }
+
+    public static class Reindex {
+
+        private int bulkSize = 1000;
+
+        private int maxRetries = 5;
+
+        private Duration retryBackoff = Duration.ofSeconds(1);
+
+        private Duration leaseDuration = Duration.ofMinutes(1);
+
+        public int getBulkSize() {
+            return bulkSize;
+        }
+
+        public void setBulkSize(int bulkSize) {
+            this.bulkSize = bulkSize;
+        }
+
+        public int getMaxRetries() {
+            return maxRetries;
+        }
+
+        public void setMaxRetries(int maxRetries) {
+            this.maxRetries = maxRetries;
+        }
+
+        public Duration getRetryBackoff() {
+            return retryBackoff;
+        }
+
+        public void setRetryBackoff(Duration retryBackoff) {
+            this.retryBackoff = retryBackoff;
+        }
+
+        public Duration getLeaseDuration() {
+            return leaseDuration;
+        }
+
+        public void setLeaseDuration(Duration leaseDuration) {
+            this.leaseDuration = leaseDuration;
+        }
+    }
+
+    public static class Lucene {
+
+        private String directory = "data/lucene";
+
+        private Duration refreshInterval = Duration.ofSeconds(1);
+
+        private Duration commitInterval = Duration.ofSeconds(30);
+
+        private double ramBufferSizeMb = 16;
+
+        private Duration leaseDuration = Duration.ofMinutes(1);
+
+        public String getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(String directory) {
+            this.directory = directory;
+        }
+
+        public Duration getRefreshInterval() {
+            return refreshInterval;
+        }
+
+        public void setRefreshInterval(Duration refreshInterval) {
+            this.refreshInterval = refreshInterval;
+        }
+
+        public Duration getCommitInterval() {
+            return commitInterval;
+        }
+
+        public void setCommitInterval(Duration commitInterval) {
+            this.commitInterval = commitInterval;
+        }
+
+        public double getRamBufferSizeMb() {
+            return ramBufferSizeMb;
+        }
+
+        public void setRamBufferSizeMb(double ramBufferSizeMb) {
+            this.ramBufferSizeMb = ramBufferSizeMb;
+        }
+
+        public Duration getLeaseDuration() {
+            return leaseDuration;
+        }
+
+        public void setLeaseDuration(Duration leaseDuration) {
+            this.leaseDuration = leaseDuration;
+        }
+    }
+
+    public static class Cache {
+
+        private boolean enabled = true;
+
+        private long maximumSize = 1000;
+
+        private Duration timeToLive = Duration.ofSeconds(5);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getMaximumSize() {
+            return maximumSize;
+        }
+
+        public void setMaximumSize(long maximumSize) {
+            this.maximumSize = maximumSize;
+        }
+
+        public Duration getTimeToLive() {
+            return timeToLive;
+        }
+
+        public void setTimeToLive(Duration timeToLive) {
+            this.timeToLive = timeToLive;
+        }
+    }
+
+    public static class Changes {
+
+        private int bufferSize = 256;
+
+        private final Feed feed = new Feed();
+
+        private final Interest interest = new Interest();
+
+        public int getBufferSize() {
+            return bufferSize;
+        }
+
+        public void setBufferSize(int bufferSize) {
+            this.bufferSize = bufferSize;
+        }
+
+        public Feed getFeed() {
+            return feed;
+        }
+
+        public Interest getInterest() {
+            return interest;
+        }
+    }
+
+    public static class Interest {
+
+        private float cellSize = 256;
+
+        private float margin = 64;
+
+        private int maxCells = 1024;
+
+        public float getCellSize() {
+            return cellSize;
+        }
+
+        public void setCellSize(float cellSize) {
+            this.cellSize = cellSize;
+        }
+
+        public float getMargin() {
+            return margin;
+        }
+
+        public void setMargin(float margin) {
+            this.margin = margin;
+        }
+
+        public int getMaxCells() {
+            return maxCells;
+        }
+
+        public void setMaxCells(int maxCells) {
+            this.maxCells = maxCells;
+        }
+    }
+
+    public static class Feed {
+
+        private Duration heartbeatInterval = Duration.ofSeconds(15);
+
+        private int replayBatchSize = 500;
+
+        private int bufferSize = 10000;
+
+        private Duration retention = Duration.ofDays(1);
+
+        private Duration pruneInterval = Duration.ofHours(1);
+
+        private Duration reconnectBackoff = Duration.ofSeconds(1);
+
+        private Duration sequenceInterval = Duration.ofSeconds(1);
+
+        private int sequenceBatchSize = 500;
+
+        public Duration getHeartbeatInterval() {
+            return heartbeatInterval;
+        }
+
+        public void setHeartbeatInterval(Duration heartbeatInterval) {
+            this.heartbeatInterval = heartbeatInterval;
+        }
+
+        public int getReplayBatchSize() {
+            return replayBatchSize;
+        }
+
+        public void setReplayBatchSize(int replayBatchSize) {
+            this.replayBatchSize = replayBatchSize;
+        }
+
+        public int getBufferSize() {
+            return bufferSize;
+        }
+
+        public void setBufferSize(int bufferSize) {
+            this.bufferSize = bufferSize;
+        }
+
+        public Duration getRetention() {
+            return retention;
+        }
+
+        public void setRetention(Duration retention) {
+            this.retention = retention;
+        }
+
+        public Duration getPruneInterval() {
+            return pruneInterval;
+        }
+
+        public void setPruneInterval(Duration pruneInterval) {
+            this.pruneInterval = pruneInterval;
+        }
+
+        public Duration getReconnectBackoff() {
+            return reconnectBackoff;
+        }
+
+        public void setReconnectBackoff(Duration reconnectBackoff) {
+            this.reconnectBackoff = reconnectBackoff;
+        }
+
+        public Duration getSequenceInterval() {
+            return sequenceInterval;
+        }
+
+        public void setSequenceInterval(Duration sequenceInterval) {
+            this.sequenceInterval = sequenceInterval;
+        }
+
+        public int getSequenceBatchSize() {
+            return sequenceBatchSize;
+        }
+
+        public void setSequenceBatchSize(int sequenceBatchSize) {
+            this.sequenceBatchSize = sequenceBatchSize;
+        }
+    }
+
+    public static class Streams {
+
+        private int prefetch = 256;
+
+        private int maxPrefetch = 4096;
+
+        private int chunkSize = 64;
+
+        private int maxChunkSize = 1024;
+
+        public int getPrefetch() {
+            return prefetch;
+        }
+
+        public void setPrefetch(int prefetch) {
+            this.prefetch = prefetch;
+        }
+
+        public int getMaxPrefetch() {
+            return maxPrefetch;
+        }
+
+        public void setMaxPrefetch(int maxPrefetch) {
+            this.maxPrefetch = maxPrefetch;
+        }
+
+        public int getChunkSize() {
+            return chunkSize;
+        }
+
+        public void setChunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+
+        public int getMaxChunkSize() {
+            return maxChunkSize;
+        }
+
+        public void setMaxChunkSize(int maxChunkSize) {
+            this.maxChunkSize = maxChunkSize;
+        }
+    }
+
+    public static class Screens {
+
+        private int fps = 10;
+
+        private int maxFps = 30;
+
+        private int queueSize = 2;
+
+        public int getFps() {
+            return fps;
+        }
+
+        public void setFps(int fps) {
+            this.fps = fps;
+        }
+
+        public int getMaxFps() {
+            return maxFps;
+        }
+
+        public void setMaxFps(int maxFps) {
+            this.maxFps = maxFps;
+        }
+
+        public int getQueueSize() {
+            return queueSize;
+        }
+
+        public void setQueueSize(int queueSize) {
+            this.queueSize = queueSize;
+        }
+    }
+
+    public static class Inputs {
+
+        private Duration tick = Duration.ofMillis(50);
+
+        public Duration getTick() {
+            return tick;
+        }
+
+        public void setTick(Duration tick) {
+            this.tick = tick;
+        }
+    }
+
+    public static class Scenes {
+
+        private int maxChanges = 1024;
+
+        public int getMaxChanges() {
+            return maxChanges;
+        }
+
+        public void setMaxChanges(int maxChanges) {
+            this.maxChanges = maxChanges;
+        }
+    }
+
+    public static class Events {
+
+        private boolean enabled = true;
+
+        private String topic = "gameservice.entity-changes";
+
+        private int bufferSize = 8192;
+
+        private int maxInFlight = 1024;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getTopic() {
+            return topic;
+        }
+
+        public void setTopic(String topic) {
+            this.topic = topic;
+        }
+
+        public int getBufferSize() {
+            return bufferSize;
+        }
+
+        public void setBufferSize(int bufferSize) {
+            this.bufferSize = bufferSize;
+        }
+
+        public int getMaxInFlight() {
+            return maxInFlight;
+        }
+
+        public void setMaxInFlight(int maxInFlight) {
+            this.maxInFlight = maxInFlight;
+        }
+    }
+
+    public static class KafkaConsumers {
+
+        private int replaySize = 16;
+
+        private int bufferSize = 256;
+
+        public int getReplaySize() {
+            return replaySize;
+        }
+
+        public void setReplaySize(int replaySize) {
+            this.replaySize = replaySize;
+        }
+
+        public int getBufferSize() {
+            return bufferSize;
+        }
+
+        public void setBufferSize(int bufferSize) {
+            this.bufferSize = bufferSize;
+        }
+    }
+
+    public static class Commands {
+
+        private boolean enabled = true;
+
+        private String topic = "gameservice.modifications";
+
+        private String groupId = "gameservice-commands";
+
+        private int concurrency = 16;
+
+        private Duration commitInterval = Duration.ofSeconds(1);
+
+        private int maxRetries = 3;
+
+        private Duration retryBackoff = Duration.ofMillis(100);
+
+        private Duration lagInterval = Duration.ofSeconds(10);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getTopic() {
+            return topic;
+        }
+
+        public void setTopic(String topic) {
+            this.topic = topic;
+        }
+
+        public String getGroupId() {
+            return groupId;
+        }
+
+        public void setGroupId(String groupId) {
+            this.groupId = groupId;
+        }
+
+        public int getConcurrency() {
+            return concurrency;
+        }
+
+        public void setConcurrency(int concurrency) {
+            this.concurrency = concurrency;
+        }
+
+        public Duration getCommitInterval() {
+            return commitInterval;
+        }
+
+        public void setCommitInterval(Duration commitInterval) {
+            this.commitInterval = commitInterval;
+        }
+
+        public int getMaxRetries() {
+            return maxRetries;
+        }
+
+        public void setMaxRetries(int maxRetries) {
+            this.maxRetries = maxRetries;
+        }
+
+        public Duration getRetryBackoff() {
+            return retryBackoff;
+        }
+
+        public void setRetryBackoff(Duration retryBackoff) {
+            this.retryBackoff = retryBackoff;
+        }
+
+        public Duration getLagInterval() {
+            return lagInterval;
+        }
+
+        public void setLagInterval(Duration lagInterval) {
+            this.lagInterval = lagInterval;
+        }
+    }
+
+    public static class CacheInvalidation {
+
+        private boolean enabled = true;
+
+        private String topic = "gameservice.cache-invalidations";
+
+        private String groupIdPrefix = "gameservice-invalidations";
+
+        private Duration window = Duration.ofMillis(20);
+
+        private int maxBatchSize = 256;
+
+        private int bufferSize = 8192;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getTopic() {
+            return topic;
+        }
+
+        public void setTopic(String topic) {
+            this.topic = topic;
+        }
+
+        public String getGroupIdPrefix() {
+            return groupIdPrefix;
+        }
+
+        public void setGroupIdPrefix(String groupIdPrefix) {
+            this.groupIdPrefix = groupIdPrefix;
+        }
+
+        public Duration getWindow() {
+            return window;
+        }
+
+        public void setWindow(Duration window) {
+            this.window = window;
+        }
+
+        public int getMaxBatchSize() {
+            return maxBatchSize;
+        }
+
+        public void setMaxBatchSize(int maxBatchSize) {
+            this.maxBatchSize = maxBatchSize;
+        }
+
+        public int getBufferSize() {
+            return bufferSize;
+        }
+
+        public void setBufferSize(int bufferSize) {
+            this.bufferSize = bufferSize;
+        }
+    }
+}
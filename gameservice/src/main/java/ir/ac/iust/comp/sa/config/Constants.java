@@ -7,5 +7,10 @@ public final class Constants {
 
     public static final String SYSTEM = "system";
 
+    /**
+     * Profile replacing Elasticsearch with an embedded Lucene index.
+     */
+    public static final String SPRING_PROFILE_LUCENE = "lucene";
+
     private Constants() {}
 }
@@ -1,5 +1,6 @@
 package ir.ac.iust.comp.sa.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import io.r2dbc.spi.ConnectionFactory;
 import java.sql.SQLException;
 import java.time.Duration;
@@ -14,6 +15,7 @@ import java.util.Collections;
 import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
@@ -22,7 +24,6 @@ import org.springframework.core.env.Environment;
 import org.springframework.data.convert.CustomConversions;
 import org.springframework.data.convert.ReadingConverter;
 import org.springframework.data.convert.WritingConverter;
-import org.springframework.data.elasticsearch.repository.config.EnableReactiveElasticsearchRepositories;
 import org.springframework.data.r2dbc.convert.MappingR2dbcConverter;
 import org.springframework.data.r2dbc.convert.R2dbcCustomConversions;
 import org.springframework.data.r2dbc.core.ReactiveDataAccessStrategy;
@@ -39,7 +40,6 @@ import tech.jhipster.config.h2.H2ConfigurationHelper;
 @Configuration
 @EnableR2dbcRepositories("ir.ac.iust.comp.sa.repository")
 @EnableTransactionManagement
-@EnableReactiveElasticsearchRepositories("ir.ac.iust.comp.sa.repository.search")
 public class DatabaseConfiguration {
 
     private final Logger log = LoggerFactory.getLogger(DatabaseConfiguration.class);
@@ -78,6 +78,29 @@ public class DatabaseConfiguration {
         return String.valueOf(port);
     }
 
+    /**
+     * Pool the connections to the database, exposing the pool metrics and resizing it according to the acquire times.
+     *
+     * @param r2dbcProperties the {@code spring.r2dbc} settings.
+     * @param applicationProperties the application settings.
+     * @param meterRegistry the registry of the pool metrics.
+     * @return the connection pool.
+     */
+    @Bean
+    public ConnectionFactory connectionFactory(
+        R2dbcProperties r2dbcProperties,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
+    ) {
+        return AdaptiveConnectionPool.create(
+            AdaptiveConnectionPool.unpooledConnectionFactory(r2dbcProperties),
+            r2dbcProperties.getPool(),
+            applicationProperties.getDatabase().getPool(),
+            "connectionFactory",
+            meterRegistry
+        );
+    }
+
     // LocalDateTime seems to be the only type that is supported across all drivers atm
     // See https://github.com/r2dbc/r2dbc-h2/pull/139 https://github.com/mirromutth/r2dbc-mysql/issues/105
     @Bean
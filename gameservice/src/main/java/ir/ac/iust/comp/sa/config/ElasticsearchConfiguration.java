@@ -7,11 +7,13 @@ import java.time.ZonedDateTime;
 import java.util.Arrays;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
 import org.springframework.core.convert.converter.Converter;
 import org.springframework.data.convert.ReadingConverter;
 import org.springframework.data.convert.WritingConverter;
 import org.springframework.data.elasticsearch.config.ElasticsearchConfigurationSupport;
 import org.springframework.data.elasticsearch.core.convert.ElasticsearchCustomConversions;
+import org.springframework.data.elasticsearch.repository.config.EnableReactiveElasticsearchRepositories;
 
 @Configuration
 public class ElasticsearchConfiguration extends ElasticsearchConfigurationSupport {
@@ -31,6 +33,15 @@ public class ElasticsearchConfiguration extends ElasticsearchConfigurationSuppor
         );
     }
 
+    /**
+     * The search repositories backed by Elasticsearch, replaced by {@link LuceneSearchConfiguration} in the
+     * {@link Constants#SPRING_PROFILE_LUCENE} profile.
+     */
+    @Configuration
+    @Profile("!" + Constants.SPRING_PROFILE_LUCENE)
+    @EnableReactiveElasticsearchRepositories("ir.ac.iust.comp.sa.repository.search")
+    static class ElasticsearchRepositoriesConfiguration {}
+
     @WritingConverter
     static class ZonedDateTimeWritingConverter implements Converter<ZonedDateTime, String> {
 
@@ -0,0 +1,29 @@
+package ir.ac.iust.comp.sa.config;
+
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.kafka.sender.KafkaSender;
+import reactor.kafka.sender.SenderOptions;
+
+/**
+ * Creates the {@link KafkaSender} shared by the producers of the instance.
+ * <p>
+ * A single sender means a single producer, batching the records of all the topics together. The producer is created
+ * on the first send, so the instance starts without a broker.
+ */
+@Configuration
+public class KafkaConfiguration {
+
+    @Bean(destroyMethod = "close")
+    public KafkaSender<String, byte[]> kafkaSender(KafkaProperties kafkaProperties, ApplicationProperties applicationProperties) {
+        SenderOptions<String, byte[]> senderOptions = SenderOptions
+            .<String, byte[]>create(kafkaProperties.getProducerProps())
+            // the values are serialized by the producers, see ir.ac.iust.comp.sa.service.serde
+            .withValueSerializer(new ByteArraySerializer())
+            .maxInFlight(applicationProperties.getEvents().getMaxInFlight())
+            // a failed record is reported in its result instead of cancelling the other records of the stream
+            .stopOnError(false);
+        return KafkaSender.create(senderOptions);
+    }
+}
@@ -0,0 +1,67 @@
+package ir.ac.iust.comp.sa.config;
+
+import ir.ac.iust.comp.sa.repository.search.ApplicationSearchRepository;
+import ir.ac.iust.comp.sa.repository.search.BitmapSearchRepository;
+import ir.ac.iust.comp.sa.repository.search.GameObjectSearchRepository;
+import ir.ac.iust.comp.sa.repository.search.LayerSearchRepository;
+import ir.ac.iust.comp.sa.repository.search.LuceneIndexes;
+import ir.ac.iust.comp.sa.repository.search.LuceneSearchRepositories;
+import ir.ac.iust.comp.sa.repository.search.ModificationTypeSearchRepository;
+import ir.ac.iust.comp.sa.repository.search.MyApplicationSearchRepository;
+import ir.ac.iust.comp.sa.repository.search.MyGameObjectSearchRepository;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.elasticsearch.core.convert.ElasticsearchConverter;
+
+/**
+ * Search repositories backed by embedded Lucene indices instead of Elasticsearch.
+ * <p>
+ * The indices are local to the instance, which only sees its own writes, so the profile is for single-instance
+ * deployments: the {@link ir.ac.iust.comp.sa.service.LuceneIndexBootstrap} fails the startup of a second instance
+ * sharing the database.
+ */
+@Configuration
+@Profile(Constants.SPRING_PROFILE_LUCENE)
+public class LuceneSearchConfiguration {
+
+    @Bean(destroyMethod = "close")
+    public LuceneIndexes luceneIndexes(ApplicationProperties applicationProperties) {
+        return new LuceneIndexes(applicationProperties.getSearch().getLucene());
+    }
+
+    @Bean
+    public ApplicationSearchRepository applicationSearchRepository(LuceneIndexes indexes, ElasticsearchConverter converter) {
+        return LuceneSearchRepositories.applications(indexes, converter);
+    }
+
+    @Bean
+    public BitmapSearchRepository bitmapSearchRepository(LuceneIndexes indexes, ElasticsearchConverter converter) {
+        return LuceneSearchRepositories.bitmaps(indexes, converter);
+    }
+
+    @Bean
+    public GameObjectSearchRepository gameObjectSearchRepository(LuceneIndexes indexes, ElasticsearchConverter converter) {
+        return LuceneSearchRepositories.gameObjects(indexes, converter);
+    }
+
+    @Bean
+    public LayerSearchRepository layerSearchRepository(LuceneIndexes indexes, ElasticsearchConverter converter) {
+        return LuceneSearchRepositories.layers(indexes, converter);
+    }
+
+    @Bean
+    public ModificationTypeSearchRepository modificationTypeSearchRepository(LuceneIndexes indexes, ElasticsearchConverter converter) {
+        return LuceneSearchRepositories.modificationTypes(indexes, converter);
+    }
+
+    @Bean
+    public MyApplicationSearchRepository myApplicationSearchRepository(LuceneIndexes indexes, ElasticsearchConverter converter) {
+        return LuceneSearchRepositories.myApplications(indexes, converter);
+    }
+
+    @Bean
+    public MyGameObjectSearchRepository myGameObjectSearchRepository(LuceneIndexes indexes, ElasticsearchConverter converter) {
+        return LuceneSearchRepositories.myGameObjects(indexes, converter);
+    }
+}
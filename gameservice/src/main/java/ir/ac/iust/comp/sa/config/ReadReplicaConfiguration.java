@@ -0,0 +1,94 @@
+package ir.ac.iust.comp.sa.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactory;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.r2dbc.ConnectionFactoryBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.transaction.ReactiveTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import reactor.core.publisher.Mono;
+
+/**
+ * Routes read-only transactions to the read replicas configured in {@code application.database.read-replicas}.
+ * <p>
+ * When no replica is configured the auto-configured {@link ConnectionFactory} is left untouched.
+ */
+@Configuration
+public class ReadReplicaConfiguration {
+
+    private static final Logger log = LoggerFactory.getLogger(ReadReplicaConfiguration.class);
+
+    @Bean
+    public static BeanPostProcessor readReplicaRoutingPostProcessor(
+        ObjectProvider<ApplicationProperties> applicationProperties,
+        ObjectProvider<MeterRegistry> meterRegistry
+    ) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof ConnectionFactory) || bean instanceof ReadReplicaRoutingConnectionFactory) {
+                    return bean;
+                }
+                ApplicationProperties.ReadReplicas properties = applicationProperties.getObject().getDatabase().getReadReplicas();
+                if (properties.getTargets().isEmpty()) {
+                    return bean;
+                }
+                log.info("Routing read-only transactions of '{}' to {} read replica(s)", beanName, properties.getTargets().size());
+                List<ConnectionPool> replicas = properties
+                    .getTargets()
+                    .stream()
+                    .map(replica -> createPool(replica, properties.getMaxPoolSize()))
+                    .collect(Collectors.toList());
+                return new ReadReplicaRoutingConnectionFactory((ConnectionFactory) bean, replicas, properties, meterRegistry.getObject());
+            }
+        };
+    }
+
+    @Bean
+    public ReactiveTransactionManager transactionManager(ConnectionFactory connectionFactory) {
+        return new ReadReplicaAwareTransactionManager(connectionFactory);
+    }
+
+    private static ConnectionPool createPool(ApplicationProperties.Replica replica, int maxPoolSize) {
+        ConnectionFactory connectionFactory = ConnectionFactoryBuilder
+            .withUrl(replica.getUrl())
+            .username(replica.getUsername())
+            .password(replica.getPassword())
+            .build();
+        if (connectionFactory instanceof ConnectionPool) {
+            return (ConnectionPool) connectionFactory;
+        }
+        return new ConnectionPool(ConnectionPoolConfiguration.builder(connectionFactory).maxSize(maxPoolSize).build());
+    }
+
+    /**
+     * Begins read-only transactions in a context routed to the read replicas.
+     */
+    static class ReadReplicaAwareTransactionManager extends R2dbcTransactionManager {
+
+        ReadReplicaAwareTransactionManager(ConnectionFactory connectionFactory) {
+            super(connectionFactory);
+        }
+
+        @Override
+        protected Mono<Void> doBegin(
+            TransactionSynchronizationManager synchronizationManager,
+            Object transaction,
+            TransactionDefinition definition
+        ) {
+            Mono<Void> begin = super.doBegin(synchronizationManager, transaction, definition);
+            return definition.isReadOnly() ? begin.contextWrite(ReadReplicaRoutingConnectionFactory.readOnly()) : begin;
+        }
+    }
+}
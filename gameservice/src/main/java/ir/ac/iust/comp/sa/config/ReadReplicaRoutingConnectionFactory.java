@@ -0,0 +1,189 @@
+package ir.ac.iust.comp.sa.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import io.r2dbc.spi.Wrapped;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.actuate.metrics.r2dbc.ConnectionPoolMetrics;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+/**
+ * {@link ConnectionFactory} sending the connections requested from a read-only context to the read replicas,
+ * and everything else to the primary.
+ * <p>
+ * Replicas are picked round-robin among those whose replication lag, measured periodically, is below the configured
+ * maximum. When no replica is usable, or when a replica fails to hand out a connection, the primary is used instead.
+ */
+public class ReadReplicaRoutingConnectionFactory implements ConnectionFactory, Wrapped<ConnectionFactory>, Disposable {
+
+    public static final String READ_ONLY_CONTEXT_KEY = ReadReplicaRoutingConnectionFactory.class.getName() + ".READ_ONLY";
+
+    private static final String PRIMARY_NAME = "primary";
+
+    private final Logger log = LoggerFactory.getLogger(ReadReplicaRoutingConnectionFactory.class);
+
+    private final Target primary;
+
+    private final List<Target> replicas = new ArrayList<>();
+
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    private final double maxLagSeconds;
+
+    private final Disposable.Composite lagChecks = Disposables.composite();
+
+    public ReadReplicaRoutingConnectionFactory(
+        ConnectionFactory primary,
+        List<ConnectionPool> replicaPools,
+        ApplicationProperties.ReadReplicas properties,
+        MeterRegistry meterRegistry
+    ) {
+        this.primary = new Target(PRIMARY_NAME, primary, meterRegistry);
+        this.maxLagSeconds = properties.getMaxLag().toMillis() / 1000d;
+        for (int i = 0; i < replicaPools.size(); i++) {
+            Target replica = new Target("replica-" + i, replicaPools.get(i), meterRegistry);
+            // not usable until its lag has been measured once
+            replica.lagSeconds = Double.POSITIVE_INFINITY;
+            Gauge
+                .builder("r2dbc.replica.lag", replica, target -> target.lagSeconds)
+                .tag("name", replica.name)
+                .baseUnit("seconds")
+                .register(meterRegistry);
+            replicas.add(replica);
+            lagChecks.add(scheduleLagCheck(replica, properties.getLagQuery(), properties.getLagCheckInterval()));
+        }
+    }
+
+    /**
+     * Marks the subscriber context so that connections acquired within it are routed to a read replica.
+     *
+     * @return the function to give to {@code contextWrite}.
+     */
+    public static Function<Context, Context> readOnly() {
+        return context -> context.put(READ_ONLY_CONTEXT_KEY, Boolean.TRUE);
+    }
+
+    @Override
+    public Mono<Connection> create() {
+        return Mono.deferContextual(context -> {
+            if (!context.getOrDefault(READ_ONLY_CONTEXT_KEY, Boolean.FALSE)) {
+                return primary.acquire();
+            }
+            Target replica = nextUsableReplica();
+            if (replica == null) {
+                return primary.acquire();
+            }
+            return replica
+                .acquire()
+                .onErrorResume(e -> {
+                    log.warn("Read replica {} is unavailable, falling back to the primary: {}", replica.name, e.getMessage());
+                    replica.lagSeconds = Double.POSITIVE_INFINITY;
+                    return primary.acquire();
+                });
+        });
+    }
+
+    @Override
+    public ConnectionFactoryMetadata getMetadata() {
+        return primary.connectionFactory.getMetadata();
+    }
+
+    @Override
+    public ConnectionFactory unwrap() {
+        return primary.connectionFactory;
+    }
+
+    @Override
+    public void dispose() {
+        lagChecks.dispose();
+        replicas.forEach(Target::dispose);
+        primary.dispose();
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return lagChecks.isDisposed();
+    }
+
+    private Target nextUsableReplica() {
+        for (int attempt = 0; attempt < replicas.size(); attempt++) {
+            Target replica = replicas.get(Math.floorMod(nextReplica.getAndIncrement(), replicas.size()));
+            if (replica.lagSeconds <= maxLagSeconds) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    private Disposable scheduleLagCheck(Target replica, String lagQuery, Duration interval) {
+        return Flux
+            .interval(Duration.ZERO, interval)
+            .concatMap(tick ->
+                Mono
+                    .usingWhen(
+                        replica.connectionFactory.create(),
+                        connection ->
+                            Flux
+                                .from(connection.createStatement(lagQuery).execute())
+                                .concatMap(result -> result.map((row, metadata) -> row.get(0)))
+                                .next()
+                                .map(lag -> ((Number) lag).doubleValue()),
+                        Connection::close
+                    )
+                    .timeout(interval)
+                    .onErrorResume(e -> {
+                        log.warn("Could not measure the replication lag of {}: {}", replica.name, e.getMessage());
+                        return Mono.just(Double.POSITIVE_INFINITY);
+                    })
+            )
+            .subscribe(lag -> replica.lagSeconds = lag);
+    }
+
+    private static class Target {
+
+        private final String name;
+        private final ConnectionFactory connectionFactory;
+        private final Counter acquisitions;
+        private volatile double lagSeconds;
+
+        Target(String name, ConnectionFactory connectionFactory, MeterRegistry meterRegistry) {
+            this.name = name;
+            this.connectionFactory = connectionFactory;
+            this.acquisitions =
+                Counter
+                    .builder("r2dbc.routing.acquisitions")
+                    .description("Connections handed out by the read replica router")
+                    .tag("name", name)
+                    .register(meterRegistry);
+            if (connectionFactory instanceof ConnectionPool) {
+                new ConnectionPoolMetrics((ConnectionPool) connectionFactory, name, Tags.empty()).bindTo(meterRegistry);
+            }
+        }
+
+        Mono<Connection> acquire() {
+            return Mono.<Connection>from(connectionFactory.create()).doOnNext(connection -> acquisitions.increment());
+        }
+
+        void dispose() {
+            if (connectionFactory instanceof Disposable) {
+                ((Disposable) connectionFactory).dispose();
+            }
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package ir.ac.iust.comp.sa.config;
+
+import ir.ac.iust.comp.sa.web.websocket.ChangeEventWebSocketHandler;
+import ir.ac.iust.comp.sa.web.websocket.PlayerInputWebSocketHandler;
+import ir.ac.iust.comp.sa.web.websocket.ScreenFrameWebSocketHandler;
+import java.util.Map;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.reactive.HandlerMapping;
+import org.springframework.web.reactive.handler.SimpleUrlHandlerMapping;
+
+/**
+ * Maps the WebSocket endpoints, ahead of the annotated controllers.
+ */
+@Configuration
+public class WebSocketConfiguration {
+
+    @Bean
+    public HandlerMapping webSocketHandlerMapping(
+        ChangeEventWebSocketHandler changeEventWebSocketHandler,
+        ScreenFrameWebSocketHandler screenFrameWebSocketHandler,
+        PlayerInputWebSocketHandler playerInputWebSocketHandler
+    ) {
+        return new SimpleUrlHandlerMapping(
+            Map.of(
+                ChangeEventWebSocketHandler.PATH,
+                changeEventWebSocketHandler,
+                ScreenFrameWebSocketHandler.PATH,
+                screenFrameWebSocketHandler,
+                PlayerInputWebSocketHandler.PATH,
+                playerInputWebSocketHandler
+            ),
+            Ordered.HIGHEST_PRECEDENCE
+        );
+    }
+}
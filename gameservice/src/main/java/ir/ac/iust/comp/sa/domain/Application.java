@@ -10,7 +10,6 @@ import org.springframework.data.relational.core.mapping.Table;
  * A Application.
  */
 @Table("application")
-@org.springframework.data.elasticsearch.annotations.Document(indexName = "application")
 public class Application implements Serializable {
 
     private static final long serialVersionUID = 1L;
@@ -10,7 +10,6 @@ import org.springframework.data.relational.core.mapping.Table;
  * A Bitmap.
  */
 @Table("bitmap")
-@org.springframework.data.elasticsearch.annotations.Document(indexName = "bitmap")
 public class Bitmap implements Serializable {
 
     private static final long serialVersionUID = 1L;
@@ -0,0 +1,231 @@
+package ir.ac.iust.comp.sa.domain;
+
+import java.io.Serializable;
+import java.time.Instant;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * A change of a GameObject or a Layer, journaled by the database triggers whatever the origin of the change.
+ * <p>
+ * The sequence number, from which a change feed subscriber resumes, is only set once the transaction journaling the
+ * change is over: entries are numbered in the order they become final, unlike their ids.
+ */
+@Table("change_feed_entry")
+public class ChangeFeedEntry implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @Column("id")
+    private Long id;
+
+    @Column("entity_type")
+    private String entityType;
+
+    @Column("entity_id")
+    private Long entityId;
+
+    @Column("application_id")
+    private Long applicationId;
+
+    @Column("change_type")
+    private String changeType;
+
+    @Column("x")
+    private Float x;
+
+    @Column("y")
+    private Float y;
+
+    @Column("is_enabled")
+    private Boolean isEnabled;
+
+    @Column("version")
+    private Long version;
+
+    @Column("sequence")
+    private Long sequence;
+
+    @Column("created_date")
+    private Instant createdDate;
+
+    public Long getId() {
+        return this.id;
+    }
+
+    public ChangeFeedEntry id(Long id) {
+        this.setId(id);
+        return this;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getEntityType() {
+        return this.entityType;
+    }
+
+    public ChangeFeedEntry entityType(String entityType) {
+        this.setEntityType(entityType);
+        return this;
+    }
+
+    public void setEntityType(String entityType) {
+        this.entityType = entityType;
+    }
+
+    public Long getEntityId() {
+        return this.entityId;
+    }
+
+    public ChangeFeedEntry entityId(Long entityId) {
+        this.setEntityId(entityId);
+        return this;
+    }
+
+    public void setEntityId(Long entityId) {
+        this.entityId = entityId;
+    }
+
+    public Long getApplicationId() {
+        return this.applicationId;
+    }
+
+    public ChangeFeedEntry applicationId(Long applicationId) {
+        this.setApplicationId(applicationId);
+        return this;
+    }
+
+    public void setApplicationId(Long applicationId) {
+        this.applicationId = applicationId;
+    }
+
+    public String getChangeType() {
+        return this.changeType;
+    }
+
+    public ChangeFeedEntry changeType(String changeType) {
+        this.setChangeType(changeType);
+        return this;
+    }
+
+    public void setChangeType(String changeType) {
+        this.changeType = changeType;
+    }
+
+    public Float getX() {
+        return this.x;
+    }
+
+    public ChangeFeedEntry x(Float x) {
+        this.setX(x);
+        return this;
+    }
+
+    public void setX(Float x) {
+        this.x = x;
+    }
+
+    public Float getY() {
+        return this.y;
+    }
+
+    public ChangeFeedEntry y(Float y) {
+        this.setY(y);
+        return this;
+    }
+
+    public void setY(Float y) {
+        this.y = y;
+    }
+
+    public Boolean getIsEnabled() {
+        return this.isEnabled;
+    }
+
+    public ChangeFeedEntry isEnabled(Boolean isEnabled) {
+        this.setIsEnabled(isEnabled);
+        return this;
+    }
+
+    public void setIsEnabled(Boolean isEnabled) {
+        this.isEnabled = isEnabled;
+    }
+
+    public Long getVersion() {
+        return this.version;
+    }
+
+    public ChangeFeedEntry version(Long version) {
+        this.setVersion(version);
+        return this;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public Long getSequence() {
+        return this.sequence;
+    }
+
+    public ChangeFeedEntry sequence(Long sequence) {
+        this.setSequence(sequence);
+        return this;
+    }
+
+    public void setSequence(Long sequence) {
+        this.sequence = sequence;
+    }
+
+    public Instant getCreatedDate() {
+        return this.createdDate;
+    }
+
+    public ChangeFeedEntry createdDate(Instant createdDate) {
+        this.setCreatedDate(createdDate);
+        return this;
+    }
+
+    public void setCreatedDate(Instant createdDate) {
+        this.createdDate = createdDate;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ChangeFeedEntry)) {
+            return false;
+        }
+        return id != null && id.equals(((ChangeFeedEntry) o).id);
+    }
+
+    @Override
+    public int hashCode() {
+        // see https://vladmihalcea.com/how-to-implement-equals-and-hashcode-using-the-jpa-entity-identifier/
+        return getClass().hashCode();
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "ChangeFeedEntry{" +
+            "id=" + getId() +
+            ", entityType='" + getEntityType() + "'" +
+            ", entityId=" + getEntityId() +
+            ", applicationId=" + getApplicationId() +
+            ", changeType='" + getChangeType() + "'" +
+            ", x=" + getX() +
+            ", y=" + getY() +
+            ", isEnabled='" + getIsEnabled() + "'" +
+            ", version=" + getVersion() +
+            ", sequence=" + getSequence() +
+            ", createdDate='" + getCreatedDate() + "'" +
+            "}";
+    }
+}
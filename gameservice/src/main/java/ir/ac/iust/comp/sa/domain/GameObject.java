@@ -3,6 +3,7 @@ package ir.ac.iust.comp.sa.domain;
 import java.io.Serializable;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.Transient;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.relational.core.mapping.Column;
 import org.springframework.data.relational.core.mapping.Table;
 
@@ -10,7 +11,6 @@ import org.springframework.data.relational.core.mapping.Table;
  * A GameObject.
  */
 @Table("game_object")
-@org.springframework.data.elasticsearch.annotations.Document(indexName = "gameobject")
 public class GameObject implements Serializable {
 
     private static final long serialVersionUID = 1L;
@@ -34,6 +34,13 @@ public class GameObject implements Serializable {
     @Column("is_enabled")
     private Boolean isEnabled;
 
+    @Version
+    @Column("version")
+    private Long version;
+
+    @Column("application_id")
+    private Long applicationId;
+
     // jhipster-needle-entity-add-field - JHipster will add fields here
 
     public Long getId() {
@@ -114,6 +121,32 @@ public class GameObject implements Serializable {
         this.isEnabled = isEnabled;
     }
 
+    public Long getVersion() {
+        return this.version;
+    }
+
+    public GameObject version(Long version) {
+        this.setVersion(version);
+        return this;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public Long getApplicationId() {
+        return this.applicationId;
+    }
+
+    public GameObject applicationId(Long applicationId) {
+        this.setApplicationId(applicationId);
+        return this;
+    }
+
+    public void setApplicationId(Long applicationId) {
+        this.applicationId = applicationId;
+    }
+
     // jhipster-needle-entity-add-getters-setters - JHipster will add getters and setters here
 
     @Override
@@ -143,6 +176,8 @@ public class GameObject implements Serializable {
             ", bitmap='" + getBitmap() + "'" +
             ", bitmapContentType='" + getBitmapContentType() + "'" +
             ", isEnabled='" + getIsEnabled() + "'" +
+            ", version=" + getVersion() +
+            ", applicationId=" + getApplicationId() +
             "}";
     }
 }
@@ -0,0 +1,94 @@
+package ir.ac.iust.comp.sa.domain;
+
+import java.io.Serializable;
+import java.time.Instant;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * A named lease held by one instance until it expires, e.g. the leadership of the search indexer.
+ * <p>
+ * The holder renews the lease before it expires, any instance can take it over afterwards.
+ */
+@Table("search_lease")
+public class SearchLease implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @Column("name")
+    private String name;
+
+    @Column("owner")
+    private String owner;
+
+    @Column("expires_at")
+    private Instant expiresAt;
+
+    public String getName() {
+        return this.name;
+    }
+
+    public SearchLease name(String name) {
+        this.setName(name);
+        return this;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getOwner() {
+        return this.owner;
+    }
+
+    public SearchLease owner(String owner) {
+        this.setOwner(owner);
+        return this;
+    }
+
+    public void setOwner(String owner) {
+        this.owner = owner;
+    }
+
+    public Instant getExpiresAt() {
+        return this.expiresAt;
+    }
+
+    public SearchLease expiresAt(Instant expiresAt) {
+        this.setExpiresAt(expiresAt);
+        return this;
+    }
+
+    public void setExpiresAt(Instant expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof SearchLease)) {
+            return false;
+        }
+        return name != null && name.equals(((SearchLease) o).name);
+    }
+
+    @Override
+    public int hashCode() {
+        // see https://vladmihalcea.com/how-to-implement-equals-and-hashcode-using-the-jpa-entity-identifier/
+        return getClass().hashCode();
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "SearchLease{" +
+            "name='" + getName() + "'" +
+            ", owner='" + getOwner() + "'" +
+            ", expiresAt='" + getExpiresAt() + "'" +
+            "}";
+    }
+}
@@ -0,0 +1,99 @@
+package ir.ac.iust.comp.sa.domain.search;
+
+import ir.ac.iust.comp.sa.domain.Application;
+import java.io.Serializable;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.elasticsearch.annotations.Document;
+import org.springframework.data.elasticsearch.annotations.Field;
+import org.springframework.data.elasticsearch.annotations.FieldType;
+
+/**
+ * The search document of a {@link Application}, holding its searchable fields but not its {@code screenBuffer}.
+ */
+@Document(indexName = "application")
+public class ApplicationSearchDocument implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    private Long id;
+
+    @Field(type = FieldType.Float)
+    private Float width;
+
+    @Field(type = FieldType.Float)
+    private Float height;
+
+    @Field(type = FieldType.Keyword)
+    private String screenBufferContentType;
+
+    /**
+     * Creates the search document of an entity.
+     *
+     * @param application the entity.
+     * @return the search document.
+     */
+    public static ApplicationSearchDocument of(Application application) {
+        ApplicationSearchDocument document = new ApplicationSearchDocument();
+        document.setId(application.getId());
+        document.setWidth(application.getWidth());
+        document.setHeight(application.getHeight());
+        document.setScreenBufferContentType(application.getScreenBufferContentType());
+        return document;
+    }
+
+    /**
+     * @return the entity holding the fields of this document, without its {@code screenBuffer}.
+     */
+    public Application toEntity() {
+        Application application = new Application();
+        application.setId(id);
+        application.setWidth(width);
+        application.setHeight(height);
+        application.setScreenBufferContentType(screenBufferContentType);
+        return application;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Float getWidth() {
+        return width;
+    }
+
+    public void setWidth(Float width) {
+        this.width = width;
+    }
+
+    public Float getHeight() {
+        return height;
+    }
+
+    public void setHeight(Float height) {
+        this.height = height;
+    }
+
+    public String getScreenBufferContentType() {
+        return screenBufferContentType;
+    }
+
+    public void setScreenBufferContentType(String screenBufferContentType) {
+        this.screenBufferContentType = screenBufferContentType;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "ApplicationSearchDocument{" +
+            "id=" + getId() +
+            ", width=" + getWidth() +
+            ", height=" + getHeight() +
+            ", screenBufferContentType='" + getScreenBufferContentType() + "'" +
+            "}";
+    }
+}
@@ -0,0 +1,71 @@
+package ir.ac.iust.comp.sa.domain.search;
+
+import ir.ac.iust.comp.sa.domain.Bitmap;
+import java.io.Serializable;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.elasticsearch.annotations.Document;
+import org.springframework.data.elasticsearch.annotations.Field;
+import org.springframework.data.elasticsearch.annotations.FieldType;
+
+/**
+ * The search document of a {@link Bitmap}, holding its searchable fields but not its {@code blob}.
+ */
+@Document(indexName = "bitmap")
+public class BitmapSearchDocument implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    private Long id;
+
+    @Field(type = FieldType.Keyword)
+    private String blobContentType;
+
+    /**
+     * Creates the search document of an entity.
+     *
+     * @param bitmap the entity.
+     * @return the search document.
+     */
+    public static BitmapSearchDocument of(Bitmap bitmap) {
+        BitmapSearchDocument document = new BitmapSearchDocument();
+        document.setId(bitmap.getId());
+        document.setBlobContentType(bitmap.getBlobContentType());
+        return document;
+    }
+
+    /**
+     * @return the entity holding the fields of this document, without its {@code blob}.
+     */
+    public Bitmap toEntity() {
+        Bitmap bitmap = new Bitmap();
+        bitmap.setId(id);
+        bitmap.setBlobContentType(blobContentType);
+        return bitmap;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getBlobContentType() {
+        return blobContentType;
+    }
+
+    public void setBlobContentType(String blobContentType) {
+        this.blobContentType = blobContentType;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "BitmapSearchDocument{" +
+            "id=" + getId() +
+            ", blobContentType='" + getBlobContentType() + "'" +
+            "}";
+    }
+}
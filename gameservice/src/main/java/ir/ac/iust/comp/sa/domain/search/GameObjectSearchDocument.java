@@ -0,0 +1,158 @@
+package ir.ac.iust.comp.sa.domain.search;
+
+import ir.ac.iust.comp.sa.domain.GameObject;
+import java.io.Serializable;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.elasticsearch.annotations.Document;
+import org.springframework.data.elasticsearch.annotations.Field;
+import org.springframework.data.elasticsearch.annotations.FieldType;
+import org.springframework.data.elasticsearch.annotations.GeoPointField;
+import org.springframework.data.elasticsearch.core.geo.GeoPoint;
+
+/**
+ * The search document of a {@link GameObject}, holding its searchable fields but not its {@code bitmap}.
+ */
+@Document(indexName = "gameobject")
+public class GameObjectSearchDocument implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    private Long id;
+
+    @Field(type = FieldType.Float)
+    private Float x;
+
+    @Field(type = FieldType.Float)
+    private Float y;
+
+    /**
+     * The position of the entity, see {@link SearchLocation}.
+     */
+    @GeoPointField
+    private GeoPoint location;
+
+    @Field(type = FieldType.Keyword)
+    private String bitmapContentType;
+
+    @Field(type = FieldType.Boolean)
+    private Boolean isEnabled;
+
+    @Field(type = FieldType.Long)
+    private Long version;
+
+    @Field(type = FieldType.Long)
+    private Long applicationId;
+
+    /**
+     * Creates the search document of an entity.
+     *
+     * @param gameObject the entity.
+     * @return the search document.
+     */
+    public static GameObjectSearchDocument of(GameObject gameObject) {
+        GameObjectSearchDocument document = new GameObjectSearchDocument();
+        document.setId(gameObject.getId());
+        document.setX(gameObject.getX());
+        document.setY(gameObject.getY());
+        document.setLocation(SearchLocation.of(gameObject.getX(), gameObject.getY()));
+        document.setBitmapContentType(gameObject.getBitmapContentType());
+        document.setIsEnabled(gameObject.getIsEnabled());
+        document.setVersion(gameObject.getVersion());
+        document.setApplicationId(gameObject.getApplicationId());
+        return document;
+    }
+
+    /**
+     * @return the entity holding the fields of this document, without its {@code bitmap}.
+     */
+    public GameObject toEntity() {
+        GameObject gameObject = new GameObject();
+        gameObject.setId(id);
+        gameObject.setX(x);
+        gameObject.setY(y);
+        gameObject.setBitmapContentType(bitmapContentType);
+        gameObject.setIsEnabled(isEnabled);
+        gameObject.setVersion(version);
+        gameObject.setApplicationId(applicationId);
+        return gameObject;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Float getX() {
+        return x;
+    }
+
+    public void setX(Float x) {
+        this.x = x;
+    }
+
+    public Float getY() {
+        return y;
+    }
+
+    public void setY(Float y) {
+        this.y = y;
+    }
+
+    public GeoPoint getLocation() {
+        return location;
+    }
+
+    public void setLocation(GeoPoint location) {
+        this.location = location;
+    }
+
+    public String getBitmapContentType() {
+        return bitmapContentType;
+    }
+
+    public void setBitmapContentType(String bitmapContentType) {
+        this.bitmapContentType = bitmapContentType;
+    }
+
+    public Boolean getIsEnabled() {
+        return isEnabled;
+    }
+
+    public void setIsEnabled(Boolean isEnabled) {
+        this.isEnabled = isEnabled;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public Long getApplicationId() {
+        return applicationId;
+    }
+
+    public void setApplicationId(Long applicationId) {
+        this.applicationId = applicationId;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "GameObjectSearchDocument{" +
+            "id=" + getId() +
+            ", x=" + getX() +
+            ", y=" + getY() +
+            ", bitmapContentType='" + getBitmapContentType() + "'" +
+            ", isEnabled=" + getIsEnabled() +
+            ", version=" + getVersion() +
+            ", applicationId=" + getApplicationId() +
+            "}";
+    }
+}
@@ -0,0 +1,158 @@
+package ir.ac.iust.comp.sa.domain.search;
+
+import ir.ac.iust.comp.sa.domain.Layer;
+import java.io.Serializable;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.elasticsearch.annotations.Document;
+import org.springframework.data.elasticsearch.annotations.Field;
+import org.springframework.data.elasticsearch.annotations.FieldType;
+import org.springframework.data.elasticsearch.annotations.GeoPointField;
+import org.springframework.data.elasticsearch.core.geo.GeoPoint;
+
+/**
+ * The search document of a {@link Layer}, holding its searchable fields but not its {@code buffer}.
+ */
+@Document(indexName = "layer")
+public class LayerSearchDocument implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    private Long id;
+
+    @Field(type = FieldType.Float)
+    private Float x;
+
+    @Field(type = FieldType.Float)
+    private Float y;
+
+    /**
+     * The position of the entity, see {@link SearchLocation}.
+     */
+    @GeoPointField
+    private GeoPoint location;
+
+    @Field(type = FieldType.Keyword)
+    private String bufferContentType;
+
+    @Field(type = FieldType.Boolean)
+    private Boolean isEnabled;
+
+    @Field(type = FieldType.Long)
+    private Long version;
+
+    @Field(type = FieldType.Long)
+    private Long applicationId;
+
+    /**
+     * Creates the search document of an entity.
+     *
+     * @param layer the entity.
+     * @return the search document.
+     */
+    public static LayerSearchDocument of(Layer layer) {
+        LayerSearchDocument document = new LayerSearchDocument();
+        document.setId(layer.getId());
+        document.setX(layer.getX());
+        document.setY(layer.getY());
+        document.setLocation(SearchLocation.of(layer.getX(), layer.getY()));
+        document.setBufferContentType(layer.getBufferContentType());
+        document.setIsEnabled(layer.getIsEnabled());
+        document.setVersion(layer.getVersion());
+        document.setApplicationId(layer.getApplicationId());
+        return document;
+    }
+
+    /**
+     * @return the entity holding the fields of this document, without its {@code buffer}.
+     */
+    public Layer toEntity() {
+        Layer layer = new Layer();
+        layer.setId(id);
+        layer.setX(x);
+        layer.setY(y);
+        layer.setBufferContentType(bufferContentType);
+        layer.setIsEnabled(isEnabled);
+        layer.setVersion(version);
+        layer.setApplicationId(applicationId);
+        return layer;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Float getX() {
+        return x;
+    }
+
+    public void setX(Float x) {
+        this.x = x;
+    }
+
+    public Float getY() {
+        return y;
+    }
+
+    public void setY(Float y) {
+        this.y = y;
+    }
+
+    public GeoPoint getLocation() {
+        return location;
+    }
+
+    public void setLocation(GeoPoint location) {
+        this.location = location;
+    }
+
+    public String getBufferContentType() {
+        return bufferContentType;
+    }
+
+    public void setBufferContentType(String bufferContentType) {
+        this.bufferContentType = bufferContentType;
+    }
+
+    public Boolean getIsEnabled() {
+        return isEnabled;
+    }
+
+    public void setIsEnabled(Boolean isEnabled) {
+        this.isEnabled = isEnabled;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public Long getApplicationId() {
+        return applicationId;
+    }
+
+    public void setApplicationId(Long applicationId) {
+        this.applicationId = applicationId;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "LayerSearchDocument{" +
+            "id=" + getId() +
+            ", x=" + getX() +
+            ", y=" + getY() +
+            ", bufferContentType='" + getBufferContentType() + "'" +
+            ", isEnabled=" + getIsEnabled() +
+            ", version=" + getVersion() +
+            ", applicationId=" + getApplicationId() +
+            "}";
+    }
+}
@@ -0,0 +1,99 @@
+package ir.ac.iust.comp.sa.domain.search;
+
+import java.util.concurrent.atomic.LongAdder;
+import org.springframework.data.elasticsearch.core.geo.GeoPoint;
+
+/**
+ * Projection of the planar {@code x}/{@code y} coordinates of the game onto the {@code geo_point} location of the
+ * search documents, so that proximity searches run on the BKD tree of the search engine.
+ * <p>
+ * Coordinates are scaled down to a small area around latitude and longitude 0, where the surface of the Earth is flat
+ * enough for geographic distances to be proportional to planar ones: the error stays under 0.02% within 100 000 units
+ * of the origin.
+ * <p>
+ * Only the coordinates within {@link #MAX_X} and {@link #MAX_Y} of the origin map to a location. The entities beyond
+ * are located on the edge of that area, and counted by {@link #clampedCount()}: proximity searches near the edge may
+ * match them, and no search can reach their actual position.
+ */
+public final class SearchLocation {
+
+    /**
+     * Name of the location field of the search documents.
+     */
+    public static final String FIELD = "location";
+
+    /**
+     * Units of the game coordinates per degree of latitude or longitude. Longitudes span 360 degrees and latitudes 180,
+     * which bounds the coordinates to {@link #MAX_X} and {@link #MAX_Y}.
+     */
+    private static final double UNITS_PER_DEGREE = 100_000;
+
+    /**
+     * Largest absolute {@code x} coordinate mapped to a location: 18 000 000 units.
+     */
+    public static final double MAX_X = 180 * UNITS_PER_DEGREE;
+
+    /**
+     * Largest absolute {@code y} coordinate mapped to a location: 9 000 000 units.
+     */
+    public static final double MAX_Y = 90 * UNITS_PER_DEGREE;
+
+    /**
+     * Length of a degree on the mean radius of the Earth used by Elasticsearch and Lucene.
+     */
+    private static final double METERS_PER_DEGREE = 2 * Math.PI * 6_371_008.7714 / 360;
+
+    private static final LongAdder clamped = new LongAdder();
+
+    private SearchLocation() {}
+
+    /**
+     * @param x the x coordinate of an entity, or {@code null}.
+     * @param y the y coordinate of an entity, or {@code null}.
+     * @return the location of the entity, on the edge of the searchable area if it is too far from the origin, or
+     * {@code null} if it has no position.
+     */
+    public static GeoPoint of(Float x, Float y) {
+        if (x == null || y == null || x.isNaN() || y.isNaN()) {
+            return null;
+        }
+        if (!isValid(x, y)) {
+            clamped.increment();
+            return point(Math.max(-MAX_X, Math.min(MAX_X, x)), Math.max(-MAX_Y, Math.min(MAX_Y, y)));
+        }
+        return point(x, y);
+    }
+
+    /**
+     * @return the number of locations moved to the edge of the searchable area by {@link #of(Float, Float)} since the
+     * start of the application.
+     */
+    public static long clampedCount() {
+        return clamped.sum();
+    }
+
+    /**
+     * @param x the x coordinate of a point.
+     * @param y the y coordinate of a point.
+     * @return the location of the point.
+     * @throws IllegalArgumentException if the point is too far from the origin to be located.
+     */
+    public static GeoPoint point(double x, double y) {
+        if (!isValid(x, y)) {
+            throw new IllegalArgumentException("Coordinates out of the searchable area: " + x + ", " + y);
+        }
+        return new GeoPoint(y / UNITS_PER_DEGREE, x / UNITS_PER_DEGREE);
+    }
+
+    /**
+     * @param distance a distance in units of the game coordinates.
+     * @return the distance in meters between the locations of two points at that distance.
+     */
+    public static double toMeters(double distance) {
+        return distance / UNITS_PER_DEGREE * METERS_PER_DEGREE;
+    }
+
+    private static boolean isValid(double x, double y) {
+        return Math.abs(x) <= MAX_X && Math.abs(y) <= MAX_Y;
+    }
+}
@@ -30,8 +30,10 @@ interface ApplicationRepositoryInternal {
     <S extends Application> Mono<S> insert(S entity);
     <S extends Application> Mono<S> save(S entity);
     Mono<Integer> update(Application entity);
+    Mono<Application> partialUpdate(Application entity);
 
     Flux<Application> findAll();
+    Flux<Application> findAllWithoutBlob();
     Mono<Application> findById(Long id);
     Flux<Application> findAllBy(Pageable pageable);
     Flux<Application> findAllBy(Pageable pageable, Criteria criteria);
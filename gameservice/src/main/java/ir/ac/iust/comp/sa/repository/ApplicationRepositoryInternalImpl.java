@@ -9,6 +9,7 @@ import ir.ac.iust.comp.sa.domain.Application;
 import ir.ac.iust.comp.sa.repository.rowmapper.ApplicationRowMapper;
 import ir.ac.iust.comp.sa.service.EntityManager;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -89,6 +90,17 @@ class ApplicationRepositoryInternalImpl implements ApplicationRepositoryInternal
         return findAllBy(null, null);
     }
 
+    @Override
+    public Flux<Application> findAllWithoutBlob() {
+        return entityManager.selectColumns(
+            "application",
+            ApplicationSqlHelper.getColumnNamesWithoutBlob(),
+            null,
+            Map.of(),
+            applicationMapper::applyWithoutBlob
+        );
+    }
+
     @Override
     public Mono<Application> findById(Long id) {
         return createQuery(null, where("id").is(id)).one();
@@ -124,6 +136,30 @@ class ApplicationRepositoryInternalImpl implements ApplicationRepositoryInternal
         //fixme is this the proper way?
         return r2dbcEntityTemplate.update(entity).thenReturn(1);
     }
+
+    @Override
+    public Mono<Application> partialUpdate(Application entity) {
+        Map<String, Object> assignments = new LinkedHashMap<>();
+        if (entity.getWidth() != null) {
+            assignments.put("width", entity.getWidth());
+        }
+        if (entity.getHeight() != null) {
+            assignments.put("height", entity.getHeight());
+        }
+        if (entity.getScreenBuffer() != null) {
+            assignments.put("screen_buffer", entity.getScreenBuffer());
+        }
+        if (entity.getScreenBufferContentType() != null) {
+            assignments.put("screen_buffer_content_type", entity.getScreenBufferContentType());
+        }
+        return entityManager.updateReturning(
+            "application",
+            entity.getId(),
+            assignments,
+            ApplicationSqlHelper.getColumnNamesWithoutBlob(),
+            applicationMapper::applyWithoutBlob
+        );
+    }
 }
 
 class ApplicationSqlHelper {
@@ -138,4 +174,8 @@ class ApplicationSqlHelper {
 
         return columns;
     }
+
+    static List<String> getColumnNamesWithoutBlob() {
+        return List.of("id", "width", "height", "screen_buffer_content_type");
+    }
 }
@@ -30,8 +30,10 @@ interface BitmapRepositoryInternal {
     <S extends Bitmap> Mono<S> insert(S entity);
     <S extends Bitmap> Mono<S> save(S entity);
     Mono<Integer> update(Bitmap entity);
+    Mono<Bitmap> partialUpdate(Bitmap entity);
 
     Flux<Bitmap> findAll();
+    Flux<Bitmap> findAllWithoutBlob();
     Mono<Bitmap> findById(Long id);
     Flux<Bitmap> findAllBy(Pageable pageable);
     Flux<Bitmap> findAllBy(Pageable pageable, Criteria criteria);
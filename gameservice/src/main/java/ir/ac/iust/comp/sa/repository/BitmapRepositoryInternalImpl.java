@@ -9,6 +9,7 @@ import ir.ac.iust.comp.sa.domain.Bitmap;
 import ir.ac.iust.comp.sa.repository.rowmapper.BitmapRowMapper;
 import ir.ac.iust.comp.sa.service.EntityManager;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -85,6 +86,17 @@ class BitmapRepositoryInternalImpl implements BitmapRepositoryInternal {
         return findAllBy(null, null);
     }
 
+    @Override
+    public Flux<Bitmap> findAllWithoutBlob() {
+        return entityManager.selectColumns(
+            "bitmap",
+            BitmapSqlHelper.getColumnNamesWithoutBlob(),
+            null,
+            Map.of(),
+            bitmapMapper::applyWithoutBlob
+        );
+    }
+
     @Override
     public Mono<Bitmap> findById(Long id) {
         return createQuery(null, where("id").is(id)).one();
@@ -120,6 +132,24 @@ class BitmapRepositoryInternalImpl implements BitmapRepositoryInternal {
         //fixme is this the proper way?
         return r2dbcEntityTemplate.update(entity).thenReturn(1);
     }
+
+    @Override
+    public Mono<Bitmap> partialUpdate(Bitmap entity) {
+        Map<String, Object> assignments = new LinkedHashMap<>();
+        if (entity.getBlob() != null) {
+            assignments.put("blob", entity.getBlob());
+        }
+        if (entity.getBlobContentType() != null) {
+            assignments.put("blob_content_type", entity.getBlobContentType());
+        }
+        return entityManager.updateReturning(
+            "bitmap",
+            entity.getId(),
+            assignments,
+            BitmapSqlHelper.getColumnNamesWithoutBlob(),
+            bitmapMapper::applyWithoutBlob
+        );
+    }
 }
 
 class BitmapSqlHelper {
@@ -132,4 +162,8 @@ class BitmapSqlHelper {
 
         return columns;
     }
+
+    static List<String> getColumnNamesWithoutBlob() {
+        return List.of("id", "blob_content_type");
+    }
 }
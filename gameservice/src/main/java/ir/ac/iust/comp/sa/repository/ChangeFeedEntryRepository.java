@@ -0,0 +1,103 @@
+package ir.ac.iust.comp.sa.repository;
+
+import static org.springframework.data.relational.core.query.Criteria.where;
+import static org.springframework.data.relational.core.query.Query.query;
+
+import ir.ac.iust.comp.sa.domain.ChangeFeedEntry;
+import java.time.Instant;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.data.relational.core.query.Criteria;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Spring Data SQL reactive repository for the ChangeFeedEntry entity.
+ */
+@Repository
+public interface ChangeFeedEntryRepository extends R2dbcRepository<ChangeFeedEntry, Long>, ChangeFeedEntryRepositoryInternal {}
+
+interface ChangeFeedEntryRepositoryInternal {
+    Flux<ChangeFeedEntry> findAfter(long sequence, String entityType, Long applicationId, int limit);
+
+    Mono<Long> findFirstSequence();
+
+    Mono<Long> findLastSequence();
+
+    /**
+     * Numbers the entries of the transactions that are over, see the {@code change_feed_sequence} function of the
+     * PostgreSQL changelog.
+     *
+     * @param batchSize the maximum number of entries to number.
+     * @return the number of entries numbered, or {@code -1} if another call is numbering entries.
+     */
+    Mono<Integer> sequence(int batchSize);
+
+    /**
+     * Deletes the entries created before a date, except the last numbered one, which tells how far the journal went.
+     *
+     * @param date the date.
+     * @return the number of entries deleted.
+     */
+    Mono<Integer> deleteCreatedBefore(Instant date);
+}
+
+class ChangeFeedEntryRepositoryInternalImpl implements ChangeFeedEntryRepositoryInternal {
+
+    private static final String SEQUENCE = "SELECT change_feed_sequence($1)";
+
+    private final R2dbcEntityTemplate r2dbcEntityTemplate;
+
+    ChangeFeedEntryRepositoryInternalImpl(R2dbcEntityTemplate r2dbcEntityTemplate) {
+        this.r2dbcEntityTemplate = r2dbcEntityTemplate;
+    }
+
+    @Override
+    public Flux<ChangeFeedEntry> findAfter(long sequence, String entityType, Long applicationId, int limit) {
+        Criteria criteria = where("sequence").greaterThan(sequence);
+        if (entityType != null) {
+            criteria = criteria.and("entity_type").is(entityType);
+        }
+        if (applicationId != null) {
+            criteria = criteria.and("application_id").is(applicationId);
+        }
+        return r2dbcEntityTemplate.select(query(criteria).sort(Sort.by("sequence")).limit(limit), ChangeFeedEntry.class);
+    }
+
+    @Override
+    public Mono<Long> findFirstSequence() {
+        return findLimitSequence(Sort.Direction.ASC);
+    }
+
+    @Override
+    public Mono<Long> findLastSequence() {
+        return findLimitSequence(Sort.Direction.DESC);
+    }
+
+    @Override
+    public Mono<Integer> sequence(int batchSize) {
+        return r2dbcEntityTemplate.getDatabaseClient().sql(SEQUENCE).bind(0, batchSize).map(row -> row.get(0, Integer.class)).one();
+    }
+
+    @Override
+    public Mono<Integer> deleteCreatedBefore(Instant date) {
+        // the entries not numbered yet are kept whatever their age
+        return findLastSequence()
+            .flatMap(last ->
+                r2dbcEntityTemplate.delete(
+                    query(where("created_date").lessThan(date).and("sequence").lessThan(last)),
+                    ChangeFeedEntry.class
+                )
+            )
+            .defaultIfEmpty(0);
+    }
+
+    private Mono<Long> findLimitSequence(Sort.Direction direction) {
+        return r2dbcEntityTemplate
+            .select(query(where("sequence").isNotNull()).sort(Sort.by(direction, "sequence")).limit(1), ChangeFeedEntry.class)
+            .next()
+            .map(ChangeFeedEntry::getSequence);
+    }
+}
@@ -0,0 +1,78 @@
+package ir.ac.iust.comp.sa.repository;
+
+import static org.springframework.data.relational.core.query.Criteria.where;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.data.relational.core.query.Criteria;
+import tech.jhipster.service.filter.Filter;
+import tech.jhipster.service.filter.RangeFilter;
+import tech.jhipster.service.filter.StringFilter;
+
+/**
+ * Translates the {@link Filter}s of a criteria class into a {@link Criteria} whose values are bound as parameters of
+ * the SQL select, so the filtering happens in the database.
+ */
+public class FilterCriteriaBuilder {
+
+    private final List<Criteria> criteria = new ArrayList<>();
+
+    /**
+     * Adds the conditions of a filter on the given property.
+     * @param property the name of the filtered property of the entity.
+     * @param filter the filter, or {@code null} if the property isn't filtered.
+     * @return this builder.
+     */
+    public FilterCriteriaBuilder filter(String property, Filter<?> filter) {
+        if (filter == null) {
+            return this;
+        }
+        if (filter.getEquals() != null) {
+            criteria.add(where(property).is(filter.getEquals()));
+        }
+        if (filter.getNotEquals() != null) {
+            criteria.add(where(property).not(filter.getNotEquals()));
+        }
+        if (filter.getSpecified() != null) {
+            criteria.add(filter.getSpecified() ? where(property).isNotNull() : where(property).isNull());
+        }
+        if (filter.getIn() != null) {
+            criteria.add(where(property).in(filter.getIn()));
+        }
+        if (filter.getNotIn() != null) {
+            criteria.add(where(property).notIn(filter.getNotIn()));
+        }
+        if (filter instanceof StringFilter) {
+            StringFilter stringFilter = (StringFilter) filter;
+            if (stringFilter.getContains() != null) {
+                criteria.add(where(property).like("%" + stringFilter.getContains() + "%"));
+            }
+            if (stringFilter.getDoesNotContain() != null) {
+                criteria.add(where(property).notLike("%" + stringFilter.getDoesNotContain() + "%"));
+            }
+        }
+        if (filter instanceof RangeFilter) {
+            RangeFilter<?> rangeFilter = (RangeFilter<?>) filter;
+            if (rangeFilter.getGreaterThan() != null) {
+                criteria.add(where(property).greaterThan(rangeFilter.getGreaterThan()));
+            }
+            if (rangeFilter.getGreaterThanOrEqual() != null) {
+                criteria.add(where(property).greaterThanOrEquals(rangeFilter.getGreaterThanOrEqual()));
+            }
+            if (rangeFilter.getLessThan() != null) {
+                criteria.add(where(property).lessThan(rangeFilter.getLessThan()));
+            }
+            if (rangeFilter.getLessThanOrEqual() != null) {
+                criteria.add(where(property).lessThanOrEquals(rangeFilter.getLessThanOrEqual()));
+            }
+        }
+        return this;
+    }
+
+    /**
+     * @return the conjunction of the conditions of all the filters.
+     */
+    public Criteria build() {
+        return criteria.isEmpty() ? Criteria.empty() : Criteria.from(criteria);
+    }
+}
@@ -0,0 +1,74 @@
+package ir.ac.iust.comp.sa.repository;
+
+/**
+ * The update of a game object applied by {@link GameObjectRepository#applyInputs}: its new position if set, moved by
+ * the offsets, and its new state if set.
+ */
+public final class GameObjectInputUpdate {
+
+    private final Long gameObjectId;
+
+    private final Float x;
+
+    private final Float y;
+
+    private final float dx;
+
+    private final float dy;
+
+    private final Boolean isEnabled;
+
+    /**
+     * @param gameObjectId the id of the game object.
+     * @param x the new x coordinate, or {@code null} to keep the current one.
+     * @param y the new y coordinate, or {@code null} to keep the current one.
+     * @param dx the offset added to the x coordinate.
+     * @param dy the offset added to the y coordinate.
+     * @param isEnabled the new state, or {@code null} to keep the current one.
+     */
+    public GameObjectInputUpdate(Long gameObjectId, Float x, Float y, float dx, float dy, Boolean isEnabled) {
+        this.gameObjectId = gameObjectId;
+        this.x = x;
+        this.y = y;
+        this.dx = dx;
+        this.dy = dy;
+        this.isEnabled = isEnabled;
+    }
+
+    public Long getGameObjectId() {
+        return gameObjectId;
+    }
+
+    public Float getX() {
+        return x;
+    }
+
+    public Float getY() {
+        return y;
+    }
+
+    public float getDx() {
+        return dx;
+    }
+
+    public float getDy() {
+        return dy;
+    }
+
+    public Boolean getIsEnabled() {
+        return isEnabled;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "GameObjectInputUpdate{" +
+            "gameObjectId=" + getGameObjectId() +
+            ", x=" + getX() +
+            ", y=" + getY() +
+            ", dx=" + getDx() +
+            ", dy=" + getDy() +
+            ", isEnabled='" + getIsEnabled() + "'" +
+            "}";
+    }
+}
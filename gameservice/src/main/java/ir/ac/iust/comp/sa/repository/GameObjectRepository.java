@@ -1,6 +1,8 @@
 package ir.ac.iust.comp.sa.repository;
 
 import ir.ac.iust.comp.sa.domain.GameObject;
+import ir.ac.iust.comp.sa.service.criteria.GameObjectCriteria;
+import java.util.Collection;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.r2dbc.repository.R2dbcRepository;
@@ -30,9 +32,19 @@ interface GameObjectRepositoryInternal {
     <S extends GameObject> Mono<S> insert(S entity);
     <S extends GameObject> Mono<S> save(S entity);
     Mono<Integer> update(GameObject entity);
+    Mono<GameObject> partialUpdate(GameObject entity);
+    Mono<Integer> applyInputs(Long applicationId, Collection<GameObjectInputUpdate> updates);
+    Mono<Integer> rotate(Long applicationId, Long id, float pivotX, float pivotY, double angle);
 
     Flux<GameObject> findAll();
+    Flux<GameObject> findAllWithoutBlob();
     Mono<GameObject> findById(Long id);
+    Mono<GameObject> findByIdWithoutBlob(Long id);
+    Flux<GameObject> findAllByIdWithoutBlob(Collection<Long> ids);
+    Flux<GameObject> findAllByApplicationIdWithoutBlob(Long applicationId);
+    Flux<GameObject> findAllInAreaWithoutBlob(Long applicationId, float minX, float minY, float maxX, float maxY);
     Flux<GameObject> findAllBy(Pageable pageable);
     Flux<GameObject> findAllBy(Pageable pageable, Criteria criteria);
+    Flux<GameObject> findByCriteria(GameObjectCriteria criteria, Pageable pageable);
+    Mono<Long> countByCriteria(GameObjectCriteria criteria);
 }
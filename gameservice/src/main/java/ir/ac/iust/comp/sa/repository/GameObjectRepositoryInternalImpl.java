@@ -3,12 +3,18 @@ package ir.ac.iust.comp.sa.repository;
 import static org.springframework.data.relational.core.query.Criteria.where;
 import static org.springframework.data.relational.core.query.Query.query;
 
+import io.r2dbc.spi.Result;
 import io.r2dbc.spi.Row;
 import io.r2dbc.spi.RowMetadata;
+import io.r2dbc.spi.Statement;
 import ir.ac.iust.comp.sa.domain.GameObject;
 import ir.ac.iust.comp.sa.repository.rowmapper.GameObjectRowMapper;
 import ir.ac.iust.comp.sa.service.EntityManager;
+import ir.ac.iust.comp.sa.service.criteria.GameObjectCriteria;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -18,7 +24,9 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
 import org.springframework.data.relational.core.query.Criteria;
 import org.springframework.data.relational.core.sql.Column;
+import org.springframework.data.relational.core.sql.Condition;
 import org.springframework.data.relational.core.sql.Expression;
+import org.springframework.data.relational.core.sql.SQL;
 import org.springframework.data.relational.core.sql.Select;
 import org.springframework.data.relational.core.sql.SelectBuilder.SelectFromAndJoin;
 import org.springframework.data.relational.core.sql.Table;
@@ -41,6 +49,14 @@ class GameObjectRepositoryInternalImpl implements GameObjectRepositoryInternal {
 
     private static final Table entityTable = Table.aliased("game_object", EntityManager.ENTITY_ALIAS);
 
+    private static final String APPLY_INPUTS =
+        "UPDATE game_object SET x = COALESCE($1, x) + $2, y = COALESCE($3, y) + $4, is_enabled = COALESCE($5, is_enabled), " +
+        "version = version + 1 WHERE id = $6 AND application_id = $7";
+
+    private static final String ROTATE =
+        "UPDATE game_object SET x = $1 + (x - $1) * $3 - (y - $2) * $4, y = $2 + (x - $1) * $4 + (y - $2) * $3, " +
+        "version = version + 1 WHERE id = $5 AND application_id = $6";
+
     public GameObjectRepositoryInternalImpl(
         R2dbcEntityTemplate template,
         EntityManager entityManager,
@@ -84,16 +100,85 @@ class GameObjectRepositoryInternalImpl implements GameObjectRepositoryInternal {
         return db.sql(selectWhere).map(this::process);
     }
 
+    @Override
+    public Flux<GameObject> findByCriteria(GameObjectCriteria criteria, Pageable pageable) {
+        return r2dbcEntityTemplate.select(query(buildCriteria(criteria)).with(pageable), GameObject.class);
+    }
+
+    @Override
+    public Mono<Long> countByCriteria(GameObjectCriteria criteria) {
+        return r2dbcEntityTemplate.count(query(buildCriteria(criteria)), GameObject.class);
+    }
+
+    private Criteria buildCriteria(GameObjectCriteria criteria) {
+        return new FilterCriteriaBuilder()
+            .filter("id", criteria.getId())
+            .filter("x", criteria.getX())
+            .filter("y", criteria.getY())
+            .filter("bitmapContentType", criteria.getBitmapContentType())
+            .filter("isEnabled", criteria.getIsEnabled())
+            .filter("applicationId", criteria.getApplicationId())
+            .build();
+    }
+
     @Override
     public Flux<GameObject> findAll() {
         return findAllBy(null, null);
     }
 
+    @Override
+    public Flux<GameObject> findAllWithoutBlob() {
+        return selectWithoutBlob(null, Map.of());
+    }
+
     @Override
     public Mono<GameObject> findById(Long id) {
         return createQuery(null, where("id").is(id)).one();
     }
 
+    @Override
+    public Mono<GameObject> findByIdWithoutBlob(Long id) {
+        return selectWithoutBlob(entityTable.column("id").isEqualTo(SQL.bindMarker(":id")), Map.of("id", id)).singleOrEmpty();
+    }
+
+    @Override
+    public Flux<GameObject> findAllByIdWithoutBlob(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Flux.empty();
+        }
+        return selectWithoutBlob(entityTable.column("id").in(ids.stream().map(SQL::literalOf).toArray(Expression[]::new)), Map.of());
+    }
+
+    @Override
+    public Flux<GameObject> findAllByApplicationIdWithoutBlob(Long applicationId) {
+        return selectWithoutBlob(
+            entityTable.column("application_id").isEqualTo(SQL.bindMarker(":applicationId")),
+            Map.of("applicationId", applicationId)
+        );
+    }
+
+    @Override
+    public Flux<GameObject> findAllInAreaWithoutBlob(Long applicationId, float minX, float minY, float maxX, float maxY) {
+        Condition inArea = entityTable
+            .column("application_id")
+            .isEqualTo(SQL.bindMarker(":applicationId"))
+            .and(entityTable.column("x").isGreaterOrEqualTo(SQL.bindMarker(":minX")))
+            .and(entityTable.column("x").isLessOrEqualTo(SQL.bindMarker(":maxX")))
+            .and(entityTable.column("y").isGreaterOrEqualTo(SQL.bindMarker(":minY")))
+            .and(entityTable.column("y").isLessOrEqualTo(SQL.bindMarker(":maxY")));
+        return selectWithoutBlob(inArea, Map.of("applicationId", applicationId, "minX", minX, "maxX", maxX, "minY", minY, "maxY", maxY));
+    }
+
+    private Flux<GameObject> selectWithoutBlob(Condition condition, Map<String, ?> bindings) {
+        return entityManager.selectColumns(
+            "game_object",
+            GameObjectSqlHelper.getColumnNamesWithoutBlob(),
+            condition,
+            bindings,
+            gameobjectMapper::applyWithoutBlob
+        );
+    }
+
     private GameObject process(Row row, RowMetadata metadata) {
         GameObject entity = gameobjectMapper.apply(row, "e");
         return entity;
@@ -122,7 +207,97 @@ class GameObjectRepositoryInternalImpl implements GameObjectRepositoryInternal {
     @Override
     public Mono<Integer> update(GameObject entity) {
         //fixme is this the proper way?
-        return r2dbcEntityTemplate.update(entity).thenReturn(1);
+        return entityManager.update(entity).thenReturn(1);
+    }
+
+    @Override
+    public Mono<GameObject> partialUpdate(GameObject entity) {
+        Map<String, Object> assignments = new LinkedHashMap<>();
+        if (entity.getX() != null) {
+            assignments.put("x", entity.getX());
+        }
+        if (entity.getY() != null) {
+            assignments.put("y", entity.getY());
+        }
+        if (entity.getBitmap() != null) {
+            assignments.put("bitmap", entity.getBitmap());
+        }
+        if (entity.getBitmapContentType() != null) {
+            assignments.put("bitmap_content_type", entity.getBitmapContentType());
+        }
+        if (entity.getIsEnabled() != null) {
+            assignments.put("is_enabled", entity.getIsEnabled());
+        }
+        if (entity.getApplicationId() != null) {
+            assignments.put("application_id", entity.getApplicationId());
+        }
+        return entityManager.updateVersionedReturning(
+            "game_object",
+            entity.getId(),
+            entity.getVersion(),
+            assignments,
+            GameObjectSqlHelper.getColumnNamesWithoutBlob(),
+            gameobjectMapper::applyWithoutBlob
+        );
+    }
+
+    @Override
+    public Mono<Integer> applyInputs(Long applicationId, Collection<GameObjectInputUpdate> updates) {
+        if (updates.isEmpty()) {
+            return Mono.just(0);
+        }
+        // a single statement, executed with a binding per game object
+        return db
+            .inConnectionMany(connection -> {
+                Statement statement = connection.createStatement(APPLY_INPUTS);
+                Iterator<GameObjectInputUpdate> iterator = updates.iterator();
+                while (iterator.hasNext()) {
+                    GameObjectInputUpdate update = iterator.next();
+                    bindNullable(statement, 0, update.getX());
+                    statement.bind(1, update.getDx());
+                    bindNullable(statement, 2, update.getY());
+                    statement.bind(3, update.getDy());
+                    bindNullable(statement, 4, update.getIsEnabled());
+                    statement.bind(5, update.getGameObjectId());
+                    statement.bind(6, applicationId);
+                    if (iterator.hasNext()) {
+                        statement.add();
+                    }
+                }
+                return Flux.from(statement.execute()).flatMap(Result::getRowsUpdated);
+            })
+            .reduce(0, Integer::sum);
+    }
+
+    @Override
+    public Mono<Integer> rotate(Long applicationId, Long id, float pivotX, float pivotY, double angle) {
+        // both coordinates are computed from the position before the update
+        return db
+            .sql(ROTATE)
+            .bind(0, pivotX)
+            .bind(1, pivotY)
+            .bind(2, (float) Math.cos(angle))
+            .bind(3, (float) Math.sin(angle))
+            .bind(4, id)
+            .bind(5, applicationId)
+            .fetch()
+            .rowsUpdated();
+    }
+
+    private static void bindNullable(Statement statement, int index, Float value) {
+        if (value == null) {
+            statement.bindNull(index, Float.class);
+        } else {
+            statement.bind(index, value);
+        }
+    }
+
+    private static void bindNullable(Statement statement, int index, Boolean value) {
+        if (value == null) {
+            statement.bindNull(index, Boolean.class);
+        } else {
+            statement.bind(index, value);
+        }
     }
 }
 
@@ -136,7 +311,13 @@ class GameObjectSqlHelper {
         columns.add(Column.aliased("bitmap", table, columnPrefix + "_bitmap"));
         columns.add(Column.aliased("bitmap_content_type", table, columnPrefix + "_bitmap_content_type"));
         columns.add(Column.aliased("is_enabled", table, columnPrefix + "_is_enabled"));
+        columns.add(Column.aliased("version", table, columnPrefix + "_version"));
+        columns.add(Column.aliased("application_id", table, columnPrefix + "_application_id"));
 
         return columns;
     }
+
+    static List<String> getColumnNamesWithoutBlob() {
+        return List.of("id", "x", "y", "bitmap_content_type", "is_enabled", "version", "application_id");
+    }
 }
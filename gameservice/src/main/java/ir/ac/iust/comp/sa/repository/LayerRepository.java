@@ -1,6 +1,7 @@
 package ir.ac.iust.comp.sa.repository;
 
 import ir.ac.iust.comp.sa.domain.Layer;
+import ir.ac.iust.comp.sa.service.criteria.LayerCriteria;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.r2dbc.repository.R2dbcRepository;
@@ -32,9 +33,15 @@ interface LayerRepositoryInternal {
     <S extends Layer> Mono<S> insert(S entity);
     <S extends Layer> Mono<S> save(S entity);
     Mono<Integer> update(Layer entity);
+    Mono<Layer> partialUpdate(Layer entity);
 
     Flux<Layer> findAll();
+    Flux<Layer> findAllWithoutBlob();
     Mono<Layer> findById(Long id);
+    Mono<Layer> findByIdWithoutBlob(Long id);
+    Flux<Layer> findAllByApplicationIdWithoutBlob(Long applicationId);
     Flux<Layer> findAllBy(Pageable pageable);
     Flux<Layer> findAllBy(Pageable pageable, Criteria criteria);
+    Flux<Layer> findByCriteria(LayerCriteria criteria, Pageable pageable);
+    Mono<Long> countByCriteria(LayerCriteria criteria);
 }
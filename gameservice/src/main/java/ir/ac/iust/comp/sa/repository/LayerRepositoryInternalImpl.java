@@ -8,7 +8,9 @@ import io.r2dbc.spi.RowMetadata;
 import ir.ac.iust.comp.sa.domain.Layer;
 import ir.ac.iust.comp.sa.repository.rowmapper.LayerRowMapper;
 import ir.ac.iust.comp.sa.service.EntityManager;
+import ir.ac.iust.comp.sa.service.criteria.LayerCriteria;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -18,7 +20,9 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
 import org.springframework.data.relational.core.query.Criteria;
 import org.springframework.data.relational.core.sql.Column;
+import org.springframework.data.relational.core.sql.Condition;
 import org.springframework.data.relational.core.sql.Expression;
+import org.springframework.data.relational.core.sql.SQL;
 import org.springframework.data.relational.core.sql.Select;
 import org.springframework.data.relational.core.sql.SelectBuilder.SelectFromAndJoin;
 import org.springframework.data.relational.core.sql.Table;
@@ -80,6 +84,27 @@ class LayerRepositoryInternalImpl implements LayerRepositoryInternal {
         return db.sql(selectWhere).map(this::process);
     }
 
+    @Override
+    public Flux<Layer> findByCriteria(LayerCriteria criteria, Pageable pageable) {
+        return r2dbcEntityTemplate.select(query(buildCriteria(criteria)).with(pageable), Layer.class);
+    }
+
+    @Override
+    public Mono<Long> countByCriteria(LayerCriteria criteria) {
+        return r2dbcEntityTemplate.count(query(buildCriteria(criteria)), Layer.class);
+    }
+
+    private Criteria buildCriteria(LayerCriteria criteria) {
+        return new FilterCriteriaBuilder()
+            .filter("id", criteria.getId())
+            .filter("x", criteria.getX())
+            .filter("y", criteria.getY())
+            .filter("bufferContentType", criteria.getBufferContentType())
+            .filter("isEnabled", criteria.getIsEnabled())
+            .filter("applicationId", criteria.getApplicationId())
+            .build();
+    }
+
     @Override
     public Flux<Layer> findAll() {
         return findAllBy(null, null);
@@ -90,6 +115,34 @@ class LayerRepositoryInternalImpl implements LayerRepositoryInternal {
         return createQuery(null, where("id").is(id)).one();
     }
 
+    @Override
+    public Flux<Layer> findAllWithoutBlob() {
+        return selectWithoutBlob(null, Map.of());
+    }
+
+    @Override
+    public Mono<Layer> findByIdWithoutBlob(Long id) {
+        return selectWithoutBlob(entityTable.column("id").isEqualTo(SQL.bindMarker(":id")), Map.of("id", id)).singleOrEmpty();
+    }
+
+    @Override
+    public Flux<Layer> findAllByApplicationIdWithoutBlob(Long applicationId) {
+        return selectWithoutBlob(
+            entityTable.column("application_id").isEqualTo(SQL.bindMarker(":applicationId")),
+            Map.of("applicationId", applicationId)
+        );
+    }
+
+    private Flux<Layer> selectWithoutBlob(Condition condition, Map<String, ?> bindings) {
+        return entityManager.selectColumns(
+            "layer",
+            LayerSqlHelper.getColumnNamesWithoutBlob(),
+            condition,
+            bindings,
+            layerMapper::applyWithoutBlob
+        );
+    }
+
     private Layer process(Row row, RowMetadata metadata) {
         Layer entity = layerMapper.apply(row, "e");
         return entity;
@@ -118,7 +171,38 @@ class LayerRepositoryInternalImpl implements LayerRepositoryInternal {
     @Override
     public Mono<Integer> update(Layer entity) {
         //fixme is this the proper way?
-        return r2dbcEntityTemplate.update(entity).thenReturn(1);
+        return entityManager.update(entity).thenReturn(1);
+    }
+
+    @Override
+    public Mono<Layer> partialUpdate(Layer entity) {
+        Map<String, Object> assignments = new LinkedHashMap<>();
+        if (entity.getX() != null) {
+            assignments.put("x", entity.getX());
+        }
+        if (entity.getY() != null) {
+            assignments.put("y", entity.getY());
+        }
+        if (entity.getBuffer() != null) {
+            assignments.put("buffer", entity.getBuffer());
+        }
+        if (entity.getBufferContentType() != null) {
+            assignments.put("buffer_content_type", entity.getBufferContentType());
+        }
+        if (entity.getIsEnabled() != null) {
+            assignments.put("is_enabled", entity.getIsEnabled());
+        }
+        if (entity.getApplicationId() != null) {
+            assignments.put("application_id", entity.getApplicationId());
+        }
+        return entityManager.updateVersionedReturning(
+            "layer",
+            entity.getId(),
+            entity.getVersion(),
+            assignments,
+            LayerSqlHelper.getColumnNamesWithoutBlob(),
+            layerMapper::applyWithoutBlob
+        );
     }
 }
 
@@ -132,7 +216,13 @@ class LayerSqlHelper {
         columns.add(Column.aliased("buffer", table, columnPrefix + "_buffer"));
         columns.add(Column.aliased("buffer_content_type", table, columnPrefix + "_buffer_content_type"));
         columns.add(Column.aliased("is_enabled", table, columnPrefix + "_is_enabled"));
+        columns.add(Column.aliased("version", table, columnPrefix + "_version"));
+        columns.add(Column.aliased("application_id", table, columnPrefix + "_application_id"));
 
         return columns;
     }
+
+    static List<String> getColumnNamesWithoutBlob() {
+        return List.of("id", "x", "y", "buffer_content_type", "is_enabled", "version", "application_id");
+    }
 }
@@ -0,0 +1,101 @@
+package ir.ac.iust.comp.sa.repository;
+
+import static org.springframework.data.relational.core.query.Criteria.where;
+import static org.springframework.data.relational.core.query.Query.query;
+
+import ir.ac.iust.comp.sa.domain.SearchLease;
+import java.time.Duration;
+import java.time.Instant;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.data.relational.core.query.Update;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Spring Data SQL reactive repository for the SearchLease entity.
+ */
+@Repository
+public interface SearchLeaseRepository extends R2dbcRepository<SearchLease, String>, SearchLeaseRepositoryInternal {}
+
+interface SearchLeaseRepositoryInternal {
+    /**
+     * Acquires or renews a lease, unless another owner holds it and it hasn't expired yet.
+     *
+     * @param name the name of the lease.
+     * @param owner the id of the instance acquiring it.
+     * @param duration the time the lease is held for, unless it is renewed.
+     * @return whether the owner holds the lease.
+     */
+    Mono<Boolean> acquire(String name, String owner, Duration duration);
+
+    /**
+     * Releases a lease, if it is held by the given owner.
+     *
+     * @param name the name of the lease.
+     * @param owner the id of the instance holding it.
+     * @return a {@link Mono} completing once the lease is released.
+     */
+    Mono<Void> release(String name, String owner);
+
+    /**
+     * @param prefix the prefix of the names of the leases.
+     * @return the leases whose name starts with the prefix and that haven't expired yet.
+     */
+    Flux<SearchLease> findHeld(String prefix);
+}
+
+class SearchLeaseRepositoryInternalImpl implements SearchLeaseRepositoryInternal {
+
+    private final R2dbcEntityTemplate r2dbcEntityTemplate;
+
+    SearchLeaseRepositoryInternalImpl(R2dbcEntityTemplate r2dbcEntityTemplate) {
+        this.r2dbcEntityTemplate = r2dbcEntityTemplate;
+    }
+
+    @Override
+    public Mono<Boolean> acquire(String name, String owner, Duration duration) {
+        return Mono.defer(() -> {
+            Instant now = Instant.now();
+            Instant expiresAt = now.plus(duration);
+            // the conditions are checked again on the row once locked, so only one of concurrent owners updates it
+            return r2dbcEntityTemplate
+                .update(
+                    query(where("name").is(name).and(where("owner").is(owner).or("expires_at").lessThan(now))),
+                    Update.update("owner", owner).set("expires_at", expiresAt),
+                    SearchLease.class
+                )
+                .flatMap(updated -> {
+                    if (updated > 0) {
+                        return Mono.just(true);
+                    }
+                    SearchLease lease = new SearchLease().name(name).owner(owner).expiresAt(expiresAt);
+                    return r2dbcEntityTemplate
+                        .exists(query(where("name").is(name)), SearchLease.class)
+                        .flatMap(exists -> exists ? Mono.just(false) : insert(lease));
+                });
+        });
+    }
+
+    @Override
+    public Mono<Void> release(String name, String owner) {
+        return r2dbcEntityTemplate.delete(query(where("name").is(name).and("owner").is(owner)), SearchLease.class).then();
+    }
+
+    @Override
+    public Flux<SearchLease> findHeld(String prefix) {
+        return Flux.defer(() ->
+            r2dbcEntityTemplate.select(
+                query(where("name").like(prefix + "%").and("expires_at").greaterThan(Instant.now())),
+                SearchLease.class
+            )
+        );
+    }
+
+    private Mono<Boolean> insert(SearchLease lease) {
+        // another owner inserted it first
+        return r2dbcEntityTemplate.insert(lease).thenReturn(true).onErrorReturn(DataIntegrityViolationException.class, false);
+    }
+}
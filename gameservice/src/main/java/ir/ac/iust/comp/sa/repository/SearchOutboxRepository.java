@@ -0,0 +1,74 @@
+package ir.ac.iust.comp.sa.repository;
+
+import static org.springframework.data.relational.core.query.Criteria.where;
+import static org.springframework.data.relational.core.query.Query.query;
+
+import ir.ac.iust.comp.sa.domain.SearchOutboxEntry;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Iterator;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.data.relational.core.query.Criteria;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Spring Data SQL reactive repository for the SearchOutboxEntry entity.
+ */
+@Repository
+public interface SearchOutboxRepository extends R2dbcRepository<SearchOutboxEntry, Long>, SearchOutboxRepositoryInternal {
+    @Query("SELECT * FROM search_outbox ORDER BY id LIMIT :limit")
+    Flux<SearchOutboxEntry> findOldest(int limit);
+}
+
+interface SearchOutboxRepositoryInternal {
+    Flux<SearchOutboxEntry> findOldest(int limit, Collection<String> excludedEntityTypes);
+
+    /**
+     * Inserts the entries of entities of the same type with a single multi-row insert.
+     *
+     * @param entityType the type of the entities.
+     * @param entityIds the ids of the entities.
+     * @param createdDate the creation date of the entries.
+     * @return the number of entries inserted.
+     */
+    Mono<Integer> insertAll(String entityType, Collection<Long> entityIds, Instant createdDate);
+}
+
+class SearchOutboxRepositoryInternalImpl implements SearchOutboxRepositoryInternal {
+
+    private final R2dbcEntityTemplate r2dbcEntityTemplate;
+
+    SearchOutboxRepositoryInternalImpl(R2dbcEntityTemplate r2dbcEntityTemplate) {
+        this.r2dbcEntityTemplate = r2dbcEntityTemplate;
+    }
+
+    @Override
+    public Flux<SearchOutboxEntry> findOldest(int limit, Collection<String> excludedEntityTypes) {
+        Criteria criteria = excludedEntityTypes.isEmpty() ? Criteria.empty() : where("entity_type").notIn(excludedEntityTypes);
+        return r2dbcEntityTemplate.select(query(criteria).sort(Sort.by("id")).limit(limit), SearchOutboxEntry.class);
+    }
+
+    @Override
+    public Mono<Integer> insertAll(String entityType, Collection<Long> entityIds, Instant createdDate) {
+        if (entityIds.isEmpty()) {
+            return Mono.just(0);
+        }
+        StringBuilder sql = new StringBuilder("INSERT INTO search_outbox (entity_type, entity_id, created_date) VALUES ");
+        for (int index = 0; index < entityIds.size(); index++) {
+            sql.append(index == 0 ? "" : ", ").append("($").append(3 * index + 1).append(", $").append(3 * index + 2);
+            sql.append(", $").append(3 * index + 3).append(')');
+        }
+        DatabaseClient.GenericExecuteSpec statement = r2dbcEntityTemplate.getDatabaseClient().sql(sql.toString());
+        Iterator<Long> ids = entityIds.iterator();
+        for (int index = 0; ids.hasNext(); index++) {
+            statement = statement.bind(3 * index, entityType).bind(3 * index + 1, ids.next()).bind(3 * index + 2, createdDate);
+        }
+        return statement.fetch().rowsUpdated();
+    }
+}
@@ -32,4 +32,17 @@ public class ApplicationRowMapper implements BiFunction<Row, String, Application
         entity.setScreenBuffer(converter.fromRow(row, prefix + "_screen_buffer", byte[].class));
         return entity;
     }
+
+    /**
+     * Take a {@link Row} and a column prefix, and extract all the fields except the binary content, which is left {@code null}.
+     * @return the {@link Application} stored in the database, without its screenBuffer.
+     */
+    public Application applyWithoutBlob(Row row, String prefix) {
+        Application entity = new Application();
+        entity.setId(converter.fromRow(row, prefix + "_id", Long.class));
+        entity.setWidth(converter.fromRow(row, prefix + "_width", Float.class));
+        entity.setHeight(converter.fromRow(row, prefix + "_height", Float.class));
+        entity.setScreenBufferContentType(converter.fromRow(row, prefix + "_screen_buffer_content_type", String.class));
+        return entity;
+    }
 }
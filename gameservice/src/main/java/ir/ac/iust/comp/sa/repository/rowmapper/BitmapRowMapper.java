@@ -30,4 +30,15 @@ public class BitmapRowMapper implements BiFunction<Row, String, Bitmap> {
         entity.setBlob(converter.fromRow(row, prefix + "_blob", byte[].class));
         return entity;
     }
+
+    /**
+     * Take a {@link Row} and a column prefix, and extract all the fields except the binary content, which is left {@code null}.
+     * @return the {@link Bitmap} stored in the database, without its blob.
+     */
+    public Bitmap applyWithoutBlob(Row row, String prefix) {
+        Bitmap entity = new Bitmap();
+        entity.setId(converter.fromRow(row, prefix + "_id", Long.class));
+        entity.setBlobContentType(converter.fromRow(row, prefix + "_blob_content_type", String.class));
+        return entity;
+    }
 }
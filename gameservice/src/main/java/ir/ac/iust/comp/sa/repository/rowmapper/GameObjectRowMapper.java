@@ -31,6 +31,24 @@ public class GameObjectRowMapper implements BiFunction<Row, String, GameObject>
         entity.setBitmapContentType(converter.fromRow(row, prefix + "_bitmap_content_type", String.class));
         entity.setBitmap(converter.fromRow(row, prefix + "_bitmap", byte[].class));
         entity.setIsEnabled(converter.fromRow(row, prefix + "_is_enabled", Boolean.class));
+        entity.setVersion(converter.fromRow(row, prefix + "_version", Long.class));
+        entity.setApplicationId(converter.fromRow(row, prefix + "_application_id", Long.class));
+        return entity;
+    }
+
+    /**
+     * Take a {@link Row} and a column prefix, and extract all the fields except the binary content, which is left {@code null}.
+     * @return the {@link GameObject} stored in the database, without its bitmap.
+     */
+    public GameObject applyWithoutBlob(Row row, String prefix) {
+        GameObject entity = new GameObject();
+        entity.setId(converter.fromRow(row, prefix + "_id", Long.class));
+        entity.setX(converter.fromRow(row, prefix + "_x", Float.class));
+        entity.setY(converter.fromRow(row, prefix + "_y", Float.class));
+        entity.setBitmapContentType(converter.fromRow(row, prefix + "_bitmap_content_type", String.class));
+        entity.setIsEnabled(converter.fromRow(row, prefix + "_is_enabled", Boolean.class));
+        entity.setVersion(converter.fromRow(row, prefix + "_version", Long.class));
+        entity.setApplicationId(converter.fromRow(row, prefix + "_application_id", Long.class));
         return entity;
     }
 }
@@ -31,6 +31,24 @@ public class LayerRowMapper implements BiFunction<Row, String, Layer> {
         entity.setBufferContentType(converter.fromRow(row, prefix + "_buffer_content_type", String.class));
         entity.setBuffer(converter.fromRow(row, prefix + "_buffer", byte[].class));
         entity.setIsEnabled(converter.fromRow(row, prefix + "_is_enabled", Boolean.class));
+        entity.setVersion(converter.fromRow(row, prefix + "_version", Long.class));
+        entity.setApplicationId(converter.fromRow(row, prefix + "_application_id", Long.class));
+        return entity;
+    }
+
+    /**
+     * Take a {@link Row} and a column prefix, and extract all the fields except the binary content, which is left {@code null}.
+     * @return the {@link Layer} stored in the database, without its buffer.
+     */
+    public Layer applyWithoutBlob(Row row, String prefix) {
+        Layer entity = new Layer();
+        entity.setId(converter.fromRow(row, prefix + "_id", Long.class));
+        entity.setX(converter.fromRow(row, prefix + "_x", Float.class));
+        entity.setY(converter.fromRow(row, prefix + "_y", Float.class));
+        entity.setBufferContentType(converter.fromRow(row, prefix + "_buffer_content_type", String.class));
+        entity.setIsEnabled(converter.fromRow(row, prefix + "_is_enabled", Boolean.class));
+        entity.setVersion(converter.fromRow(row, prefix + "_version", Long.class));
+        entity.setApplicationId(converter.fromRow(row, prefix + "_application_id", Long.class));
         return entity;
     }
 }
@@ -1,35 +1,43 @@
 package ir.ac.iust.comp.sa.repository.search;
 
-import static org.elasticsearch.index.query.QueryBuilders.queryStringQuery;
-
 import ir.ac.iust.comp.sa.domain.Application;
+import ir.ac.iust.comp.sa.domain.search.ApplicationSearchDocument;
 import org.springframework.data.elasticsearch.core.ReactiveElasticsearchTemplate;
-import org.springframework.data.elasticsearch.core.SearchHit;
-import org.springframework.data.elasticsearch.core.query.NativeSearchQuery;
 import org.springframework.data.elasticsearch.repository.ReactiveElasticsearchRepository;
-import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 /**
- * Spring Data Elasticsearch repository for the {@link Application} entity.
+ * Spring Data Elasticsearch repository for the {@link ApplicationSearchDocument} of the {@link Application} entity.
  */
 public interface ApplicationSearchRepository
-    extends ReactiveElasticsearchRepository<Application, Long>, ApplicationSearchRepositoryInternal {}
+    extends ReactiveElasticsearchRepository<ApplicationSearchDocument, Long>, ApplicationSearchRepositoryInternal {}
 
 interface ApplicationSearchRepositoryInternal {
-    Flux<Application> search(String query);
+    Mono<SearchSlice<ApplicationSearchDocument>> search(String query, int size, SearchCursor after);
 }
 
 class ApplicationSearchRepositoryInternalImpl implements ApplicationSearchRepositoryInternal {
 
     private final ReactiveElasticsearchTemplate reactiveElasticsearchTemplate;
 
-    ApplicationSearchRepositoryInternalImpl(ReactiveElasticsearchTemplate reactiveElasticsearchTemplate) {
+    private final SearchResultCache searchResultCache;
+
+    ApplicationSearchRepositoryInternalImpl(
+        ReactiveElasticsearchTemplate reactiveElasticsearchTemplate,
+        SearchResultCache searchResultCache
+    ) {
         this.reactiveElasticsearchTemplate = reactiveElasticsearchTemplate;
+        this.searchResultCache = searchResultCache;
     }
 
     @Override
-    public Flux<Application> search(String query) {
-        NativeSearchQuery nativeSearchQuery = new NativeSearchQuery(queryStringQuery(query));
-        return reactiveElasticsearchTemplate.search(nativeSearchQuery, Application.class).map(SearchHit::getContent);
+    public Mono<SearchSlice<ApplicationSearchDocument>> search(String query, int size, SearchCursor after) {
+        return searchResultCache.get(
+            Application.class,
+            query,
+            size,
+            after,
+            () -> SearchQueries.search(reactiveElasticsearchTemplate, query, size, after, ApplicationSearchDocument.class)
+        );
     }
 }
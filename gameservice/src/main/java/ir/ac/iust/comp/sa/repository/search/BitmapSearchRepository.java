@@ -1,34 +1,40 @@
 package ir.ac.iust.comp.sa.repository.search;
 
-import static org.elasticsearch.index.query.QueryBuilders.queryStringQuery;
-
 import ir.ac.iust.comp.sa.domain.Bitmap;
+import ir.ac.iust.comp.sa.domain.search.BitmapSearchDocument;
 import org.springframework.data.elasticsearch.core.ReactiveElasticsearchTemplate;
-import org.springframework.data.elasticsearch.core.SearchHit;
-import org.springframework.data.elasticsearch.core.query.NativeSearchQuery;
 import org.springframework.data.elasticsearch.repository.ReactiveElasticsearchRepository;
-import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 /**
- * Spring Data Elasticsearch repository for the {@link Bitmap} entity.
+ * Spring Data Elasticsearch repository for the {@link BitmapSearchDocument} of the {@link Bitmap} entity.
  */
-public interface BitmapSearchRepository extends ReactiveElasticsearchRepository<Bitmap, Long>, BitmapSearchRepositoryInternal {}
+public interface BitmapSearchRepository
+    extends ReactiveElasticsearchRepository<BitmapSearchDocument, Long>, BitmapSearchRepositoryInternal {}
 
 interface BitmapSearchRepositoryInternal {
-    Flux<Bitmap> search(String query);
+    Mono<SearchSlice<BitmapSearchDocument>> search(String query, int size, SearchCursor after);
 }
 
 class BitmapSearchRepositoryInternalImpl implements BitmapSearchRepositoryInternal {
 
     private final ReactiveElasticsearchTemplate reactiveElasticsearchTemplate;
 
-    BitmapSearchRepositoryInternalImpl(ReactiveElasticsearchTemplate reactiveElasticsearchTemplate) {
+    private final SearchResultCache searchResultCache;
+
+    BitmapSearchRepositoryInternalImpl(ReactiveElasticsearchTemplate reactiveElasticsearchTemplate, SearchResultCache searchResultCache) {
         this.reactiveElasticsearchTemplate = reactiveElasticsearchTemplate;
+        this.searchResultCache = searchResultCache;
     }
 
     @Override
-    public Flux<Bitmap> search(String query) {
-        NativeSearchQuery nativeSearchQuery = new NativeSearchQuery(queryStringQuery(query));
-        return reactiveElasticsearchTemplate.search(nativeSearchQuery, Bitmap.class).map(SearchHit::getContent);
+    public Mono<SearchSlice<BitmapSearchDocument>> search(String query, int size, SearchCursor after) {
+        return searchResultCache.get(
+            Bitmap.class,
+            query,
+            size,
+            after,
+            () -> SearchQueries.search(reactiveElasticsearchTemplate, query, size, after, BitmapSearchDocument.class)
+        );
     }
 }
@@ -1,34 +1,50 @@
 package ir.ac.iust.comp.sa.repository.search;
 
-import static org.elasticsearch.index.query.QueryBuilders.queryStringQuery;
-
 import ir.ac.iust.comp.sa.domain.GameObject;
+import ir.ac.iust.comp.sa.domain.search.GameObjectSearchDocument;
 import org.springframework.data.elasticsearch.core.ReactiveElasticsearchTemplate;
-import org.springframework.data.elasticsearch.core.SearchHit;
-import org.springframework.data.elasticsearch.core.query.NativeSearchQuery;
 import org.springframework.data.elasticsearch.repository.ReactiveElasticsearchRepository;
-import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 /**
- * Spring Data Elasticsearch repository for the {@link GameObject} entity.
+ * Spring Data Elasticsearch repository for the {@link GameObjectSearchDocument} of the {@link GameObject} entity.
  */
-public interface GameObjectSearchRepository extends ReactiveElasticsearchRepository<GameObject, Long>, GameObjectSearchRepositoryInternal {}
+public interface GameObjectSearchRepository
+    extends ReactiveElasticsearchRepository<GameObjectSearchDocument, Long>, GameObjectSearchRepositoryInternal {}
 
 interface GameObjectSearchRepositoryInternal {
-    Flux<GameObject> search(String query);
+    Mono<SearchSlice<GameObjectSearchDocument>> search(String query, int size, SearchCursor after);
+
+    Mono<SearchSlice<GameObjectSearchDocument>> searchArea(String query, SearchArea area, int size);
 }
 
 class GameObjectSearchRepositoryInternalImpl implements GameObjectSearchRepositoryInternal {
 
     private final ReactiveElasticsearchTemplate reactiveElasticsearchTemplate;
 
-    GameObjectSearchRepositoryInternalImpl(ReactiveElasticsearchTemplate reactiveElasticsearchTemplate) {
+    private final SearchResultCache searchResultCache;
+
+    GameObjectSearchRepositoryInternalImpl(
+        ReactiveElasticsearchTemplate reactiveElasticsearchTemplate,
+        SearchResultCache searchResultCache
+    ) {
         this.reactiveElasticsearchTemplate = reactiveElasticsearchTemplate;
+        this.searchResultCache = searchResultCache;
+    }
+
+    @Override
+    public Mono<SearchSlice<GameObjectSearchDocument>> search(String query, int size, SearchCursor after) {
+        return searchResultCache.get(
+            GameObject.class,
+            query,
+            size,
+            after,
+            () -> SearchQueries.search(reactiveElasticsearchTemplate, query, size, after, GameObjectSearchDocument.class)
+        );
     }
 
     @Override
-    public Flux<GameObject> search(String query) {
-        NativeSearchQuery nativeSearchQuery = new NativeSearchQuery(queryStringQuery(query));
-        return reactiveElasticsearchTemplate.search(nativeSearchQuery, GameObject.class).map(SearchHit::getContent);
+    public Mono<SearchSlice<GameObjectSearchDocument>> searchArea(String query, SearchArea area, int size) {
+        return SearchQueries.searchArea(reactiveElasticsearchTemplate, query, area, size, GameObjectSearchDocument.class);
     }
 }
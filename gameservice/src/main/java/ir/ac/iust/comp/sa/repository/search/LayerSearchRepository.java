@@ -1,36 +1,46 @@
 package ir.ac.iust.comp.sa.repository.search;
 
-import static org.elasticsearch.index.query.QueryBuilders.queryStringQuery;
-
 import ir.ac.iust.comp.sa.domain.Layer;
-import org.springframework.data.domain.Pageable;
+import ir.ac.iust.comp.sa.domain.search.LayerSearchDocument;
 import org.springframework.data.elasticsearch.core.ReactiveElasticsearchTemplate;
-import org.springframework.data.elasticsearch.core.SearchHit;
-import org.springframework.data.elasticsearch.core.query.NativeSearchQuery;
 import org.springframework.data.elasticsearch.repository.ReactiveElasticsearchRepository;
-import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 /**
- * Spring Data Elasticsearch repository for the {@link Layer} entity.
+ * Spring Data Elasticsearch repository for the {@link LayerSearchDocument} of the {@link Layer} entity.
  */
-public interface LayerSearchRepository extends ReactiveElasticsearchRepository<Layer, Long>, LayerSearchRepositoryInternal {}
+public interface LayerSearchRepository extends ReactiveElasticsearchRepository<LayerSearchDocument, Long>, LayerSearchRepositoryInternal {}
 
 interface LayerSearchRepositoryInternal {
-    Flux<Layer> search(String query, Pageable pageable);
+    Mono<SearchSlice<LayerSearchDocument>> search(String query, int size, SearchCursor after);
+
+    Mono<SearchSlice<LayerSearchDocument>> searchArea(String query, SearchArea area, int size);
 }
 
 class LayerSearchRepositoryInternalImpl implements LayerSearchRepositoryInternal {
 
     private final ReactiveElasticsearchTemplate reactiveElasticsearchTemplate;
 
-    LayerSearchRepositoryInternalImpl(ReactiveElasticsearchTemplate reactiveElasticsearchTemplate) {
+    private final SearchResultCache searchResultCache;
+
+    LayerSearchRepositoryInternalImpl(ReactiveElasticsearchTemplate reactiveElasticsearchTemplate, SearchResultCache searchResultCache) {
         this.reactiveElasticsearchTemplate = reactiveElasticsearchTemplate;
+        this.searchResultCache = searchResultCache;
+    }
+
+    @Override
+    public Mono<SearchSlice<LayerSearchDocument>> search(String query, int size, SearchCursor after) {
+        return searchResultCache.get(
+            Layer.class,
+            query,
+            size,
+            after,
+            () -> SearchQueries.search(reactiveElasticsearchTemplate, query, size, after, LayerSearchDocument.class)
+        );
     }
 
     @Override
-    public Flux<Layer> search(String query, Pageable pageable) {
-        NativeSearchQuery nativeSearchQuery = new NativeSearchQuery(queryStringQuery(query));
-        nativeSearchQuery.setPageable(pageable);
-        return reactiveElasticsearchTemplate.search(nativeSearchQuery, Layer.class).map(SearchHit::getContent);
+    public Mono<SearchSlice<LayerSearchDocument>> searchArea(String query, SearchArea area, int size) {
+        return SearchQueries.searchArea(reactiveElasticsearchTemplate, query, area, size, LayerSearchDocument.class);
     }
 }
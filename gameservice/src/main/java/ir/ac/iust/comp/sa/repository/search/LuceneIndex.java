@@ -0,0 +1,171 @@
+package ir.ac.iust.comp.sa.repository.search;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.SegmentInfos;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+
+/**
+ * A Lucene index on local disk, written through a single {@link IndexWriter} and searched through near-real-time
+ * readers.
+ * <p>
+ * Writes are buffered by the writer: they become searchable on the next {@link #refresh()} and durable on the next
+ * {@link #commit()}, both of which are run periodically by {@link LuceneIndexes}. An index is {@link #isComplete()
+ * complete} once it was fully built from the database, which is recorded in its commit data so that a build
+ * interrupted by a shutdown is started over.
+ */
+public class LuceneIndex implements Closeable {
+
+    private static final String COMPLETE_KEY = "complete";
+
+    private final String name;
+
+    private final Directory directory;
+
+    private final IndexWriter writer;
+
+    private final SearcherManager searcherManager;
+
+    private volatile boolean complete;
+
+    LuceneIndex(String name, Path path, Analyzer analyzer, double ramBufferSizeMb) throws IOException {
+        this.name = name;
+        this.directory = FSDirectory.open(path);
+        Map<String, String> commitData = DirectoryReader.indexExists(directory)
+            ? new HashMap<>(SegmentInfos.readLatestCommit(directory).getUserData())
+            : new HashMap<>();
+        this.complete = Boolean.parseBoolean(commitData.get(COMPLETE_KEY));
+        this.writer =
+            new IndexWriter(
+                directory,
+                new IndexWriterConfig(analyzer).setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND).setRAMBufferSizeMB(ramBufferSizeMb)
+            );
+        this.writer.setLiveCommitData(commitData.entrySet());
+        this.searcherManager = new SearcherManager(writer, null);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return whether the index was fully built from the database.
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * Records that the index was fully built from the database, and commits it.
+     */
+    public void markComplete() {
+        writer.setLiveCommitData(Map.of(COMPLETE_KEY, Boolean.TRUE.toString()).entrySet());
+        complete = true;
+        commit();
+    }
+
+    void update(String id, Document document) {
+        try {
+            writer.updateDocument(new Term(LuceneSearchRepository.ID_FIELD, id), document);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    void delete(String id) {
+        try {
+            writer.deleteDocuments(new Term(LuceneSearchRepository.ID_FIELD, id));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    void deleteAll() {
+        try {
+            writer.deleteAll();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Removes every document, and records that the index is no longer complete.
+     */
+    public void clear() {
+        try {
+            writer.deleteAll();
+            writer.setLiveCommitData(Map.of(COMPLETE_KEY, Boolean.FALSE.toString()).entrySet());
+            complete = false;
+            writer.commit();
+            searcherManager.maybeRefresh();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    <R> R search(SearcherFunction<R> function) {
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                return function.apply(searcher);
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Makes the buffered writes searchable.
+     */
+    public void refresh() {
+        try {
+            searcherManager.maybeRefresh();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Makes the buffered writes durable.
+     */
+    public void commit() {
+        try {
+            if (writer.hasUncommittedChanges()) {
+                writer.commit();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            commit();
+        } finally {
+            searcherManager.close();
+            writer.close();
+            directory.close();
+        }
+    }
+
+    @FunctionalInterface
+    interface SearcherFunction<R> {
+        R apply(IndexSearcher searcher) throws IOException;
+    }
+}
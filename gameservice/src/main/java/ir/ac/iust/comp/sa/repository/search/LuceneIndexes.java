@@ -0,0 +1,109 @@
+package ir.ac.iust.comp.sa.repository.search;
+
+import ir.ac.iust.comp.sa.config.ApplicationProperties;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.elasticsearch.annotations.Document;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * The Lucene indices of the search documents, one per Elasticsearch index name, stored in sub-directories of the
+ * configured directory.
+ * <p>
+ * Indices are periodically refreshed, making the writes of the last interval searchable, and committed, bounding the
+ * writes lost by a crash to those of the last commit interval; they are rebuilt from the database on the next start.
+ */
+public class LuceneIndexes implements Closeable {
+
+    private final Logger log = LoggerFactory.getLogger(LuceneIndexes.class);
+
+    private final ApplicationProperties.Lucene properties;
+
+    private final Analyzer analyzer = new StandardAnalyzer();
+
+    private final Map<String, LuceneIndex> indexes = new ConcurrentHashMap<>();
+
+    private final Disposable.Composite maintenance = Disposables.composite();
+
+    public LuceneIndexes(ApplicationProperties.Lucene properties) {
+        this.properties = properties;
+        maintenance.add(
+            Flux
+                .interval(properties.getRefreshInterval(), Schedulers.boundedElastic())
+                .onBackpressureDrop()
+                .subscribe(tick -> forEach(LuceneIndex::refresh, "refresh"))
+        );
+        maintenance.add(
+            Flux
+                .interval(properties.getCommitInterval(), Schedulers.boundedElastic())
+                .onBackpressureDrop()
+                .subscribe(tick -> forEach(LuceneIndex::commit, "commit"))
+        );
+    }
+
+    /**
+     * @param documentClass the class of the search documents, annotated with {@link Document}.
+     * @return the index of the documents, opened or created on first use.
+     */
+    public LuceneIndex get(Class<?> documentClass) {
+        Document document = documentClass.getAnnotation(Document.class);
+        if (document == null) {
+            throw new IllegalArgumentException(documentClass.getName() + " is not a search document");
+        }
+        return indexes.computeIfAbsent(document.indexName(), this::open);
+    }
+
+    Analyzer getAnalyzer() {
+        return analyzer;
+    }
+
+    @Override
+    public void close() {
+        maintenance.dispose();
+        indexes
+            .values()
+            .forEach(index -> {
+                try {
+                    index.close();
+                } catch (IOException e) {
+                    log.warn("Could not close the Lucene index {}: {}", index.getName(), e.getMessage());
+                }
+            });
+        indexes.clear();
+    }
+
+    private LuceneIndex open(String name) {
+        Path path = Paths.get(properties.getDirectory(), name);
+        try {
+            Files.createDirectories(path);
+            log.debug("Opening the Lucene index {} in {}", name, path);
+            return new LuceneIndex(name, path, analyzer, properties.getRamBufferSizeMb());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void forEach(Consumer<LuceneIndex> action, String actionName) {
+        for (LuceneIndex index : indexes.values()) {
+            try {
+                action.accept(index);
+            } catch (RuntimeException e) {
+                log.warn("Could not {} the Lucene index {}: {}", actionName, index.getName(), e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package ir.ac.iust.comp.sa.repository.search;
+
+import ir.ac.iust.comp.sa.domain.ModificationType;
+import ir.ac.iust.comp.sa.domain.MyApplication;
+import ir.ac.iust.comp.sa.domain.MyGameObject;
+import ir.ac.iust.comp.sa.domain.search.ApplicationSearchDocument;
+import ir.ac.iust.comp.sa.domain.search.BitmapSearchDocument;
+import ir.ac.iust.comp.sa.domain.search.GameObjectSearchDocument;
+import ir.ac.iust.comp.sa.domain.search.LayerSearchDocument;
+import org.springframework.data.elasticsearch.core.convert.ElasticsearchConverter;
+
+/**
+ * Factory of the search repositories backed by the Lucene indices, one {@link LuceneSearchRepository} subclass per
+ * search repository interface.
+ */
+public final class LuceneSearchRepositories {
+
+    private LuceneSearchRepositories() {}
+
+    public static ApplicationSearchRepository applications(LuceneIndexes indexes, ElasticsearchConverter converter) {
+        return new LuceneApplicationSearchRepository(indexes, converter);
+    }
+
+    public static BitmapSearchRepository bitmaps(LuceneIndexes indexes, ElasticsearchConverter converter) {
+        return new LuceneBitmapSearchRepository(indexes, converter);
+    }
+
+    public static GameObjectSearchRepository gameObjects(LuceneIndexes indexes, ElasticsearchConverter converter) {
+        return new LuceneGameObjectSearchRepository(indexes, converter);
+    }
+
+    public static LayerSearchRepository layers(LuceneIndexes indexes, ElasticsearchConverter converter) {
+        return new LuceneLayerSearchRepository(indexes, converter);
+    }
+
+    public static ModificationTypeSearchRepository modificationTypes(LuceneIndexes indexes, ElasticsearchConverter converter) {
+        return new LuceneModificationTypeSearchRepository(indexes, converter);
+    }
+
+    public static MyApplicationSearchRepository myApplications(LuceneIndexes indexes, ElasticsearchConverter converter) {
+        return new LuceneMyApplicationSearchRepository(indexes, converter);
+    }
+
+    public static MyGameObjectSearchRepository myGameObjects(LuceneIndexes indexes, ElasticsearchConverter converter) {
+        return new LuceneMyGameObjectSearchRepository(indexes, converter);
+    }
+
+    private static class LuceneApplicationSearchRepository
+        extends LuceneSearchRepository<ApplicationSearchDocument>
+        implements ApplicationSearchRepository {
+
+        LuceneApplicationSearchRepository(LuceneIndexes indexes, ElasticsearchConverter converter) {
+            super(ApplicationSearchDocument.class, indexes, converter);
+        }
+    }
+
+    private static class LuceneBitmapSearchRepository extends LuceneSearchRepository<BitmapSearchDocument> implements BitmapSearchRepository {
+
+        LuceneBitmapSearchRepository(LuceneIndexes indexes, ElasticsearchConverter converter) {
+            super(BitmapSearchDocument.class, indexes, converter);
+        }
+    }
+
+    private static class LuceneGameObjectSearchRepository
+        extends LuceneSearchRepository<GameObjectSearchDocument>
+        implements GameObjectSearchRepository {
+
+        LuceneGameObjectSearchRepository(LuceneIndexes indexes, ElasticsearchConverter converter) {
+            super(GameObjectSearchDocument.class, indexes, converter);
+        }
+    }
+
+    private static class LuceneLayerSearchRepository extends LuceneSearchRepository<LayerSearchDocument> implements LayerSearchRepository {
+
+        LuceneLayerSearchRepository(LuceneIndexes indexes, ElasticsearchConverter converter) {
+            super(LayerSearchDocument.class, indexes, converter);
+        }
+    }
+
+    private static class LuceneModificationTypeSearchRepository
+        extends LuceneSearchRepository<ModificationType>
+        implements ModificationTypeSearchRepository {
+
+        LuceneModificationTypeSearchRepository(LuceneIndexes indexes, ElasticsearchConverter converter) {
+            super(ModificationType.class, indexes, converter);
+        }
+    }
+
+    private static class LuceneMyApplicationSearchRepository
+        extends LuceneSearchRepository<MyApplication>
+        implements MyApplicationSearchRepository {
+
+        LuceneMyApplicationSearchRepository(LuceneIndexes indexes, ElasticsearchConverter converter) {
+            super(MyApplication.class, indexes, converter);
+        }
+    }
+
+    private static class LuceneMyGameObjectSearchRepository
+        extends LuceneSearchRepository<MyGameObject>
+        implements MyGameObjectSearchRepository {
+
+        LuceneMyGameObjectSearchRepository(LuceneIndexes indexes, ElasticsearchConverter converter) {
+            super(MyGameObject.class, indexes, converter);
+        }
+    }
+}
@@ -0,0 +1,428 @@
+package ir.ac.iust.comp.sa.repository.search;
+
+import ir.ac.iust.comp.sa.domain.search.SearchLocation;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.LatLonDocValuesField;
+import org.apache.lucene.document.LatLonPoint;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.queryparser.classic.ParseException;
+import org.apache.lucene.queryparser.classic.QueryParser;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.DocValuesFieldExistsQuery;
+import org.apache.lucene.search.FieldDoc;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.TermInSetQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TopFieldCollector;
+import org.apache.lucene.util.BytesRef;
+import org.reactivestreams.Publisher;
+import org.springframework.data.domain.Sort.Order;
+import org.springframework.data.elasticsearch.core.convert.ElasticsearchConverter;
+import org.springframework.data.elasticsearch.core.geo.GeoPoint;
+import org.springframework.data.elasticsearch.core.mapping.ElasticsearchPersistentEntity;
+import org.springframework.data.elasticsearch.core.mapping.ElasticsearchPersistentProperty;
+import org.springframework.data.repository.reactive.ReactiveSortingRepository;
+import org.springframework.util.ClassUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Implementation of the search repository contracts on top of a {@link LuceneIndex}, used instead of Elasticsearch
+ * by the {@code lucene} profile.
+ * <p>
+ * Documents are converted with the same {@link ElasticsearchConverter} as for Elasticsearch and stored as their JSON
+ * source. Every field is also indexed as analyzed text, under its own name and under a catch-all field, so that
+ * {@code query_string} queries such as {@code id:42} or {@code enabled} are parsed by the classic Lucene query parser
+ * with the same meaning; numeric ranges are not supported. Lucene calls are blocking and run on the bounded elastic
+ * scheduler.
+ * <p>
+ * Each search repository interface is implemented by a subclass declared in {@link LuceneSearchRepositories}, so that
+ * a method added to an interface without its Lucene implementation breaks the build rather than the calls.
+ *
+ * @param <D> the type of the search documents.
+ */
+public abstract class LuceneSearchRepository<D> implements ReactiveSortingRepository<D, Long> {
+
+    static final String ID_FIELD = "_id";
+
+    private static final String SORT_FIELD = "_id_sort";
+
+    private static final String SOURCE_FIELD = "_source";
+
+    private static final String ALL_FIELD = "_all";
+
+    private static final int SCROLL_SIZE = 1000;
+
+    private static final Sort BY_RELEVANCE = new Sort(SortField.FIELD_SCORE, new SortField(SORT_FIELD, SortField.Type.LONG));
+
+    private static final Sort BY_ID = new Sort(new SortField(SORT_FIELD, SortField.Type.LONG));
+
+    private static final Sort BY_ID_DESCENDING = new Sort(new SortField(SORT_FIELD, SortField.Type.LONG, true));
+
+    private final Class<D> documentClass;
+
+    private final LuceneIndex index;
+
+    private final Analyzer analyzer;
+
+    private final ElasticsearchConverter converter;
+
+    private final ElasticsearchPersistentEntity<?> persistentEntity;
+
+    LuceneSearchRepository(Class<D> documentClass, LuceneIndexes indexes, ElasticsearchConverter converter) {
+        this.documentClass = documentClass;
+        this.index = indexes.get(documentClass);
+        this.analyzer = indexes.getAnalyzer();
+        this.converter = converter;
+        this.persistentEntity = converter.getMappingContext().getRequiredPersistentEntity(documentClass);
+    }
+
+    public Mono<SearchSlice<D>> search(String query, int size, SearchCursor after) {
+        return Mono
+            .fromCallable(() -> {
+                int pageSize = Math.min(Math.max(size, 1), SearchQueries.MAX_SIZE);
+                boolean trackTotalHits = after == null;
+                Query parsed = parse(query);
+                FieldDoc afterDoc = after == null
+                    ? null
+                    : new FieldDoc(Integer.MAX_VALUE, after.getScore(), new Object[] { after.getScore(), after.getId() });
+                return index.search(searcher -> {
+                    TopFieldCollector collector = TopFieldCollector.create(
+                        BY_RELEVANCE,
+                        pageSize,
+                        afterDoc,
+                        trackTotalHits ? Integer.MAX_VALUE : pageSize
+                    );
+                    searcher.search(parsed, collector);
+                    TopDocs topDocs = collector.topDocs();
+                    List<D> content = new ArrayList<>(topDocs.scoreDocs.length);
+                    SearchCursor next = null;
+                    for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
+                        FieldDoc fieldDoc = (FieldDoc) scoreDoc;
+                        content.add(read(searcher, fieldDoc.doc));
+                        next = SearchCursor.of((Float) fieldDoc.fields[0], (Long) fieldDoc.fields[1]);
+                    }
+                    Long totalHits = trackTotalHits ? Long.valueOf(topDocs.totalHits.value) : null;
+                    return new SearchSlice<>(content, totalHits, content.size() < pageSize ? null : next);
+                });
+            })
+            .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    public Mono<SearchSlice<D>> searchArea(String query, SearchArea area, int size) {
+        return Mono
+            .fromCallable(() -> {
+                int pageSize = Math.min(Math.max(size, 1), SearchQueries.MAX_SIZE);
+                boolean trackTotalHits = !area.isNearest();
+                GeoPoint center = area.getCenter();
+                Query parsed = query == null || query.isBlank() ? new MatchAllDocsQuery() : parse(query);
+                Sort byDistance = new Sort(
+                    LatLonDocValuesField.newDistanceSort(SearchLocation.FIELD, center.getLat(), center.getLon()),
+                    new SortField(SORT_FIELD, SortField.Type.LONG)
+                );
+                return index.search(searcher -> {
+                    TopDocs topDocs = null;
+                    // circles of growing radius for the nearest neighbours, until one holds enough hits
+                    for (SearchArea step : area.expand()) {
+                        Query filtered = new BooleanQuery.Builder()
+                            .add(parsed, BooleanClause.Occur.MUST)
+                            .add(areaFilter(step), BooleanClause.Occur.FILTER)
+                            .build();
+                        TopFieldCollector collector = TopFieldCollector.create(
+                            byDistance,
+                            pageSize,
+                            trackTotalHits ? Integer.MAX_VALUE : pageSize
+                        );
+                        searcher.search(filtered, collector);
+                        topDocs = collector.topDocs();
+                        if (topDocs.scoreDocs.length >= pageSize) {
+                            break;
+                        }
+                    }
+                    List<D> content = new ArrayList<>(topDocs.scoreDocs.length);
+                    for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
+                        content.add(read(searcher, scoreDoc.doc));
+                    }
+                    return new SearchSlice<>(content, trackTotalHits ? Long.valueOf(topDocs.totalHits.value) : null, null);
+                });
+            })
+            .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @Override
+    public <S extends D> Mono<S> save(S entity) {
+        return Mono
+            .fromCallable(() -> {
+                write(entity);
+                return entity;
+            })
+            .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @Override
+    public <S extends D> Flux<S> saveAll(Iterable<S> entities) {
+        return Mono
+            .fromCallable(() -> {
+                entities.forEach(this::write);
+                return entities;
+            })
+            .subscribeOn(Schedulers.boundedElastic())
+            .flatMapIterable(saved -> saved);
+    }
+
+    @Override
+    public <S extends D> Flux<S> saveAll(Publisher<S> entityStream) {
+        return Flux.from(entityStream).buffer(SCROLL_SIZE).concatMap(this::saveAll);
+    }
+
+    @Override
+    public Mono<D> findById(Long id) {
+        return findAllById(List.of(id)).next();
+    }
+
+    @Override
+    public Mono<D> findById(Publisher<Long> id) {
+        return Mono.from(id).flatMap(this::findById);
+    }
+
+    @Override
+    public Mono<Boolean> existsById(Long id) {
+        return findById(id).hasElement();
+    }
+
+    @Override
+    public Mono<Boolean> existsById(Publisher<Long> id) {
+        return Mono.from(id).flatMap(this::existsById);
+    }
+
+    @Override
+    public Flux<D> findAll() {
+        return scroll(new MatchAllDocsQuery(), BY_ID);
+    }
+
+    /**
+     * Sorts by id in the index, and by any other property in memory once all the documents are read.
+     */
+    @Override
+    public Flux<D> findAll(org.springframework.data.domain.Sort sort) {
+        return Flux.defer(() -> {
+            List<Order> orders = sort.toList();
+            if (orders.isEmpty()) {
+                return findAll();
+            }
+            if (orders.size() == 1 && orders.get(0).getProperty().equals(persistentEntity.getRequiredIdProperty().getName())) {
+                return scroll(new MatchAllDocsQuery(), orders.get(0).isDescending() ? BY_ID_DESCENDING : BY_ID);
+            }
+            Comparator<D> comparator = comparator(orders);
+            return findAll().collectSortedList(comparator).flatMapIterable(sorted -> sorted);
+        });
+    }
+
+    @Override
+    public Flux<D> findAllById(Iterable<Long> ids) {
+        List<BytesRef> terms = StreamSupport
+            .stream(ids.spliterator(), false)
+            .map(id -> new BytesRef(id.toString()))
+            .collect(Collectors.toList());
+        return terms.isEmpty() ? Flux.empty() : scroll(new TermInSetQuery(ID_FIELD, terms), BY_ID);
+    }
+
+    @Override
+    public Flux<D> findAllById(Publisher<Long> idStream) {
+        return Flux.from(idStream).buffer(SCROLL_SIZE).concatMap(this::findAllById);
+    }
+
+    @Override
+    public Mono<Long> count() {
+        return Mono
+            .fromCallable(() -> index.search(searcher -> (long) searcher.getIndexReader().numDocs()))
+            .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @Override
+    public Mono<Void> deleteById(Long id) {
+        return deleteAllById(List.of(id));
+    }
+
+    @Override
+    public Mono<Void> deleteById(Publisher<Long> id) {
+        return Mono.from(id).flatMap(this::deleteById);
+    }
+
+    @Override
+    public Mono<Void> delete(D entity) {
+        return deleteById(idOf(entity));
+    }
+
+    @Override
+    public Mono<Void> deleteAllById(Iterable<? extends Long> ids) {
+        return Mono.<Void>fromRunnable(() -> ids.forEach(id -> index.delete(id.toString()))).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @Override
+    public Mono<Void> deleteAll(Iterable<? extends D> entities) {
+        return deleteAllById(StreamSupport.stream(entities.spliterator(), false).map(this::idOf).collect(Collectors.toList()));
+    }
+
+    @Override
+    public Mono<Void> deleteAll(Publisher<? extends D> entityStream) {
+        return Flux.from(entityStream).map(this::idOf).buffer(SCROLL_SIZE).concatMap(this::deleteAllById).then();
+    }
+
+    @Override
+    public Mono<Void> deleteAll() {
+        return Mono.<Void>fromRunnable(index::deleteAll).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private Query parse(String query) {
+        QueryParser parser = new QueryParser(ALL_FIELD, analyzer);
+        parser.setAllowLeadingWildcard(true);
+        try {
+            return parser.parse(query);
+        } catch (ParseException e) {
+            throw new IllegalArgumentException("Invalid search query: " + query, e);
+        }
+    }
+
+    private static Query areaFilter(SearchArea area) {
+        switch (area.getShape()) {
+            case CIRCLE:
+                return LatLonPoint.newDistanceQuery(
+                    SearchLocation.FIELD,
+                    area.getCenter().getLat(),
+                    area.getCenter().getLon(),
+                    area.getRadiusMeters()
+                );
+            case BOX:
+                return LatLonPoint.newBoxQuery(
+                    SearchLocation.FIELD,
+                    area.getBottomRight().getLat(),
+                    area.getTopLeft().getLat(),
+                    area.getTopLeft().getLon(),
+                    area.getBottomRight().getLon()
+                );
+            default:
+                return new DocValuesFieldExistsQuery(SearchLocation.FIELD);
+        }
+    }
+
+    private Comparator<D> comparator(List<Order> orders) {
+        Comparator<D> comparator = (left, right) -> 0;
+        for (Order order : orders) {
+            ElasticsearchPersistentProperty property = persistentEntity.getPersistentProperty(order.getProperty());
+            if (property == null || !Comparable.class.isAssignableFrom(ClassUtils.resolvePrimitiveIfNecessary(property.getType()))) {
+                throw new IllegalArgumentException(
+                    documentClass.getSimpleName() + " search documents can't be sorted by " + order.getProperty()
+                );
+            }
+            Comparator<Object> values = order.isIgnoreCase() && property.getType() == String.class
+                ? Comparator.comparing(String.class::cast, String.CASE_INSENSITIVE_ORDER)
+                : LuceneSearchRepository::compare;
+            Comparator<Object> byOrder = Comparator.nullsLast(order.isDescending() ? values.reversed() : values);
+            comparator =
+                comparator.thenComparing(document -> persistentEntity.getPropertyAccessor(document).getProperty(property), byOrder);
+        }
+        return comparator;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static int compare(Object left, Object right) {
+        return ((Comparable<Object>) left).compareTo(right);
+    }
+
+    private Flux<D> scroll(Query query, Sort sort) {
+        return scrollPage(query, sort, null)
+            .expand(page -> page.content.size() < SCROLL_SIZE ? Mono.empty() : scrollPage(query, sort, page.lastId))
+            .concatMapIterable(page -> page.content);
+    }
+
+    private Mono<ScrollPage<D>> scrollPage(Query query, Sort sort, Long afterId) {
+        return Mono
+            .fromCallable(() ->
+                index.search(searcher -> {
+                    FieldDoc after = afterId == null ? null : new FieldDoc(Integer.MAX_VALUE, Float.NaN, new Object[] { afterId });
+                    TopFieldCollector collector = TopFieldCollector.create(sort, SCROLL_SIZE, after, SCROLL_SIZE);
+                    searcher.search(query, collector);
+                    ScrollPage<D> page = new ScrollPage<>();
+                    for (ScoreDoc scoreDoc : collector.topDocs().scoreDocs) {
+                        page.content.add(read(searcher, scoreDoc.doc));
+                        page.lastId = (Long) ((FieldDoc) scoreDoc).fields[0];
+                    }
+                    return page;
+                })
+            )
+            .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private void write(D entity) {
+        Long id = idOf(entity);
+        org.springframework.data.elasticsearch.core.document.Document source = converter.mapObject(entity);
+        Document document = new Document();
+        document.add(new StringField(ID_FIELD, id.toString(), Field.Store.NO));
+        document.add(new NumericDocValuesField(SORT_FIELD, id));
+        document.add(new StoredField(SOURCE_FIELD, source.toJson()));
+        addFields(document, "", source);
+        if (source.get(SearchLocation.FIELD) instanceof Map) {
+            Map<?, ?> location = (Map<?, ?>) source.get(SearchLocation.FIELD);
+            double lat = ((Number) location.get("lat")).doubleValue();
+            double lon = ((Number) location.get("lon")).doubleValue();
+            document.add(new LatLonPoint(SearchLocation.FIELD, lat, lon));
+            document.add(new LatLonDocValuesField(SearchLocation.FIELD, lat, lon));
+        }
+        index.update(id.toString(), document);
+    }
+
+    private void addFields(Document document, String name, Object value) {
+        if (value instanceof Map) {
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                String key = entry.getKey().toString();
+                // skips the type hints added by the converter
+                if (!key.startsWith("_")) {
+                    addFields(document, name.isEmpty() ? key : name + '.' + key, entry.getValue());
+                }
+            }
+        } else if (value instanceof Collection) {
+            for (Object element : (Collection<?>) value) {
+                addFields(document, name, element);
+            }
+        } else if (value != null) {
+            document.add(new TextField(name, value.toString(), Field.Store.NO));
+            document.add(new TextField(ALL_FIELD, value.toString(), Field.Store.NO));
+        }
+    }
+
+    private D read(IndexSearcher searcher, int doc) throws java.io.IOException {
+        String source = searcher.doc(doc).get(SOURCE_FIELD);
+        return converter.read(documentClass, org.springframework.data.elasticsearch.core.document.Document.parse(source));
+    }
+
+    private Long idOf(D entity) {
+        return (Long) persistentEntity.getIdentifierAccessor(entity).getRequiredIdentifier();
+    }
+
+    private static class ScrollPage<D> {
+
+        private final List<D> content = new ArrayList<>();
+
+        private Long lastId;
+    }
+}
@@ -1,13 +1,9 @@
 package ir.ac.iust.comp.sa.repository.search;
 
-import static org.elasticsearch.index.query.QueryBuilders.queryStringQuery;
-
 import ir.ac.iust.comp.sa.domain.ModificationType;
 import org.springframework.data.elasticsearch.core.ReactiveElasticsearchTemplate;
-import org.springframework.data.elasticsearch.core.SearchHit;
-import org.springframework.data.elasticsearch.core.query.NativeSearchQuery;
 import org.springframework.data.elasticsearch.repository.ReactiveElasticsearchRepository;
-import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 /**
  * Spring Data Elasticsearch repository for the {@link ModificationType} entity.
@@ -16,20 +12,31 @@ public interface ModificationTypeSearchRepository
     extends ReactiveElasticsearchRepository<ModificationType, Long>, ModificationTypeSearchRepositoryInternal {}
 
 interface ModificationTypeSearchRepositoryInternal {
-    Flux<ModificationType> search(String query);
+    Mono<SearchSlice<ModificationType>> search(String query, int size, SearchCursor after);
 }
 
 class ModificationTypeSearchRepositoryInternalImpl implements ModificationTypeSearchRepositoryInternal {
 
     private final ReactiveElasticsearchTemplate reactiveElasticsearchTemplate;
 
-    ModificationTypeSearchRepositoryInternalImpl(ReactiveElasticsearchTemplate reactiveElasticsearchTemplate) {
+    private final SearchResultCache searchResultCache;
+
+    ModificationTypeSearchRepositoryInternalImpl(
+        ReactiveElasticsearchTemplate reactiveElasticsearchTemplate,
+        SearchResultCache searchResultCache
+    ) {
         this.reactiveElasticsearchTemplate = reactiveElasticsearchTemplate;
+        this.searchResultCache = searchResultCache;
     }
 
     @Override
-    public Flux<ModificationType> search(String query) {
-        NativeSearchQuery nativeSearchQuery = new NativeSearchQuery(queryStringQuery(query));
-        return reactiveElasticsearchTemplate.search(nativeSearchQuery, ModificationType.class).map(SearchHit::getContent);
+    public Mono<SearchSlice<ModificationType>> search(String query, int size, SearchCursor after) {
+        return searchResultCache.get(
+            ModificationType.class,
+            query,
+            size,
+            after,
+            () -> SearchQueries.search(reactiveElasticsearchTemplate, query, size, after, ModificationType.class)
+        );
     }
 }
@@ -1,13 +1,9 @@
 package ir.ac.iust.comp.sa.repository.search;
 
-import static org.elasticsearch.index.query.QueryBuilders.queryStringQuery;
-
 import ir.ac.iust.comp.sa.domain.MyApplication;
 import org.springframework.data.elasticsearch.core.ReactiveElasticsearchTemplate;
-import org.springframework.data.elasticsearch.core.SearchHit;
-import org.springframework.data.elasticsearch.core.query.NativeSearchQuery;
 import org.springframework.data.elasticsearch.repository.ReactiveElasticsearchRepository;
-import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 /**
  * Spring Data Elasticsearch repository for the {@link MyApplication} entity.
@@ -16,20 +12,31 @@ public interface MyApplicationSearchRepository
     extends ReactiveElasticsearchRepository<MyApplication, Long>, MyApplicationSearchRepositoryInternal {}
 
 interface MyApplicationSearchRepositoryInternal {
-    Flux<MyApplication> search(String query);
+    Mono<SearchSlice<MyApplication>> search(String query, int size, SearchCursor after);
 }
 
 class MyApplicationSearchRepositoryInternalImpl implements MyApplicationSearchRepositoryInternal {
 
     private final ReactiveElasticsearchTemplate reactiveElasticsearchTemplate;
 
-    MyApplicationSearchRepositoryInternalImpl(ReactiveElasticsearchTemplate reactiveElasticsearchTemplate) {
+    private final SearchResultCache searchResultCache;
+
+    MyApplicationSearchRepositoryInternalImpl(
+        ReactiveElasticsearchTemplate reactiveElasticsearchTemplate,
+        SearchResultCache searchResultCache
+    ) {
         this.reactiveElasticsearchTemplate = reactiveElasticsearchTemplate;
+        this.searchResultCache = searchResultCache;
     }
 
     @Override
-    public Flux<MyApplication> search(String query) {
-        NativeSearchQuery nativeSearchQuery = new NativeSearchQuery(queryStringQuery(query));
-        return reactiveElasticsearchTemplate.search(nativeSearchQuery, MyApplication.class).map(SearchHit::getContent);
+    public Mono<SearchSlice<MyApplication>> search(String query, int size, SearchCursor after) {
+        return searchResultCache.get(
+            MyApplication.class,
+            query,
+            size,
+            after,
+            () -> SearchQueries.search(reactiveElasticsearchTemplate, query, size, after, MyApplication.class)
+        );
     }
 }
@@ -1,13 +1,9 @@
 package ir.ac.iust.comp.sa.repository.search;
 
-import static org.elasticsearch.index.query.QueryBuilders.queryStringQuery;
-
 import ir.ac.iust.comp.sa.domain.MyGameObject;
 import org.springframework.data.elasticsearch.core.ReactiveElasticsearchTemplate;
-import org.springframework.data.elasticsearch.core.SearchHit;
-import org.springframework.data.elasticsearch.core.query.NativeSearchQuery;
 import org.springframework.data.elasticsearch.repository.ReactiveElasticsearchRepository;
-import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 /**
  * Spring Data Elasticsearch repository for the {@link MyGameObject} entity.
@@ -16,20 +12,31 @@ public interface MyGameObjectSearchRepository
     extends ReactiveElasticsearchRepository<MyGameObject, Long>, MyGameObjectSearchRepositoryInternal {}
 
 interface MyGameObjectSearchRepositoryInternal {
-    Flux<MyGameObject> search(String query);
+    Mono<SearchSlice<MyGameObject>> search(String query, int size, SearchCursor after);
 }
 
 class MyGameObjectSearchRepositoryInternalImpl implements MyGameObjectSearchRepositoryInternal {
 
     private final ReactiveElasticsearchTemplate reactiveElasticsearchTemplate;
 
-    MyGameObjectSearchRepositoryInternalImpl(ReactiveElasticsearchTemplate reactiveElasticsearchTemplate) {
+    private final SearchResultCache searchResultCache;
+
+    MyGameObjectSearchRepositoryInternalImpl(
+        ReactiveElasticsearchTemplate reactiveElasticsearchTemplate,
+        SearchResultCache searchResultCache
+    ) {
         this.reactiveElasticsearchTemplate = reactiveElasticsearchTemplate;
+        this.searchResultCache = searchResultCache;
     }
 
     @Override
-    public Flux<MyGameObject> search(String query) {
-        NativeSearchQuery nativeSearchQuery = new NativeSearchQuery(queryStringQuery(query));
-        return reactiveElasticsearchTemplate.search(nativeSearchQuery, MyGameObject.class).map(SearchHit::getContent);
+    public Mono<SearchSlice<MyGameObject>> search(String query, int size, SearchCursor after) {
+        return searchResultCache.get(
+            MyGameObject.class,
+            query,
+            size,
+            after,
+            () -> SearchQueries.search(reactiveElasticsearchTemplate, query, size, after, MyGameObject.class)
+        );
     }
 }
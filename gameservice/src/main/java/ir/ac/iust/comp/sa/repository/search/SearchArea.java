@@ -0,0 +1,143 @@
+package ir.ac.iust.comp.sa.repository.search;
+
+import ir.ac.iust.comp.sa.domain.search.SearchLocation;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.data.elasticsearch.core.geo.GeoPoint;
+
+/**
+ * Area of a proximity search in the game coordinates: a circle, a bounding box, or the whole plane for a nearest
+ * neighbours search. Hits are sorted by distance from the center of the area.
+ * <p>
+ * A nearest neighbours search isn't a k-nearest lookup in the BKD tree: it searches circles of growing radius around
+ * the center, filtered by distance, until one holds enough hits, and only sorts the hits of that circle.
+ */
+public final class SearchArea {
+
+    /**
+     * Radius of the first circle searched for the nearest neighbours, in units of the game coordinates.
+     */
+    private static final double NEAREST_INITIAL_RADIUS = 100;
+
+    /**
+     * Factor by which the radius grows from one circle to the next.
+     */
+    private static final double NEAREST_RADIUS_GROWTH = 10;
+
+    /**
+     * Radius past which a circle covers every locatable point.
+     */
+    private static final double NEAREST_MAX_RADIUS = 18_000_000;
+
+    enum Shape {
+        CIRCLE,
+        BOX,
+        PLANE,
+    }
+
+    private final Shape shape;
+
+    private final GeoPoint center;
+
+    private final double radiusMeters;
+
+    private final GeoPoint topLeft;
+
+    private final GeoPoint bottomRight;
+
+    private SearchArea(Shape shape, GeoPoint center, double radiusMeters, GeoPoint topLeft, GeoPoint bottomRight) {
+        this.shape = shape;
+        this.center = center;
+        this.radiusMeters = radiusMeters;
+        this.topLeft = topLeft;
+        this.bottomRight = bottomRight;
+    }
+
+    /**
+     * @param x the x coordinate of the center.
+     * @param y the y coordinate of the center.
+     * @param radius the radius.
+     * @return the points at most {@code radius} away from the center.
+     * @throws IllegalArgumentException if the radius isn't positive or the center can't be located.
+     */
+    public static SearchArea circle(double x, double y, double radius) {
+        if (!(radius > 0)) {
+            throw new IllegalArgumentException("The radius must be positive: " + radius);
+        }
+        return new SearchArea(Shape.CIRCLE, SearchLocation.point(x, y), SearchLocation.toMeters(radius), null, null);
+    }
+
+    /**
+     * @param minX the smallest x coordinate.
+     * @param minY the smallest y coordinate.
+     * @param maxX the largest x coordinate.
+     * @param maxY the largest y coordinate.
+     * @return the points inside the box, sorted by distance from its center.
+     * @throws IllegalArgumentException if the box is empty or can't be located.
+     */
+    public static SearchArea box(double minX, double minY, double maxX, double maxY) {
+        if (!(minX <= maxX && minY <= maxY)) {
+            throw new IllegalArgumentException("The minimum coordinates must not exceed the maximum ones");
+        }
+        return new SearchArea(
+            Shape.BOX,
+            SearchLocation.point((minX + maxX) / 2, (minY + maxY) / 2),
+            0,
+            SearchLocation.point(minX, maxY),
+            SearchLocation.point(maxX, minY)
+        );
+    }
+
+    /**
+     * @param x the x coordinate of the center.
+     * @param y the y coordinate of the center.
+     * @return every point, sorted by distance from the center.
+     * @throws IllegalArgumentException if the center can't be located.
+     */
+    public static SearchArea nearest(double x, double y) {
+        return new SearchArea(Shape.PLANE, SearchLocation.point(x, y), 0, null, null);
+    }
+
+    /**
+     * @return the areas to search in turn until one holds enough hits: circles of growing radius then the whole plane
+     * for a nearest neighbours search, this area otherwise.
+     */
+    List<SearchArea> expand() {
+        if (shape != Shape.PLANE) {
+            return List.of(this);
+        }
+        List<SearchArea> areas = new ArrayList<>();
+        for (double radius = NEAREST_INITIAL_RADIUS; radius < NEAREST_MAX_RADIUS; radius *= NEAREST_RADIUS_GROWTH) {
+            areas.add(new SearchArea(Shape.CIRCLE, center, SearchLocation.toMeters(radius), null, null));
+        }
+        areas.add(this);
+        return areas;
+    }
+
+    /**
+     * @return whether the hits of this area are only the nearest ones of a larger area, so that they can't be counted.
+     */
+    boolean isNearest() {
+        return shape == Shape.PLANE;
+    }
+
+    Shape getShape() {
+        return shape;
+    }
+
+    GeoPoint getCenter() {
+        return center;
+    }
+
+    double getRadiusMeters() {
+        return radiusMeters;
+    }
+
+    GeoPoint getTopLeft() {
+        return topLeft;
+    }
+
+    GeoPoint getBottomRight() {
+        return bottomRight;
+    }
+}
@@ -0,0 +1,99 @@
+package ir.ac.iust.comp.sa.repository.search;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.Objects;
+import org.springframework.data.elasticsearch.core.SearchHit;
+
+/**
+ * Position of a hit in search results sorted by descending score then ascending id, used as the {@code search_after}
+ * of the query fetching the next page.
+ * <p>
+ * Cursors are exchanged with clients as opaque strings, see {@link #toString()} and {@link #valueOf(String)}.
+ */
+public final class SearchCursor {
+
+    private static final char SEPARATOR = ':';
+
+    private final float score;
+
+    private final long id;
+
+    private SearchCursor(float score, long id) {
+        this.score = score;
+        this.id = id;
+    }
+
+    /**
+     * Reads the position of a hit of a query built by {@link SearchQueries}.
+     *
+     * @param hit the hit.
+     * @return the cursor following the hit.
+     */
+    static SearchCursor of(SearchHit<?> hit) {
+        List<Object> sortValues = hit.getSortValues();
+        return new SearchCursor(((Number) sortValues.get(0)).floatValue(), ((Number) sortValues.get(1)).longValue());
+    }
+
+    static SearchCursor of(float score, long id) {
+        return new SearchCursor(score, id);
+    }
+
+    /**
+     * Parses a cursor returned by {@link #toString()}.
+     *
+     * @param value the encoded cursor.
+     * @return the cursor.
+     * @throws IllegalArgumentException if the value is not a valid cursor.
+     */
+    public static SearchCursor valueOf(String value) {
+        String decoded = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+        int separator = decoded.indexOf(SEPARATOR);
+        if (separator < 0) {
+            throw new IllegalArgumentException("Invalid search cursor: " + value);
+        }
+        return new SearchCursor(Float.parseFloat(decoded.substring(0, separator)), Long.parseLong(decoded.substring(separator + 1)));
+    }
+
+    float getScore() {
+        return score;
+    }
+
+    long getId() {
+        return id;
+    }
+
+    /**
+     * @return the sort values to give to {@code search_after}.
+     */
+    List<Object> toSearchAfter() {
+        return List.of(score, id);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof SearchCursor)) {
+            return false;
+        }
+        SearchCursor that = (SearchCursor) o;
+        return Float.compare(score, that.score) == 0 && id == that.id;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(score, id);
+    }
+
+    /**
+     * @return the cursor encoded as an opaque URL-safe string.
+     */
+    @Override
+    public String toString() {
+        String plain = String.valueOf(score) + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(plain.getBytes(StandardCharsets.UTF_8));
+    }
+}
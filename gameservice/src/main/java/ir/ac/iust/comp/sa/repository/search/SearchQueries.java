@@ -0,0 +1,165 @@
+package ir.ac.iust.comp.sa.repository.search;
+
+import static org.elasticsearch.index.query.QueryBuilders.boolQuery;
+import static org.elasticsearch.index.query.QueryBuilders.existsQuery;
+import static org.elasticsearch.index.query.QueryBuilders.geoBoundingBoxQuery;
+import static org.elasticsearch.index.query.QueryBuilders.geoDistanceQuery;
+import static org.elasticsearch.index.query.QueryBuilders.matchAllQuery;
+import static org.elasticsearch.index.query.QueryBuilders.queryStringQuery;
+
+import ir.ac.iust.comp.sa.domain.search.SearchLocation;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.elasticsearch.common.unit.DistanceUnit;
+import org.elasticsearch.index.query.QueryBuilder;
+import org.elasticsearch.search.sort.SortBuilders;
+import org.elasticsearch.search.sort.SortOrder;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.elasticsearch.core.ReactiveElasticsearchTemplate;
+import org.springframework.data.elasticsearch.core.SearchHit;
+import org.springframework.data.elasticsearch.core.SearchHits;
+import org.springframework.data.elasticsearch.core.geo.GeoPoint;
+import org.springframework.data.elasticsearch.core.query.NativeSearchQuery;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Utility class running the paginated {@code query_string} and proximity searches of the search repositories.
+ */
+final class SearchQueries {
+
+    /**
+     * Maximum number of hits of a page.
+     */
+    static final int MAX_SIZE = 1000;
+
+    private SearchQueries() {}
+
+    /**
+     * Fetches one page of the hits of a query, sorted by descending score then ascending id so that pages can be
+     * chained with {@code search_after} instead of deep {@code from} offsets.
+     * <p>
+     * Hits are only counted for the first page: following pages get a {@code null} total, which spares Elasticsearch
+     * from visiting every match of broad queries again.
+     *
+     * @param template the template running the search.
+     * @param query the {@code query_string} query.
+     * @param size the number of hits of the page, capped to {@link #MAX_SIZE}.
+     * @param after the cursor of the page, or {@code null} for the first page.
+     * @param documentClass the type of the search documents.
+     * @param <T> the type of the search documents.
+     * @return the page of hits.
+     */
+    static <T> Mono<SearchSlice<T>> search(
+        ReactiveElasticsearchTemplate template,
+        String query,
+        int size,
+        SearchCursor after,
+        Class<T> documentClass
+    ) {
+        int pageSize = Math.min(Math.max(size, 1), MAX_SIZE);
+        boolean trackTotalHits = after == null;
+        NativeSearchQuery nativeSearchQuery = new NativeSearchQuery(
+            queryStringQuery(query),
+            null,
+            List.of(SortBuilders.scoreSort(), SortBuilders.fieldSort("id").order(SortOrder.ASC))
+        );
+        nativeSearchQuery.setPageable(PageRequest.of(0, pageSize));
+        nativeSearchQuery.setTrackTotalHits(trackTotalHits);
+        if (after != null) {
+            nativeSearchQuery.setSearchAfter(after.toSearchAfter());
+        }
+        return template
+            .searchForPage(nativeSearchQuery, documentClass)
+            .map(page -> SearchSlice.of(page.getSearchHits(), pageSize, trackTotalHits));
+    }
+
+    /**
+     * Fetches the hits of a query located in an area, sorted by ascending distance from its center then ascending id.
+     * <p>
+     * The area is a {@code geo_distance} or {@code geo_bounding_box} filter on the {@link SearchLocation#FIELD}, which
+     * is answered from the BKD tree of the index. Nearest neighbours aren't a k-nearest lookup: circles of growing
+     * radius are searched in turn until one holds enough hits, so that only those are sorted by distance, and their
+     * total is left {@code null}. The result has no cursor: proximity searches are meant for the hits around a point,
+     * not for walking the index.
+     *
+     * @param template the template running the search.
+     * @param query the {@code query_string} query, or {@code null} to match every document.
+     * @param area the area of the hits.
+     * @param size the number of hits, capped to {@link #MAX_SIZE}.
+     * @param documentClass the type of the search documents.
+     * @param <T> the type of the search documents.
+     * @return the hits.
+     */
+    static <T> Mono<SearchSlice<T>> searchArea(
+        ReactiveElasticsearchTemplate template,
+        String query,
+        SearchArea area,
+        int size,
+        Class<T> documentClass
+    ) {
+        int pageSize = Math.min(Math.max(size, 1), MAX_SIZE);
+        List<SearchArea> areas = area.expand();
+        SearchArea last = areas.get(areas.size() - 1);
+        return Flux
+            .fromIterable(areas)
+            .concatMap(step ->
+                searchArea(template, query, step, area.getCenter(), pageSize, !area.isNearest(), documentClass)
+                    .filter(hits -> step == last || hits.getContent().size() >= pageSize)
+            )
+            .next();
+    }
+
+    private static <T> Mono<SearchSlice<T>> searchArea(
+        ReactiveElasticsearchTemplate template,
+        String query,
+        SearchArea area,
+        GeoPoint center,
+        int pageSize,
+        boolean trackTotalHits,
+        Class<T> documentClass
+    ) {
+        NativeSearchQuery nativeSearchQuery = new NativeSearchQuery(
+            boolQuery().must(query == null || query.isBlank() ? matchAllQuery() : queryStringQuery(query)).filter(areaFilter(area)),
+            null,
+            List.of(
+                SortBuilders
+                    .geoDistanceSort(SearchLocation.FIELD, center.getLat(), center.getLon())
+                    .unit(DistanceUnit.METERS)
+                    .order(SortOrder.ASC),
+                SortBuilders.fieldSort("id").order(SortOrder.ASC)
+            )
+        );
+        nativeSearchQuery.setPageable(PageRequest.of(0, pageSize));
+        nativeSearchQuery.setTrackTotalHits(trackTotalHits);
+        return template
+            .searchForPage(nativeSearchQuery, documentClass)
+            .map(page -> {
+                SearchHits<T> hits = page.getSearchHits();
+                return new SearchSlice<>(
+                    hits.getSearchHits().stream().map(SearchHit::getContent).collect(Collectors.toList()),
+                    trackTotalHits ? hits.getTotalHits() : null,
+                    null
+                );
+            });
+    }
+
+    private static QueryBuilder areaFilter(SearchArea area) {
+        switch (area.getShape()) {
+            case CIRCLE:
+                return geoDistanceQuery(SearchLocation.FIELD)
+                    .point(area.getCenter().getLat(), area.getCenter().getLon())
+                    .distance(area.getRadiusMeters(), DistanceUnit.METERS);
+            case BOX:
+                return geoBoundingBoxQuery(SearchLocation.FIELD)
+                    .setCorners(
+                        area.getTopLeft().getLat(),
+                        area.getTopLeft().getLon(),
+                        area.getBottomRight().getLat(),
+                        area.getBottomRight().getLon()
+                    );
+            default:
+                return existsQuery(SearchLocation.FIELD);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package ir.ac.iust.comp.sa.repository.search;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import ir.ac.iust.comp.sa.config.ApplicationProperties;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Bounded cache of the pages of search results, keyed by entity type, normalized query, page size and cursor.
+ * <p>
+ * Pages of an entity type are evicted when a batch of its entities is indexed, and in any case after a short
+ * time to live, which bounds how long a page may miss the writes made visible by an index refresh. A search started
+ * before an eviction doesn't fill the cache, so that it can't bring back stale results.
+ */
+@Component
+public class SearchResultCache {
+
+    public static final String CACHE_NAME = "search.results";
+
+    private final Logger log = LoggerFactory.getLogger(SearchResultCache.class);
+
+    private final boolean enabled;
+
+    private final Cache<Key, SearchSlice<?>> cache;
+
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    public SearchResultCache(ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        ApplicationProperties.Cache properties = applicationProperties.getSearch().getCache();
+        this.enabled = properties.isEnabled();
+        this.cache =
+            Caffeine
+                .newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getTimeToLive())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        Gauge
+            .builder("cache.hit.ratio", cache, c -> c.stats().hitRate())
+            .description("Ratio of the cache lookups that found a value")
+            .tag("cache", CACHE_NAME)
+            .register(meterRegistry);
+    }
+
+    /**
+     * Returns the cached page of results of a search, or runs the search and caches its page.
+     *
+     * @param entityType the class of the searched entity.
+     * @param query the query.
+     * @param size the number of results of the page.
+     * @param after the cursor of the page, or {@code null} for the first page.
+     * @param search the search to run on a miss.
+     * @param <D> the type of the search documents.
+     * @return the page of results.
+     */
+    @SuppressWarnings("unchecked")
+    public <D> Mono<SearchSlice<D>> get(
+        Class<?> entityType,
+        String query,
+        int size,
+        SearchCursor after,
+        Supplier<Mono<SearchSlice<D>>> search
+    ) {
+        if (!enabled) {
+            return search.get();
+        }
+        return Mono.defer(() -> {
+            Key key = new Key(entityType.getSimpleName(), normalize(query), size, after);
+            SearchSlice<D> cached = (SearchSlice<D>) cache.getIfPresent(key);
+            if (cached != null) {
+                return Mono.just(cached);
+            }
+            AtomicLong generation = generation(key.entityType);
+            long searchedGeneration = generation.get();
+            return search
+                .get()
+                .doOnNext(slice -> {
+                    if (generation.get() == searchedGeneration) {
+                        cache.put(key, slice);
+                    }
+                });
+        });
+    }
+
+    /**
+     * Evicts the cached results of an entity type.
+     *
+     * @param entityType the class of the entity.
+     */
+    public void invalidate(Class<?> entityType) {
+        invalidate(entityType.getSimpleName());
+    }
+
+    /**
+     * Evicts the cached results of an entity type.
+     *
+     * @param entityType the simple name of the class of the entity.
+     */
+    public void invalidate(String entityType) {
+        if (!enabled) {
+            return;
+        }
+        log.trace("Evicting the cached search results of {}", entityType);
+        generation(entityType).incrementAndGet();
+        cache.asMap().keySet().removeIf(key -> key.entityType.equals(entityType));
+    }
+
+    private AtomicLong generation(String entityType) {
+        return generations.computeIfAbsent(entityType, type -> new AtomicLong());
+    }
+
+    private static String normalize(String query) {
+        return query.trim().replaceAll("\\s+", " ");
+    }
+
+    private static final class Key {
+
+        private final String entityType;
+        private final String query;
+        private final int size;
+        private final SearchCursor after;
+
+        Key(String entityType, String query, int size, SearchCursor after) {
+            this.entityType = entityType;
+            this.query = query;
+            this.size = size;
+            this.after = after;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key that = (Key) o;
+            return size == that.size && entityType.equals(that.entityType) && query.equals(that.query) && Objects.equals(after, that.after);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(entityType, query, size, after);
+        }
+    }
+}
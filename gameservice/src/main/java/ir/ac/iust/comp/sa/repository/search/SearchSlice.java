@@ -0,0 +1,89 @@
+package ir.ac.iust.comp.sa.repository.search;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.springframework.data.elasticsearch.core.SearchHit;
+import org.springframework.data.elasticsearch.core.SearchHits;
+
+/**
+ * A page of search results, with the number of hits of the whole query and the cursor of the next page.
+ *
+ * @param <T> the type of the results.
+ */
+public class SearchSlice<T> {
+
+    private final List<T> content;
+
+    private final Long totalHits;
+
+    private final SearchCursor next;
+
+    public SearchSlice(List<T> content, Long totalHits, SearchCursor next) {
+        this.content = content;
+        this.totalHits = totalHits;
+        this.next = next;
+    }
+
+    /**
+     * Reads the results of a query built by {@link SearchQueries}.
+     *
+     * @param hits the hits of the query.
+     * @param size the requested number of hits.
+     * @param trackTotalHits whether the query counted its hits.
+     * @param <T> the type of the results.
+     * @return the page of results.
+     */
+    static <T> SearchSlice<T> of(SearchHits<T> hits, int size, boolean trackTotalHits) {
+        List<SearchHit<T>> searchHits = hits.getSearchHits();
+        SearchCursor next = searchHits.size() < size ? null : SearchCursor.of(searchHits.get(searchHits.size() - 1));
+        return new SearchSlice<>(
+            searchHits.stream().map(SearchHit::getContent).collect(Collectors.toList()),
+            trackTotalHits ? hits.getTotalHits() : null,
+            next
+        );
+    }
+
+    /**
+     * @return the results of the page, in hit order.
+     */
+    public List<T> getContent() {
+        return content;
+    }
+
+    /**
+     * @return the number of hits of the whole query, or {@code null} if they were not counted.
+     */
+    public Long getTotalHits() {
+        return totalHits;
+    }
+
+    /**
+     * @return the cursor of the next page, or {@code null} if this page is the last one.
+     */
+    public SearchCursor getNext() {
+        return next;
+    }
+
+    /**
+     * Converts the results of the page, keeping its counts and cursor.
+     *
+     * @param mapper the conversion of a result.
+     * @param <R> the type of the new results.
+     * @return the page with the converted results.
+     */
+    public <R> SearchSlice<R> map(Function<T, R> mapper) {
+        return withContent(content.stream().map(mapper).collect(Collectors.toList()));
+    }
+
+    /**
+     * Replaces the results of the page, keeping its counts and cursor.
+     *
+     * @param content the new results.
+     * @param <R> the type of the new results.
+     * @return the page with the new results.
+     */
+    public <R> SearchSlice<R> withContent(List<R> content) {
+        return new SearchSlice<>(content, totalHits, next);
+    }
+}
@@ -0,0 +1,293 @@
+package ir.ac.iust.comp.sa.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import ir.ac.iust.comp.sa.config.ApplicationProperties;
+import ir.ac.iust.comp.sa.config.KafkaProperties;
+import ir.ac.iust.comp.sa.repository.search.SearchResultCache;
+import ir.ac.iust.comp.sa.service.dto.CacheInvalidationDTO;
+import ir.ac.iust.comp.sa.service.serde.CacheInvalidationSerde;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import javax.annotation.PreDestroy;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.kafka.receiver.KafkaReceiver;
+import reactor.kafka.receiver.ReceiverOptions;
+import reactor.kafka.sender.KafkaSender;
+import reactor.kafka.sender.SenderRecord;
+import reactor.kafka.sender.SenderResult;
+import reactor.util.retry.Retry;
+
+/**
+ * Service evicting the entries of the local caches of all the instances when they are written on one of them.
+ * <p>
+ * Each cache registers the eviction of its entries by key, the {@link SearchResultCache} being registered as
+ * {@link SearchResultCache#CACHE_NAME}, keyed by entity type. A write path invalidates an entry of a cache on this
+ * instance immediately, and on the others once its transaction commits, through the
+ * {@code application.cache-invalidation.topic} Kafka topic. The invalidations of a window are deduplicated before
+ * being sent, keyed by cache and key so that the topic can be compacted. Every instance consumes the whole topic in a
+ * consumer group of its own, from the latest offset and without committing, as the invalidations published before it
+ * started are of no use to its empty caches.
+ */
+@Service
+public class CacheInvalidationBus {
+
+    private static final String METRIC_PREFIX = "cache.invalidations.";
+
+    private final Logger log = LoggerFactory.getLogger(CacheInvalidationBus.class);
+
+    private final KafkaSender<String, byte[]> kafkaSender;
+
+    private final KafkaProperties kafkaProperties;
+
+    private final CacheInvalidationSerde cacheInvalidationSerde = new CacheInvalidationSerde();
+
+    private final ApplicationProperties.CacheInvalidation properties;
+
+    private final Function<ReceiverOptions<String, byte[]>, Flux<ConsumerRecord<String, byte[]>>> receivers;
+
+    private final String source = UUID.randomUUID().toString();
+
+    private final Map<String, Consumer<String>> caches = new ConcurrentHashMap<>();
+
+    private final Sinks.Many<CacheInvalidationDTO> invalidations;
+
+    private final Counter sent;
+
+    private final Counter coalesced;
+
+    private final Counter dropped;
+
+    private final Counter failed;
+
+    private final Counter received;
+
+    private final DistributionSummary batchSize;
+
+    private final Disposable.Composite running = Disposables.composite();
+
+    @Autowired
+    public CacheInvalidationBus(
+        SearchResultCache searchResultCache,
+        KafkaSender<String, byte[]> kafkaSender,
+        KafkaProperties kafkaProperties,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
+    ) {
+        this(
+            kafkaSender,
+            kafkaProperties,
+            applicationProperties,
+            meterRegistry,
+            options -> Flux.from(KafkaReceiver.create(options).receive())
+        );
+        register(SearchResultCache.CACHE_NAME, searchResultCache::invalidate);
+    }
+
+    CacheInvalidationBus(
+        KafkaSender<String, byte[]> kafkaSender,
+        KafkaProperties kafkaProperties,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry,
+        Function<ReceiverOptions<String, byte[]>, Flux<ConsumerRecord<String, byte[]>>> receivers
+    ) {
+        this.kafkaSender = kafkaSender;
+        this.kafkaProperties = kafkaProperties;
+        this.properties = applicationProperties.getCacheInvalidation();
+        this.receivers = receivers;
+        // not cancelled when the sending stream fails, so that it is resubscribed to without losing the buffered invalidations
+        this.invalidations = Sinks.many().multicast().onBackpressureBuffer(properties.getBufferSize(), false);
+        this.sent = invalidationCounter("sent", meterRegistry);
+        this.coalesced = invalidationCounter("coalesced", meterRegistry);
+        this.dropped = invalidationCounter("dropped", meterRegistry);
+        this.failed = invalidationCounter("failed", meterRegistry);
+        this.received = invalidationCounter("received", meterRegistry);
+        this.batchSize =
+            DistributionSummary
+                .builder(METRIC_PREFIX + "batch.size")
+                .description("Invalidations sent per window, once deduplicated")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!properties.isEnabled()) {
+            log.debug("Cache invalidations are local to the instance");
+            return;
+        }
+        log.debug("Sharing the cache invalidations of instance {} on {}", source, properties.getTopic());
+        running.add(
+            kafkaSender
+                .send(
+                    invalidations
+                        .asFlux()
+                        .bufferTimeout(properties.getMaxBatchSize(), properties.getWindow())
+                        .flatMapIterable(this::coalesce)
+                        .<SenderRecord<String, byte[], CacheInvalidationDTO>>handle((invalidation, sink) -> {
+                            byte[] value = toValue(invalidation);
+                            if (value != null) {
+                                String key = invalidation.getCache() + ":" + invalidation.getKey();
+                                sink.next(SenderRecord.create(properties.getTopic(), null, null, key, value, invalidation));
+                            }
+                        })
+                )
+                .doOnNext(this::acknowledge)
+                .retryWhen(retry("Resuming the sending of the cache invalidations after: {}"))
+                .subscribe()
+        );
+        running.add(
+            Flux
+                .defer(() -> receivers.apply(receiverOptions()))
+                .doOnNext(this::receive)
+                .retryWhen(retry("Resuming the reception of the cache invalidations after: {}"))
+                .subscribe()
+        );
+    }
+
+    @PreDestroy
+    public void stop() {
+        running.dispose();
+    }
+
+    /**
+     * Registers a local cache.
+     *
+     * @param cache the name of the cache.
+     * @param eviction the eviction of an entry of the cache by key.
+     */
+    public void register(String cache, Consumer<String> eviction) {
+        caches.put(cache, eviction);
+    }
+
+    /**
+     * Evicts an entry of a cache on this instance, then on the others once the current transaction commits, or
+     * immediately outside of a transaction.
+     *
+     * @param cache the name of the cache.
+     * @param key the key of the entry.
+     * @return a {@link Mono} completing once the local eviction is done, without waiting for the broker.
+     */
+    public Mono<Void> invalidate(String cache, String key) {
+        return Mono.defer(() -> {
+            evict(cache, key);
+            if (!properties.isEnabled()) {
+                return Mono.empty();
+            }
+            return TransactionHooks.afterCommit(() -> emit(new CacheInvalidationDTO(source, cache, key)));
+        });
+    }
+
+    /**
+     * @return the id of this instance, as the source of its invalidations.
+     */
+    public String getSource() {
+        return source;
+    }
+
+    private void evict(String cache, String key) {
+        Consumer<String> eviction = caches.get(cache);
+        if (eviction == null) {
+            log.trace("Ignoring the invalidation of {} in the unknown cache {}", key, cache);
+            return;
+        }
+        eviction.accept(key);
+    }
+
+    private synchronized void emit(CacheInvalidationDTO invalidation) {
+        if (invalidations.tryEmitNext(invalidation).isFailure()) {
+            log.debug("Dropping {}", invalidation);
+            dropped.increment();
+        }
+    }
+
+    private Collection<CacheInvalidationDTO> coalesce(List<CacheInvalidationDTO> batch) {
+        Set<CacheInvalidationDTO> distinct = new LinkedHashSet<>(batch);
+        coalesced.increment(batch.size() - distinct.size());
+        batchSize.record(distinct.size());
+        return distinct;
+    }
+
+    private byte[] toValue(CacheInvalidationDTO invalidation) {
+        try {
+            return cacheInvalidationSerde.serialize(properties.getTopic(), invalidation);
+        } catch (SerializationException e) {
+            log.warn("Failed to serialize {}: {}", invalidation, e.getMessage());
+            failed.increment();
+            return null;
+        }
+    }
+
+    private void acknowledge(SenderResult<CacheInvalidationDTO> result) {
+        if (result.exception() != null) {
+            log.warn("Failed to publish {}: {}", result.correlationMetadata(), result.exception().getMessage());
+            failed.increment();
+            return;
+        }
+        sent.increment();
+    }
+
+    private ReceiverOptions<String, byte[]> receiverOptions() {
+        Map<String, Object> consumerProps = kafkaProperties.getConsumerProps();
+        consumerProps.put("group.id", properties.getGroupIdPrefix() + "-" + source);
+        consumerProps.put("auto.offset.reset", "latest");
+        return ReceiverOptions
+            .<String, byte[]>create(consumerProps)
+            .withValueDeserializer(new ByteArrayDeserializer())
+            .subscription(List.of(properties.getTopic()));
+    }
+
+    private void receive(ConsumerRecord<String, byte[]> record) {
+        CacheInvalidationDTO invalidation;
+        try {
+            invalidation = cacheInvalidationSerde.deserialize(record.topic(), record.value());
+        } catch (SerializationException e) {
+            log.debug("Ignoring the invalid cache invalidation at offset {} of {}: {}", record.offset(), record.partition(), e.toString());
+            failed.increment();
+            return;
+        }
+        // the invalidations of this instance are already evicted
+        if (invalidation == null || source.equals(invalidation.getSource())) {
+            return;
+        }
+        log.trace("Evicting {}", invalidation);
+        received.increment();
+        evict(invalidation.getCache(), invalidation.getKey());
+    }
+
+    private Retry retry(String message) {
+        return Retry
+            .backoff(Long.MAX_VALUE, Duration.ofSeconds(1))
+            .maxBackoff(Duration.ofMinutes(1))
+            .doBeforeRetry(signal -> log.warn(message, signal.failure().toString()));
+    }
+
+    private static Counter invalidationCounter(String outcome, MeterRegistry meterRegistry) {
+        return Counter
+            .builder(METRIC_PREFIX + "invalidations")
+            .description("Cache invalidations handled")
+            .tag("outcome", outcome)
+            .register(meterRegistry);
+    }
+}
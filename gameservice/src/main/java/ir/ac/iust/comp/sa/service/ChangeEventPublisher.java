@@ -0,0 +1,46 @@
+package ir.ac.iust.comp.sa.service;
+
+import ir.ac.iust.comp.sa.service.dto.ChangeEventDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Service broadcasting the changes of the game objects and layers to the realtime subscribers of this instance.
+ * <p>
+ * Changes made in a transaction are broadcast once it commits, so subscribers never see a rolled back change. The
+ * broadcast doesn't buffer: each subscriber must keep up with the stream or buffer it on its own, see
+ * {@link ir.ac.iust.comp.sa.web.websocket.ChangeEventWebSocketHandler}.
+ */
+@Service
+public class ChangeEventPublisher {
+
+    private final Logger log = LoggerFactory.getLogger(ChangeEventPublisher.class);
+
+    private final Sinks.Many<ChangeEventDTO> events = Sinks.many().multicast().directBestEffort();
+
+    /**
+     * Publishes a change once the current transaction commits, or immediately outside of a transaction.
+     *
+     * @param event the change.
+     * @return a {@link Mono} completing once the publication is registered.
+     */
+    public Mono<Void> publish(ChangeEventDTO event) {
+        return TransactionHooks.afterCommit(() -> emit(event));
+    }
+
+    /**
+     * @return the hot stream of the changes published from now on.
+     */
+    public Flux<ChangeEventDTO> events() {
+        return events.asFlux();
+    }
+
+    private synchronized void emit(ChangeEventDTO event) {
+        log.trace("Broadcasting {}", event);
+        events.tryEmitNext(event);
+    }
+}
@@ -0,0 +1,361 @@
+package ir.ac.iust.comp.sa.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.postgresql.api.Notification;
+import io.r2dbc.postgresql.api.PostgresqlConnection;
+import io.r2dbc.postgresql.api.PostgresqlResult;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import ir.ac.iust.comp.sa.config.AdaptiveConnectionPool;
+import ir.ac.iust.comp.sa.config.ApplicationProperties;
+import ir.ac.iust.comp.sa.config.ReadReplicaRoutingConnectionFactory;
+import ir.ac.iust.comp.sa.domain.ChangeFeedEntry;
+import ir.ac.iust.comp.sa.repository.ChangeFeedEntryRepository;
+import ir.ac.iust.comp.sa.service.dto.ChangeEventDTO;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
+import reactor.util.retry.Retry;
+
+/**
+ * Service streaming the changes of the game objects and layers journaled by the database triggers, whichever instance
+ * or SQL client made them.
+ * <p>
+ * A dedicated PostgreSQL connection LISTENs to the {@value #CHANNEL} channel, on which each journal entry is notified
+ * once it has a sequence number, and fans the entries out to the subscribers through a shared sink. Subscribers
+ * resuming from a sequence number first catch up from the journal while the live entries are buffered. After losing
+ * its connection, the listener catches up from the journal the same way, so the live subscribers miss no change.
+ * <p>
+ * The triggers journal the changes without a sequence number, and NOTIFY the {@value #PENDING_CHANNEL} channel on
+ * commit. The entries are then numbered by the {@code change_feed_sequence} database function, which the instances
+ * call when notified and every {@code application.changes.feed.sequence-interval}. It only numbers the entries of the
+ * transactions older than the oldest one still running, one call at a time, so the entries are numbered, committed and
+ * notified in order: no entry ever shows up below a sequence number already streamed. A long transaction delays the
+ * changes committed after it started until it ends.
+ * <p>
+ * Subscribers resuming from a sequence number older than the journal fail with a {@link ChangeFeedExpiredException},
+ * the changes after it being pruned.
+ * <p>
+ * Other databases don't support notifications: the feed then only replays the journal, which isn't written either
+ * since the triggers are only installed on PostgreSQL.
+ */
+@Service
+public class ChangeFeed {
+
+    /**
+     * Name of the notification channel of the journal triggers.
+     */
+    public static final String CHANNEL = "change_feed";
+
+    /**
+     * Name of the notification channel of the journal entries waiting for a sequence number.
+     */
+    public static final String PENDING_CHANNEL = "change_feed_pending";
+
+    private static final String METRIC_PREFIX = "changes.feed.";
+
+    /**
+     * Name of the PostgreSQL driver in its connection factory metadata.
+     */
+    private static final String POSTGRESQL = "PostgreSQL";
+
+    private static final Duration MAX_RECONNECT_BACKOFF = Duration.ofMinutes(1);
+
+    private final Logger log = LoggerFactory.getLogger(ChangeFeed.class);
+
+    private final ChangeFeedEntryRepository changeFeedEntryRepository;
+
+    private final ApplicationProperties.Feed properties;
+
+    private final R2dbcProperties r2dbcProperties;
+
+    private final ObjectReader reader;
+
+    private final Sinks.Many<ChangeEventDTO> live = Sinks.many().multicast().directBestEffort();
+
+    private final Sinks.Many<Boolean> pending = Sinks.many().multicast().directBestEffort();
+
+    private final AtomicLong lastSequence = new AtomicLong();
+
+    private final AtomicInteger subscribers = new AtomicInteger();
+
+    private final Counter notifications;
+
+    private final Counter reconnections;
+
+    private final Counter overflows;
+
+    private final Counter sequenced;
+
+    private final Disposable.Swap listening = Disposables.swap();
+
+    private final Disposable.Swap sequencing = Disposables.swap();
+
+    private final Disposable.Swap pruning = Disposables.swap();
+
+    public ChangeFeed(
+        ChangeFeedEntryRepository changeFeedEntryRepository,
+        ApplicationProperties applicationProperties,
+        R2dbcProperties r2dbcProperties,
+        ObjectMapper objectMapper,
+        MeterRegistry meterRegistry
+    ) {
+        this.changeFeedEntryRepository = changeFeedEntryRepository;
+        this.properties = applicationProperties.getChanges().getFeed();
+        this.r2dbcProperties = r2dbcProperties;
+        this.reader = objectMapper.readerFor(ChangeEventDTO.class);
+        this.notifications =
+            Counter.builder(METRIC_PREFIX + "notifications").description("Changes notified by the database").register(meterRegistry);
+        this.reconnections =
+            Counter
+                .builder(METRIC_PREFIX + "reconnections")
+                .description("Connections to the database re-established by the listener")
+                .register(meterRegistry);
+        this.overflows =
+            Counter
+                .builder(METRIC_PREFIX + "overflows")
+                .description("Subscribers disconnected for falling too far behind")
+                .register(meterRegistry);
+        this.sequenced =
+            Counter.builder(METRIC_PREFIX + "sequenced").description("Changes numbered by this instance").register(meterRegistry);
+        Gauge
+            .builder(METRIC_PREFIX + "subscribers", subscribers, AtomicInteger::get)
+            .description("Clients subscribed to the change feed")
+            .register(meterRegistry);
+        Gauge
+            .builder(METRIC_PREFIX + "sequence", lastSequence, AtomicLong::get)
+            .description("Sequence number of the last change notified by the database")
+            .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        // the listener holds its own connection for as long as it listens, out of the pool
+        ConnectionFactory connectionFactory = AdaptiveConnectionPool.unpooledConnectionFactory(r2dbcProperties);
+        String driver = connectionFactory.getMetadata().getName();
+        if (POSTGRESQL.equals(driver)) {
+            log.debug("Listening to the change feed on the {} channel", CHANNEL);
+            listening.update(listen(connectionFactory).subscribe());
+            // notifications arriving while numbering are coalesced into one more call
+            sequencing.update(
+                Flux
+                    .merge(pending.asFlux(), Flux.interval(properties.getSequenceInterval()).map(tick -> Boolean.TRUE))
+                    .onBackpressureLatest()
+                    .concatMap(signal -> sequence(), 1)
+                    .subscribe()
+            );
+        } else {
+            log.warn("The change feed needs PostgreSQL notifications, it stays empty on {}", driver);
+        }
+        pruning.update(
+            Flux
+                .interval(properties.getPruneInterval(), properties.getPruneInterval())
+                .onBackpressureDrop()
+                .concatMap(tick -> prune(), 1)
+                .subscribe()
+        );
+    }
+
+    @PreDestroy
+    public void stop() {
+        listening.dispose();
+        sequencing.dispose();
+        pruning.dispose();
+    }
+
+    /**
+     * Streams the changes of the game objects and layers.
+     *
+     * @param entity the type of the changed entities ({@code game-object} or {@code layer}), or {@code null} for both.
+     * @param applicationId the application of the changed entities, or {@code null} for all applications.
+     * @param after the sequence number of the last change received by the subscriber, or {@code null} to only stream
+     * the changes committed from now on.
+     * @return the hot stream of the changes, failing if the subscriber falls too far behind, or with a
+     * {@link ChangeFeedExpiredException} if the changes after {@code after} aren't in the journal anymore.
+     */
+    public Flux<ChangeEventDTO> changes(String entity, Long applicationId, Long after) {
+        return Flux
+            .defer(() -> {
+                Flux<ChangeEventDTO> changes = live
+                    .asFlux()
+                    .filter(event -> matches(event, entity, applicationId))
+                    .onBackpressureBuffer(properties.getBufferSize(), dropped -> overflows.increment());
+                return after == null ? changes : checkRetained(after).thenMany(catchUp(journal(after, entity, applicationId), changes));
+            })
+            .doOnSubscribe(subscription -> subscribers.incrementAndGet())
+            .doFinally(signal -> subscribers.decrementAndGet());
+    }
+
+    /**
+     * Deletes the journal entries older than the retention.
+     *
+     * @return a {@link Mono} completing once the entries are deleted.
+     */
+    public Mono<Void> prune() {
+        return changeFeedEntryRepository
+            .deleteCreatedBefore(Instant.now().minus(properties.getRetention()))
+            .doOnNext(count -> log.debug("Pruned {} change feed entries", count))
+            .onErrorResume(e -> {
+                log.warn("Could not prune the change feed: {}", e.getMessage());
+                return Mono.empty();
+            })
+            .then();
+    }
+
+    private Flux<ChangeEventDTO> listen(ConnectionFactory connectionFactory) {
+        AtomicInteger connections = new AtomicInteger();
+        return Flux
+            .usingWhen(
+                connectionFactory.create(),
+                connection -> {
+                    PostgresqlConnection postgresqlConnection = (PostgresqlConnection) connection;
+                    Flux<ChangeEventDTO> notified = postgresqlConnection
+                        .createStatement("LISTEN " + CHANNEL)
+                        .execute()
+                        .flatMap(PostgresqlResult::getRowsUpdated)
+                        .thenMany(postgresqlConnection.createStatement("LISTEN " + PENDING_CHANNEL).execute())
+                        .flatMap(PostgresqlResult::getRowsUpdated)
+                        // the entries journaled while not listening are numbered without waiting for the next tick
+                        .doOnComplete(() -> pending.tryEmitNext(Boolean.TRUE))
+                        .thenMany(postgresqlConnection.getNotifications())
+                        .handle((notification, sink) -> {
+                            if (CHANNEL.equals(notification.getName())) {
+                                sink.next(parse(notification));
+                            } else {
+                                pending.tryEmitNext(Boolean.TRUE);
+                            }
+                        });
+                    if (connections.getAndIncrement() == 0) {
+                        return notified;
+                    }
+                    reconnections.increment();
+                    log.info("Reconnected to the change feed, catching up from sequence {}", lastSequence.get());
+                    return catchUp(journal(lastSequence.get(), null, null), notified);
+                },
+                Connection::close
+            )
+            .doOnNext(event -> {
+                notifications.increment();
+                lastSequence.accumulateAndGet(event.getSequence(), Math::max);
+                emit(event);
+            })
+            .retryWhen(
+                Retry
+                    .backoff(Long.MAX_VALUE, properties.getReconnectBackoff())
+                    .maxBackoff(MAX_RECONNECT_BACKOFF)
+                    .doBeforeRetry(signal -> log.warn("Lost the change feed connection, reconnecting: {}", signal.failure().getMessage()))
+            )
+            .repeatWhen(completed -> completed.delayElements(properties.getReconnectBackoff()));
+    }
+
+    /**
+     * Numbers the journal entries whose transaction is over, in batches.
+     */
+    private Mono<Void> sequence() {
+        int batchSize = properties.getSequenceBatchSize();
+        return changeFeedEntryRepository
+            .sequence(batchSize)
+            .expand(count -> count == batchSize ? changeFeedEntryRepository.sequence(batchSize) : Mono.empty())
+            .doOnNext(count -> {
+                if (count > 0) {
+                    sequenced.increment(count);
+                }
+            })
+            .contextWrite(context -> context.delete(ReadReplicaRoutingConnectionFactory.READ_ONLY_CONTEXT_KEY))
+            .onErrorResume(e -> {
+                log.warn("Could not number the change feed entries: {}", e.getMessage());
+                return Mono.empty();
+            })
+            .then();
+    }
+
+    /**
+     * Fails if the journal doesn't hold the changes after a sequence number anymore. The last numbered entry is never
+     * pruned, so an empty journal has never numbered any.
+     */
+    private Mono<Void> checkRetained(long after) {
+        return changeFeedEntryRepository
+            .findFirstSequence()
+            .map(first -> after >= first - 1)
+            .defaultIfEmpty(after <= 0)
+            .flatMap(retained -> retained ? Mono.<Void>empty() : Mono.error(new ChangeFeedExpiredException(after)))
+            .contextWrite(context -> context.delete(ReadReplicaRoutingConnectionFactory.READ_ONLY_CONTEXT_KEY));
+    }
+
+    /**
+     * Streams the journal, then the live changes buffered meanwhile that weren't replayed. As the entries are notified
+     * in the order of their sequence numbers, a live change up to the last replayed one was replayed already.
+     */
+    private static Flux<ChangeEventDTO> catchUp(Flux<ChangeEventDTO> journal, Flux<ChangeEventDTO> live) {
+        AtomicLong replayed = new AtomicLong(Long.MIN_VALUE);
+        return Flux
+            .mergeSequential(journal.map(event -> Tuples.of(true, event)), live.map(event -> Tuples.of(false, event)))
+            .filter(replayedOrLive -> {
+                long sequence = replayedOrLive.getT2().getSequence();
+                if (replayedOrLive.getT1()) {
+                    replayed.set(sequence);
+                    return true;
+                }
+                return sequence > replayed.get();
+            })
+            .map(Tuple2::getT2);
+    }
+
+    private Flux<ChangeEventDTO> journal(long after, String entity, Long applicationId) {
+        int batchSize = properties.getReplayBatchSize();
+        return page(after, entity, applicationId)
+            .expand(entries ->
+                entries.size() < batchSize ? Mono.empty() : page(entries.get(entries.size() - 1).getSequence(), entity, applicationId)
+            )
+            .flatMapIterable(entries -> entries)
+            .map(ChangeEventDTO::of)
+            // the journal is read from the primary, which a lagging read replica could miss changes of
+            .contextWrite(context -> context.delete(ReadReplicaRoutingConnectionFactory.READ_ONLY_CONTEXT_KEY));
+    }
+
+    private Mono<List<ChangeFeedEntry>> page(long after, String entity, Long applicationId) {
+        return changeFeedEntryRepository.findAfter(after, entity, applicationId, properties.getReplayBatchSize()).collectList();
+    }
+
+    private ChangeEventDTO parse(Notification notification) {
+        try {
+            return reader.readValue(notification.getParameter());
+        } catch (IOException e) {
+            throw new IllegalStateException("Invalid change feed notification: " + notification.getParameter(), e);
+        }
+    }
+
+    private synchronized void emit(ChangeEventDTO event) {
+        log.trace("Broadcasting {}", event);
+        live.tryEmitNext(event);
+    }
+
+    private static boolean matches(ChangeEventDTO event, String entity, Long applicationId) {
+        return (
+            (entity == null || entity.equals(event.getEntity())) &&
+            (applicationId == null || Objects.equals(applicationId, event.getApplicationId()))
+        );
+    }
+}
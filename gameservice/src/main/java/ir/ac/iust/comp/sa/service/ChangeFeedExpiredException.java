@@ -0,0 +1,14 @@
+package ir.ac.iust.comp.sa.service;
+
+/**
+ * Thrown when resuming the {@link ChangeFeed} from a sequence number whose following changes were pruned from the
+ * journal: the subscriber must reload the entities instead.
+ */
+public class ChangeFeedExpiredException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public ChangeFeedExpiredException(long after) {
+        super("The changes after sequence number " + after + " are not retained anymore");
+    }
+}
@@ -0,0 +1,178 @@
+package ir.ac.iust.comp.sa.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import ir.ac.iust.comp.sa.config.ApplicationProperties;
+import ir.ac.iust.comp.sa.service.dto.DomainEventDTO;
+import ir.ac.iust.comp.sa.service.serde.DomainEventSerde;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.PreDestroy;
+import org.apache.kafka.common.errors.SerializationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.kafka.sender.KafkaSender;
+import reactor.kafka.sender.SenderRecord;
+import reactor.kafka.sender.SenderResult;
+import reactor.util.retry.Retry;
+
+/**
+ * Service publishing the committed changes of the applications, layers and game objects to the
+ * {@code application.events.topic} Kafka topic.
+ * <p>
+ * The changes of the layers and game objects are those broadcast by {@link ChangeEventPublisher}, whatever their
+ * write path; the changes of the applications are published explicitly. Events are sent as a single stream through
+ * the shared {@link KafkaSender}, whose idempotent producer batches them, and keyed by entity so that the events of an
+ * entity land on the same partition, in order. Writes never wait for the broker: events are buffered up to
+ * {@code application.events.buffer-size}, then dropped.
+ */
+@Service
+public class DomainEventPublisher {
+
+    private static final String METRIC_PREFIX = "events.kafka.";
+
+    private final Logger log = LoggerFactory.getLogger(DomainEventPublisher.class);
+
+    private final ChangeEventPublisher changeEventPublisher;
+
+    private final KafkaSender<String, byte[]> kafkaSender;
+
+    private final DomainEventSerde domainEventSerde = new DomainEventSerde();
+
+    private final ApplicationProperties.Events properties;
+
+    private final Sinks.Many<DomainEventDTO> events;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final Counter sent;
+
+    private final Counter failed;
+
+    private final Counter dropped;
+
+    private final Timer latency;
+
+    private final Disposable.Composite publishing = Disposables.composite();
+
+    public DomainEventPublisher(
+        ChangeEventPublisher changeEventPublisher,
+        KafkaSender<String, byte[]> kafkaSender,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
+    ) {
+        this.changeEventPublisher = changeEventPublisher;
+        this.kafkaSender = kafkaSender;
+        this.properties = applicationProperties.getEvents();
+        // not cancelled when the sending stream fails, so that it is resubscribed to without losing the buffered events
+        this.events = Sinks.many().multicast().onBackpressureBuffer(properties.getBufferSize(), false);
+        Gauge
+            .builder(METRIC_PREFIX + "in-flight", inFlight, AtomicInteger::get)
+            .description("Events sent and not yet acknowledged by the broker")
+            .register(meterRegistry);
+        this.sent = eventCounter("sent", meterRegistry);
+        this.failed = eventCounter("failed", meterRegistry);
+        this.dropped = eventCounter("dropped", meterRegistry);
+        this.latency =
+            Timer
+                .builder(METRIC_PREFIX + "latency")
+                .description("Time from the sending of an event to its acknowledgement by the broker")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!properties.isEnabled()) {
+            log.debug("Domain events are disabled");
+            return;
+        }
+        log.debug("Publishing the domain events to {}", properties.getTopic());
+        publishing.add(
+            kafkaSender
+                .send(events.asFlux().<SenderRecord<String, byte[], Long>>handle((event, sink) -> toRecord(event).ifPresent(sink::next)))
+                .doOnNext(this::acknowledge)
+                .retryWhen(
+                    Retry
+                        .backoff(Long.MAX_VALUE, Duration.ofSeconds(1))
+                        .maxBackoff(Duration.ofMinutes(1))
+                        .doBeforeRetry(signal -> {
+                            log.warn("Resuming the domain events after: {}", signal.failure().toString());
+                            // the events in flight when the stream failed are not acknowledged anymore
+                            inFlight.set(0);
+                        })
+                )
+                .subscribe()
+        );
+        publishing.add(changeEventPublisher.events().map(DomainEventDTO::of).subscribe(this::emit));
+    }
+
+    @PreDestroy
+    public void stop() {
+        publishing.dispose();
+    }
+
+    /**
+     * Publishes an event once the current transaction commits, or immediately outside of a transaction.
+     *
+     * @param event the event.
+     * @return a {@link Mono} completing once the publication is registered, without waiting for the broker.
+     */
+    public Mono<Void> publish(DomainEventDTO event) {
+        if (!properties.isEnabled()) {
+            return Mono.empty();
+        }
+        return TransactionHooks.afterCommit(() -> emit(event));
+    }
+
+    private synchronized void emit(DomainEventDTO event) {
+        log.trace("Publishing {}", event);
+        if (events.tryEmitNext(event).isFailure()) {
+            log.debug("Dropping {}", event);
+            dropped.increment();
+        }
+    }
+
+    private Optional<SenderRecord<String, byte[], Long>> toRecord(DomainEventDTO event) {
+        try {
+            byte[] value = domainEventSerde.serialize(properties.getTopic(), event);
+            inFlight.incrementAndGet();
+            return Optional.of(SenderRecord.create(properties.getTopic(), null, null, event.getKey(), value, System.nanoTime()));
+        } catch (SerializationException e) {
+            log.warn("Failed to serialize {}: {}", event, e.getMessage());
+            failed.increment();
+            return Optional.empty();
+        }
+    }
+
+    private void acknowledge(SenderResult<Long> result) {
+        inFlight.decrementAndGet();
+        if (result.exception() != null) {
+            log.warn("Failed to publish a domain event: {}", result.exception().getMessage());
+            failed.increment();
+            return;
+        }
+        latency.record(System.nanoTime() - result.correlationMetadata(), TimeUnit.NANOSECONDS);
+        sent.increment();
+    }
+
+    private static Counter eventCounter(String outcome, MeterRegistry meterRegistry) {
+        return Counter
+            .builder(METRIC_PREFIX + "events")
+            .description("Domain events handled")
+            .tag("outcome", outcome)
+            .register(meterRegistry);
+    }
+}
@@ -1,11 +1,16 @@
 package ir.ac.iust.comp.sa.service;
 
+import io.r2dbc.spi.Row;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.r2dbc.convert.R2dbcConverter;
@@ -15,8 +20,13 @@ import org.springframework.data.r2dbc.mapping.OutboundRow;
 import org.springframework.data.r2dbc.query.UpdateMapper;
 import org.springframework.data.relational.core.mapping.RelationalPersistentEntity;
 import org.springframework.data.relational.core.query.Criteria;
+import org.springframework.data.relational.core.query.Update;
+import org.springframework.data.relational.core.sql.Column;
+import org.springframework.data.relational.core.sql.Condition;
 import org.springframework.data.relational.core.sql.Conditions;
+import org.springframework.data.relational.core.sql.Expression;
 import org.springframework.data.relational.core.sql.OrderByField;
+import org.springframework.data.relational.core.sql.SQL;
 import org.springframework.data.relational.core.sql.Select;
 import org.springframework.data.relational.core.sql.SelectBuilder.SelectFromAndJoin;
 import org.springframework.data.relational.core.sql.SelectBuilder.SelectFromAndJoinCondition;
@@ -24,7 +34,10 @@ import org.springframework.data.relational.core.sql.SelectBuilder.SelectOrdered;
 import org.springframework.data.relational.core.sql.SqlIdentifier;
 import org.springframework.data.relational.core.sql.Table;
 import org.springframework.data.relational.core.sql.render.SqlRenderer;
+import org.springframework.r2dbc.core.DatabaseClient;
 import org.springframework.r2dbc.core.Parameter;
+import org.springframework.r2dbc.core.PreparedOperation;
+import org.springframework.r2dbc.core.binding.BindTarget;
 import org.springframework.stereotype.Service;
 import org.springframework.util.Assert;
 import reactor.core.publisher.Flux;
@@ -39,6 +52,7 @@ public class EntityManager {
 
     public static final String ENTITY_ALIAS = "e";
     public static final String ALIAS_PREFIX = "e_";
+    public static final String VERSION_COLUMN = "version";
 
     public static class LinkTable {
 
@@ -60,12 +74,16 @@ public class EntityManager {
     private final UpdateMapper updateMapper;
     private final R2dbcEntityTemplate r2dbcEntityTemplate;
     private final StatementMapper statementMapper;
+    private final boolean supportsUpdateReturning;
 
     public EntityManager(SqlRenderer sqlRenderer, UpdateMapper updateMapper, R2dbcEntityTemplate r2dbcEntityTemplate) {
         this.sqlRenderer = sqlRenderer;
         this.updateMapper = updateMapper;
         this.r2dbcEntityTemplate = r2dbcEntityTemplate;
         this.statementMapper = r2dbcEntityTemplate.getDataAccessStrategy().getStatementMapper();
+        // the H2 dialect extends the PostgreSQL one, but H2 doesn't understand UPDATE ... RETURNING
+        this.supportsUpdateReturning =
+            "PostgreSQL".equals(r2dbcEntityTemplate.getDatabaseClient().getConnectionFactory().getMetadata().getName());
     }
 
     /**
@@ -184,6 +202,196 @@ public class EntityManager {
         return r2dbcEntityTemplate.insert(entity);
     }
 
+    /**
+     * Updates the given entity. A versioned entity is only updated if its version is the latest one of its row.
+     * @param <S> the type of the updated entity.
+     * @param entity the entity to update.
+     * @return the updated entity, an {@link OptimisticLockingFailureException} if its version is outdated,
+     * or an {@link IllegalArgumentException} if it is versioned but has no version.
+     */
+    public <S> Mono<S> update(S entity) {
+        RelationalPersistentEntity<?> persistentEntity = getPersistentEntity(entity.getClass());
+        if (
+            persistentEntity != null &&
+            persistentEntity.hasVersionProperty() &&
+            persistentEntity.getPropertyAccessor(entity).getProperty(persistentEntity.getRequiredVersionProperty()) == null
+        ) {
+            String tableName = persistentEntity.getTableName().getReference();
+            return Mono.error(new IllegalArgumentException("The version of the " + tableName + " to update is null"));
+        }
+        return r2dbcEntityTemplate.update(entity);
+    }
+
+    /**
+     * Updates only the given columns of a single row, and reads back the requested columns of the updated row.
+     * On PostgreSQL this is a single {@code UPDATE ... RETURNING} statement, other databases fall back to an
+     * {@code UPDATE} followed by a select of the requested columns only. The returned columns are aliased with
+     * {@link #ALIAS_PREFIX}, so the entity row mappers can be applied with {@link #ENTITY_ALIAS}.
+     * @param <T> the type of the returned entity.
+     * @param tableName the name of the table to update.
+     * @param id the id of the row to update.
+     * @param assignments the new values, by column name. If empty, the row is only read.
+     * @param returnedColumns the columns to read back from the updated row.
+     * @param rowMapper the mapper to apply on the updated row.
+     * @return the updated entity, or an empty Mono if there is no row with the given id.
+     */
+    public <T> Mono<T> updateReturning(
+        String tableName,
+        Long id,
+        Map<String, Object> assignments,
+        List<String> returnedColumns,
+        BiFunction<Row, String, T> rowMapper
+    ) {
+        Assert.notNull(id, "id is null");
+        if (assignments.isEmpty()) {
+            return selectColumnsById(tableName, id, returnedColumns, rowMapper);
+        }
+        return updateReturning(tableName, id, Criteria.where("id").is(id), assignments, returnedColumns, rowMapper);
+    }
+
+    /**
+     * Updates only the given columns of a single versioned row with a compare-and-set on its {@link #VERSION_COLUMN},
+     * incrementing the version, and reads back the requested columns of the updated row.
+     * @param <T> the type of the returned entity.
+     * @param tableName the name of the table to update.
+     * @param id the id of the row to update.
+     * @param expectedVersion the version the update is based on.
+     * @param assignments the new values, by column name. If empty, the row is only read.
+     * @param returnedColumns the columns to read back from the updated row.
+     * @param rowMapper the mapper to apply on the updated row.
+     * @return the updated entity, an empty Mono if there is no row with the given id,
+     * or an {@link OptimisticLockingFailureException} if the row was updated since the expected version.
+     */
+    public <T> Mono<T> updateVersionedReturning(
+        String tableName,
+        Long id,
+        Long expectedVersion,
+        Map<String, Object> assignments,
+        List<String> returnedColumns,
+        BiFunction<Row, String, T> rowMapper
+    ) {
+        Assert.notNull(id, "id is null");
+        Assert.notNull(expectedVersion, "expectedVersion is null");
+        if (assignments.isEmpty()) {
+            return selectColumnsById(tableName, id, returnedColumns, rowMapper);
+        }
+        return compareAndSet(tableName, id, expectedVersion, assignments, returnedColumns, rowMapper);
+    }
+
+    /**
+     * Reads the current {@link #VERSION_COLUMN} of a single row.
+     * @param tableName the name of the table.
+     * @param id the id of the row.
+     * @return the version of the row, or an empty Mono if there is no row with the given id.
+     */
+    public Mono<Long> findVersion(String tableName, Long id) {
+        return selectColumnsById(
+            tableName,
+            id,
+            List.of(VERSION_COLUMN),
+            (row, prefix) -> row.get(prefix + "_" + VERSION_COLUMN, Long.class)
+        );
+    }
+
+    private <T> Mono<T> compareAndSet(
+        String tableName,
+        Long id,
+        Long expectedVersion,
+        Map<String, Object> assignments,
+        List<String> returnedColumns,
+        BiFunction<Row, String, T> rowMapper
+    ) {
+        Map<String, Object> versionedAssignments = new LinkedHashMap<>(assignments);
+        versionedAssignments.put(VERSION_COLUMN, expectedVersion + 1);
+        Criteria criteria = Criteria.where("id").is(id).and(VERSION_COLUMN).is(expectedVersion);
+        return this.<T>updateReturning(tableName, id, criteria, versionedAssignments, returnedColumns, rowMapper)
+            .switchIfEmpty(
+                findVersion(tableName, id)
+                    .flatMap(version ->
+                        Mono.error(
+                            new OptimisticLockingFailureException(
+                                "Version " + expectedVersion + " of " + tableName + " " + id + " is outdated, the current one is " + version
+                            )
+                        )
+                    )
+            );
+    }
+
+    private <T> Mono<T> updateReturning(
+        String tableName,
+        Long id,
+        Criteria criteria,
+        Map<String, Object> assignments,
+        List<String> returnedColumns,
+        BiFunction<Row, String, T> rowMapper
+    ) {
+        Update update = null;
+        for (Entry<String, Object> assignment : assignments.entrySet()) {
+            update =
+                update == null
+                    ? Update.update(assignment.getKey(), assignment.getValue())
+                    : update.set(assignment.getKey(), assignment.getValue());
+        }
+        StatementMapper.UpdateSpec updateSpec = statementMapper.createUpdate(tableName, update).withCriteria(criteria);
+        PreparedOperation<?> operation = statementMapper.getMappedObject(updateSpec);
+        if (supportsUpdateReturning) {
+            String returning = returnedColumns
+                .stream()
+                .map(column -> column + " AS " + ALIAS_PREFIX + column)
+                .collect(Collectors.joining(", "));
+            return r2dbcEntityTemplate
+                .getDatabaseClient()
+                .sql(new ReturningOperation(operation, returning))
+                .map((row, metadata) -> rowMapper.apply(row, ENTITY_ALIAS))
+                .one();
+        }
+        return r2dbcEntityTemplate
+            .getDatabaseClient()
+            .sql(operation)
+            .fetch()
+            .rowsUpdated()
+            .filter(numberOfUpdates -> numberOfUpdates > 0)
+            .flatMap(numberOfUpdates -> selectColumnsById(tableName, id, returnedColumns, rowMapper));
+    }
+
+    /**
+     * Reads some columns of the rows of a table matching a condition.
+     * @param tableName the name of the table.
+     * @param columnNames the columns to read, aliased with the {@link #ALIAS_PREFIX}.
+     * @param condition the condition on the columns of the table aliased with the {@link #ENTITY_ALIAS}, or {@code null} to
+     *                  read all the rows.
+     * @param bindings the values of the bind markers of the condition, by name.
+     * @param rowMapper the mapper of the read rows, called with the {@link #ENTITY_ALIAS} prefix.
+     * @param <T> the type of the mapped rows.
+     * @return the mapped rows, ordered by id.
+     */
+    public <T> Flux<T> selectColumns(
+        String tableName,
+        List<String> columnNames,
+        Condition condition,
+        Map<String, ?> bindings,
+        BiFunction<Row, String, T> rowMapper
+    ) {
+        Table table = Table.aliased(tableName, ENTITY_ALIAS);
+        List<Expression> columns = columnNames
+            .stream()
+            .map(column -> Column.aliased(column, table, ALIAS_PREFIX + column))
+            .collect(Collectors.toList());
+        SelectFromAndJoin selectFrom = Select.builder().select(columns).from(table);
+        SelectOrdered selectWhere = condition == null ? selectFrom : selectFrom.where(condition);
+        Select select = selectWhere.orderBy(table.column("id")).build();
+        DatabaseClient.GenericExecuteSpec spec = r2dbcEntityTemplate.getDatabaseClient().sql(createSelect(select));
+        for (Entry<String, ?> binding : bindings.entrySet()) {
+            spec = spec.bind(binding.getKey(), binding.getValue());
+        }
+        return spec.map((row, metadata) -> rowMapper.apply(row, ENTITY_ALIAS)).all();
+    }
+
+    private <T> Mono<T> selectColumnsById(String tableName, Long id, List<String> columnNames, BiFunction<Row, String, T> rowMapper) {
+        Condition byId = Table.aliased(tableName, ENTITY_ALIAS).column("id").isEqualTo(SQL.bindMarker(":id"));
+        return selectColumns(tableName, columnNames, byId, Map.of("id", id), rowMapper).singleOrEmpty();
+    }
+
     /**
      * Updates the table, which links the entity with the referred entities.
      * @param table describes the link table, it contains a table name, the column name for the id, and for the referred entity id.
@@ -233,4 +441,33 @@ public class EntityManager {
 
         return fields;
     }
+
+    /**
+     * Appends a {@code RETURNING} clause to a mapped update statement, keeping its bindings.
+     */
+    private static class ReturningOperation implements PreparedOperation<Object> {
+
+        private final PreparedOperation<?> delegate;
+        private final String returning;
+
+        ReturningOperation(PreparedOperation<?> delegate, String returning) {
+            this.delegate = delegate;
+            this.returning = returning;
+        }
+
+        @Override
+        public Object getSource() {
+            return delegate.getSource();
+        }
+
+        @Override
+        public void bindTo(BindTarget target) {
+            delegate.bindTo(target);
+        }
+
+        @Override
+        public String toQuery() {
+            return delegate.toQuery() + " RETURNING " + returning;
+        }
+    }
 }
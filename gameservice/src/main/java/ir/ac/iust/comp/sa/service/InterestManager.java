@@ -0,0 +1,438 @@
+package ir.ac.iust.comp.sa.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import ir.ac.iust.comp.sa.config.ApplicationProperties;
+import ir.ac.iust.comp.sa.domain.GameObject;
+import ir.ac.iust.comp.sa.repository.GameObjectRepository;
+import ir.ac.iust.comp.sa.service.dto.ChangeEventDTO;
+import ir.ac.iust.comp.sa.service.dto.ViewportDTO;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Service routing the changes of the game objects to the subscribers whose viewport they touch.
+ * <p>
+ * Viewports, widened by {@code application.changes.interest.margin}, are indexed per application on a grid of
+ * {@code cell-size} units, so a change is only checked against the viewports covering the cell of its position. Each
+ * subscription also keeps its interest set, the game objects last seen within its viewport: a subscriber receives the
+ * changes within its viewport, plus the change moving a game object of its interest set out of it or deleting it, after
+ * which that game object leaves the interest set. When a viewport moves, the game objects entering it are read from the
+ * database and sent as {@link ChangeEventDTO.Type#ENTERED} events, unless the subscriber received a more recent change
+ * of them meanwhile.
+ * <p>
+ * The index of each application has its own lock, so the applications are routed and their viewports moved
+ * concurrently.
+ */
+@Service
+public class InterestManager {
+
+    private static final String METRIC_PREFIX = "changes.interest.";
+
+    private final Logger log = LoggerFactory.getLogger(InterestManager.class);
+
+    private final ChangeEventPublisher changeEventPublisher;
+
+    private final GameObjectRepository gameObjectRepository;
+
+    private final ApplicationProperties.Interest properties;
+
+    // the indexes are removed with their last subscription
+    private final Map<Long, ApplicationIndex> applications = new ConcurrentHashMap<>();
+
+    private final AtomicInteger subscriptions = new AtomicInteger();
+
+    private final Counter delivered;
+
+    private final Counter entered;
+
+    private final DistributionSummary fanOut;
+
+    private final Disposable.Swap routing = Disposables.swap();
+
+    public InterestManager(
+        ChangeEventPublisher changeEventPublisher,
+        GameObjectRepository gameObjectRepository,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
+    ) {
+        this.changeEventPublisher = changeEventPublisher;
+        this.gameObjectRepository = gameObjectRepository;
+        this.properties = applicationProperties.getChanges().getInterest();
+        Gauge
+            .builder(METRIC_PREFIX + "subscriptions", subscriptions, AtomicInteger::get)
+            .description("Subscribers with a viewport")
+            .register(meterRegistry);
+        this.delivered =
+            Counter
+                .builder(METRIC_PREFIX + "events")
+                .description("Change events routed to the subscribers with a viewport")
+                .tag("outcome", "delivered")
+                .register(meterRegistry);
+        this.entered =
+            Counter
+                .builder(METRIC_PREFIX + "events")
+                .description("Change events routed to the subscribers with a viewport")
+                .tag("outcome", "entered")
+                .register(meterRegistry);
+        this.fanOut =
+            DistributionSummary
+                .builder(METRIC_PREFIX + "fan.out")
+                .description("Subscribers receiving a change of a game object")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        routing.update(
+            changeEventPublisher.events().filter(event -> ChangeEventDTO.GAME_OBJECT.equals(event.getEntity())).subscribe(this::route)
+        );
+    }
+
+    @PreDestroy
+    public void stop() {
+        routing.dispose();
+    }
+
+    /**
+     * Subscribes to the changes of the game objects of an application, within a viewport set by
+     * {@link Subscription#move(ViewportDTO)}.
+     *
+     * @param applicationId the id of the application.
+     * @return the subscription, to dispose once the subscriber is gone.
+     */
+    public Subscription subscribe(Long applicationId) {
+        log.debug("Subscribing to the game objects of Application {} by viewport", applicationId);
+        ApplicationIndex index = applications.compute(
+            applicationId,
+            (id, current) -> {
+                ApplicationIndex subscribed = current == null ? new ApplicationIndex() : current;
+                subscribed.subscriptions++;
+                return subscribed;
+            }
+        );
+        subscriptions.incrementAndGet();
+        return new Subscription(applicationId, index);
+    }
+
+    private void route(ChangeEventDTO event) {
+        ApplicationIndex index = applications.get(event.getApplicationId());
+        if (index == null) {
+            fanOut.record(0);
+            return;
+        }
+        int targetCount;
+        synchronized (index) {
+            Set<Subscription> targets = new LinkedHashSet<>(index.watchers.getOrDefault(event.getId(), Collections.emptySet()));
+            if (event.getX() != null && event.getY() != null) {
+                long cell = cell(column(event.getX()), row(event.getY()));
+                for (Subscription subscription : index.cells.getOrDefault(cell, Collections.emptySet())) {
+                    if (subscription.covers(event.getX(), event.getY())) {
+                        targets.add(subscription);
+                    }
+                }
+            }
+            for (Subscription subscription : targets) {
+                subscription.deliver(event);
+            }
+            targetCount = targets.size();
+        }
+        fanOut.record(targetCount);
+    }
+
+    private int column(float x) {
+        return (int) Math.floor(x / properties.getCellSize());
+    }
+
+    private int row(float y) {
+        return (int) Math.floor(y / properties.getCellSize());
+    }
+
+    private static long cell(int column, int row) {
+        return ((long) column << Integer.SIZE) | (row & 0xFFFFFFFFL);
+    }
+
+    /**
+     * @return whether the subscriber received a state at least as recent as the one read from the database. A game
+     * object out of the interest set is resent at the same version, as the subscriber may have dropped it when it left
+     * the viewport.
+     */
+    private static boolean isUpToDate(Long lastVersion, Long readVersion, boolean inInterest) {
+        if (lastVersion == null || readVersion == null) {
+            return false;
+        }
+        return inInterest ? lastVersion >= readVersion : lastVersion > readVersion;
+    }
+
+    /**
+     * The subscriptions of an application, by cell of their viewport and by game object of their interest set, guarded
+     * by the index itself.
+     */
+    private static class ApplicationIndex {
+
+        private final Map<Long, Set<Subscription>> cells = new HashMap<>();
+
+        private final Map<Long, Set<Subscription>> watchers = new HashMap<>();
+
+        // updated by the atomic computations of the applications map
+        private int subscriptions;
+    }
+
+    /**
+     * The changes of the game objects within the viewport of a subscriber.
+     */
+    public final class Subscription implements Disposable {
+
+        private final Long applicationId;
+
+        private final ApplicationIndex index;
+
+        private final Sinks.Many<ChangeEventDTO> events = Sinks.many().unicast().onBackpressureBuffer();
+
+        // the following fields are guarded by the index
+
+        // the last events of the interest set, and of the game objects that left it while the viewport is being read
+        private final Map<Long, ChangeEventDTO> lastEvents = new HashMap<>();
+
+        private final Set<Long> interest = new HashSet<>();
+
+        private final List<Long> cells = new ArrayList<>();
+
+        private boolean hasViewport;
+
+        private float minX;
+
+        private float minY;
+
+        private float maxX;
+
+        private float maxY;
+
+        private boolean disposed;
+
+        // reads of the game objects entering the viewport in progress
+        private int reads;
+
+        private Subscription(Long applicationId, ApplicationIndex index) {
+            this.applicationId = applicationId;
+            this.index = index;
+        }
+
+        /**
+         * @return the changes of the game objects within the viewport, to subscribe once.
+         */
+        public Flux<ChangeEventDTO> events() {
+            return events.asFlux();
+        }
+
+        /**
+         * Sets the viewport of the subscriber, the game objects entering it being sent once read from the database.
+         *
+         * @param viewport the new viewport.
+         * @return a {@link Mono} completing once the game objects entering the viewport are sent, or signaling an
+         * {@link IllegalArgumentException} if the viewport is incomplete, inverted, or covers more than
+         * {@code application.changes.interest.max-cells} cells.
+         */
+        public Mono<Void> move(ViewportDTO viewport) {
+            return Mono.defer(() -> {
+                float[] area;
+                synchronized (index) {
+                    area = reindex(viewport);
+                    reads++;
+                }
+                return gameObjectRepository
+                    .findAllInAreaWithoutBlob(applicationId, area[0], area[1], area[2], area[3])
+                    .collectList()
+                    .doOnNext(this::enter)
+                    .doFinally(signal -> read())
+                    .then();
+            });
+        }
+
+        @Override
+        public void dispose() {
+            synchronized (index) {
+                if (disposed) {
+                    return;
+                }
+                disposed = true;
+                unindexCells();
+                for (Long id : interest) {
+                    unwatch(id);
+                }
+                interest.clear();
+                lastEvents.clear();
+                events.tryEmitComplete();
+            }
+            applications.computeIfPresent(applicationId, (id, current) -> --current.subscriptions == 0 ? null : current);
+            subscriptions.decrementAndGet();
+        }
+
+        @Override
+        public boolean isDisposed() {
+            synchronized (index) {
+                return disposed;
+            }
+        }
+
+        private float[] reindex(ViewportDTO viewport) {
+            if (
+                viewport.getMinX() == null ||
+                viewport.getMinY() == null ||
+                viewport.getMaxX() == null ||
+                viewport.getMaxY() == null ||
+                viewport.getMinX() > viewport.getMaxX() ||
+                viewport.getMinY() > viewport.getMaxY()
+            ) {
+                throw new IllegalArgumentException("Invalid viewport " + viewport);
+            }
+            float margin = properties.getMargin();
+            float newMinX = viewport.getMinX() - margin;
+            float newMinY = viewport.getMinY() - margin;
+            float newMaxX = viewport.getMaxX() + margin;
+            float newMaxY = viewport.getMaxY() + margin;
+            int firstColumn = column(newMinX);
+            int lastColumn = column(newMaxX);
+            int firstRow = row(newMinY);
+            int lastRow = row(newMaxY);
+            if ((long) (lastColumn - firstColumn + 1) * (lastRow - firstRow + 1) > properties.getMaxCells()) {
+                throw new IllegalArgumentException("Viewport too large " + viewport);
+            }
+            if (disposed) {
+                return new float[] { newMinX, newMinY, newMaxX, newMaxY };
+            }
+            unindexCells();
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                for (int row = firstRow; row <= lastRow; row++) {
+                    long cell = cell(column, row);
+                    index.cells.computeIfAbsent(cell, key -> new HashSet<>()).add(this);
+                    cells.add(cell);
+                }
+            }
+            hasViewport = true;
+            minX = newMinX;
+            minY = newMinY;
+            maxX = newMaxX;
+            maxY = newMaxY;
+            // the game objects left behind, their last events being kept until the read; those entering are read from the
+            // database
+            interest.removeIf(id -> {
+                ChangeEventDTO last = lastEvents.get(id);
+                if (covers(last.getX(), last.getY())) {
+                    return false;
+                }
+                unwatch(id);
+                return true;
+            });
+            return new float[] { minX, minY, maxX, maxY };
+        }
+
+        private void enter(List<GameObject> gameObjects) {
+            synchronized (index) {
+                if (disposed) {
+                    return;
+                }
+                for (GameObject gameObject : gameObjects) {
+                    ChangeEventDTO last = lastEvents.get(gameObject.getId());
+                    boolean inInterest = interest.contains(gameObject.getId());
+                    if (last != null && isUpToDate(last.getVersion(), gameObject.getVersion(), inInterest)) {
+                        continue;
+                    }
+                    if (!covers(gameObject.getX(), gameObject.getY())) {
+                        // the viewport moved again meanwhile
+                        continue;
+                    }
+                    ChangeEventDTO event = ChangeEventDTO.of(ChangeEventDTO.Type.ENTERED, gameObject);
+                    lastEvents.put(gameObject.getId(), event);
+                    if (interest.add(gameObject.getId())) {
+                        index.watchers.computeIfAbsent(gameObject.getId(), id -> new HashSet<>()).add(this);
+                    }
+                    entered.increment();
+                    emit(event);
+                }
+            }
+        }
+
+        /**
+         * Ends a read of the game objects entering the viewport: the last events kept for the reads in progress are
+         * pruned once there are none left.
+         */
+        private void read() {
+            synchronized (index) {
+                if (--reads == 0) {
+                    lastEvents.keySet().retainAll(interest);
+                }
+            }
+        }
+
+        private void deliver(ChangeEventDTO event) {
+            boolean inView = event.getType() != ChangeEventDTO.Type.DELETED && covers(event.getX(), event.getY());
+            if (inView) {
+                lastEvents.put(event.getId(), event);
+                if (interest.add(event.getId())) {
+                    index.watchers.computeIfAbsent(event.getId(), id -> new HashSet<>()).add(this);
+                }
+            } else {
+                // a read in progress may still return an older state of a game object that left the viewport
+                if (event.getType() == ChangeEventDTO.Type.DELETED || reads == 0) {
+                    lastEvents.remove(event.getId());
+                } else {
+                    lastEvents.put(event.getId(), event);
+                }
+                if (interest.remove(event.getId())) {
+                    unwatch(event.getId());
+                }
+            }
+            delivered.increment();
+            emit(event);
+        }
+
+        private boolean covers(Float x, Float y) {
+            return hasViewport && x != null && y != null && x >= minX && x <= maxX && y >= minY && y <= maxY;
+        }
+
+        private void emit(ChangeEventDTO event) {
+            events.tryEmitNext(event);
+        }
+
+        private void unindexCells() {
+            for (Long cell : cells) {
+                Set<Subscription> subscribers = index.cells.get(cell);
+                subscribers.remove(this);
+                if (subscribers.isEmpty()) {
+                    index.cells.remove(cell);
+                }
+            }
+            cells.clear();
+        }
+
+        private void unwatch(Long id) {
+            Set<Subscription> subscribers = index.watchers.get(id);
+            subscribers.remove(this);
+            if (subscribers.isEmpty()) {
+                index.watchers.remove(id);
+            }
+        }
+    }
+}
@@ -1,5 +1,9 @@
 package ir.ac.iust.comp.sa.service;
 
+import ir.ac.iust.comp.sa.repository.search.SearchArea;
+import ir.ac.iust.comp.sa.repository.search.SearchCursor;
+import ir.ac.iust.comp.sa.repository.search.SearchSlice;
+import ir.ac.iust.comp.sa.service.criteria.LayerCriteria;
 import ir.ac.iust.comp.sa.service.dto.LayerDTO;
 import org.springframework.data.domain.Pageable;
 import reactor.core.publisher.Flux;
@@ -20,8 +24,10 @@ public interface LayerService {
     /**
      * Partially updates a layer.
      *
+     * Only the non-null fields are written, and the buffer is not read back.
+     *
      * @param layerDTO the entity to update partially.
-     * @return the persisted entity.
+     * @return the persisted entity without its buffer, or an empty Mono if the layer does not exist.
      */
     Mono<LayerDTO> partialUpdate(LayerDTO layerDTO);
 
@@ -34,17 +40,27 @@ public interface LayerService {
     Flux<LayerDTO> findAll(Pageable pageable);
 
     /**
-     * Returns the number of layers available.
-     * @return the number of entities in the database.
+     * Get the layers matching the criteria.
      *
+     * @param criteria the filters on the layers.
+     * @param pageable the pagination information.
+     * @return the list of matching entities.
      */
-    Mono<Long> countAll();
+    Flux<LayerDTO> findByCriteria(LayerCriteria criteria, Pageable pageable);
+
+    /**
+     * Returns the number of layers matching the criteria.
+     * @param criteria the filters on the layers.
+     * @return the number of matching entities in the database.
+     */
+    Mono<Long> countByCriteria(LayerCriteria criteria);
 
     /**
-     * Returns the number of layers available in search repository.
+     * Returns the number of layers available.
+     * @return the number of entities in the database.
      *
      */
-    Mono<Long> searchCount();
+    Mono<Long> countAll();
 
     /**
      * Get the "id" layer.
@@ -66,9 +82,21 @@ public interface LayerService {
      * Search for the layer corresponding to the query.
      *
      * @param query the query of the search.
+     * @param size the number of entities of the page.
+     * @param after the cursor returned with the previous page, or {@code null} for the first page.
+     * @param full whether to load the full entities, including their buffer, from the database.
+     * @return the page of entities.
+     */
+    Mono<SearchSlice<LayerDTO>> search(String query, int size, SearchCursor after, boolean full);
+
+    /**
+     * Search for the layers located in an area, sorted by distance from its center.
      *
-     * @param pageable the pagination information.
-     * @return the list of entities.
+     * @param query the query of the search, or {@code null} to match every layer.
+     * @param area the area of the layers.
+     * @param size the maximum number of entities.
+     * @param full whether to load the full entities, including their buffer, from the database.
+     * @return the entities.
      */
-    Flux<LayerDTO> search(String query, Pageable pageable);
+    Mono<SearchSlice<LayerDTO>> searchArea(String query, SearchArea area, int size, boolean full);
 }
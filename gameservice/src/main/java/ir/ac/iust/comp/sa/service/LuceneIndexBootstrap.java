@@ -0,0 +1,147 @@
+package ir.ac.iust.comp.sa.service;
+
+import ir.ac.iust.comp.sa.config.ApplicationProperties;
+import ir.ac.iust.comp.sa.config.Constants;
+import ir.ac.iust.comp.sa.domain.SearchLease;
+import ir.ac.iust.comp.sa.repository.SearchLeaseRepository;
+import ir.ac.iust.comp.sa.repository.search.LuceneIndex;
+import ir.ac.iust.comp.sa.repository.search.LuceneIndexes;
+import ir.ac.iust.comp.sa.service.SearchEntities.SearchEntity;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import javax.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Service building the Lucene indices that are missing or incomplete from the database on startup, e.g. on the first
+ * start of a node or after a crash during a previous build.
+ * <p>
+ * The outbox entries of an entity are held back by the {@link SearchOutboxPause} while its index is built, and applied
+ * once it is complete. Searches return partial results meanwhile.
+ * <p>
+ * The indices are local to the instance and only see its own writes, so the instance holds the {@value #LEASE}
+ * {@link SearchLease} while it runs, and a second instance sharing the database fails to start.
+ */
+@Service
+@Profile(Constants.SPRING_PROFILE_LUCENE)
+public class LuceneIndexBootstrap {
+
+    static final String LEASE = "lucene-indexes";
+
+    private final Logger log = LoggerFactory.getLogger(LuceneIndexBootstrap.class);
+
+    private final SearchEntities searchEntities;
+
+    private final LuceneIndexes luceneIndexes;
+
+    private final SearchOutboxPause searchOutboxPause;
+
+    private final SearchLeaseRepository searchLeaseRepository;
+
+    private final int bulkSize;
+
+    private final Duration leaseDuration;
+
+    private final String owner = UUID.randomUUID().toString();
+
+    private Disposable renewal;
+
+    public LuceneIndexBootstrap(
+        SearchEntities searchEntities,
+        LuceneIndexes luceneIndexes,
+        SearchOutboxPause searchOutboxPause,
+        SearchLeaseRepository searchLeaseRepository,
+        ApplicationProperties applicationProperties
+    ) {
+        this.searchEntities = searchEntities;
+        this.luceneIndexes = luceneIndexes;
+        this.searchOutboxPause = searchOutboxPause;
+        this.searchLeaseRepository = searchLeaseRepository;
+        this.bulkSize = applicationProperties.getSearch().getReindex().getBulkSize();
+        this.leaseDuration = applicationProperties.getSearch().getLucene().getLeaseDuration();
+    }
+
+    // runs before the search indexer starts draining the outbox, so that the entities being built are paused first
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void start() {
+        if (!Boolean.TRUE.equals(searchLeaseRepository.acquire(LEASE, owner, leaseDuration).block())) {
+            throw new IllegalStateException(
+                "The Lucene indices are held by another instance, the " + Constants.SPRING_PROFILE_LUCENE + " profile runs a single one"
+            );
+        }
+        renewal =
+            Flux
+                .interval(leaseDuration.dividedBy(3))
+                .concatMap(tick ->
+                    searchLeaseRepository
+                        .acquire(LEASE, owner, leaseDuration)
+                        .onErrorResume(e -> {
+                            // retried on the next tick
+                            log.warn("Could not renew the Lucene indices lease: {}", e.getMessage());
+                            return Mono.just(true);
+                        })
+                )
+                .subscribe(renewed -> {
+                    if (!renewed) {
+                        log.error("The Lucene indices lease expired and was taken over by another instance");
+                    }
+                });
+        for (SearchEntity<?, ?> entity : searchEntities.getAll()) {
+            LuceneIndex index = luceneIndexes.get(entity.getDocumentClass());
+            if (!index.isComplete()) {
+                build(entity, index);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (renewal != null) {
+            renewal.dispose();
+            searchLeaseRepository
+                .release(LEASE, owner)
+                .timeout(Duration.ofSeconds(5))
+                .onErrorResume(e -> {
+                    log.warn("Could not release the Lucene indices lease: {}", e.getMessage());
+                    return Mono.empty();
+                })
+                .block();
+        }
+    }
+
+    private <T, D> void build(SearchEntity<T, D> entity, LuceneIndex index) {
+        String entityType = entity.getName();
+        log.info("Building the Lucene index {} of {} from the database", index.getName(), entityType);
+        Mono<Long> build = Mono
+            .fromRunnable(index::clear)
+            .subscribeOn(Schedulers.boundedElastic())
+            .thenMany(entity.findAllRows().limitRate(bulkSize).buffer(bulkSize))
+            .concatMap(
+                batch -> entity.getSearchRepository().saveAll(batch.stream().map(entity::toDocument).collect(Collectors.toList())).count(),
+                1
+            )
+            .reduce(0L, Long::sum)
+            .publishOn(Schedulers.boundedElastic())
+            .doOnNext(total -> {
+                index.markComplete();
+                index.refresh();
+                log.info("Built the Lucene index {} of {} with {} documents", index.getName(), entityType, total);
+            });
+        searchOutboxPause
+            .pausing(entityType, build)
+            .subscribe(null, e -> log.error("Could not build the Lucene index {} of {}: {}", index.getName(), entityType, e.getMessage()));
+    }
+}
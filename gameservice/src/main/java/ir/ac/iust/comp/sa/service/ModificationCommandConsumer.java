@@ -0,0 +1,262 @@
+package ir.ac.iust.comp.sa.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import ir.ac.iust.comp.sa.config.ApplicationProperties;
+import ir.ac.iust.comp.sa.config.KafkaProperties;
+import ir.ac.iust.comp.sa.service.dto.ModificationCommandDTO;
+import ir.ac.iust.comp.sa.service.serde.ModificationCommandSerde;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import javax.annotation.PreDestroy;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.kafka.receiver.KafkaReceiver;
+import reactor.kafka.receiver.ReceiverOptions;
+import reactor.kafka.receiver.ReceiverPartition;
+import reactor.kafka.receiver.ReceiverRecord;
+import reactor.util.retry.Retry;
+
+/**
+ * Service consuming the {@link ModificationCommandDTO} commands of the {@code application.commands.topic} Kafka topic,
+ * and applying them with {@link ModificationCommandService}.
+ * <p>
+ * Commands are keyed by application, and the keys are spread over {@code application.commands.concurrency} lanes:
+ * each lane applies its commands one at a time, in the order of their partition, while the lanes run in parallel. The
+ * offset of a command is only committed once its transaction, and those of all the previous commands of its
+ * partition, are committed, see {@link PendingOffsets}. Commands are thus applied at least once: those applied but
+ * not committed yet when the instance stops are applied again by the next consumer of their partition.
+ * <p>
+ * Commands updating no game object, e.g. because it was deleted or belongs to another application, are counted as
+ * ignored rather than applied.
+ */
+@Service
+@ConditionalOnProperty(prefix = "application.commands", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class ModificationCommandConsumer {
+
+    private static final String METRIC_PREFIX = "commands.kafka.";
+
+    private final Logger log = LoggerFactory.getLogger(ModificationCommandConsumer.class);
+
+    private final ModificationCommandService modificationCommandService;
+
+    private final KafkaProperties kafkaProperties;
+
+    private final ModificationCommandSerde modificationCommandSerde = new ModificationCommandSerde();
+
+    private final ApplicationProperties.Commands properties;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Function<ReceiverOptions<String, byte[]>, KafkaReceiver<String, byte[]>> receivers;
+
+    private final PendingOffsets pendingOffsets = new PendingOffsets();
+
+    private final AtomicReference<KafkaReceiver<String, byte[]>> receiver = new AtomicReference<>();
+
+    private final Map<TopicPartition, AtomicLong> lags = new ConcurrentHashMap<>();
+
+    private final Counter applied;
+
+    private final Counter ignored;
+
+    private final Counter rejected;
+
+    private final Counter failed;
+
+    private final Disposable.Composite consuming = Disposables.composite();
+
+    @Autowired
+    public ModificationCommandConsumer(
+        ModificationCommandService modificationCommandService,
+        KafkaProperties kafkaProperties,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
+    ) {
+        this(modificationCommandService, kafkaProperties, applicationProperties, meterRegistry, KafkaReceiver::create);
+    }
+
+    ModificationCommandConsumer(
+        ModificationCommandService modificationCommandService,
+        KafkaProperties kafkaProperties,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry,
+        Function<ReceiverOptions<String, byte[]>, KafkaReceiver<String, byte[]>> receivers
+    ) {
+        this.modificationCommandService = modificationCommandService;
+        this.kafkaProperties = kafkaProperties;
+        this.properties = applicationProperties.getCommands();
+        this.meterRegistry = meterRegistry;
+        this.receivers = receivers;
+        this.applied = commandCounter("applied", meterRegistry);
+        this.ignored = commandCounter("ignored", meterRegistry);
+        this.rejected = commandCounter("rejected", meterRegistry);
+        this.failed = commandCounter("failed", meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        log.debug("Consuming the modification commands of {}", properties.getTopic());
+        int concurrency = properties.getConcurrency();
+        consuming.add(
+            Flux
+                .defer(this::receive)
+                .groupBy(record -> lane(record, concurrency))
+                .flatMap(lane -> lane.concatMap(this::process), concurrency)
+                .retryWhen(
+                    Retry
+                        .backoff(Long.MAX_VALUE, Duration.ofSeconds(1))
+                        .maxBackoff(Duration.ofMinutes(1))
+                        .doBeforeRetry(signal -> log.warn("Resuming the modification commands after: {}", signal.failure().toString()))
+                )
+                .subscribe()
+        );
+        // ticks arriving while the end offsets are being read are dropped
+        consuming.add(Flux.interval(properties.getLagInterval()).onBackpressureDrop().concatMap(tick -> refreshLags(), 1).subscribe());
+    }
+
+    @PreDestroy
+    public void stop() {
+        consuming.dispose();
+    }
+
+    private Flux<ReceiverRecord<String, byte[]>> receive() {
+        Map<String, Object> consumerProps = kafkaProperties.getConsumerProps();
+        consumerProps.put("group.id", properties.getGroupId());
+        ReceiverOptions<String, byte[]> receiverOptions = ReceiverOptions
+            .<String, byte[]>create(consumerProps)
+            // the commands are deserialized while processed, so that an invalid one doesn't stop the consumer
+            .withValueDeserializer(new ByteArrayDeserializer())
+            .subscription(List.of(properties.getTopic()))
+            .commitInterval(properties.getCommitInterval())
+            .addRevokeListener(partitions ->
+                pendingOffsets.revoked(partitions.stream().map(ReceiverPartition::topicPartition).collect(Collectors.toList()))
+            );
+        KafkaReceiver<String, byte[]> kafkaReceiver = receivers.apply(receiverOptions);
+        receiver.set(kafkaReceiver);
+        return kafkaReceiver.receive().doOnNext(record -> pendingOffsets.received(record.receiverOffset()));
+    }
+
+    private static int lane(ReceiverRecord<String, byte[]> record, int concurrency) {
+        // records without key are spread by partition
+        Object key = record.key() == null ? record.partition() : record.key();
+        return Math.floorMod(key.hashCode(), concurrency);
+    }
+
+    private Mono<Void> process(ReceiverRecord<String, byte[]> record) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        return Mono
+            .fromCallable(() -> modificationCommandSerde.deserialize(record.topic(), record.value()))
+            .onErrorMap(SerializationException.class, e -> new IllegalArgumentException(e.getMessage()))
+            .flatMap(command ->
+                modificationCommandService
+                    .apply(command)
+                    .retryWhen(
+                        Retry
+                            .backoff(properties.getMaxRetries(), properties.getRetryBackoff())
+                            .filter(e -> !(e instanceof IllegalArgumentException))
+                            .onRetryExhaustedThrow((spec, signal) -> signal.failure())
+                    )
+                    .doOnSuccess(updated -> {
+                        if (updated != null && updated > 0) {
+                            applied.increment();
+                        } else {
+                            log.debug("Ignoring the command at {}: no game object updated", record.receiverOffset());
+                            ignored.increment();
+                        }
+                        sample.stop(processingTimer(command, record));
+                    })
+            )
+            .onErrorResume(e -> {
+                if (e instanceof IllegalArgumentException) {
+                    log.debug("Rejecting the command at {}: {}", record.receiverOffset(), e.getMessage());
+                    rejected.increment();
+                } else {
+                    log.warn("Skipping the command at {} after its retries: {}", record.receiverOffset(), e.toString());
+                    failed.increment();
+                }
+                return Mono.empty();
+            })
+            .then(Mono.fromRunnable(() -> pendingOffsets.processed(record.receiverOffset())));
+    }
+
+    private Mono<Void> refreshLags() {
+        KafkaReceiver<String, byte[]> kafkaReceiver = receiver.get();
+        if (kafkaReceiver == null) {
+            return Mono.empty();
+        }
+        Map<TopicPartition, Long> nextOffsets = pendingOffsets.nextOffsets();
+        // the partitions revoked from this instance
+        lags.forEach((topicPartition, lag) -> {
+            if (!nextOffsets.containsKey(topicPartition)) {
+                lag.set(0);
+            }
+        });
+        return kafkaReceiver
+            .doOnConsumer(consumer -> consumer.endOffsets(nextOffsets.keySet()))
+            .doOnNext(endOffsets ->
+                endOffsets.forEach((topicPartition, endOffset) ->
+                    lag(topicPartition).set(Math.max(0, endOffset - nextOffsets.get(topicPartition)))
+                )
+            )
+            .onErrorResume(e -> {
+                log.debug("Failed to read the end offsets of the modification commands: {}", e.toString());
+                return Mono.empty();
+            })
+            .then();
+    }
+
+    private AtomicLong lag(TopicPartition topicPartition) {
+        return lags.computeIfAbsent(
+            topicPartition,
+            key -> {
+                AtomicLong lag = new AtomicLong();
+                Gauge
+                    .builder(METRIC_PREFIX + "lag", lag, AtomicLong::get)
+                    .description("Commands of the partition not applied yet")
+                    .tag("topic", key.topic())
+                    .tag("partition", String.valueOf(key.partition()))
+                    .register(meterRegistry);
+                return lag;
+            }
+        );
+    }
+
+    private Timer processingTimer(ModificationCommandDTO command, ReceiverRecord<String, byte[]> record) {
+        return Timer
+            .builder(METRIC_PREFIX + "processing")
+            .description("Time spent applying a command, including its retries")
+            .tag("type", String.valueOf(command.getType()))
+            .tag("partition", String.valueOf(record.partition()))
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+    }
+
+    private static Counter commandCounter(String outcome, MeterRegistry meterRegistry) {
+        return Counter
+            .builder(METRIC_PREFIX + "commands")
+            .description("Modification commands handled")
+            .tag("outcome", outcome)
+            .register(meterRegistry);
+    }
+}
@@ -0,0 +1,108 @@
+package ir.ac.iust.comp.sa.service;
+
+import ir.ac.iust.comp.sa.domain.GameObject;
+import ir.ac.iust.comp.sa.repository.GameObjectRepository;
+import ir.ac.iust.comp.sa.service.dto.ChangeEventDTO;
+import ir.ac.iust.comp.sa.service.dto.ModificationCommandDTO;
+import ir.ac.iust.comp.sa.service.dto.PlayerInputDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Mono;
+
+/**
+ * Service applying the {@link ModificationCommandDTO} commands to the game objects, one transaction per command.
+ * <p>
+ * Translations and renderings are applied like the inputs of a player, see {@link PlayerInputService}.
+ */
+@Service
+@Transactional
+public class ModificationCommandService {
+
+    private final Logger log = LoggerFactory.getLogger(ModificationCommandService.class);
+
+    private final PlayerInputService playerInputService;
+
+    private final GameObjectRepository gameObjectRepository;
+
+    private final SearchOutbox searchOutbox;
+
+    private final ChangeEventPublisher changeEventPublisher;
+
+    public ModificationCommandService(
+        PlayerInputService playerInputService,
+        GameObjectRepository gameObjectRepository,
+        SearchOutbox searchOutbox,
+        ChangeEventPublisher changeEventPublisher
+    ) {
+        this.playerInputService = playerInputService;
+        this.gameObjectRepository = gameObjectRepository;
+        this.searchOutbox = searchOutbox;
+        this.changeEventPublisher = changeEventPublisher;
+    }
+
+    /**
+     * Applies a command. Commands on game objects of other applications are ignored.
+     *
+     * @param command the command.
+     * @return the number of updated game objects, or an {@link IllegalArgumentException} if the command is invalid.
+     */
+    public Mono<Integer> apply(ModificationCommandDTO command) {
+        log.debug("Request to apply ModificationCommand : {}", command);
+        // the validation errors are signaled rather than thrown
+        return Mono.defer(() -> modify(command));
+    }
+
+    private Mono<Integer> modify(ModificationCommandDTO command) {
+        required(command.getType(), "type");
+        required(command.getApplicationId(), "applicationId");
+        required(command.getGameObjectId(), "gameObjectId");
+        switch (command.getType()) {
+            case TRANLATION:
+                return input(command, PlayerInputDTO.Type.MOVE_BY, required(command.getX(), "x"), required(command.getY(), "y"));
+            case ROTATION:
+                return rotate(command);
+            case RENDER:
+                boolean visible = required(command.getVisible(), "visible");
+                return input(command, visible ? PlayerInputDTO.Type.ENABLE : PlayerInputDTO.Type.DISABLE, 0, 0);
+            default:
+                throw new IllegalArgumentException("Unsupported modification type " + command.getType());
+        }
+    }
+
+    private Mono<Integer> input(ModificationCommandDTO command, PlayerInputDTO.Type type, float x, float y) {
+        PlayerInputBatch batch = new PlayerInputBatch();
+        batch.add(new PlayerInputDTO(0, System.currentTimeMillis(), command.getGameObjectId(), type, x, y));
+        return playerInputService.apply(command.getApplicationId(), batch);
+    }
+
+    private Mono<Integer> rotate(ModificationCommandDTO command) {
+        return gameObjectRepository
+            .rotate(
+                command.getApplicationId(),
+                command.getGameObjectId(),
+                required(command.getX(), "x"),
+                required(command.getY(), "y"),
+                Math.toRadians(required(command.getAngle(), "angle"))
+            )
+            .filter(updated -> updated > 0)
+            .flatMap(updated -> gameObjectRepository.findByIdWithoutBlob(command.getGameObjectId()))
+            .flatMap(this::moved)
+            .defaultIfEmpty(0);
+    }
+
+    private Mono<Integer> moved(GameObject gameObject) {
+        return searchOutbox
+            .schedule(GameObject.class, gameObject.getId())
+            .then(changeEventPublisher.publish(ChangeEventDTO.of(ChangeEventDTO.Type.MOVED, gameObject)))
+            .thenReturn(1);
+    }
+
+    private static <T> T required(T value, String name) {
+        if (value == null) {
+            throw new IllegalArgumentException("The command has no " + name);
+        }
+        return value;
+    }
+}
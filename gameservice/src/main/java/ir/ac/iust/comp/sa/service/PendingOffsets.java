@@ -0,0 +1,74 @@
+package ir.ac.iust.comp.sa.service;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import org.apache.kafka.common.TopicPartition;
+import reactor.kafka.receiver.ReceiverOffset;
+
+/**
+ * The offsets of the records received from Kafka and not processed yet, per partition.
+ * <p>
+ * Records of a partition may be processed out of order, while committing an offset commits all the previous ones of
+ * its partition: an offset is only acknowledged once it and all the previous ones of its partition are processed.
+ */
+class PendingOffsets {
+
+    private final Map<TopicPartition, Partition> partitions = new HashMap<>();
+
+    synchronized void received(ReceiverOffset offset) {
+        partitions.computeIfAbsent(offset.topicPartition(), topicPartition -> new Partition()).received(offset);
+    }
+
+    synchronized void processed(ReceiverOffset offset) {
+        Partition partition = partitions.get(offset.topicPartition());
+        // the partition was revoked meanwhile
+        if (partition != null) {
+            partition.processed(offset);
+        }
+    }
+
+    synchronized void revoked(Collection<TopicPartition> topicPartitions) {
+        topicPartitions.forEach(partitions::remove);
+    }
+
+    /**
+     * @return the offset of the next record to process, per partition.
+     */
+    synchronized Map<TopicPartition, Long> nextOffsets() {
+        Map<TopicPartition, Long> nextOffsets = new HashMap<>();
+        partitions.forEach((topicPartition, partition) -> nextOffsets.put(topicPartition, partition.nextOffset));
+        return nextOffsets;
+    }
+
+    private static class Partition {
+
+        private final TreeMap<Long, ReceiverOffset> pending = new TreeMap<>();
+
+        private final Set<Long> processed = new HashSet<>();
+
+        private long nextOffset = -1;
+
+        void received(ReceiverOffset offset) {
+            pending.put(offset.offset(), offset);
+            if (nextOffset < 0) {
+                nextOffset = offset.offset();
+            }
+        }
+
+        void processed(ReceiverOffset offset) {
+            processed.add(offset.offset());
+            ReceiverOffset last = null;
+            while (!pending.isEmpty() && processed.remove(pending.firstKey())) {
+                last = pending.pollFirstEntry().getValue();
+            }
+            if (last != null) {
+                last.acknowledge();
+                nextOffset = last.offset() + 1;
+            }
+        }
+    }
+}
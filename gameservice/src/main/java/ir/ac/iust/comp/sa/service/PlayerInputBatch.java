@@ -0,0 +1,150 @@
+package ir.ac.iust.comp.sa.service;
+
+import ir.ac.iust.comp.sa.repository.GameObjectInputUpdate;
+import ir.ac.iust.comp.sa.service.dto.PlayerInputDTO;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongConsumer;
+
+/**
+ * The inputs of a player received during a tick, coalesced into a single update per game object.
+ * <p>
+ * Offsets add up, a position replaces the previous position and offsets, and the last enabling or disabling wins. A
+ * batch isn't thread-safe.
+ */
+public class PlayerInputBatch {
+
+    /**
+     * The coalesced update of a game object: its new position if set, moved by the offsets, and its new state if set.
+     */
+    public static class Entry {
+
+        private final Long gameObjectId;
+
+        private Float x;
+
+        private Float y;
+
+        private float dx;
+
+        private float dy;
+
+        private Boolean isEnabled;
+
+        Entry(Long gameObjectId) {
+            this.gameObjectId = gameObjectId;
+        }
+
+        public Long getGameObjectId() {
+            return gameObjectId;
+        }
+
+        public Float getX() {
+            return x;
+        }
+
+        public Float getY() {
+            return y;
+        }
+
+        public float getDx() {
+            return dx;
+        }
+
+        public float getDy() {
+            return dy;
+        }
+
+        public Boolean getIsEnabled() {
+            return isEnabled;
+        }
+
+        public boolean isPositionSet() {
+            return x != null || dx != 0 || dy != 0;
+        }
+
+        /**
+         * @return the update applied to the game object by the repository.
+         */
+        public GameObjectInputUpdate toUpdate() {
+            return new GameObjectInputUpdate(gameObjectId, x, y, dx, dy, isEnabled);
+        }
+
+        private void add(PlayerInputDTO input) {
+            switch (input.getType()) {
+                case MOVE_BY:
+                    dx += input.getX();
+                    dy += input.getY();
+                    break;
+                case MOVE_TO:
+                    x = input.getX();
+                    y = input.getY();
+                    dx = 0;
+                    dy = 0;
+                    break;
+                case ENABLE:
+                    isEnabled = true;
+                    break;
+                case DISABLE:
+                    isEnabled = false;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown input type " + input.getType());
+            }
+        }
+    }
+
+    private final Map<Long, Entry> entries = new LinkedHashMap<>();
+
+    private long[] receivedNanos = new long[16];
+
+    private int size;
+
+    private long lastSequence;
+
+    public void add(PlayerInputDTO input) {
+        entries.computeIfAbsent(input.getGameObjectId(), Entry::new).add(input);
+        if (size == receivedNanos.length) {
+            receivedNanos = Arrays.copyOf(receivedNanos, size * 2);
+        }
+        receivedNanos[size++] = input.getReceivedNanos();
+        lastSequence = Math.max(lastSequence, input.getSequence());
+    }
+
+    public Collection<Entry> getEntries() {
+        return entries.values();
+    }
+
+    public Entry getEntry(Long gameObjectId) {
+        return entries.get(gameObjectId);
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return the number of inputs in the batch.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the highest sequence number of the inputs in the batch.
+     */
+    public long getLastSequence() {
+        return lastSequence;
+    }
+
+    /**
+     * @param action the action called with the {@link PlayerInputDTO#getReceivedNanos() reception time} of each input.
+     */
+    public void forEachReceivedNanos(LongConsumer action) {
+        for (int i = 0; i < size; i++) {
+            action.accept(receivedNanos[i]);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package ir.ac.iust.comp.sa.service;
+
+import ir.ac.iust.comp.sa.config.ApplicationProperties;
+import ir.ac.iust.comp.sa.domain.GameObject;
+import ir.ac.iust.comp.sa.repository.GameObjectRepository;
+import ir.ac.iust.comp.sa.service.dto.ChangeEventDTO;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Service applying the inputs of the players to the game objects, a batch at a time.
+ * <p>
+ * The search documents of the game objects are refreshed when their state changes or when they leave their cell of
+ * {@code application.search.indexer.move-resolution} units, rather than on every move: the indexed position is then
+ * always within the cell of the actual one, bounding the error of the proximity searches.
+ */
+@Service
+@Transactional
+public class PlayerInputService {
+
+    private final Logger log = LoggerFactory.getLogger(PlayerInputService.class);
+
+    private final GameObjectRepository gameObjectRepository;
+
+    private final SearchOutbox searchOutbox;
+
+    private final ChangeEventPublisher changeEventPublisher;
+
+    private final float moveResolution;
+
+    public PlayerInputService(
+        GameObjectRepository gameObjectRepository,
+        SearchOutbox searchOutbox,
+        ChangeEventPublisher changeEventPublisher,
+        ApplicationProperties applicationProperties
+    ) {
+        this.gameObjectRepository = gameObjectRepository;
+        this.searchOutbox = searchOutbox;
+        this.changeEventPublisher = changeEventPublisher;
+        this.moveResolution = applicationProperties.getSearch().getIndexer().getMoveResolution();
+    }
+
+    /**
+     * Applies a batch of inputs to the game objects of an application, in a single batched update. Inputs on game objects
+     * of other applications are ignored.
+     *
+     * @param applicationId the id of the application.
+     * @param batch the inputs.
+     * @return the number of updated game objects.
+     */
+    public Mono<Integer> apply(Long applicationId, PlayerInputBatch batch) {
+        log.debug("Request to apply {} inputs to the GameObjects of Application : {}", batch.size(), applicationId);
+        if (batch.isEmpty()) {
+            return Mono.just(0);
+        }
+        List<Long> ids = batch.getEntries().stream().map(PlayerInputBatch.Entry::getGameObjectId).collect(Collectors.toList());
+        return gameObjectRepository
+            .applyInputs(applicationId, batch.getEntries().stream().map(PlayerInputBatch.Entry::toUpdate).collect(Collectors.toList()))
+            .filter(updated -> updated > 0)
+            .flatMapMany(updated -> gameObjectRepository.findAllByIdWithoutBlob(ids))
+            .filter(gameObject -> applicationId.equals(gameObject.getApplicationId()))
+            .collectList()
+            .flatMap(gameObjects -> written(gameObjects, batch))
+            .defaultIfEmpty(0);
+    }
+
+    private Mono<Integer> written(List<GameObject> gameObjects, PlayerInputBatch batch) {
+        List<Long> reindexed = gameObjects
+            .stream()
+            .filter(gameObject -> isReindexed(gameObject, batch.getEntry(gameObject.getId())))
+            .map(GameObject::getId)
+            .collect(Collectors.toList());
+        return searchOutbox
+            .scheduleAll(GameObject.class, reindexed)
+            .thenMany(
+                Flux
+                    .fromIterable(gameObjects)
+                    .concatMap(gameObject -> {
+                        PlayerInputBatch.Entry entry = batch.getEntry(gameObject.getId());
+                        ChangeEventDTO.Type type = ChangeEventDTO.partialUpdateType(entry.isPositionSet(), entry.getIsEnabled(), false);
+                        return changeEventPublisher.publish(ChangeEventDTO.of(type, gameObject));
+                    })
+            )
+            .then(Mono.just(gameObjects.size()));
+    }
+
+    /**
+     * A game object moved by offsets only is reindexed if it left its cell, its position before the update being known.
+     */
+    private boolean isReindexed(GameObject gameObject, PlayerInputBatch.Entry entry) {
+        if (moveResolution <= 0 || entry.getIsEnabled() != null || entry.getX() != null) {
+            return true;
+        }
+        if (gameObject.getX() == null || gameObject.getY() == null) {
+            return true;
+        }
+        return (
+            cell(gameObject.getX() - entry.getDx()) != cell(gameObject.getX()) ||
+            cell(gameObject.getY() - entry.getDy()) != cell(gameObject.getY())
+        );
+    }
+
+    private long cell(float coordinate) {
+        return (long) Math.floor(coordinate / moveResolution);
+    }
+}
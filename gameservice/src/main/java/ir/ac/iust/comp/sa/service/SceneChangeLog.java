@@ -0,0 +1,61 @@
+package ir.ac.iust.comp.sa.service;
+
+import ir.ac.iust.comp.sa.config.ApplicationProperties;
+import ir.ac.iust.comp.sa.repository.ChangeFeedEntryRepository;
+import ir.ac.iust.comp.sa.service.dto.ChangeEventDTO;
+import java.util.List;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+/**
+ * Service reading the changes of the scene of each application from the journal of the {@link ChangeFeed}.
+ * <p>
+ * The scene sequence number is the sequence number of the last journal entry, which numbers the changes of the layers
+ * and game objects database-wide in commit order, whichever instance or SQL client made them. A client can therefore
+ * fetch the changes it missed from any instance, as long as the journal still holds them, rather than reloading the
+ * scene.
+ * <p>
+ * The journal is read through the same connections as the scenes, so that a snapshot read from a lagging read replica
+ * is still at least as recent as its sequence number.
+ */
+@Service
+public class SceneChangeLog {
+
+    private final ChangeFeedEntryRepository changeFeedEntryRepository;
+
+    private final int maxChanges;
+
+    public SceneChangeLog(ChangeFeedEntryRepository changeFeedEntryRepository, ApplicationProperties applicationProperties) {
+        this.changeFeedEntryRepository = changeFeedEntryRepository;
+        this.maxChanges = applicationProperties.getScenes().getMaxChanges();
+    }
+
+    /**
+     * @return the scene sequence number of the last change, {@code 0} if no change was journaled yet.
+     */
+    public Mono<Long> getSequence() {
+        return changeFeedEntryRepository.findLastSequence().defaultIfEmpty(0L);
+    }
+
+    /**
+     * Reads the changes of an application after a scene sequence number.
+     *
+     * @param applicationId the id of the application.
+     * @param since the scene sequence number of the last change known by the client.
+     * @return the changes since, ordered by sequence number, or an empty Mono if some of them aren't journaled anymore,
+     * there are more than {@code application.scenes.max-changes} of them, or {@code since} is ahead of the journal.
+     */
+    public Mono<List<ChangeEventDTO>> changesSince(Long applicationId, long since) {
+        // the last numbered entry is never pruned, so an empty journal has never numbered any
+        return changeFeedEntryRepository
+            .findFirstSequence()
+            .zipWith(changeFeedEntryRepository.findLastSequence())
+            .map(journal -> since >= journal.getT1() - 1 && since <= journal.getT2())
+            .defaultIfEmpty(since == 0)
+            .filter(Boolean::booleanValue)
+            .flatMap(retained ->
+                changeFeedEntryRepository.findAfter(since, null, applicationId, maxChanges + 1).map(ChangeEventDTO::of).collectList()
+            )
+            .filter(changes -> changes.size() <= maxChanges);
+    }
+}
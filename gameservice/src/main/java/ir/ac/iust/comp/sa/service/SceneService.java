@@ -0,0 +1,116 @@
+package ir.ac.iust.comp.sa.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import ir.ac.iust.comp.sa.repository.GameObjectRepository;
+import ir.ac.iust.comp.sa.repository.LayerRepository;
+import ir.ac.iust.comp.sa.service.dto.SceneDTO;
+import ir.ac.iust.comp.sa.service.mapper.LayerMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Mono;
+
+/**
+ * Service synchronizing the scenes of the applications with the clients: a snapshot to start from, then the changes
+ * since the last scene sequence number received, served from the {@link SceneChangeLog}.
+ */
+@Service
+@Transactional(readOnly = true)
+public class SceneService {
+
+    private static final String METRIC_PREFIX = "scenes.";
+
+    private final Logger log = LoggerFactory.getLogger(SceneService.class);
+
+    private final SceneChangeLog sceneChangeLog;
+
+    private final LayerRepository layerRepository;
+
+    private final GameObjectRepository gameObjectRepository;
+
+    private final LayerMapper layerMapper;
+
+    private final Counter snapshots;
+
+    private final Counter deltas;
+
+    private final Counter resyncs;
+
+    public SceneService(
+        SceneChangeLog sceneChangeLog,
+        LayerRepository layerRepository,
+        GameObjectRepository gameObjectRepository,
+        LayerMapper layerMapper,
+        MeterRegistry meterRegistry
+    ) {
+        this.sceneChangeLog = sceneChangeLog;
+        this.layerRepository = layerRepository;
+        this.gameObjectRepository = gameObjectRepository;
+        this.layerMapper = layerMapper;
+        this.snapshots = syncCounter("snapshot", meterRegistry);
+        this.deltas = syncCounter("delta", meterRegistry);
+        this.resyncs = syncCounter("resync", meterRegistry);
+    }
+
+    /**
+     * Reads the scene of an application.
+     *
+     * @param applicationId the id of the application.
+     * @return the snapshot of the layers and game objects of the application, without their binary content, at least as
+     * recent as its scene sequence number.
+     */
+    public Mono<SceneDTO> snapshot(Long applicationId) {
+        log.debug("Request to get the scene of Application : {}", applicationId);
+        snapshots.increment();
+        return read(applicationId);
+    }
+
+    /**
+     * Reads the changes of the scene of an application since the last one received by a client, or the whole scene
+     * when they aren't journaled anymore.
+     *
+     * @param applicationId the id of the application.
+     * @param since the scene sequence number of the last change received by the client.
+     * @return the changes since, or a snapshot.
+     */
+    public Mono<SceneDTO> changesSince(Long applicationId, long since) {
+        log.debug("Request to get the changes of the scene of Application : {} since {}", applicationId, since);
+        return sceneChangeLog
+            .changesSince(applicationId, since)
+            .map(changes -> {
+                deltas.increment();
+                long sequence = changes.isEmpty() ? since : changes.get(changes.size() - 1).getSequence();
+                return SceneDTO.delta(applicationId, sequence, changes);
+            })
+            .switchIfEmpty(
+                Mono.defer(() -> {
+                    resyncs.increment();
+                    return read(applicationId);
+                })
+            );
+    }
+
+    private Mono<SceneDTO> read(Long applicationId) {
+        // the changes up to this sequence number are committed before the scene is read
+        return sceneChangeLog
+            .getSequence()
+            .flatMap(sequence ->
+                layerRepository
+                    .findAllByApplicationIdWithoutBlob(applicationId)
+                    .map(layerMapper::toDto)
+                    .collectList()
+                    .zipWhen(layers -> gameObjectRepository.findAllByApplicationIdWithoutBlob(applicationId).collectList())
+                    .map(scene -> SceneDTO.snapshot(applicationId, sequence, scene.getT1(), scene.getT2()))
+            );
+    }
+
+    private static Counter syncCounter(String kind, MeterRegistry meterRegistry) {
+        return Counter
+            .builder(METRIC_PREFIX + "syncs")
+            .description("Scenes sent to the clients")
+            .tag("kind", kind)
+            .register(meterRegistry);
+    }
+}
@@ -0,0 +1,70 @@
+package ir.ac.iust.comp.sa.service;
+
+import ir.ac.iust.comp.sa.repository.ApplicationRepository;
+import ir.ac.iust.comp.sa.service.dto.ScreenFrameDTO;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Service broadcasting the screen buffers written to the applications to the screen subscribers of this instance.
+ * <p>
+ * Frames written in a transaction are broadcast once it commits. Like {@link ChangeEventPublisher}, the broadcast
+ * doesn't buffer: each subscriber samples the frames at its own pace, see
+ * {@link ir.ac.iust.comp.sa.web.websocket.ScreenFrameWebSocketHandler}.
+ */
+@Service
+public class ScreenFramePublisher {
+
+    private final Logger log = LoggerFactory.getLogger(ScreenFramePublisher.class);
+
+    private final ApplicationRepository applicationRepository;
+
+    private final Sinks.Many<ScreenFrameDTO> frames = Sinks.many().multicast().directBestEffort();
+
+    public ScreenFramePublisher(ApplicationRepository applicationRepository) {
+        this.applicationRepository = applicationRepository;
+    }
+
+    /**
+     * Publishes a frame once the current transaction commits, or immediately outside of a transaction.
+     *
+     * @param frame the frame.
+     * @return a {@link Mono} completing once the publication is registered.
+     */
+    public Mono<Void> publish(ScreenFrameDTO frame) {
+        return TransactionHooks.afterCommit(() -> emit(frame));
+    }
+
+    /**
+     * Streams the frames of an application, starting with its current screen buffer.
+     *
+     * @param applicationId the id of the application.
+     * @return the hot stream of the frames.
+     */
+    public Flux<ScreenFrameDTO> frames(Long applicationId) {
+        return Flux.defer(() -> {
+            AtomicBoolean updated = new AtomicBoolean();
+            Flux<ScreenFrameDTO> updates = frames
+                .asFlux()
+                .filter(frame -> applicationId.equals(frame.getApplicationId()))
+                .doOnNext(frame -> updated.set(true));
+            // the current screen buffer is outdated by a frame published while it's read
+            Mono<ScreenFrameDTO> current = applicationRepository
+                .findById(applicationId)
+                .filter(application -> application.getScreenBuffer() != null)
+                .map(ScreenFrameDTO::of)
+                .filter(frame -> !updated.get());
+            return Flux.merge(updates, current);
+        });
+    }
+
+    private synchronized void emit(ScreenFrameDTO frame) {
+        log.trace("Broadcasting {}", frame);
+        frames.tryEmitNext(frame);
+    }
+}
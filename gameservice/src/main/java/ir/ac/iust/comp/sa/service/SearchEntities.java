@@ -0,0 +1,223 @@
+package ir.ac.iust.comp.sa.service;
+
+import ir.ac.iust.comp.sa.domain.Application;
+import ir.ac.iust.comp.sa.domain.Bitmap;
+import ir.ac.iust.comp.sa.domain.GameObject;
+import ir.ac.iust.comp.sa.domain.Layer;
+import ir.ac.iust.comp.sa.domain.ModificationType;
+import ir.ac.iust.comp.sa.domain.MyApplication;
+import ir.ac.iust.comp.sa.domain.MyGameObject;
+import ir.ac.iust.comp.sa.domain.search.ApplicationSearchDocument;
+import ir.ac.iust.comp.sa.domain.search.BitmapSearchDocument;
+import ir.ac.iust.comp.sa.domain.search.GameObjectSearchDocument;
+import ir.ac.iust.comp.sa.domain.search.LayerSearchDocument;
+import ir.ac.iust.comp.sa.repository.ApplicationRepository;
+import ir.ac.iust.comp.sa.repository.BitmapRepository;
+import ir.ac.iust.comp.sa.repository.GameObjectRepository;
+import ir.ac.iust.comp.sa.repository.LayerRepository;
+import ir.ac.iust.comp.sa.repository.ModificationTypeRepository;
+import ir.ac.iust.comp.sa.repository.MyApplicationRepository;
+import ir.ac.iust.comp.sa.repository.MyGameObjectRepository;
+import ir.ac.iust.comp.sa.repository.search.ApplicationSearchRepository;
+import ir.ac.iust.comp.sa.repository.search.BitmapSearchRepository;
+import ir.ac.iust.comp.sa.repository.search.GameObjectSearchRepository;
+import ir.ac.iust.comp.sa.repository.search.LayerSearchRepository;
+import ir.ac.iust.comp.sa.repository.search.ModificationTypeSearchRepository;
+import ir.ac.iust.comp.sa.repository.search.MyApplicationSearchRepository;
+import ir.ac.iust.comp.sa.repository.search.MyGameObjectSearchRepository;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import org.springframework.data.elasticsearch.repository.ReactiveElasticsearchRepository;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+
+/**
+ * Registry of the entities mirrored in Elasticsearch, keyed by the simple name of their class.
+ */
+@Service
+public class SearchEntities {
+
+    private final Map<String, SearchEntity<?, ?>> entities = new LinkedHashMap<>();
+
+    public SearchEntities(
+        ApplicationRepository applicationRepository,
+        ApplicationSearchRepository applicationSearchRepository,
+        BitmapRepository bitmapRepository,
+        BitmapSearchRepository bitmapSearchRepository,
+        GameObjectRepository gameObjectRepository,
+        GameObjectSearchRepository gameObjectSearchRepository,
+        LayerRepository layerRepository,
+        LayerSearchRepository layerSearchRepository,
+        ModificationTypeRepository modificationTypeRepository,
+        ModificationTypeSearchRepository modificationTypeSearchRepository,
+        MyApplicationRepository myApplicationRepository,
+        MyApplicationSearchRepository myApplicationSearchRepository,
+        MyGameObjectRepository myGameObjectRepository,
+        MyGameObjectSearchRepository myGameObjectSearchRepository
+    ) {
+        register(
+            Application.class,
+            ApplicationSearchDocument.class,
+            applicationRepository,
+            applicationSearchRepository,
+            applicationRepository::findAllWithoutBlob,
+            Application::getId,
+            ApplicationSearchDocument::of
+        );
+        register(
+            Bitmap.class,
+            BitmapSearchDocument.class,
+            bitmapRepository,
+            bitmapSearchRepository,
+            bitmapRepository::findAllWithoutBlob,
+            Bitmap::getId,
+            BitmapSearchDocument::of
+        );
+        register(
+            GameObject.class,
+            GameObjectSearchDocument.class,
+            gameObjectRepository,
+            gameObjectSearchRepository,
+            gameObjectRepository::findAllWithoutBlob,
+            GameObject::getId,
+            GameObjectSearchDocument::of
+        );
+        register(
+            Layer.class,
+            LayerSearchDocument.class,
+            layerRepository,
+            layerSearchRepository,
+            layerRepository::findAllWithoutBlob,
+            Layer::getId,
+            LayerSearchDocument::of
+        );
+        register(
+            ModificationType.class,
+            ModificationType.class,
+            modificationTypeRepository,
+            modificationTypeSearchRepository,
+            modificationTypeRepository::findAll,
+            ModificationType::getId,
+            Function.identity()
+        );
+        register(
+            MyApplication.class,
+            MyApplication.class,
+            myApplicationRepository,
+            myApplicationSearchRepository,
+            myApplicationRepository::findAll,
+            MyApplication::getId,
+            Function.identity()
+        );
+        register(
+            MyGameObject.class,
+            MyGameObject.class,
+            myGameObjectRepository,
+            myGameObjectSearchRepository,
+            myGameObjectRepository::findAll,
+            MyGameObject::getId,
+            Function.identity()
+        );
+    }
+
+    /**
+     * @param entityType the simple name of the entity class.
+     * @return the entity, if it is mirrored in Elasticsearch.
+     */
+    public Optional<SearchEntity<?, ?>> get(String entityType) {
+        return Optional.ofNullable(entities.get(entityType));
+    }
+
+    public Collection<SearchEntity<?, ?>> getAll() {
+        return Collections.unmodifiableCollection(entities.values());
+    }
+
+    private <T, D> void register(
+        Class<T> entityClass,
+        Class<D> documentClass,
+        R2dbcRepository<T, Long> repository,
+        ReactiveElasticsearchRepository<D, Long> searchRepository,
+        Supplier<Flux<T>> rows,
+        Function<T, Long> id,
+        Function<T, D> toDocument
+    ) {
+        SearchEntity<T, D> entity = new SearchEntity<>(entityClass, documentClass, repository, searchRepository, rows, id, toDocument);
+        entities.put(entityClass.getSimpleName(), entity);
+    }
+
+    /**
+     * An entity mirrored in Elasticsearch.
+     *
+     * @param <T> the type of the entity.
+     * @param <D> the type of its search document, which is the entity itself when it has no binary field.
+     */
+    public static class SearchEntity<T, D> {
+
+        private final Class<T> entityClass;
+        private final Class<D> documentClass;
+        private final R2dbcRepository<T, Long> repository;
+        private final ReactiveElasticsearchRepository<D, Long> searchRepository;
+        private final Supplier<Flux<T>> rows;
+        private final Function<T, Long> id;
+        private final Function<T, D> toDocument;
+
+        SearchEntity(
+            Class<T> entityClass,
+            Class<D> documentClass,
+            R2dbcRepository<T, Long> repository,
+            ReactiveElasticsearchRepository<D, Long> searchRepository,
+            Supplier<Flux<T>> rows,
+            Function<T, Long> id,
+            Function<T, D> toDocument
+        ) {
+            this.entityClass = entityClass;
+            this.documentClass = documentClass;
+            this.repository = repository;
+            this.searchRepository = searchRepository;
+            this.rows = rows;
+            this.id = id;
+            this.toDocument = toDocument;
+        }
+
+        public String getName() {
+            return entityClass.getSimpleName();
+        }
+
+        public Class<T> getEntityClass() {
+            return entityClass;
+        }
+
+        public Class<D> getDocumentClass() {
+            return documentClass;
+        }
+
+        public R2dbcRepository<T, Long> getRepository() {
+            return repository;
+        }
+
+        public ReactiveElasticsearchRepository<D, Long> getSearchRepository() {
+            return searchRepository;
+        }
+
+        /**
+         * @return all the rows of the entity, without the binary fields their search document leaves out.
+         */
+        public Flux<T> findAllRows() {
+            return rows.get();
+        }
+
+        public Long getId(T entity) {
+            return id.apply(entity);
+        }
+
+        public D toDocument(T entity) {
+            return toDocument.apply(entity);
+        }
+    }
+}
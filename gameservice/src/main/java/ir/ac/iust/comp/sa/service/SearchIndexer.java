@@ -0,0 +1,281 @@
+package ir.ac.iust.comp.sa.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import ir.ac.iust.comp.sa.config.ApplicationProperties;
+import ir.ac.iust.comp.sa.domain.SearchLease;
+import ir.ac.iust.comp.sa.domain.SearchOutboxEntry;
+import ir.ac.iust.comp.sa.domain.search.SearchLocation;
+import ir.ac.iust.comp.sa.repository.SearchLeaseRepository;
+import ir.ac.iust.comp.sa.repository.SearchOutboxRepository;
+import ir.ac.iust.comp.sa.repository.search.SearchResultCache;
+import ir.ac.iust.comp.sa.service.SearchEntities.SearchEntity;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import javax.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+/**
+ * Service draining the {@link SearchOutbox} into Elasticsearch.
+ * <p>
+ * The outbox is polled periodically and drained in batches, one batch at a time: the entities of a batch are read back
+ * from the database and sent with one bulk request per entity type, the missing ones being removed from the index.
+ * A failed batch is retried with backoff, then left in the outbox for the next poll. The entries of the entity types
+ * paused by the {@link SearchOutboxPause} are left pending meanwhile.
+ * <p>
+ * Only one instance drains the outbox at a time: two instances indexing the same entity concurrently could each read
+ * a different version of it, the older one overwriting the newer one in the index. The draining instance holds the
+ * {@value #LEASE} {@link SearchLease}, renewed before each batch, the others polling until it expires. A batch,
+ * retries included, must therefore complete well within {@code application.search.indexer.lease-duration}.
+ */
+@Service
+@ConditionalOnProperty(prefix = "application.search.indexer", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class SearchIndexer {
+
+    static final String LEASE = "search-indexer";
+
+    private static final String METRIC_PREFIX = "search.indexer.";
+
+    private final Logger log = LoggerFactory.getLogger(SearchIndexer.class);
+
+    private final SearchOutboxRepository searchOutboxRepository;
+
+    private final SearchLeaseRepository searchLeaseRepository;
+
+    private final ApplicationProperties.Indexer properties;
+
+    private final SearchEntities searchEntities;
+
+    private final SearchOutboxPause searchOutboxPause;
+
+    private final CacheInvalidationBus cacheInvalidationBus;
+
+    private final String owner = UUID.randomUUID().toString();
+
+    private final AtomicBoolean leader = new AtomicBoolean();
+
+    private final Timer batches;
+
+    private final Counter indexed;
+
+    private final Counter deleted;
+
+    private final Counter failures;
+
+    private final AtomicLong pending = new AtomicLong();
+
+    private final AtomicLong lagMillis = new AtomicLong();
+
+    private final Disposable.Swap draining = Disposables.swap();
+
+    public SearchIndexer(
+        SearchOutboxRepository searchOutboxRepository,
+        SearchLeaseRepository searchLeaseRepository,
+        SearchEntities searchEntities,
+        SearchOutboxPause searchOutboxPause,
+        CacheInvalidationBus cacheInvalidationBus,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
+    ) {
+        this.searchOutboxRepository = searchOutboxRepository;
+        this.searchLeaseRepository = searchLeaseRepository;
+        this.searchEntities = searchEntities;
+        this.searchOutboxPause = searchOutboxPause;
+        this.cacheInvalidationBus = cacheInvalidationBus;
+        this.properties = applicationProperties.getSearch().getIndexer();
+        this.batches = Timer.builder(METRIC_PREFIX + "batches").description("Time spent indexing a batch").register(meterRegistry);
+        this.indexed = documentCounter("index", meterRegistry);
+        this.deleted = documentCounter("delete", meterRegistry);
+        this.failures =
+            Counter
+                .builder(METRIC_PREFIX + "failures")
+                .description("Batches left in the outbox after exhausting their retries")
+                .register(meterRegistry);
+        FunctionCounter
+            .builder(METRIC_PREFIX + "clamped-locations", SearchLocation.class, location -> SearchLocation.clampedCount())
+            .description("Documents located on the edge of the searchable area, their position being out of it")
+            .register(meterRegistry);
+        Gauge
+            .builder("search.outbox.pending", pending, AtomicLong::get)
+            .description("Entities waiting to be indexed")
+            .register(meterRegistry);
+        Gauge
+            .builder("search.outbox.lag", lagMillis, lag -> lag.get() / 1000d)
+            .description("Age of the oldest entity waiting to be indexed")
+            .baseUnit("seconds")
+            .register(meterRegistry);
+        Gauge
+            .builder(METRIC_PREFIX + "leader", leader, isLeader -> isLeader.get() ? 1 : 0)
+            .description("Whether this instance drains the search outbox")
+            .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        log.debug("Starting the search indexer, polling every {}", properties.getPollInterval());
+        // ticks arriving while a drain is in progress are dropped rather than queued
+        draining.update(Flux.interval(properties.getPollInterval()).onBackpressureDrop().concatMap(tick -> drain(), 1).subscribe());
+    }
+
+    @PreDestroy
+    public void stop() {
+        draining.dispose();
+        if (leader.getAndSet(false)) {
+            // lets another instance take over without waiting for the lease to expire
+            searchLeaseRepository
+                .release(LEASE, owner)
+                .timeout(Duration.ofSeconds(5))
+                .onErrorResume(e -> {
+                    log.warn("Could not release the search indexer lease: {}", e.getMessage());
+                    return Mono.empty();
+                })
+                .block();
+        }
+    }
+
+    /**
+     * Indexes the outbox batch after batch until it is empty, as long as this instance holds the {@value #LEASE} lease,
+     * then refreshes the lag metrics.
+     *
+     * @return a {@link Mono} completing once the outbox is drained, a batch failed or the lease is held by another instance.
+     */
+    public Mono<Void> drain() {
+        return Mono
+            .defer(this::indexBatch)
+            .repeat()
+            .takeUntil(count -> count < properties.getBatchSize())
+            .then()
+            .onErrorResume(e -> {
+                failures.increment();
+                log.warn("Could not index the search outbox, retrying in {}: {}", properties.getPollInterval(), e.getMessage());
+                return Mono.empty();
+            })
+            .then(measureLag());
+    }
+
+    private Mono<Integer> indexBatch() {
+        return searchLeaseRepository
+            .acquire(LEASE, owner, properties.getLeaseDuration())
+            .flatMap(acquired -> {
+                if (leader.getAndSet(acquired) != acquired) {
+                    log.info(acquired ? "Draining the search outbox" : "Another instance drains the search outbox");
+                }
+                return acquired ? indexOldest() : Mono.just(0);
+            });
+    }
+
+    private Mono<Integer> indexOldest() {
+        return searchOutboxPause
+            .findPaused()
+            .flatMapMany(paused -> searchOutboxRepository.findOldest(properties.getBatchSize(), paused))
+            .collectList()
+            .flatMap(entries -> {
+                if (entries.isEmpty()) {
+                    return Mono.just(0);
+                }
+                Map<String, Set<Long>> idsByType = new LinkedHashMap<>();
+                for (SearchOutboxEntry entry : entries) {
+                    idsByType.computeIfAbsent(entry.getEntityType(), type -> new LinkedHashSet<>()).add(entry.getEntityId());
+                }
+                List<Long> entryIds = entries.stream().map(SearchOutboxEntry::getId).collect(Collectors.toList());
+                long start = System.nanoTime();
+                return Flux
+                    .fromIterable(idsByType.entrySet())
+                    .concatMap(ids -> index(ids.getKey(), ids.getValue()))
+                    .then(searchOutboxRepository.deleteAllById(entryIds))
+                    .retryWhen(
+                        Retry
+                            .backoff(properties.getMaxRetries(), properties.getRetryBackoff())
+                            .doBeforeRetry(signal -> log.debug("Retrying a search batch: {}", signal.failure().getMessage()))
+                    )
+                    .then(Mono.fromRunnable(() -> batches.record(System.nanoTime() - start, TimeUnit.NANOSECONDS)))
+                    .thenReturn(entries.size());
+            });
+    }
+
+    private Mono<Void> index(String entityType, Set<Long> ids) {
+        return searchEntities
+            .get(entityType)
+            .map(entity -> index(entity, ids))
+            .orElseGet(() -> {
+                log.warn("Dropping {} search outbox entries of unknown type {}", ids.size(), entityType);
+                return Mono.empty();
+            });
+    }
+
+    private <T, D> Mono<Void> index(SearchEntity<T, D> entity, Set<Long> ids) {
+        return entity
+            .getRepository()
+            .findAllById(ids)
+            .collectList()
+            .flatMap(entities -> {
+                Set<Long> missing = new HashSet<>(ids);
+                entities.forEach(found -> missing.remove(entity.getId(found)));
+                Mono<Void> saved = entities.isEmpty()
+                    ? Mono.empty()
+                    : entity
+                        .getSearchRepository()
+                        .saveAll(entities.stream().map(entity::toDocument).collect(Collectors.toList()))
+                        .then(Mono.fromRunnable(() -> indexed.increment(entities.size())));
+                Mono<Void> removed = missing.isEmpty()
+                    ? Mono.empty()
+                    : entity.getSearchRepository().deleteAllById(missing).then(Mono.fromRunnable(() -> deleted.increment(missing.size())));
+                return saved
+                    .then(removed)
+                    .then(cacheInvalidationBus.invalidate(SearchResultCache.CACHE_NAME, entity.getEntityClass().getSimpleName()));
+            });
+    }
+
+    private Mono<Void> measureLag() {
+        return searchOutboxRepository
+            .count()
+            .zipWith(
+                searchOutboxRepository
+                    .findOldest(1)
+                    .next()
+                    .map(entry -> Duration.between(entry.getCreatedDate(), Instant.now()))
+                    .defaultIfEmpty(Duration.ZERO)
+            )
+            .doOnNext(state -> {
+                pending.set(state.getT1());
+                lagMillis.set(Math.max(0, state.getT2().toMillis()));
+            })
+            .onErrorResume(e -> {
+                log.warn("Could not measure the search outbox lag: {}", e.getMessage());
+                return Mono.empty();
+            })
+            .then();
+    }
+
+    private Counter documentCounter(String operation, MeterRegistry meterRegistry) {
+        return Counter
+            .builder(METRIC_PREFIX + "documents")
+            .description("Documents sent to Elasticsearch")
+            .tag("operation", operation)
+            .register(meterRegistry);
+    }
+}
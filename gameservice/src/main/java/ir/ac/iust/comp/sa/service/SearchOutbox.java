@@ -0,0 +1,59 @@
+package ir.ac.iust.comp.sa.service;
+
+import ir.ac.iust.comp.sa.domain.SearchOutboxEntry;
+import ir.ac.iust.comp.sa.repository.SearchOutboxRepository;
+import java.time.Instant;
+import java.util.Collection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Mono;
+
+/**
+ * Service recording the entities whose search document must be refreshed, in the transaction changing them.
+ * <p>
+ * The {@link SearchIndexer} reads the entities back from the database when draining the outbox, so the same call
+ * covers creations, updates and deletions. The cached search results of the entity type are only evicted once the
+ * {@link SearchIndexer} has indexed a batch, since the index does not change before.
+ */
+@Service
+public class SearchOutbox {
+
+    private final Logger log = LoggerFactory.getLogger(SearchOutbox.class);
+
+    private final SearchOutboxRepository searchOutboxRepository;
+
+    public SearchOutbox(SearchOutboxRepository searchOutboxRepository) {
+        this.searchOutboxRepository = searchOutboxRepository;
+    }
+
+    /**
+     * Schedules the refresh of the search document of an entity.
+     *
+     * @param entityType the class of the entity.
+     * @param id the id of the entity.
+     * @return a {@link Mono} completing once the outbox entry is written.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Mono<Void> schedule(Class<?> entityType, Long id) {
+        log.debug("Request to schedule the indexing of {} : {}", entityType.getSimpleName(), id);
+        return searchOutboxRepository
+            .save(new SearchOutboxEntry().entityType(entityType.getSimpleName()).entityId(id).createdDate(Instant.now()))
+            .then();
+    }
+
+    /**
+     * Schedules the refresh of the search documents of entities of the same type, with a single insert.
+     *
+     * @param entityType the class of the entities.
+     * @param ids the ids of the entities.
+     * @return a {@link Mono} completing once the outbox entries are written.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Mono<Void> scheduleAll(Class<?> entityType, Collection<Long> ids) {
+        log.debug("Request to schedule the indexing of {} {}", ids.size(), entityType.getSimpleName());
+        return searchOutboxRepository.insertAll(entityType.getSimpleName(), ids, Instant.now()).then();
+    }
+}
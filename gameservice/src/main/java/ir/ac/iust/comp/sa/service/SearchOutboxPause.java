@@ -0,0 +1,89 @@
+package ir.ac.iust.comp.sa.service;
+
+import ir.ac.iust.comp.sa.config.ApplicationProperties;
+import ir.ac.iust.comp.sa.domain.SearchLease;
+import ir.ac.iust.comp.sa.repository.SearchLeaseRepository;
+import java.time.Duration;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Service holding back the search outbox entries of an entity type on all the instances, e.g. while its index is
+ * being rebuilt.
+ * <p>
+ * A pause is a {@link SearchLease} named after the entity type, renewed while the paused work runs and released once
+ * it ends, so that the pause of an instance stopping in the middle of a rebuild expires. The {@link SearchIndexer}
+ * skips the entity types paused when it reads a batch, and applies their entries once they are resumed.
+ */
+@Service
+public class SearchOutboxPause {
+
+    private static final String LEASE_PREFIX = "search-outbox-pause:";
+
+    private final Logger log = LoggerFactory.getLogger(SearchOutboxPause.class);
+
+    private final SearchLeaseRepository searchLeaseRepository;
+
+    private final Duration leaseDuration;
+
+    public SearchOutboxPause(SearchLeaseRepository searchLeaseRepository, ApplicationProperties applicationProperties) {
+        this.searchLeaseRepository = searchLeaseRepository;
+        this.leaseDuration = applicationProperties.getSearch().getReindex().getLeaseDuration();
+    }
+
+    /**
+     * Pauses the indexing of an entity type while some work runs.
+     *
+     * @param entityType the simple name of the entity class.
+     * @param work the work to run once the entity type is paused.
+     * @param <T> the type of the result of the work.
+     * @return the result of the work, or an {@link IllegalStateException} if another instance paused the entity type.
+     */
+    public <T> Mono<T> pausing(String entityType, Mono<T> work) {
+        String name = LEASE_PREFIX + entityType;
+        String owner = UUID.randomUUID().toString();
+        return searchLeaseRepository
+            .acquire(name, owner, leaseDuration)
+            .flatMap(acquired -> {
+                if (!acquired) {
+                    return Mono.error(new IllegalStateException("The indexing of " + entityType + " is paused by another instance"));
+                }
+                log.debug("Pausing the indexing of {}", entityType);
+                Disposable renewal = Flux
+                    .interval(leaseDuration.dividedBy(3))
+                    .concatMap(tick -> searchLeaseRepository.acquire(name, owner, leaseDuration))
+                    .subscribe(
+                        renewed -> {
+                            if (!renewed) {
+                                log.warn("The pause of the indexing of {} expired before its end", entityType);
+                            }
+                        },
+                        e -> log.warn("Could not renew the pause of the indexing of {}: {}", entityType, e.getMessage())
+                    );
+                return work.doFinally(signal -> {
+                    renewal.dispose();
+                    log.debug("Resuming the indexing of {}", entityType);
+                    searchLeaseRepository
+                        .release(name, owner)
+                        .subscribe(null, e -> log.warn("Could not resume the indexing of {}: {}", entityType, e.getMessage()));
+                });
+            });
+    }
+
+    /**
+     * @return the entity types whose indexing is paused.
+     */
+    public Mono<Set<String>> findPaused() {
+        return searchLeaseRepository
+            .findHeld(LEASE_PREFIX)
+            .map(lease -> lease.getName().substring(LEASE_PREFIX.length()))
+            .collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,235 @@
+package ir.ac.iust.comp.sa.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import ir.ac.iust.comp.sa.config.ApplicationProperties;
+import ir.ac.iust.comp.sa.config.Constants;
+import ir.ac.iust.comp.sa.service.SearchEntities.SearchEntity;
+import ir.ac.iust.comp.sa.service.dto.SearchReindexJobDTO;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.elasticsearch.core.ReactiveElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.ReactiveIndexOperations;
+import org.springframework.data.elasticsearch.core.index.AliasAction;
+import org.springframework.data.elasticsearch.core.index.AliasActionParameters;
+import org.springframework.data.elasticsearch.core.index.AliasActions;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+/**
+ * Service rebuilding the search index of an entity from the database without taking search offline.
+ * <p>
+ * The repositories read and write the index through an alias named after the entity. A rebuild creates a new index
+ * suffixed with its creation time, streams the rows into it in bulk requests, demanding one bulk worth of rows at a
+ * time, then atomically points the alias to it and drops the previous index. The outbox entries of the entity are
+ * held back on all the instances by the {@link SearchOutboxPause} meanwhile, and applied to the new index once the
+ * alias is swapped, so that the changes committed during the rebuild aren't only written to the previous index.
+ */
+@Service
+@Profile("!" + Constants.SPRING_PROFILE_LUCENE)
+public class SearchReindexService {
+
+    private static final DateTimeFormatter INDEX_VERSION = DateTimeFormatter.ofPattern("yyyyMMddHHmmss").withZone(ZoneOffset.UTC);
+
+    private final Logger log = LoggerFactory.getLogger(SearchReindexService.class);
+
+    private final SearchEntities searchEntities;
+
+    private final ReactiveElasticsearchOperations elasticsearchOperations;
+
+    private final SearchOutboxPause searchOutboxPause;
+
+    private final ApplicationProperties.Reindex properties;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+    public SearchReindexService(
+        SearchEntities searchEntities,
+        ReactiveElasticsearchOperations elasticsearchOperations,
+        SearchOutboxPause searchOutboxPause,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
+    ) {
+        this.searchEntities = searchEntities;
+        this.elasticsearchOperations = elasticsearchOperations;
+        this.searchOutboxPause = searchOutboxPause;
+        this.properties = applicationProperties.getSearch().getReindex();
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Starts rebuilding the search index of an entity, unless it is already being rebuilt by this instance. The job
+     * fails if another instance is rebuilding it.
+     *
+     * @param entityType the simple name of the entity class.
+     * @return the started job, or empty if the index is already being rebuilt.
+     * @throws IllegalArgumentException if the entity isn't mirrored in Elasticsearch.
+     */
+    public Optional<SearchReindexJobDTO> start(String entityType) {
+        SearchEntity<?, ?> entity = searchEntities
+            .get(entityType)
+            .orElseThrow(() -> new IllegalArgumentException("Unknown search entity type: " + entityType));
+        String alias = elasticsearchOperations.getIndexCoordinatesFor(entity.getDocumentClass()).getIndexName();
+        Job job = new Job(entityType, alias + "-" + INDEX_VERSION.format(Instant.now()));
+        if (jobs.compute(entityType, (type, current) -> current != null && current.isRunning() ? current : job) != job) {
+            return Optional.empty();
+        }
+        log.info("Rebuilding the search index of {} into {}", entityType, job.index);
+        searchOutboxPause.pausing(entityType, reindex(entity, alias, job)).subscribe(null, job::fail, job::complete);
+        return Optional.of(job.toDto());
+    }
+
+    /**
+     * @param entityType the simple name of the entity class.
+     * @return the last job rebuilding the search index of the entity, if any.
+     */
+    public Optional<SearchReindexJobDTO> findJob(String entityType) {
+        return Optional.ofNullable(jobs.get(entityType)).map(Job::toDto);
+    }
+
+    /**
+     * @return the last job of each entity whose search index was rebuilt.
+     */
+    public List<SearchReindexJobDTO> findAllJobs() {
+        return jobs.values().stream().map(Job::toDto).collect(Collectors.toList());
+    }
+
+    private <T, D> Mono<Void> reindex(SearchEntity<T, D> entity, String alias, Job job) {
+        ReactiveIndexOperations aliasOperations = elasticsearchOperations.indexOps(entity.getDocumentClass());
+        IndexCoordinates index = IndexCoordinates.of(job.index);
+        Counter documents = Counter
+            .builder("search.reindex.documents")
+            .description("Documents written by the search index rebuilds")
+            .tag("entity", entity.getName())
+            .register(meterRegistry);
+        int bulkSize = properties.getBulkSize();
+        return Mono
+            .zip(aliasOperations.createSettings(), aliasOperations.createMapping())
+            .flatMap(definition -> elasticsearchOperations.indexOps(index).create(definition.getT1(), definition.getT2()))
+            .then(entity.getRepository().count())
+            .doOnNext(total -> job.total = total)
+            .thenMany(entity.findAllRows().limitRate(bulkSize).buffer(bulkSize))
+            .concatMap(
+                batch ->
+                    elasticsearchOperations
+                        .saveAll(batch.stream().map(entity::toDocument).collect(Collectors.toList()), index)
+                        .then()
+                        .retryWhen(Retry.backoff(properties.getMaxRetries(), properties.getRetryBackoff()))
+                        .then(
+                            Mono.fromRunnable(() -> {
+                                documents.increment(batch.size());
+                                log.debug("Reindexed {}/{} {} documents", job.indexed.addAndGet(batch.size()), job.total, job.entityType);
+                            })
+                        ),
+                1
+            )
+            .then(elasticsearchOperations.indexOps(index).refresh())
+            .then(swapAlias(alias, job.index))
+            .onErrorResume(e ->
+                elasticsearchOperations
+                    .indexOps(index)
+                    .delete()
+                    .onErrorResume(deleteError -> Mono.just(false))
+                    .then(Mono.error(e))
+            );
+    }
+
+    private Mono<Void> swapAlias(String alias, String index) {
+        ReactiveIndexOperations aliasOperations = elasticsearchOperations.indexOps(IndexCoordinates.of(alias));
+        return aliasOperations
+            .exists()
+            .flatMap(exists ->
+                exists ? aliasOperations.getAliasesForIndex(alias).map(Map::keySet) : Mono.just(Collections.<String>emptySet())
+            )
+            .flatMap(previous -> {
+                AliasActions actions = new AliasActions(
+                    new AliasAction.Add(AliasActionParameters.builder().withIndices(index).withAliases(alias).build())
+                );
+                if (!previous.isEmpty()) {
+                    // removed in the same request so that the alias never points to both, or to none; this also frees
+                    // the alias name when it is still taken by the index the repositories created on startup
+                    actions.add(new AliasAction.RemoveIndex(AliasActionParameters.builder().withIndices(toArray(previous)).build()));
+                }
+                log.debug("Pointing {} to {} instead of {}", alias, index, previous);
+                return aliasOperations.alias(actions);
+            })
+            .then();
+    }
+
+    private static String[] toArray(Set<String> indices) {
+        return indices.toArray(new String[0]);
+    }
+
+    private class Job {
+
+        private final String entityType;
+        private final String index;
+        private final Instant startDate = Instant.now();
+        private final AtomicLong indexed = new AtomicLong();
+        private volatile Long total;
+        private volatile SearchReindexJobDTO.Status status = SearchReindexJobDTO.Status.RUNNING;
+        private volatile Instant endDate;
+        private volatile String error;
+
+        Job(String entityType, String index) {
+            this.entityType = entityType;
+            this.index = index;
+        }
+
+        boolean isRunning() {
+            return status == SearchReindexJobDTO.Status.RUNNING;
+        }
+
+        void complete() {
+            endDate = Instant.now();
+            status = SearchReindexJobDTO.Status.COMPLETED;
+            SearchReindexJobDTO dto = toDto();
+            log.info(
+                "Rebuilt the search index of {} into {}: {} documents, {} documents/s",
+                entityType,
+                index,
+                dto.getIndexed(),
+                Math.round(dto.getDocumentsPerSecond())
+            );
+        }
+
+        void fail(Throwable e) {
+            endDate = Instant.now();
+            error = e.getMessage();
+            status = SearchReindexJobDTO.Status.FAILED;
+            log.error("Could not rebuild the search index of {} into {}", entityType, index, e);
+        }
+
+        SearchReindexJobDTO toDto() {
+            SearchReindexJobDTO dto = new SearchReindexJobDTO();
+            dto.setEntityType(entityType);
+            dto.setIndex(index);
+            dto.setStatus(status);
+            dto.setTotal(total);
+            dto.setIndexed(indexed.get());
+            dto.setStartDate(startDate);
+            dto.setEndDate(endDate);
+            dto.setError(error);
+            long elapsedMillis = Duration.between(startDate, endDate != null ? endDate : Instant.now()).toMillis();
+            dto.setDocumentsPerSecond(elapsedMillis == 0 ? 0 : indexed.get() * 1000d / elapsedMillis);
+            return dto;
+        }
+    }
+}
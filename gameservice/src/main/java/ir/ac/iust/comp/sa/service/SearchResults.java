@@ -0,0 +1,45 @@
+package ir.ac.iust.comp.sa.service;
+
+import ir.ac.iust.comp.sa.repository.search.SearchSlice;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import reactor.core.publisher.Mono;
+
+/**
+ * Utility class turning search hits back into the entities they were indexed from.
+ */
+public final class SearchResults {
+
+    private SearchResults() {}
+
+    /**
+     * Loads the entities of a page of search hits from the database with a single query, in the order of the hits.
+     * Hits whose entity was deleted since it was indexed are skipped.
+     *
+     * @param hits the page of search hits.
+     * @param documentId the id of a hit.
+     * @param repository the repository of the entities.
+     * @param entityId the id of an entity.
+     * @param <D> the type of the search documents.
+     * @param <T> the type of the entities.
+     * @return the page of entities, with the counts and cursor of the hits.
+     */
+    public static <D, T> Mono<SearchSlice<T>> hydrate(
+        SearchSlice<D> hits,
+        Function<D, Long> documentId,
+        R2dbcRepository<T, Long> repository,
+        Function<T, Long> entityId
+    ) {
+        List<Long> ids = hits.getContent().stream().map(documentId).collect(Collectors.toList());
+        if (ids.isEmpty()) {
+            return Mono.just(hits.withContent(List.of()));
+        }
+        return repository
+            .findAllById(ids)
+            .collectMap(entityId)
+            .map(entities -> hits.withContent(ids.stream().map(entities::get).filter(Objects::nonNull).collect(Collectors.toList())));
+    }
+}
@@ -0,0 +1,39 @@
+package ir.ac.iust.comp.sa.service;
+
+import org.springframework.transaction.NoTransactionException;
+import org.springframework.transaction.reactive.TransactionSynchronization;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import reactor.core.publisher.Mono;
+
+/**
+ * Utility class running actions once the current reactive transaction commits.
+ */
+final class TransactionHooks {
+
+    private TransactionHooks() {}
+
+    /**
+     * Runs an action once the current transaction commits, or immediately outside of a transaction.
+     *
+     * @param action the action, skipped if the transaction rolls back.
+     * @return a {@link Mono} completing once the action is registered.
+     */
+    static Mono<Void> afterCommit(Runnable action) {
+        return TransactionSynchronizationManager
+            .forCurrentTransaction()
+            .filter(TransactionSynchronizationManager::isSynchronizationActive)
+            .doOnNext(synchronizationManager ->
+                synchronizationManager.registerSynchronization(
+                    new TransactionSynchronization() {
+                        @Override
+                        public Mono<Void> afterCommit() {
+                            return Mono.fromRunnable(action);
+                        }
+                    }
+                )
+            )
+            .onErrorResume(NoTransactionException.class, e -> Mono.empty())
+            .switchIfEmpty(Mono.fromRunnable(action))
+            .then();
+    }
+}
@@ -0,0 +1,178 @@
+package ir.ac.iust.comp.sa.service.criteria;
+
+import java.io.Serializable;
+import java.util.Objects;
+import tech.jhipster.service.Criteria;
+import tech.jhipster.service.filter.BooleanFilter;
+import tech.jhipster.service.filter.FloatFilter;
+import tech.jhipster.service.filter.LongFilter;
+import tech.jhipster.service.filter.StringFilter;
+
+/**
+ * Criteria class for the {@link ir.ac.iust.comp.sa.domain.GameObject} entity. This class is used
+ * in {@link ir.ac.iust.comp.sa.web.rest.GameObjectResource} to receive all the possible filtering options from
+ * the Http GET request parameters.
+ * For example the following could be a valid request:
+ * {@code /game-objects?isEnabled.equals=true&x.greaterThan=0&x.lessThan=100}
+ * As Spring is unable to properly convert the types, unless specific {@link tech.jhipster.service.filter.Filter} class
+ * are used, we need to use fix type specific filters.
+ */
+public class GameObjectCriteria implements Serializable, Criteria {
+
+    private static final long serialVersionUID = 1L;
+
+    private LongFilter id;
+
+    private FloatFilter x;
+
+    private FloatFilter y;
+
+    private StringFilter bitmapContentType;
+
+    private BooleanFilter isEnabled;
+
+    private LongFilter applicationId;
+
+    public GameObjectCriteria() {}
+
+    public GameObjectCriteria(GameObjectCriteria other) {
+        this.id = other.id == null ? null : other.id.copy();
+        this.x = other.x == null ? null : other.x.copy();
+        this.y = other.y == null ? null : other.y.copy();
+        this.bitmapContentType = other.bitmapContentType == null ? null : other.bitmapContentType.copy();
+        this.isEnabled = other.isEnabled == null ? null : other.isEnabled.copy();
+        this.applicationId = other.applicationId == null ? null : other.applicationId.copy();
+    }
+
+    @Override
+    public GameObjectCriteria copy() {
+        return new GameObjectCriteria(this);
+    }
+
+    public LongFilter getId() {
+        return id;
+    }
+
+    public LongFilter id() {
+        if (id == null) {
+            id = new LongFilter();
+        }
+        return id;
+    }
+
+    public void setId(LongFilter id) {
+        this.id = id;
+    }
+
+    public FloatFilter getX() {
+        return x;
+    }
+
+    public FloatFilter x() {
+        if (x == null) {
+            x = new FloatFilter();
+        }
+        return x;
+    }
+
+    public void setX(FloatFilter x) {
+        this.x = x;
+    }
+
+    public FloatFilter getY() {
+        return y;
+    }
+
+    public FloatFilter y() {
+        if (y == null) {
+            y = new FloatFilter();
+        }
+        return y;
+    }
+
+    public void setY(FloatFilter y) {
+        this.y = y;
+    }
+
+    public StringFilter getBitmapContentType() {
+        return bitmapContentType;
+    }
+
+    public StringFilter bitmapContentType() {
+        if (bitmapContentType == null) {
+            bitmapContentType = new StringFilter();
+        }
+        return bitmapContentType;
+    }
+
+    public void setBitmapContentType(StringFilter bitmapContentType) {
+        this.bitmapContentType = bitmapContentType;
+    }
+
+    public BooleanFilter getIsEnabled() {
+        return isEnabled;
+    }
+
+    public BooleanFilter isEnabled() {
+        if (isEnabled == null) {
+            isEnabled = new BooleanFilter();
+        }
+        return isEnabled;
+    }
+
+    public void setIsEnabled(BooleanFilter isEnabled) {
+        this.isEnabled = isEnabled;
+    }
+
+    public LongFilter getApplicationId() {
+        return applicationId;
+    }
+
+    public LongFilter applicationId() {
+        if (applicationId == null) {
+            applicationId = new LongFilter();
+        }
+        return applicationId;
+    }
+
+    public void setApplicationId(LongFilter applicationId) {
+        this.applicationId = applicationId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final GameObjectCriteria that = (GameObjectCriteria) o;
+        return (
+            Objects.equals(id, that.id) &&
+            Objects.equals(x, that.x) &&
+            Objects.equals(y, that.y) &&
+            Objects.equals(bitmapContentType, that.bitmapContentType) &&
+            Objects.equals(isEnabled, that.isEnabled) &&
+            Objects.equals(applicationId, that.applicationId)
+        );
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, x, y, bitmapContentType, isEnabled, applicationId);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "GameObjectCriteria{" +
+            (id != null ? "id=" + id + ", " : "") +
+            (x != null ? "x=" + x + ", " : "") +
+            (y != null ? "y=" + y + ", " : "") +
+            (bitmapContentType != null ? "bitmapContentType=" + bitmapContentType + ", " : "") +
+            (isEnabled != null ? "isEnabled=" + isEnabled + ", " : "") +
+            (applicationId != null ? "applicationId=" + applicationId + ", " : "") +
+            "}";
+    }
+}
@@ -0,0 +1,82 @@
+package ir.ac.iust.comp.sa.service.dto;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * A DTO for the eviction of an entry of a local cache, published by the instance writing it to the other instances.
+ * <p>
+ * Invalidations are equal when they evict the same entry, whatever their source.
+ */
+public class CacheInvalidationDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private String source;
+
+    private String cache;
+
+    private String key;
+
+    public CacheInvalidationDTO() {}
+
+    public CacheInvalidationDTO(String source, String cache, String key) {
+        this.source = source;
+        this.cache = cache;
+        this.key = key;
+    }
+
+    /**
+     * @return the id of the instance publishing the invalidation.
+     */
+    public String getSource() {
+        return source;
+    }
+
+    public void setSource(String source) {
+        this.source = source;
+    }
+
+    public String getCache() {
+        return cache;
+    }
+
+    public void setCache(String cache) {
+        this.cache = cache;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public void setKey(String key) {
+        this.key = key;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CacheInvalidationDTO)) {
+            return false;
+        }
+        CacheInvalidationDTO that = (CacheInvalidationDTO) o;
+        return Objects.equals(cache, that.cache) && Objects.equals(key, that.key);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(cache, key);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "CacheInvalidationDTO{" +
+            "source='" + getSource() + "'" +
+            ", cache='" + getCache() + "'" +
+            ", key='" + getKey() + "'" +
+            "}";
+    }
+}
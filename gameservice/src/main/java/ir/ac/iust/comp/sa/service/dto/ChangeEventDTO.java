@@ -0,0 +1,228 @@
+package ir.ac.iust.comp.sa.service.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import ir.ac.iust.comp.sa.domain.ChangeFeedEntry;
+import ir.ac.iust.comp.sa.domain.GameObject;
+import ir.ac.iust.comp.sa.domain.Layer;
+import java.io.Serializable;
+import java.util.Set;
+
+/**
+ * A DTO describing a committed change of a {@link GameObject} or a {@link Layer}, pushed to the realtime subscribers.
+ * <p>
+ * Events carry the state of the entity after the change, without its binary content, so that a client can apply them
+ * without reading the entity back. Deletions only carry the id and the application of the entity. Events of the
+ * change feed also carry the sequence number of their {@link ChangeFeedEntry}, and those of a scene delta their scene
+ * sequence number, see {@link SceneDTO}.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ChangeEventDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final String GAME_OBJECT = "game-object";
+
+    public static final String LAYER = "layer";
+
+    public static final Set<String> ENTITIES = Set.of(GAME_OBJECT, LAYER);
+
+    public enum Type {
+        CREATED,
+        MOVED,
+        ENABLED,
+        DISABLED,
+        UPDATED,
+        DELETED,
+        /**
+         * Not a change: the entity came into the viewport of a subscriber, with its current state.
+         */
+        ENTERED,
+    }
+
+    private Long sequence;
+
+    private String entity;
+
+    private Type type;
+
+    private Long id;
+
+    private Long applicationId;
+
+    private Float x;
+
+    private Float y;
+
+    private Boolean isEnabled;
+
+    private Long version;
+
+    /**
+     * Creates the event of a change.
+     *
+     * @param type the type of the change.
+     * @param gameObject the entity after the change, or before its deletion.
+     * @return the event.
+     */
+    public static ChangeEventDTO of(Type type, GameObject gameObject) {
+        ChangeEventDTO event = new ChangeEventDTO();
+        event.setEntity(GAME_OBJECT);
+        event.setType(type);
+        event.setId(gameObject.getId());
+        event.setApplicationId(gameObject.getApplicationId());
+        if (type != Type.DELETED) {
+            event.setX(gameObject.getX());
+            event.setY(gameObject.getY());
+            event.setIsEnabled(gameObject.getIsEnabled());
+            event.setVersion(gameObject.getVersion());
+        }
+        return event;
+    }
+
+    /**
+     * Creates the event of a change.
+     *
+     * @param type the type of the change.
+     * @param layer the entity after the change, or before its deletion.
+     * @return the event.
+     */
+    public static ChangeEventDTO of(Type type, Layer layer) {
+        ChangeEventDTO event = new ChangeEventDTO();
+        event.setEntity(LAYER);
+        event.setType(type);
+        event.setId(layer.getId());
+        event.setApplicationId(layer.getApplicationId());
+        if (type != Type.DELETED) {
+            event.setX(layer.getX());
+            event.setY(layer.getY());
+            event.setIsEnabled(layer.getIsEnabled());
+            event.setVersion(layer.getVersion());
+        }
+        return event;
+    }
+
+    /**
+     * Creates the event of a journaled change.
+     *
+     * @param entry the journal entry of the change.
+     * @return the event.
+     */
+    public static ChangeEventDTO of(ChangeFeedEntry entry) {
+        ChangeEventDTO event = new ChangeEventDTO();
+        event.setSequence(entry.getSequence());
+        event.setEntity(entry.getEntityType());
+        event.setType(Type.valueOf(entry.getChangeType()));
+        event.setId(entry.getEntityId());
+        event.setApplicationId(entry.getApplicationId());
+        event.setX(entry.getX());
+        event.setY(entry.getY());
+        event.setIsEnabled(entry.getIsEnabled());
+        event.setVersion(entry.getVersion());
+        return event;
+    }
+
+    /**
+     * @param positionSet whether the update sets the {@code x} or {@code y} coordinate.
+     * @param isEnabled the {@code isEnabled} flag set by the update, or {@code null}.
+     * @param otherFieldsSet whether the update sets any other field.
+     * @return {@link Type#MOVED} for an update only setting the position, {@link Type#ENABLED} or {@link Type#DISABLED}
+     * for an update only setting the flag, {@link Type#UPDATED} otherwise.
+     */
+    public static Type partialUpdateType(boolean positionSet, Boolean isEnabled, boolean otherFieldsSet) {
+        if (positionSet && isEnabled == null && !otherFieldsSet) {
+            return Type.MOVED;
+        }
+        if (!positionSet && isEnabled != null && !otherFieldsSet) {
+            return isEnabled ? Type.ENABLED : Type.DISABLED;
+        }
+        return Type.UPDATED;
+    }
+
+    public Long getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(Long sequence) {
+        this.sequence = sequence;
+    }
+
+    public String getEntity() {
+        return entity;
+    }
+
+    public void setEntity(String entity) {
+        this.entity = entity;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public void setType(Type type) {
+        this.type = type;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getApplicationId() {
+        return applicationId;
+    }
+
+    public void setApplicationId(Long applicationId) {
+        this.applicationId = applicationId;
+    }
+
+    public Float getX() {
+        return x;
+    }
+
+    public void setX(Float x) {
+        this.x = x;
+    }
+
+    public Float getY() {
+        return y;
+    }
+
+    public void setY(Float y) {
+        this.y = y;
+    }
+
+    public Boolean getIsEnabled() {
+        return isEnabled;
+    }
+
+    public void setIsEnabled(Boolean isEnabled) {
+        this.isEnabled = isEnabled;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "ChangeEventDTO{" +
+            "sequence=" + getSequence() +
+            ", entity='" + getEntity() + "'" +
+            ", type='" + getType() + "'" +
+            ", id=" + getId() +
+            ", applicationId=" + getApplicationId() +
+            ", x=" + getX() +
+            ", y=" + getY() +
+            ", isEnabled='" + getIsEnabled() + "'" +
+            ", version=" + getVersion() +
+            "}";
+    }
+}
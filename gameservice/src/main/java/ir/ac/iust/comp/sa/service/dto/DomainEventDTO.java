@@ -0,0 +1,202 @@
+package ir.ac.iust.comp.sa.service.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import ir.ac.iust.comp.sa.domain.Application;
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * A DTO describing a committed change of an {@link Application}, a {@link ir.ac.iust.comp.sa.domain.Layer} or a
+ * {@link ir.ac.iust.comp.sa.domain.GameObject}, published to Kafka for the other services.
+ * <p>
+ * Like {@link ChangeEventDTO}, events carry the state of the entity after the change without its binary content, and
+ * deletions only carry the id and the application of the entity. Events are keyed by entity, see {@link #getKey()}.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class DomainEventDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final String APPLICATION = "application";
+
+    private String entity;
+
+    private ChangeEventDTO.Type type;
+
+    private Long id;
+
+    private Long applicationId;
+
+    private Float x;
+
+    private Float y;
+
+    private Boolean isEnabled;
+
+    private Long version;
+
+    private Float width;
+
+    private Float height;
+
+    private Instant timestamp;
+
+    /**
+     * Creates the event of a change of a layer or a game object.
+     *
+     * @param change the change, as broadcast to the realtime subscribers.
+     * @return the event.
+     */
+    public static DomainEventDTO of(ChangeEventDTO change) {
+        DomainEventDTO event = new DomainEventDTO();
+        event.setEntity(change.getEntity());
+        event.setType(change.getType());
+        event.setId(change.getId());
+        event.setApplicationId(change.getApplicationId());
+        event.setX(change.getX());
+        event.setY(change.getY());
+        event.setIsEnabled(change.getIsEnabled());
+        event.setVersion(change.getVersion());
+        event.setTimestamp(Instant.now());
+        return event;
+    }
+
+    /**
+     * Creates the event of a change of an application.
+     *
+     * @param type the type of the change, {@code CREATED}, {@code UPDATED} or {@code DELETED}.
+     * @param application the entity after the change, or before its deletion.
+     * @return the event.
+     */
+    public static DomainEventDTO of(ChangeEventDTO.Type type, Application application) {
+        DomainEventDTO event = new DomainEventDTO();
+        event.setEntity(APPLICATION);
+        event.setType(type);
+        event.setId(application.getId());
+        event.setApplicationId(application.getId());
+        if (type != ChangeEventDTO.Type.DELETED) {
+            event.setWidth(application.getWidth());
+            event.setHeight(application.getHeight());
+        }
+        event.setTimestamp(Instant.now());
+        return event;
+    }
+
+    /**
+     * @return the key of the event, the same for all the events of an entity, e.g. {@code game-object:1}.
+     */
+    @JsonIgnore
+    public String getKey() {
+        return entity + ":" + id;
+    }
+
+    public String getEntity() {
+        return entity;
+    }
+
+    public void setEntity(String entity) {
+        this.entity = entity;
+    }
+
+    public ChangeEventDTO.Type getType() {
+        return type;
+    }
+
+    public void setType(ChangeEventDTO.Type type) {
+        this.type = type;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getApplicationId() {
+        return applicationId;
+    }
+
+    public void setApplicationId(Long applicationId) {
+        this.applicationId = applicationId;
+    }
+
+    public Float getX() {
+        return x;
+    }
+
+    public void setX(Float x) {
+        this.x = x;
+    }
+
+    public Float getY() {
+        return y;
+    }
+
+    public void setY(Float y) {
+        this.y = y;
+    }
+
+    public Boolean getIsEnabled() {
+        return isEnabled;
+    }
+
+    public void setIsEnabled(Boolean isEnabled) {
+        this.isEnabled = isEnabled;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public Float getWidth() {
+        return width;
+    }
+
+    public void setWidth(Float width) {
+        this.width = width;
+    }
+
+    public Float getHeight() {
+        return height;
+    }
+
+    public void setHeight(Float height) {
+        this.height = height;
+    }
+
+    /**
+     * @return when the change was published, after its commit.
+     */
+    public Instant getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(Instant timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "DomainEventDTO{" +
+            "entity='" + getEntity() + "'" +
+            ", type=" + getType() +
+            ", id=" + getId() +
+            ", applicationId=" + getApplicationId() +
+            ", x=" + getX() +
+            ", y=" + getY() +
+            ", isEnabled=" + getIsEnabled() +
+            ", version=" + getVersion() +
+            ", width=" + getWidth() +
+            ", height=" + getHeight() +
+            ", timestamp=" + getTimestamp() +
+            "}";
+    }
+}
@@ -21,6 +21,10 @@ public class LayerDTO implements Serializable {
     private String bufferContentType;
     private Boolean isEnabled;
 
+    private Long version;
+
+    private Long applicationId;
+
     public Long getId() {
         return id;
     }
@@ -69,6 +73,22 @@ public class LayerDTO implements Serializable {
         this.isEnabled = isEnabled;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public Long getApplicationId() {
+        return applicationId;
+    }
+
+    public void setApplicationId(Long applicationId) {
+        this.applicationId = applicationId;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -99,6 +119,8 @@ public class LayerDTO implements Serializable {
             ", y=" + getY() +
             ", buffer='" + getBuffer() + "'" +
             ", isEnabled='" + getIsEnabled() + "'" +
+            ", version=" + getVersion() +
+            ", applicationId=" + getApplicationId() +
             "}";
     }
 }
@@ -0,0 +1,104 @@
+package ir.ac.iust.comp.sa.service.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import ir.ac.iust.comp.sa.domain.enumeration.EnumModType;
+import java.io.Serializable;
+
+/**
+ * A DTO for a command modifying a {@link ir.ac.iust.comp.sa.domain.GameObject}, received from Kafka.
+ * <ul>
+ *     <li>{@code TRANLATION} moves the game object by {@code x} and {@code y}.</li>
+ *     <li>{@code ROTATION} rotates the position of the game object by {@code angle} degrees, counterclockwise, around
+ *     the pivot {@code x}, {@code y}.</li>
+ *     <li>{@code RENDER} shows or hides the game object, depending on {@code visible}.</li>
+ * </ul>
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ModificationCommandDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private EnumModType type;
+
+    private Long applicationId;
+
+    private Long gameObjectId;
+
+    private Float x;
+
+    private Float y;
+
+    private Float angle;
+
+    private Boolean visible;
+
+    public EnumModType getType() {
+        return type;
+    }
+
+    public void setType(EnumModType type) {
+        this.type = type;
+    }
+
+    public Long getApplicationId() {
+        return applicationId;
+    }
+
+    public void setApplicationId(Long applicationId) {
+        this.applicationId = applicationId;
+    }
+
+    public Long getGameObjectId() {
+        return gameObjectId;
+    }
+
+    public void setGameObjectId(Long gameObjectId) {
+        this.gameObjectId = gameObjectId;
+    }
+
+    public Float getX() {
+        return x;
+    }
+
+    public void setX(Float x) {
+        this.x = x;
+    }
+
+    public Float getY() {
+        return y;
+    }
+
+    public void setY(Float y) {
+        this.y = y;
+    }
+
+    public Float getAngle() {
+        return angle;
+    }
+
+    public void setAngle(Float angle) {
+        this.angle = angle;
+    }
+
+    public Boolean getVisible() {
+        return visible;
+    }
+
+    public void setVisible(Boolean visible) {
+        this.visible = visible;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "ModificationCommandDTO{" +
+            "type=" + getType() +
+            ", applicationId=" + getApplicationId() +
+            ", gameObjectId=" + getGameObjectId() +
+            ", x=" + getX() +
+            ", y=" + getY() +
+            ", angle=" + getAngle() +
+            ", visible=" + getVisible() +
+            "}";
+    }
+}
@@ -0,0 +1,124 @@
+package ir.ac.iust.comp.sa.service.dto;
+
+import java.io.Serializable;
+
+/**
+ * A DTO for an input of a player on a {@link ir.ac.iust.comp.sa.domain.GameObject}.
+ * <p>
+ * Inputs are numbered by the client in the order it sends them, and timestamped both by the client, in epoch
+ * milliseconds, and by the server when received, to report the latency until they are applied.
+ */
+public class PlayerInputDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public enum Type {
+        MOVE_BY,
+        MOVE_TO,
+        ENABLE,
+        DISABLE,
+    }
+
+    private long sequence;
+
+    private long timestamp;
+
+    private long receivedNanos;
+
+    private Long gameObjectId;
+
+    private Type type;
+
+    private float x;
+
+    private float y;
+
+    public PlayerInputDTO() {}
+
+    public PlayerInputDTO(long sequence, long timestamp, Long gameObjectId, Type type, float x, float y) {
+        this.sequence = sequence;
+        this.timestamp = timestamp;
+        this.gameObjectId = gameObjectId;
+        this.type = type;
+        this.x = x;
+        this.y = y;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(long timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    /**
+     * @return the {@link System#nanoTime()} at which the server received the input.
+     */
+    public long getReceivedNanos() {
+        return receivedNanos;
+    }
+
+    public void setReceivedNanos(long receivedNanos) {
+        this.receivedNanos = receivedNanos;
+    }
+
+    public Long getGameObjectId() {
+        return gameObjectId;
+    }
+
+    public void setGameObjectId(Long gameObjectId) {
+        this.gameObjectId = gameObjectId;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public void setType(Type type) {
+        this.type = type;
+    }
+
+    /**
+     * @return the horizontal offset of a {@link Type#MOVE_BY}, or the horizontal position of a {@link Type#MOVE_TO}.
+     */
+    public float getX() {
+        return x;
+    }
+
+    public void setX(float x) {
+        this.x = x;
+    }
+
+    /**
+     * @return the vertical offset of a {@link Type#MOVE_BY}, or the vertical position of a {@link Type#MOVE_TO}.
+     */
+    public float getY() {
+        return y;
+    }
+
+    public void setY(float y) {
+        this.y = y;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "PlayerInputDTO{" +
+            "sequence=" + getSequence() +
+            ", timestamp=" + getTimestamp() +
+            ", gameObjectId=" + getGameObjectId() +
+            ", type='" + getType() + "'" +
+            ", x=" + getX() +
+            ", y=" + getY() +
+            "}";
+    }
+}
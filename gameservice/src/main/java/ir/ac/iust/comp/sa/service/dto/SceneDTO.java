@@ -0,0 +1,117 @@
+package ir.ac.iust.comp.sa.service.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import ir.ac.iust.comp.sa.domain.GameObject;
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * A DTO for the state of the scene of an {@link ir.ac.iust.comp.sa.domain.Application}: either a snapshot of its layers
+ * and game objects, without their binary content, or the changes since a scene sequence number.
+ * <p>
+ * The scene sequence numbers are the sequence numbers of the change feed, shared by all the applications and all the
+ * instances. Changes carry the state of the entities and their version, so that replaying a change already contained
+ * in a snapshot is harmless.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SceneDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private Long applicationId;
+
+    private long sequence;
+
+    private boolean snapshot;
+
+    private List<LayerDTO> layers;
+
+    private List<GameObject> gameObjects;
+
+    private List<ChangeEventDTO> changes;
+
+    public static SceneDTO snapshot(Long applicationId, long sequence, List<LayerDTO> layers, List<GameObject> gameObjects) {
+        SceneDTO scene = new SceneDTO();
+        scene.setApplicationId(applicationId);
+        scene.setSequence(sequence);
+        scene.setSnapshot(true);
+        scene.setLayers(layers);
+        scene.setGameObjects(gameObjects);
+        return scene;
+    }
+
+    public static SceneDTO delta(Long applicationId, long sequence, List<ChangeEventDTO> changes) {
+        SceneDTO scene = new SceneDTO();
+        scene.setApplicationId(applicationId);
+        scene.setSequence(sequence);
+        scene.setChanges(changes);
+        return scene;
+    }
+
+    public Long getApplicationId() {
+        return applicationId;
+    }
+
+    public void setApplicationId(Long applicationId) {
+        this.applicationId = applicationId;
+    }
+
+    /**
+     * @return the scene sequence number of the last change included, to ask the next changes from.
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+
+    /**
+     * @return whether this is a snapshot, replacing the scene of the client, rather than changes to apply to it.
+     */
+    public boolean isSnapshot() {
+        return snapshot;
+    }
+
+    public void setSnapshot(boolean snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    public List<LayerDTO> getLayers() {
+        return layers;
+    }
+
+    public void setLayers(List<LayerDTO> layers) {
+        this.layers = layers;
+    }
+
+    public List<GameObject> getGameObjects() {
+        return gameObjects;
+    }
+
+    public void setGameObjects(List<GameObject> gameObjects) {
+        this.gameObjects = gameObjects;
+    }
+
+    public List<ChangeEventDTO> getChanges() {
+        return changes;
+    }
+
+    public void setChanges(List<ChangeEventDTO> changes) {
+        this.changes = changes;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "SceneDTO{" +
+            "applicationId=" + getApplicationId() +
+            ", sequence=" + getSequence() +
+            ", snapshot=" + isSnapshot() +
+            ", layers=" + (getLayers() == null ? null : getLayers().size()) +
+            ", gameObjects=" + (getGameObjects() == null ? null : getGameObjects().size()) +
+            ", changes=" + (getChanges() == null ? null : getChanges().size()) +
+            "}";
+    }
+}
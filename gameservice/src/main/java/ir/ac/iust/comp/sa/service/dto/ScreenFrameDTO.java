@@ -0,0 +1,69 @@
+package ir.ac.iust.comp.sa.service.dto;
+
+import ir.ac.iust.comp.sa.domain.Application;
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * A DTO holding a committed {@link Application#getScreenBuffer() screen buffer} of an {@link Application}, pushed to the
+ * screen subscribers. Frames are shared by all the subscribers of the application and must not be modified.
+ */
+public class ScreenFrameDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Long applicationId;
+
+    private final String contentType;
+
+    private final byte[] data;
+
+    private final Instant capturedAt;
+
+    public ScreenFrameDTO(Long applicationId, String contentType, byte[] data, Instant capturedAt) {
+        this.applicationId = applicationId;
+        this.contentType = contentType;
+        this.data = data;
+        this.capturedAt = capturedAt;
+    }
+
+    /**
+     * @param application an application with its screen buffer.
+     * @return the current frame of the application.
+     */
+    public static ScreenFrameDTO of(Application application) {
+        return new ScreenFrameDTO(
+            application.getId(),
+            application.getScreenBufferContentType(),
+            application.getScreenBuffer(),
+            Instant.now()
+        );
+    }
+
+    public Long getApplicationId() {
+        return applicationId;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public byte[] getData() {
+        return data;
+    }
+
+    public Instant getCapturedAt() {
+        return capturedAt;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "ScreenFrameDTO{" +
+            "applicationId=" + getApplicationId() +
+            ", contentType='" + getContentType() + "'" +
+            ", size=" + (getData() == null ? 0 : getData().length) +
+            ", capturedAt='" + getCapturedAt() + "'" +
+            "}";
+    }
+}
@@ -0,0 +1,122 @@
+package ir.ac.iust.comp.sa.service.dto;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * A DTO reporting the progress of the rebuild of the search index of an entity.
+ */
+public class SearchReindexJobDTO implements Serializable {
+
+    public enum Status {
+        RUNNING,
+        COMPLETED,
+        FAILED,
+    }
+
+    private String entityType;
+
+    private String index;
+
+    private Status status;
+
+    private Long total;
+
+    private long indexed;
+
+    private double documentsPerSecond;
+
+    private Instant startDate;
+
+    private Instant endDate;
+
+    private String error;
+
+    public String getEntityType() {
+        return entityType;
+    }
+
+    public void setEntityType(String entityType) {
+        this.entityType = entityType;
+    }
+
+    public String getIndex() {
+        return index;
+    }
+
+    public void setIndex(String index) {
+        this.index = index;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public Long getTotal() {
+        return total;
+    }
+
+    public void setTotal(Long total) {
+        this.total = total;
+    }
+
+    public long getIndexed() {
+        return indexed;
+    }
+
+    public void setIndexed(long indexed) {
+        this.indexed = indexed;
+    }
+
+    public double getDocumentsPerSecond() {
+        return documentsPerSecond;
+    }
+
+    public void setDocumentsPerSecond(double documentsPerSecond) {
+        this.documentsPerSecond = documentsPerSecond;
+    }
+
+    public Instant getStartDate() {
+        return startDate;
+    }
+
+    public void setStartDate(Instant startDate) {
+        this.startDate = startDate;
+    }
+
+    public Instant getEndDate() {
+        return endDate;
+    }
+
+    public void setEndDate(Instant endDate) {
+        this.endDate = endDate;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "SearchReindexJobDTO{" +
+            "entityType='" + getEntityType() + "'" +
+            ", index='" + getIndex() + "'" +
+            ", status='" + getStatus() + "'" +
+            ", total=" + getTotal() +
+            ", indexed=" + getIndexed() +
+            ", documentsPerSecond=" + getDocumentsPerSecond() +
+            ", startDate='" + getStartDate() + "'" +
+            ", endDate='" + getEndDate() + "'" +
+            ", error='" + getError() + "'" +
+            "}";
+    }
+}
@@ -0,0 +1,71 @@
+package ir.ac.iust.comp.sa.service.dto;
+
+import java.io.Serializable;
+
+/**
+ * A DTO for the area of the world displayed by a client, in the coordinates of the game objects.
+ */
+public class ViewportDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private Float minX;
+
+    private Float minY;
+
+    private Float maxX;
+
+    private Float maxY;
+
+    public ViewportDTO() {}
+
+    public ViewportDTO(Float minX, Float minY, Float maxX, Float maxY) {
+        this.minX = minX;
+        this.minY = minY;
+        this.maxX = maxX;
+        this.maxY = maxY;
+    }
+
+    public Float getMinX() {
+        return minX;
+    }
+
+    public void setMinX(Float minX) {
+        this.minX = minX;
+    }
+
+    public Float getMinY() {
+        return minY;
+    }
+
+    public void setMinY(Float minY) {
+        this.minY = minY;
+    }
+
+    public Float getMaxX() {
+        return maxX;
+    }
+
+    public void setMaxX(Float maxX) {
+        this.maxX = maxX;
+    }
+
+    public Float getMaxY() {
+        return maxY;
+    }
+
+    public void setMaxY(Float maxY) {
+        this.maxY = maxY;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "ViewportDTO{" +
+            "minX=" + getMinX() +
+            ", minY=" + getMinY() +
+            ", maxX=" + getMaxX() +
+            ", maxY=" + getMaxY() +
+            "}";
+    }
+}
@@ -3,9 +3,18 @@ package ir.ac.iust.comp.sa.service.impl;
 import static org.elasticsearch.index.query.QueryBuilders.*;
 
 import ir.ac.iust.comp.sa.domain.Layer;
+import ir.ac.iust.comp.sa.domain.search.LayerSearchDocument;
 import ir.ac.iust.comp.sa.repository.LayerRepository;
 import ir.ac.iust.comp.sa.repository.search.LayerSearchRepository;
+import ir.ac.iust.comp.sa.repository.search.SearchArea;
+import ir.ac.iust.comp.sa.repository.search.SearchCursor;
+import ir.ac.iust.comp.sa.repository.search.SearchSlice;
+import ir.ac.iust.comp.sa.service.ChangeEventPublisher;
 import ir.ac.iust.comp.sa.service.LayerService;
+import ir.ac.iust.comp.sa.service.SearchOutbox;
+import ir.ac.iust.comp.sa.service.SearchResults;
+import ir.ac.iust.comp.sa.service.criteria.LayerCriteria;
+import ir.ac.iust.comp.sa.service.dto.ChangeEventDTO;
 import ir.ac.iust.comp.sa.service.dto.LayerDTO;
 import ir.ac.iust.comp.sa.service.mapper.LayerMapper;
 import org.slf4j.Logger;
@@ -31,16 +40,32 @@ public class LayerServiceImpl implements LayerService {
 
     private final LayerSearchRepository layerSearchRepository;
 
-    public LayerServiceImpl(LayerRepository layerRepository, LayerMapper layerMapper, LayerSearchRepository layerSearchRepository) {
+    private final SearchOutbox searchOutbox;
+
+    private final ChangeEventPublisher changeEventPublisher;
+
+    public LayerServiceImpl(
+        LayerRepository layerRepository,
+        LayerMapper layerMapper,
+        LayerSearchRepository layerSearchRepository,
+        SearchOutbox searchOutbox,
+        ChangeEventPublisher changeEventPublisher
+    ) {
         this.layerRepository = layerRepository;
         this.layerMapper = layerMapper;
         this.layerSearchRepository = layerSearchRepository;
+        this.searchOutbox = searchOutbox;
+        this.changeEventPublisher = changeEventPublisher;
     }
 
     @Override
     public Mono<LayerDTO> save(LayerDTO layerDTO) {
         log.debug("Request to save Layer : {}", layerDTO);
-        return layerRepository.save(layerMapper.toEntity(layerDTO)).flatMap(layerSearchRepository::save).map(layerMapper::toDto);
+        ChangeEventDTO.Type type = layerDTO.getId() == null ? ChangeEventDTO.Type.CREATED : ChangeEventDTO.Type.UPDATED;
+        return layerRepository
+            .save(layerMapper.toEntity(layerDTO))
+            .flatMap(saved -> written(type, saved))
+            .map(layerMapper::toDto);
     }
 
     @Override
@@ -48,18 +73,8 @@ public class LayerServiceImpl implements LayerService {
         log.debug("Request to partially update Layer : {}", layerDTO);
 
         return layerRepository
-            .findById(layerDTO.getId())
-            .map(existingLayer -> {
-                layerMapper.partialUpdate(existingLayer, layerDTO);
-
-                return existingLayer;
-            })
-            .flatMap(layerRepository::save)
-            .flatMap(savedLayer -> {
-                layerSearchRepository.save(savedLayer);
-
-                return Mono.just(savedLayer);
-            })
+            .partialUpdate(layerMapper.toEntity(layerDTO))
+            .flatMap(saved -> written(partialUpdateType(layerDTO), saved))
             .map(layerMapper::toDto);
     }
 
@@ -70,12 +85,22 @@ public class LayerServiceImpl implements LayerService {
         return layerRepository.findAllBy(pageable).map(layerMapper::toDto);
     }
 
-    public Mono<Long> countAll() {
-        return layerRepository.count();
+    @Override
+    @Transactional(readOnly = true)
+    public Flux<LayerDTO> findByCriteria(LayerCriteria criteria, Pageable pageable) {
+        log.debug("Request to get Layers by criteria : {}", criteria);
+        return layerRepository.findByCriteria(criteria, pageable).map(layerMapper::toDto);
     }
 
-    public Mono<Long> searchCount() {
-        return layerSearchRepository.count();
+    @Override
+    @Transactional(readOnly = true)
+    public Mono<Long> countByCriteria(LayerCriteria criteria) {
+        log.debug("Request to count Layers by criteria : {}", criteria);
+        return layerRepository.countByCriteria(criteria);
+    }
+
+    public Mono<Long> countAll() {
+        return layerRepository.count();
     }
 
     @Override
@@ -88,13 +113,50 @@ public class LayerServiceImpl implements LayerService {
     @Override
     public Mono<Void> delete(Long id) {
         log.debug("Request to delete Layer : {}", id);
-        return layerRepository.deleteById(id).then(layerSearchRepository.deleteById(id));
+        return layerRepository
+            .findByIdWithoutBlob(id)
+            .flatMap(deleted ->
+                layerRepository.deleteById(id).then(changeEventPublisher.publish(ChangeEventDTO.of(ChangeEventDTO.Type.DELETED, deleted)))
+            )
+            .then(searchOutbox.schedule(Layer.class, id));
     }
 
     @Override
     @Transactional(readOnly = true)
-    public Flux<LayerDTO> search(String query, Pageable pageable) {
+    public Mono<SearchSlice<LayerDTO>> search(String query, int size, SearchCursor after, boolean full) {
         log.debug("Request to search for a page of Layers for query {}", query);
-        return layerSearchRepository.search(query, pageable).map(layerMapper::toDto);
+        return toDtos(layerSearchRepository.search(query, size, after), full);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Mono<SearchSlice<LayerDTO>> searchArea(String query, SearchArea area, int size, boolean full) {
+        log.debug("Request to search for the Layers in an area for query {}", query);
+        return toDtos(layerSearchRepository.searchArea(query, area, size), full);
+    }
+
+    private Mono<SearchSlice<LayerDTO>> toDtos(Mono<SearchSlice<LayerSearchDocument>> search, boolean full) {
+        return search
+            .flatMap(hits ->
+                full
+                    ? SearchResults.hydrate(hits, LayerSearchDocument::getId, layerRepository, Layer::getId)
+                    : Mono.just(hits.map(LayerSearchDocument::toEntity))
+            )
+            .map(layers -> layers.map(layerMapper::toDto));
+    }
+
+    private Mono<Layer> written(ChangeEventDTO.Type type, Layer saved) {
+        return searchOutbox
+            .schedule(Layer.class, saved.getId())
+            .then(changeEventPublisher.publish(ChangeEventDTO.of(type, saved)))
+            .thenReturn(saved);
+    }
+
+    private static ChangeEventDTO.Type partialUpdateType(LayerDTO layerDTO) {
+        return ChangeEventDTO.partialUpdateType(
+            layerDTO.getX() != null || layerDTO.getY() != null,
+            layerDTO.getIsEnabled(),
+            layerDTO.getBuffer() != null || layerDTO.getBufferContentType() != null || layerDTO.getApplicationId() != null
+        );
     }
 }
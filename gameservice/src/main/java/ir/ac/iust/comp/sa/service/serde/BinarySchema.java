@@ -0,0 +1,309 @@
+package ir.ac.iust.comp.sa.service.serde;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import org.apache.kafka.common.errors.SerializationException;
+
+/**
+ * A versioned schema of binary Kafka payloads, whose versions are read from {@value #LOCATION}.
+ * <p>
+ * A payload starts with a magic byte and the version of the schema it was written with, followed by a varint bitmap
+ * of the fields present, then by the values of those fields, in the order of the schema: strings as a varint length
+ * and their UTF-8 bytes, longs as zig-zag varints, floats on 4 bytes, booleans on 1 byte, instants as zig-zag varint
+ * seconds and varint nanoseconds, and symbols as their index on 1 byte.
+ * <p>
+ * Each version may only append fields to the previous one, and symbols to its symbol fields, which is checked when
+ * the schema is loaded. Payloads are thus read with the latest version whatever their own: the trailing fields of a
+ * newer version are ignored, like their new symbols, read as {@code null}, and the fields missing from an older version
+ * are {@code null}.
+ */
+public final class BinarySchema {
+
+    static final String LOCATION = "config/kafka-schemas.properties";
+
+    private static final int MAGIC = 0x47;
+
+    private static final int MAX_FIELDS = 63;
+
+    private final String subject;
+
+    private final int version;
+
+    private final List<Field> fields;
+
+    private BinarySchema(String subject, int version, List<Field> fields) {
+        this.subject = subject;
+        this.version = version;
+        this.fields = fields;
+    }
+
+    /**
+     * Loads the latest version of a schema.
+     *
+     * @param subject the subject of the schema, e.g. {@code domain-event}.
+     * @return the schema.
+     * @throws IllegalStateException if the schema doesn't exist or a version isn't compatible with the previous one.
+     */
+    public static BinarySchema forSubject(String subject) {
+        Properties schemas = new Properties();
+        try (InputStream inputStream = BinarySchema.class.getClassLoader().getResourceAsStream(LOCATION)) {
+            if (inputStream == null) {
+                throw new IllegalStateException("No Kafka schemas at " + LOCATION);
+            }
+            schemas.load(inputStream);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return parse(subject, schemas);
+    }
+
+    static BinarySchema parse(String subject, Properties schemas) {
+        TreeMap<Integer, List<Field>> versions = new TreeMap<>();
+        for (String name : schemas.stringPropertyNames()) {
+            if (name.startsWith(subject + ".")) {
+                int version = Integer.parseInt(name.substring(subject.length() + 1));
+                versions.put(version, parseFields(schemas.getProperty(name)));
+            }
+        }
+        if (versions.isEmpty()) {
+            throw new IllegalStateException("No Kafka schema for " + subject);
+        }
+        List<Field> previous = Collections.emptyList();
+        for (Map.Entry<Integer, List<Field>> version : versions.entrySet()) {
+            List<Field> fields = version.getValue();
+            if (version.getKey() < 1 || version.getKey() > 255 || fields.size() > MAX_FIELDS) {
+                throw new IllegalStateException("Invalid version " + version.getKey() + " of the Kafka schema " + subject);
+            }
+            for (int i = 0; i < previous.size(); i++) {
+                if (i >= fields.size() || !fields.get(i).extend(previous.get(i))) {
+                    throw new IllegalStateException(
+                        "Version " + version.getKey() + " of the Kafka schema " + subject + " doesn't extend the previous one"
+                    );
+                }
+            }
+            previous = fields;
+        }
+        return new BinarySchema(subject, versions.lastKey(), previous);
+    }
+
+    private static List<Field> parseFields(String definition) {
+        List<Field> fields = new ArrayList<>();
+        for (String field : definition.split(",")) {
+            String[] nameAndType = field.trim().split(":", 2);
+            String type = nameAndType[1].trim();
+            if (type.startsWith("symbol(") && type.endsWith(")")) {
+                List<String> symbols = Arrays.asList(type.substring("symbol(".length(), type.length() - 1).split("\\|"));
+                fields.add(new Field(nameAndType[0].trim(), Type.SYMBOL, symbols));
+            } else {
+                fields.add(new Field(nameAndType[0].trim(), Type.valueOf(type.toUpperCase()), Collections.emptyList()));
+            }
+        }
+        return fields;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * @return the names of the fields, in the order of the values written and read.
+     */
+    public List<String> getFieldNames() {
+        List<String> names = new ArrayList<>(fields.size());
+        fields.forEach(field -> names.add(field.name));
+        return names;
+    }
+
+    /**
+     * Writes a payload.
+     *
+     * @param values the values of the fields, {@code null} if absent, symbols as strings.
+     * @return the payload.
+     */
+    public byte[] write(Object[] values) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(16 + 8 * fields.size());
+        out.write(MAGIC);
+        out.write(version);
+        long present = 0;
+        for (int i = 0; i < fields.size(); i++) {
+            if (values[i] != null) {
+                present |= 1L << i;
+            }
+        }
+        writeVarLong(out, present);
+        for (int i = 0; i < fields.size(); i++) {
+            if (values[i] != null) {
+                fields.get(i).write(out, values[i]);
+            }
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Reads a payload, written with any version of the schema.
+     *
+     * @param data the payload.
+     * @return the values of the fields, {@code null} if absent, symbols as strings.
+     * @throws SerializationException if the payload isn't valid.
+     */
+    public Object[] read(byte[] data) {
+        ByteBuffer in = ByteBuffer.wrap(data);
+        try {
+            if (in.get() != (byte) MAGIC) {
+                throw new SerializationException("Not a " + subject + " payload");
+            }
+            // the version only tells which fields may follow, the bitmap tells which ones do
+            in.get();
+            long present = readVarLong(in);
+            Object[] values = new Object[fields.size()];
+            for (int i = 0; i < fields.size(); i++) {
+                if ((present & (1L << i)) != 0) {
+                    values[i] = fields.get(i).read(in);
+                }
+            }
+            return values;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            throw new SerializationException("Invalid " + subject + " payload", e);
+        }
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+
+    private static void writeZigZag(ByteArrayOutputStream out, long value) {
+        writeVarLong(out, (value << 1) ^ (value >> 63));
+    }
+
+    private static long readZigZag(ByteBuffer in) {
+        long value = readVarLong(in);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private enum Type {
+        STRING,
+        LONG,
+        FLOAT,
+        BOOLEAN,
+        INSTANT,
+        SYMBOL,
+    }
+
+    private static class Field {
+
+        private final String name;
+
+        private final Type type;
+
+        private final List<String> symbols;
+
+        Field(String name, Type type, List<String> symbols) {
+            this.name = name;
+            this.type = type;
+            this.symbols = symbols;
+        }
+
+        boolean extend(Field previous) {
+            return (
+                name.equals(previous.name) &&
+                type == previous.type &&
+                symbols.size() >= previous.symbols.size() &&
+                symbols.subList(0, previous.symbols.size()).equals(previous.symbols)
+            );
+        }
+
+        void write(ByteArrayOutputStream out, Object value) {
+            switch (type) {
+                case STRING:
+                    byte[] bytes = ((String) value).getBytes(StandardCharsets.UTF_8);
+                    writeVarLong(out, bytes.length);
+                    out.write(bytes, 0, bytes.length);
+                    break;
+                case LONG:
+                    writeZigZag(out, (Long) value);
+                    break;
+                case FLOAT:
+                    int bits = Float.floatToIntBits((Float) value);
+                    out.write(bits >>> 24);
+                    out.write(bits >>> 16);
+                    out.write(bits >>> 8);
+                    out.write(bits);
+                    break;
+                case BOOLEAN:
+                    out.write((Boolean) value ? 1 : 0);
+                    break;
+                case INSTANT:
+                    writeZigZag(out, ((Instant) value).getEpochSecond());
+                    writeVarLong(out, ((Instant) value).getNano());
+                    break;
+                case SYMBOL:
+                    int index = symbols.indexOf(value);
+                    if (index < 0) {
+                        throw new SerializationException("Unknown symbol " + value + " of " + name);
+                    }
+                    out.write(index);
+                    break;
+                default:
+                    throw new IllegalStateException("Unsupported type " + type);
+            }
+        }
+
+        Object read(ByteBuffer in) {
+            switch (type) {
+                case STRING:
+                    int length = (int) readVarLong(in);
+                    // decoded in place, without copying the bytes first
+                    String string = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+                    in.position(in.position() + length);
+                    return string;
+                case LONG:
+                    return readZigZag(in);
+                case FLOAT:
+                    return in.getFloat();
+                case BOOLEAN:
+                    return in.get() != 0;
+                case INSTANT:
+                    return Instant.ofEpochSecond(readZigZag(in), readVarLong(in));
+                case SYMBOL:
+                    int index = in.get() & 0xFF;
+                    // a symbol appended by a newer version
+                    return index < symbols.size() ? symbols.get(index) : null;
+                default:
+                    throw new IllegalStateException("Unsupported type " + type);
+            }
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package ir.ac.iust.comp.sa.service.serde;
+
+import java.util.Map;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serializer;
+
+/**
+ * Base class of the Kafka serializers and deserializers of a class to and from the binary payloads of a
+ * {@link BinarySchema}, usable as the {@code value.serializer} of a producer as well as the {@code value.deserializer}
+ * of a consumer.
+ *
+ * @param <T> the serialized class.
+ */
+public abstract class BinarySerde<T> implements Serializer<T>, Deserializer<T> {
+
+    private final BinarySchema schema;
+
+    private final String[] fieldNames;
+
+    protected BinarySerde(String subject) {
+        this.schema = BinarySchema.forSubject(subject);
+        this.fieldNames = schema.getFieldNames().toArray(new String[0]);
+    }
+
+    /**
+     * @param value the serialized object.
+     * @param field the name of a field of the schema.
+     * @return the value of the field, {@code null} if absent, symbols as strings.
+     */
+    protected abstract Object get(T value, String field);
+
+    /**
+     * @return a new object to deserialize into.
+     */
+    protected abstract T create();
+
+    /**
+     * @param value the deserialized object.
+     * @param field the name of a field of the schema.
+     * @param fieldValue the value of the field, not {@code null}, symbols as strings.
+     */
+    protected abstract void set(T value, String field, Object fieldValue);
+
+    public BinarySchema getSchema() {
+        return schema;
+    }
+
+    @Override
+    public byte[] serialize(String topic, T data) {
+        if (data == null) {
+            return null;
+        }
+        Object[] values = new Object[fieldNames.length];
+        for (int i = 0; i < fieldNames.length; i++) {
+            values[i] = get(data, fieldNames[i]);
+        }
+        return schema.write(values);
+    }
+
+    @Override
+    public T deserialize(String topic, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        Object[] values = schema.read(data);
+        T value = create();
+        for (int i = 0; i < fieldNames.length; i++) {
+            if (values[i] != null) {
+                set(value, fieldNames[i], values[i]);
+            }
+        }
+        return value;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        // the schema is the only configuration
+    }
+
+    @Override
+    public void close() {
+        // nothing to release
+    }
+}
@@ -0,0 +1,52 @@
+package ir.ac.iust.comp.sa.service.serde;
+
+import ir.ac.iust.comp.sa.service.dto.CacheInvalidationDTO;
+
+/**
+ * Kafka serializer and deserializer of the {@link CacheInvalidationDTO}, with the {@code cache-invalidation}
+ * {@link BinarySchema}.
+ */
+public class CacheInvalidationSerde extends BinarySerde<CacheInvalidationDTO> {
+
+    public static final String SUBJECT = "cache-invalidation";
+
+    public CacheInvalidationSerde() {
+        super(SUBJECT);
+    }
+
+    @Override
+    protected Object get(CacheInvalidationDTO invalidation, String field) {
+        switch (field) {
+            case "source":
+                return invalidation.getSource();
+            case "cache":
+                return invalidation.getCache();
+            case "key":
+                return invalidation.getKey();
+            default:
+                throw new IllegalStateException("Unknown field " + field + " of " + SUBJECT);
+        }
+    }
+
+    @Override
+    protected CacheInvalidationDTO create() {
+        return new CacheInvalidationDTO();
+    }
+
+    @Override
+    protected void set(CacheInvalidationDTO invalidation, String field, Object value) {
+        switch (field) {
+            case "source":
+                invalidation.setSource((String) value);
+                break;
+            case "cache":
+                invalidation.setCache((String) value);
+                break;
+            case "key":
+                invalidation.setKey((String) value);
+                break;
+            default:
+                throw new IllegalStateException("Unknown field " + field + " of " + SUBJECT);
+        }
+    }
+}
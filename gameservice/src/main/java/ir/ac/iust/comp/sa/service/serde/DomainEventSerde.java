@@ -0,0 +1,93 @@
+package ir.ac.iust.comp.sa.service.serde;
+
+import ir.ac.iust.comp.sa.service.dto.ChangeEventDTO;
+import ir.ac.iust.comp.sa.service.dto.DomainEventDTO;
+import java.time.Instant;
+
+/**
+ * Kafka serializer and deserializer of the {@link DomainEventDTO}, with the {@code domain-event} {@link BinarySchema}.
+ */
+public class DomainEventSerde extends BinarySerde<DomainEventDTO> {
+
+    public static final String SUBJECT = "domain-event";
+
+    public DomainEventSerde() {
+        super(SUBJECT);
+    }
+
+    @Override
+    protected Object get(DomainEventDTO event, String field) {
+        switch (field) {
+            case "entity":
+                return event.getEntity();
+            case "type":
+                return event.getType() == null ? null : event.getType().name();
+            case "id":
+                return event.getId();
+            case "applicationId":
+                return event.getApplicationId();
+            case "x":
+                return event.getX();
+            case "y":
+                return event.getY();
+            case "isEnabled":
+                return event.getIsEnabled();
+            case "version":
+                return event.getVersion();
+            case "width":
+                return event.getWidth();
+            case "height":
+                return event.getHeight();
+            case "timestamp":
+                return event.getTimestamp();
+            default:
+                throw new IllegalStateException("Unknown field " + field + " of " + SUBJECT);
+        }
+    }
+
+    @Override
+    protected DomainEventDTO create() {
+        return new DomainEventDTO();
+    }
+
+    @Override
+    protected void set(DomainEventDTO event, String field, Object value) {
+        switch (field) {
+            case "entity":
+                event.setEntity((String) value);
+                break;
+            case "type":
+                event.setType(ChangeEventDTO.Type.valueOf((String) value));
+                break;
+            case "id":
+                event.setId((Long) value);
+                break;
+            case "applicationId":
+                event.setApplicationId((Long) value);
+                break;
+            case "x":
+                event.setX((Float) value);
+                break;
+            case "y":
+                event.setY((Float) value);
+                break;
+            case "isEnabled":
+                event.setIsEnabled((Boolean) value);
+                break;
+            case "version":
+                event.setVersion((Long) value);
+                break;
+            case "width":
+                event.setWidth((Float) value);
+                break;
+            case "height":
+                event.setHeight((Float) value);
+                break;
+            case "timestamp":
+                event.setTimestamp((Instant) value);
+                break;
+            default:
+                throw new IllegalStateException("Unknown field " + field + " of " + SUBJECT);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package ir.ac.iust.comp.sa.service.serde;
+
+import ir.ac.iust.comp.sa.domain.enumeration.EnumModType;
+import ir.ac.iust.comp.sa.service.dto.ModificationCommandDTO;
+
+/**
+ * Kafka serializer and deserializer of the {@link ModificationCommandDTO}, with the {@code modification-command}
+ * {@link BinarySchema}.
+ */
+public class ModificationCommandSerde extends BinarySerde<ModificationCommandDTO> {
+
+    public static final String SUBJECT = "modification-command";
+
+    public ModificationCommandSerde() {
+        super(SUBJECT);
+    }
+
+    @Override
+    protected Object get(ModificationCommandDTO command, String field) {
+        switch (field) {
+            case "type":
+                return command.getType() == null ? null : command.getType().name();
+            case "applicationId":
+                return command.getApplicationId();
+            case "gameObjectId":
+                return command.getGameObjectId();
+            case "x":
+                return command.getX();
+            case "y":
+                return command.getY();
+            case "angle":
+                return command.getAngle();
+            case "visible":
+                return command.getVisible();
+            default:
+                throw new IllegalStateException("Unknown field " + field + " of " + SUBJECT);
+        }
+    }
+
+    @Override
+    protected ModificationCommandDTO create() {
+        return new ModificationCommandDTO();
+    }
+
+    @Override
+    protected void set(ModificationCommandDTO command, String field, Object value) {
+        switch (field) {
+            case "type":
+                command.setType(EnumModType.valueOf((String) value));
+                break;
+            case "applicationId":
+                command.setApplicationId((Long) value);
+                break;
+            case "gameObjectId":
+                command.setGameObjectId((Long) value);
+                break;
+            case "x":
+                command.setX((Float) value);
+                break;
+            case "y":
+                command.setY((Float) value);
+                break;
+            case "angle":
+                command.setAngle((Float) value);
+                break;
+            case "visible":
+                command.setVisible((Boolean) value);
+                break;
+            default:
+                throw new IllegalStateException("Unknown field " + field + " of " + SUBJECT);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package ir.ac.iust.comp.sa.web.filter;
+
+import ir.ac.iust.comp.sa.config.ReadReplicaRoutingConnectionFactory;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+@Component
+public class ReadOnlyRequestWebFilter implements WebFilter {
+
+    /**
+     * Routes the database connections used by {@code GET /api/**} handlers to the read replicas, if any.
+     */
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (HttpMethod.GET.equals(exchange.getRequest().getMethod()) && exchange.getRequest().getURI().getPath().startsWith("/api/")) {
+            return chain.filter(exchange).contextWrite(ReadReplicaRoutingConnectionFactory.readOnly());
+        }
+        return chain.filter(exchange);
+    }
+}
@@ -1,17 +1,29 @@
 package ir.ac.iust.comp.sa.web.rest;
 
 import ir.ac.iust.comp.sa.domain.Application;
+import ir.ac.iust.comp.sa.domain.search.ApplicationSearchDocument;
 import ir.ac.iust.comp.sa.repository.ApplicationRepository;
 import ir.ac.iust.comp.sa.repository.search.ApplicationSearchRepository;
+import ir.ac.iust.comp.sa.repository.search.SearchCursor;
+import ir.ac.iust.comp.sa.service.DomainEventPublisher;
+import ir.ac.iust.comp.sa.service.ScreenFramePublisher;
+import ir.ac.iust.comp.sa.service.SearchOutbox;
+import ir.ac.iust.comp.sa.service.SearchResults;
+import ir.ac.iust.comp.sa.service.dto.ChangeEventDTO;
+import ir.ac.iust.comp.sa.service.dto.DomainEventDTO;
+import ir.ac.iust.comp.sa.service.dto.ScreenFrameDTO;
 import ir.ac.iust.comp.sa.web.rest.errors.BadRequestAlertException;
+import ir.ac.iust.comp.sa.web.rest.vm.NdjsonStreamVM;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.time.Instant;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -42,9 +54,28 @@ public class ApplicationResource {
 
     private final ApplicationSearchRepository applicationSearchRepository;
 
-    public ApplicationResource(ApplicationRepository applicationRepository, ApplicationSearchRepository applicationSearchRepository) {
+    private final SearchOutbox searchOutbox;
+
+    private final ScreenFramePublisher screenFramePublisher;
+
+    private final DomainEventPublisher domainEventPublisher;
+
+    private final NdjsonStreamWriter ndjsonStreamWriter;
+
+    public ApplicationResource(
+        ApplicationRepository applicationRepository,
+        ApplicationSearchRepository applicationSearchRepository,
+        SearchOutbox searchOutbox,
+        ScreenFramePublisher screenFramePublisher,
+        DomainEventPublisher domainEventPublisher,
+        NdjsonStreamWriter ndjsonStreamWriter
+    ) {
         this.applicationRepository = applicationRepository;
         this.applicationSearchRepository = applicationSearchRepository;
+        this.searchOutbox = searchOutbox;
+        this.screenFramePublisher = screenFramePublisher;
+        this.domainEventPublisher = domainEventPublisher;
+        this.ndjsonStreamWriter = ndjsonStreamWriter;
     }
 
     /**
@@ -62,7 +93,7 @@ public class ApplicationResource {
         }
         return applicationRepository
             .save(application)
-            .flatMap(applicationSearchRepository::save)
+            .flatMap(saved -> written(ChangeEventDTO.Type.CREATED, saved, saved.getScreenBuffer()))
             .map(result -> {
                 try {
                     return ResponseEntity
@@ -107,7 +138,7 @@ public class ApplicationResource {
 
                 return applicationRepository
                     .save(application)
-                    .flatMap(applicationSearchRepository::save)
+                    .flatMap(saved -> written(ChangeEventDTO.Type.UPDATED, saved, saved.getScreenBuffer()))
                     .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
                     .map(result ->
                         ResponseEntity
@@ -123,7 +154,7 @@ public class ApplicationResource {
      *
      * @param id the id of the application to save.
      * @param application the application to update.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated application,
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated application without its screenBuffer,
      * or with status {@code 400 (Bad Request)} if the application is not valid,
      * or with status {@code 404 (Not Found)} if the application is not found,
      * or with status {@code 500 (Internal Server Error)} if the application couldn't be updated.
@@ -143,46 +174,16 @@ public class ApplicationResource {
         }
 
         return applicationRepository
-            .existsById(id)
-            .flatMap(exists -> {
-                if (!exists) {
-                    return Mono.error(new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
-                }
-
-                Mono<Application> result = applicationRepository
-                    .findById(application.getId())
-                    .map(existingApplication -> {
-                        if (application.getWidth() != null) {
-                            existingApplication.setWidth(application.getWidth());
-                        }
-                        if (application.getHeight() != null) {
-                            existingApplication.setHeight(application.getHeight());
-                        }
-                        if (application.getScreenBuffer() != null) {
-                            existingApplication.setScreenBuffer(application.getScreenBuffer());
-                        }
-                        if (application.getScreenBufferContentType() != null) {
-                            existingApplication.setScreenBufferContentType(application.getScreenBufferContentType());
-                        }
-
-                        return existingApplication;
-                    })
-                    .flatMap(applicationRepository::save)
-                    .flatMap(savedApplication -> {
-                        applicationSearchRepository.save(savedApplication);
-
-                        return Mono.just(savedApplication);
-                    });
-
-                return result
-                    .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
-                    .map(res ->
-                        ResponseEntity
-                            .ok()
-                            .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, res.getId().toString()))
-                            .body(res)
-                    );
-            });
+            .partialUpdate(application)
+            .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
+            // the updated application is read back without its screen buffer
+            .flatMap(saved -> written(ChangeEventDTO.Type.UPDATED, saved, application.getScreenBuffer()))
+            .map(res ->
+                ResponseEntity
+                    .ok()
+                    .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, res.getId().toString()))
+                    .body(res)
+            );
     }
 
     /**
@@ -198,12 +199,19 @@ public class ApplicationResource {
 
     /**
      * {@code GET  /applications} : get all the applications as a stream.
-     * @return the {@link Flux} of applications.
+     * The {@code without-blobs} projection leaves out the binary content.
+     *
+     * @param options the projection and the prefetch and chunk sizes of the stream.
+     * @return the {@link Flux} of chunks of newline delimited applications.
      */
     @GetMapping(value = "/applications", produces = MediaType.APPLICATION_NDJSON_VALUE)
-    public Flux<Application> getAllApplicationsAsStream() {
-        log.debug("REST request to get all Applications as a stream");
-        return applicationRepository.findAll();
+    public Flux<DataBuffer> getAllApplicationsAsStream(NdjsonStreamVM options) {
+        log.debug("REST request to get all Applications as a stream: {}", options);
+        ndjsonStreamWriter.validate(ENTITY_NAME, options);
+        Flux<Application> applications = options.isWithoutBlobs()
+            ? applicationRepository.findAllWithoutBlob()
+            : applicationRepository.findAll();
+        return ndjsonStreamWriter.write("applications", options, applications);
     }
 
     /**
@@ -231,7 +239,8 @@ public class ApplicationResource {
         log.debug("REST request to delete Application : {}", id);
         return applicationRepository
             .deleteById(id)
-            .then(applicationSearchRepository.deleteById(id))
+            .then(searchOutbox.schedule(Application.class, id))
+            .then(domainEventPublisher.publish(DomainEventDTO.of(ChangeEventDTO.Type.DELETED, new Application().id(id))))
             .map(result ->
                 ResponseEntity
                     .noContent()
@@ -245,11 +254,44 @@ public class ApplicationResource {
      * to the query.
      *
      * @param query the query of the application search.
-     * @return the result of the search.
+     * @param size the number of applications of the page.
+     * @param searchAfter the cursor of the page, from the {@code X-Search-After} header of the previous page.
+     * @param full whether to load the full applications, including their screenBuffer, from the database.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the page of applications in body.
      */
     @GetMapping("/_search/applications")
-    public Mono<List<Application>> searchApplications(@RequestParam String query) {
-        log.debug("REST request to search Applications for query {}", query);
-        return applicationSearchRepository.search(query).collectList();
+    public Mono<ResponseEntity<Flux<Application>>> searchApplications(
+        @RequestParam String query,
+        @RequestParam(defaultValue = "20") int size,
+        @RequestParam(required = false) SearchCursor searchAfter,
+        @RequestParam(defaultValue = "false") boolean full
+    ) {
+        log.debug("REST request to search for a page of Applications for query {}", query);
+        return applicationSearchRepository
+            .search(query, size, searchAfter)
+            .flatMap(hits ->
+                full
+                    ? SearchResults.hydrate(hits, ApplicationSearchDocument::getId, applicationRepository, Application::getId)
+                    : Mono.just(hits.map(ApplicationSearchDocument::toEntity))
+            )
+            .map(results ->
+                ResponseEntity
+                    .ok()
+                    .headers(SearchPaginationUtil.generateSearchHttpHeaders(results))
+                    .body(Flux.fromIterable(results.getContent()))
+            );
+    }
+
+    private Mono<Application> written(ChangeEventDTO.Type type, Application saved, byte[] screenBuffer) {
+        Mono<Void> screen = screenBuffer == null
+            ? Mono.empty()
+            : screenFramePublisher.publish(
+                new ScreenFrameDTO(saved.getId(), saved.getScreenBufferContentType(), screenBuffer, Instant.now())
+            );
+        return searchOutbox
+            .schedule(Application.class, saved.getId())
+            .then(domainEventPublisher.publish(DomainEventDTO.of(type, saved)))
+            .then(screen)
+            .thenReturn(saved);
     }
 }
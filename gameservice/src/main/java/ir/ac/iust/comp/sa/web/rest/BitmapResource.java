@@ -1,9 +1,14 @@
 package ir.ac.iust.comp.sa.web.rest;
 
 import ir.ac.iust.comp.sa.domain.Bitmap;
+import ir.ac.iust.comp.sa.domain.search.BitmapSearchDocument;
 import ir.ac.iust.comp.sa.repository.BitmapRepository;
 import ir.ac.iust.comp.sa.repository.search.BitmapSearchRepository;
+import ir.ac.iust.comp.sa.repository.search.SearchCursor;
+import ir.ac.iust.comp.sa.service.SearchOutbox;
+import ir.ac.iust.comp.sa.service.SearchResults;
 import ir.ac.iust.comp.sa.web.rest.errors.BadRequestAlertException;
+import ir.ac.iust.comp.sa.web.rest.vm.NdjsonStreamVM;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
@@ -12,6 +17,7 @@ import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -42,9 +48,20 @@ public class BitmapResource {
 
     private final BitmapSearchRepository bitmapSearchRepository;
 
-    public BitmapResource(BitmapRepository bitmapRepository, BitmapSearchRepository bitmapSearchRepository) {
+    private final SearchOutbox searchOutbox;
+
+    private final NdjsonStreamWriter ndjsonStreamWriter;
+
+    public BitmapResource(
+        BitmapRepository bitmapRepository,
+        BitmapSearchRepository bitmapSearchRepository,
+        SearchOutbox searchOutbox,
+        NdjsonStreamWriter ndjsonStreamWriter
+    ) {
         this.bitmapRepository = bitmapRepository;
         this.bitmapSearchRepository = bitmapSearchRepository;
+        this.searchOutbox = searchOutbox;
+        this.ndjsonStreamWriter = ndjsonStreamWriter;
     }
 
     /**
@@ -62,7 +79,7 @@ public class BitmapResource {
         }
         return bitmapRepository
             .save(bitmap)
-            .flatMap(bitmapSearchRepository::save)
+            .flatMap(saved -> searchOutbox.schedule(Bitmap.class, saved.getId()).thenReturn(saved))
             .map(result -> {
                 try {
                     return ResponseEntity
@@ -107,7 +124,7 @@ public class BitmapResource {
 
                 return bitmapRepository
                     .save(bitmap)
-                    .flatMap(bitmapSearchRepository::save)
+                    .flatMap(saved -> searchOutbox.schedule(Bitmap.class, saved.getId()).thenReturn(saved))
                     .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
                     .map(result ->
                         ResponseEntity
@@ -123,7 +140,7 @@ public class BitmapResource {
      *
      * @param id the id of the bitmap to save.
      * @param bitmap the bitmap to update.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated bitmap,
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated bitmap without its blob,
      * or with status {@code 400 (Bad Request)} if the bitmap is not valid,
      * or with status {@code 404 (Not Found)} if the bitmap is not found,
      * or with status {@code 500 (Internal Server Error)} if the bitmap couldn't be updated.
@@ -143,40 +160,15 @@ public class BitmapResource {
         }
 
         return bitmapRepository
-            .existsById(id)
-            .flatMap(exists -> {
-                if (!exists) {
-                    return Mono.error(new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
-                }
-
-                Mono<Bitmap> result = bitmapRepository
-                    .findById(bitmap.getId())
-                    .map(existingBitmap -> {
-                        if (bitmap.getBlob() != null) {
-                            existingBitmap.setBlob(bitmap.getBlob());
-                        }
-                        if (bitmap.getBlobContentType() != null) {
-                            existingBitmap.setBlobContentType(bitmap.getBlobContentType());
-                        }
-
-                        return existingBitmap;
-                    })
-                    .flatMap(bitmapRepository::save)
-                    .flatMap(savedBitmap -> {
-                        bitmapSearchRepository.save(savedBitmap);
-
-                        return Mono.just(savedBitmap);
-                    });
-
-                return result
-                    .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
-                    .map(res ->
-                        ResponseEntity
-                            .ok()
-                            .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, res.getId().toString()))
-                            .body(res)
-                    );
-            });
+            .partialUpdate(bitmap)
+            .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
+            .flatMap(saved -> searchOutbox.schedule(Bitmap.class, saved.getId()).thenReturn(saved))
+            .map(res ->
+                ResponseEntity
+                    .ok()
+                    .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, res.getId().toString()))
+                    .body(res)
+            );
     }
 
     /**
@@ -192,12 +184,17 @@ public class BitmapResource {
 
     /**
      * {@code GET  /bitmaps} : get all the bitmaps as a stream.
-     * @return the {@link Flux} of bitmaps.
+     * The {@code without-blobs} projection leaves out the binary content.
+     *
+     * @param options the projection and the prefetch and chunk sizes of the stream.
+     * @return the {@link Flux} of chunks of newline delimited bitmaps.
      */
     @GetMapping(value = "/bitmaps", produces = MediaType.APPLICATION_NDJSON_VALUE)
-    public Flux<Bitmap> getAllBitmapsAsStream() {
-        log.debug("REST request to get all Bitmaps as a stream");
-        return bitmapRepository.findAll();
+    public Flux<DataBuffer> getAllBitmapsAsStream(NdjsonStreamVM options) {
+        log.debug("REST request to get all Bitmaps as a stream: {}", options);
+        ndjsonStreamWriter.validate(ENTITY_NAME, options);
+        Flux<Bitmap> bitmaps = options.isWithoutBlobs() ? bitmapRepository.findAllWithoutBlob() : bitmapRepository.findAll();
+        return ndjsonStreamWriter.write("bitmaps", options, bitmaps);
     }
 
     /**
@@ -225,7 +222,7 @@ public class BitmapResource {
         log.debug("REST request to delete Bitmap : {}", id);
         return bitmapRepository
             .deleteById(id)
-            .then(bitmapSearchRepository.deleteById(id))
+            .then(searchOutbox.schedule(Bitmap.class, id))
             .map(result ->
                 ResponseEntity
                     .noContent()
@@ -239,11 +236,31 @@ public class BitmapResource {
      * to the query.
      *
      * @param query the query of the bitmap search.
-     * @return the result of the search.
+     * @param size the number of bitmaps of the page.
+     * @param searchAfter the cursor of the page, from the {@code X-Search-After} header of the previous page.
+     * @param full whether to load the full bitmaps, including their blob, from the database.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the page of bitmaps in body.
      */
     @GetMapping("/_search/bitmaps")
-    public Mono<List<Bitmap>> searchBitmaps(@RequestParam String query) {
-        log.debug("REST request to search Bitmaps for query {}", query);
-        return bitmapSearchRepository.search(query).collectList();
+    public Mono<ResponseEntity<Flux<Bitmap>>> searchBitmaps(
+        @RequestParam String query,
+        @RequestParam(defaultValue = "20") int size,
+        @RequestParam(required = false) SearchCursor searchAfter,
+        @RequestParam(defaultValue = "false") boolean full
+    ) {
+        log.debug("REST request to search for a page of Bitmaps for query {}", query);
+        return bitmapSearchRepository
+            .search(query, size, searchAfter)
+            .flatMap(hits ->
+                full
+                    ? SearchResults.hydrate(hits, BitmapSearchDocument::getId, bitmapRepository, Bitmap::getId)
+                    : Mono.just(hits.map(BitmapSearchDocument::toEntity))
+            )
+            .map(results ->
+                ResponseEntity
+                    .ok()
+                    .headers(SearchPaginationUtil.generateSearchHttpHeaders(results))
+                    .body(Flux.fromIterable(results.getContent()))
+            );
     }
 }
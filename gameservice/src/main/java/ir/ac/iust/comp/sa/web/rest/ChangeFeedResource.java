@@ -0,0 +1,72 @@
+package ir.ac.iust.comp.sa.web.rest;
+
+import ir.ac.iust.comp.sa.config.ApplicationProperties;
+import ir.ac.iust.comp.sa.service.ChangeFeed;
+import ir.ac.iust.comp.sa.service.ChangeFeedExpiredException;
+import ir.ac.iust.comp.sa.service.dto.ChangeEventDTO;
+import ir.ac.iust.comp.sa.web.rest.errors.BadRequestAlertException;
+import java.time.Duration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+
+/**
+ * REST controller streaming the changes of the game objects and layers as server-sent events.
+ */
+@RestController
+@RequestMapping("/api")
+public class ChangeFeedResource {
+
+    private final Logger log = LoggerFactory.getLogger(ChangeFeedResource.class);
+
+    private static final String ENTITY_NAME = "gameserviceChangeFeed";
+
+    private final ChangeFeed changeFeed;
+
+    private final Duration heartbeatInterval;
+
+    public ChangeFeedResource(ChangeFeed changeFeed, ApplicationProperties applicationProperties) {
+        this.changeFeed = changeFeed;
+        this.heartbeatInterval = applicationProperties.getChanges().getFeed().getHeartbeatInterval();
+    }
+
+    /**
+     * {@code GET  /changes} : stream the changes of the game objects and layers.
+     * <p>
+     * Each event carries the sequence number of the change as its id, so that a reconnecting {@code EventSource}
+     * resumes after the last change it received through the {@code Last-Event-ID} header. Heartbeat comments are
+     * sent every {@code application.changes.feed.heartbeat-interval} to keep idle connections open. Resuming after a
+     * change that isn't retained anymore fails with {@code 410 (Gone)}: the client must reload the entities.
+     *
+     * @param entity the type of the changed entities ({@code game-object} or {@code layer}), or all changes if absent.
+     * @param applicationId the application of the changed entities, or all applications if absent.
+     * @param since the sequence number to resume after, or only the changes from now on if absent.
+     * @param lastEventId the id of the last event received, taking precedence over {@code since}.
+     * @return the stream of the changes.
+     */
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<ChangeEventDTO>> streamChanges(
+        @RequestParam(required = false) String entity,
+        @RequestParam(required = false) Long applicationId,
+        @RequestParam(required = false) Long since,
+        @RequestHeader(name = "Last-Event-ID", required = false) Long lastEventId
+    ) {
+        log.debug("REST request to stream the changes of {} in application {} after {}", entity, applicationId, since);
+        if (entity != null && !ChangeEventDTO.ENTITIES.contains(entity)) {
+            throw new BadRequestAlertException("Invalid entity", ENTITY_NAME, "entityinvalid");
+        }
+        Flux<ServerSentEvent<ChangeEventDTO>> changes = changeFeed
+            .changes(entity, applicationId, lastEventId != null ? lastEventId : since)
+            .onErrorMap(ChangeFeedExpiredException.class, e -> new ResponseStatusException(HttpStatus.GONE, e.getMessage()))
+            .map(event -> ServerSentEvent.builder(event).id(String.valueOf(event.getSequence())).build());
+        Flux<ServerSentEvent<ChangeEventDTO>> heartbeats = Flux
+            .interval(heartbeatInterval)
+            .map(tick -> ServerSentEvent.<ChangeEventDTO>builder().comment("heartbeat").build());
+        return Flux.merge(changes, heartbeats);
+    }
+}
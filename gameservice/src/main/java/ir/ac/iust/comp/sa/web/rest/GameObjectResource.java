@@ -1,17 +1,30 @@
 package ir.ac.iust.comp.sa.web.rest;
 
 import ir.ac.iust.comp.sa.domain.GameObject;
+import ir.ac.iust.comp.sa.domain.search.GameObjectSearchDocument;
 import ir.ac.iust.comp.sa.repository.GameObjectRepository;
 import ir.ac.iust.comp.sa.repository.search.GameObjectSearchRepository;
+import ir.ac.iust.comp.sa.repository.search.SearchArea;
+import ir.ac.iust.comp.sa.repository.search.SearchCursor;
+import ir.ac.iust.comp.sa.repository.search.SearchSlice;
+import ir.ac.iust.comp.sa.service.ChangeEventPublisher;
+import ir.ac.iust.comp.sa.service.SearchOutbox;
+import ir.ac.iust.comp.sa.service.SearchResults;
+import ir.ac.iust.comp.sa.service.criteria.GameObjectCriteria;
+import ir.ac.iust.comp.sa.service.dto.ChangeEventDTO;
 import ir.ac.iust.comp.sa.web.rest.errors.BadRequestAlertException;
+import ir.ac.iust.comp.sa.web.rest.vm.NdjsonStreamVM;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Supplier;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -42,9 +55,24 @@ public class GameObjectResource {
 
     private final GameObjectSearchRepository gameObjectSearchRepository;
 
-    public GameObjectResource(GameObjectRepository gameObjectRepository, GameObjectSearchRepository gameObjectSearchRepository) {
+    private final SearchOutbox searchOutbox;
+
+    private final ChangeEventPublisher changeEventPublisher;
+
+    private final NdjsonStreamWriter ndjsonStreamWriter;
+
+    public GameObjectResource(
+        GameObjectRepository gameObjectRepository,
+        GameObjectSearchRepository gameObjectSearchRepository,
+        SearchOutbox searchOutbox,
+        ChangeEventPublisher changeEventPublisher,
+        NdjsonStreamWriter ndjsonStreamWriter
+    ) {
         this.gameObjectRepository = gameObjectRepository;
         this.gameObjectSearchRepository = gameObjectSearchRepository;
+        this.searchOutbox = searchOutbox;
+        this.changeEventPublisher = changeEventPublisher;
+        this.ndjsonStreamWriter = ndjsonStreamWriter;
     }
 
     /**
@@ -62,7 +90,7 @@ public class GameObjectResource {
         }
         return gameObjectRepository
             .save(gameObject)
-            .flatMap(gameObjectSearchRepository::save)
+            .flatMap(saved -> written(ChangeEventDTO.Type.CREATED, saved))
             .map(result -> {
                 try {
                     return ResponseEntity
@@ -82,6 +110,7 @@ public class GameObjectResource {
      * @param gameObject the gameObject to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated gameObject,
      * or with status {@code 400 (Bad Request)} if the gameObject is not valid,
+     * or with status {@code 409 (Conflict)} if the gameObject was updated since its version,
      * or with status {@code 500 (Internal Server Error)} if the gameObject couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
@@ -97,6 +126,9 @@ public class GameObjectResource {
         if (!Objects.equals(id, gameObject.getId())) {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
+        if (gameObject.getVersion() == null) {
+            throw new BadRequestAlertException("A version is required", ENTITY_NAME, "versionnull");
+        }
 
         return gameObjectRepository
             .existsById(id)
@@ -107,7 +139,7 @@ public class GameObjectResource {
 
                 return gameObjectRepository
                     .save(gameObject)
-                    .flatMap(gameObjectSearchRepository::save)
+                    .flatMap(saved -> written(ChangeEventDTO.Type.UPDATED, saved))
                     .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
                     .map(result ->
                         ResponseEntity
@@ -123,9 +155,10 @@ public class GameObjectResource {
      *
      * @param id the id of the gameObject to save.
      * @param gameObject the gameObject to update.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated gameObject,
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated gameObject without its bitmap,
      * or with status {@code 400 (Bad Request)} if the gameObject is not valid,
      * or with status {@code 404 (Not Found)} if the gameObject is not found,
+     * or with status {@code 409 (Conflict)} if the gameObject was updated since its version,
      * or with status {@code 500 (Internal Server Error)} if the gameObject couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
@@ -141,72 +174,61 @@ public class GameObjectResource {
         if (!Objects.equals(id, gameObject.getId())) {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
+        if (gameObject.getVersion() == null) {
+            throw new BadRequestAlertException("A version is required", ENTITY_NAME, "versionnull");
+        }
 
         return gameObjectRepository
-            .existsById(id)
-            .flatMap(exists -> {
-                if (!exists) {
-                    return Mono.error(new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
-                }
-
-                Mono<GameObject> result = gameObjectRepository
-                    .findById(gameObject.getId())
-                    .map(existingGameObject -> {
-                        if (gameObject.getX() != null) {
-                            existingGameObject.setX(gameObject.getX());
-                        }
-                        if (gameObject.getY() != null) {
-                            existingGameObject.setY(gameObject.getY());
-                        }
-                        if (gameObject.getBitmap() != null) {
-                            existingGameObject.setBitmap(gameObject.getBitmap());
-                        }
-                        if (gameObject.getBitmapContentType() != null) {
-                            existingGameObject.setBitmapContentType(gameObject.getBitmapContentType());
-                        }
-                        if (gameObject.getIsEnabled() != null) {
-                            existingGameObject.setIsEnabled(gameObject.getIsEnabled());
-                        }
-
-                        return existingGameObject;
-                    })
-                    .flatMap(gameObjectRepository::save)
-                    .flatMap(savedGameObject -> {
-                        gameObjectSearchRepository.save(savedGameObject);
-
-                        return Mono.just(savedGameObject);
-                    });
-
-                return result
-                    .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
-                    .map(res ->
-                        ResponseEntity
-                            .ok()
-                            .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, res.getId().toString()))
-                            .body(res)
-                    );
-            });
+            .partialUpdate(gameObject)
+            .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
+            .flatMap(saved -> written(partialUpdateType(gameObject), saved))
+            .map(res ->
+                ResponseEntity
+                    .ok()
+                    .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, res.getId().toString()))
+                    .body(res)
+            );
     }
 
     /**
      * {@code GET  /game-objects} : get all the gameObjects.
      *
+     * @param criteria the criteria which the requested gameObjects should match.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of gameObjects in body.
      */
     @GetMapping("/game-objects")
-    public Mono<List<GameObject>> getAllGameObjects() {
-        log.debug("REST request to get all GameObjects");
-        return gameObjectRepository.findAll().collectList();
+    public Mono<List<GameObject>> getAllGameObjects(GameObjectCriteria criteria) {
+        log.debug("REST request to get all GameObjects by criteria: {}", criteria);
+        return gameObjectRepository.findByCriteria(criteria, Pageable.unpaged()).collectList();
+    }
+
+    /**
+     * {@code GET  /game-objects/count} : count all the gameObjects.
+     *
+     * @param criteria the criteria which the requested gameObjects should match.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the count in body.
+     */
+    @GetMapping("/game-objects/count")
+    public Mono<ResponseEntity<Long>> countGameObjects(GameObjectCriteria criteria) {
+        log.debug("REST request to count GameObjects by criteria: {}", criteria);
+        return gameObjectRepository.countByCriteria(criteria).map(count -> ResponseEntity.status(HttpStatus.OK).body(count));
     }
 
     /**
      * {@code GET  /game-objects} : get all the gameObjects as a stream.
-     * @return the {@link Flux} of gameObjects.
+     * The {@code without-blobs} projection leaves out the binary content.
+     *
+     * @param options the projection and the prefetch and chunk sizes of the stream.
+     * @return the {@link Flux} of chunks of newline delimited gameObjects.
      */
     @GetMapping(value = "/game-objects", produces = MediaType.APPLICATION_NDJSON_VALUE)
-    public Flux<GameObject> getAllGameObjectsAsStream() {
-        log.debug("REST request to get all GameObjects as a stream");
-        return gameObjectRepository.findAll();
+    public Flux<DataBuffer> getAllGameObjectsAsStream(NdjsonStreamVM options) {
+        log.debug("REST request to get all GameObjects as a stream: {}", options);
+        ndjsonStreamWriter.validate(ENTITY_NAME, options);
+        Flux<GameObject> gameObjects = options.isWithoutBlobs()
+            ? gameObjectRepository.findAllWithoutBlob()
+            : gameObjectRepository.findAll();
+        return ndjsonStreamWriter.write("game-objects", options, gameObjects);
     }
 
     /**
@@ -233,8 +255,13 @@ public class GameObjectResource {
     public Mono<ResponseEntity<Void>> deleteGameObject(@PathVariable Long id) {
         log.debug("REST request to delete GameObject : {}", id);
         return gameObjectRepository
-            .deleteById(id)
-            .then(gameObjectSearchRepository.deleteById(id))
+            .findByIdWithoutBlob(id)
+            .flatMap(deleted ->
+                gameObjectRepository
+                    .deleteById(id)
+                    .then(changeEventPublisher.publish(ChangeEventDTO.of(ChangeEventDTO.Type.DELETED, deleted)))
+            )
+            .then(searchOutbox.schedule(GameObject.class, id))
             .map(result ->
                 ResponseEntity
                     .noContent()
@@ -248,11 +275,141 @@ public class GameObjectResource {
      * to the query.
      *
      * @param query the query of the gameObject search.
-     * @return the result of the search.
+     * @param size the number of gameObjects of the page.
+     * @param searchAfter the cursor of the page, from the {@code X-Search-After} header of the previous page.
+     * @param full whether to load the full gameObjects, including their bitmap, from the database.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the page of gameObjects in body.
      */
     @GetMapping("/_search/game-objects")
-    public Mono<List<GameObject>> searchGameObjects(@RequestParam String query) {
-        log.debug("REST request to search GameObjects for query {}", query);
-        return gameObjectSearchRepository.search(query).collectList();
+    public Mono<ResponseEntity<Flux<GameObject>>> searchGameObjects(
+        @RequestParam String query,
+        @RequestParam(defaultValue = "20") int size,
+        @RequestParam(required = false) SearchCursor searchAfter,
+        @RequestParam(defaultValue = "false") boolean full
+    ) {
+        log.debug("REST request to search for a page of GameObjects for query {}", query);
+        return toResponse(gameObjectSearchRepository.search(query, size, searchAfter), full);
+    }
+
+    /**
+     * {@code SEARCH  /_search/game-objects/within?x=:x&y=:y&radius=:radius} : search for the gameObjects at most
+     * {@code radius} away from a point, nearest first.
+     *
+     * @param x the x coordinate of the point.
+     * @param y the y coordinate of the point.
+     * @param radius the maximum distance from the point.
+     * @param query the query the gameObjects must also match, if any.
+     * @param size the maximum number of gameObjects.
+     * @param full whether to load the full gameObjects, including their bitmap, from the database.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the gameObjects in body, or with status {@code 400 (Bad Request)} if the area is invalid.
+     */
+    @GetMapping("/_search/game-objects/within")
+    public Mono<ResponseEntity<Flux<GameObject>>> searchGameObjectsWithin(
+        @RequestParam double x,
+        @RequestParam double y,
+        @RequestParam double radius,
+        @RequestParam(required = false) String query,
+        @RequestParam(defaultValue = "20") int size,
+        @RequestParam(defaultValue = "false") boolean full
+    ) {
+        log.debug("REST request to search for the GameObjects within {} of ({}, {})", radius, x, y);
+        return searchGameObjectsInArea(query, () -> SearchArea.circle(x, y, radius), size, full);
+    }
+
+    /**
+     * {@code SEARCH  /_search/game-objects/box?minX=:minX&minY=:minY&maxX=:maxX&maxY=:maxY} : search for the gameObjects inside
+     * a bounding box, nearest to its center first.
+     *
+     * @param minX the smallest x coordinate of the box.
+     * @param minY the smallest y coordinate of the box.
+     * @param maxX the largest x coordinate of the box.
+     * @param maxY the largest y coordinate of the box.
+     * @param query the query the gameObjects must also match, if any.
+     * @param size the maximum number of gameObjects.
+     * @param full whether to load the full gameObjects, including their bitmap, from the database.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the gameObjects in body, or with status {@code 400 (Bad Request)} if the area is invalid.
+     */
+    @GetMapping("/_search/game-objects/box")
+    public Mono<ResponseEntity<Flux<GameObject>>> searchGameObjectsInBox(
+        @RequestParam double minX,
+        @RequestParam double minY,
+        @RequestParam double maxX,
+        @RequestParam double maxY,
+        @RequestParam(required = false) String query,
+        @RequestParam(defaultValue = "20") int size,
+        @RequestParam(defaultValue = "false") boolean full
+    ) {
+        log.debug("REST request to search for the GameObjects in ({}, {}) - ({}, {})", minX, minY, maxX, maxY);
+        return searchGameObjectsInArea(query, () -> SearchArea.box(minX, minY, maxX, maxY), size, full);
+    }
+
+    /**
+     * {@code SEARCH  /_search/game-objects/nearest?x=:x&y=:y&k=:k} : search for the {@code k} gameObjects nearest to a point,
+     * nearest first.
+     *
+     * @param x the x coordinate of the point.
+     * @param y the y coordinate of the point.
+     * @param k the number of gameObjects.
+     * @param query the query the gameObjects must also match, if any.
+     * @param full whether to load the full gameObjects, including their bitmap, from the database.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the gameObjects in body, or with status {@code 400 (Bad Request)} if the point is invalid.
+     */
+    @GetMapping("/_search/game-objects/nearest")
+    public Mono<ResponseEntity<Flux<GameObject>>> searchNearestGameObjects(
+        @RequestParam double x,
+        @RequestParam double y,
+        @RequestParam(defaultValue = "10") int k,
+        @RequestParam(required = false) String query,
+        @RequestParam(defaultValue = "false") boolean full
+    ) {
+        log.debug("REST request to search for the {} GameObjects nearest to ({}, {})", k, x, y);
+        return searchGameObjectsInArea(query, () -> SearchArea.nearest(x, y), k, full);
+    }
+
+    private Mono<ResponseEntity<Flux<GameObject>>> searchGameObjectsInArea(
+        String query,
+        Supplier<SearchArea> area,
+        int size,
+        boolean full
+    ) {
+        return toResponse(gameObjectSearchRepository.searchArea(query, toSearchArea(area), size), full);
+    }
+
+    private Mono<ResponseEntity<Flux<GameObject>>> toResponse(Mono<SearchSlice<GameObjectSearchDocument>> search, boolean full) {
+        return search
+            .flatMap(hits ->
+                full
+                    ? SearchResults.hydrate(hits, GameObjectSearchDocument::getId, gameObjectRepository, GameObject::getId)
+                    : Mono.just(hits.map(GameObjectSearchDocument::toEntity))
+            )
+            .map(results ->
+                ResponseEntity
+                    .ok()
+                    .headers(SearchPaginationUtil.generateSearchHttpHeaders(results))
+                    .body(Flux.fromIterable(results.getContent()))
+            );
+    }
+
+    private static SearchArea toSearchArea(Supplier<SearchArea> area) {
+        try {
+            return area.get();
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME, "invalidarea");
+        }
+    }
+
+    private Mono<GameObject> written(ChangeEventDTO.Type type, GameObject saved) {
+        return searchOutbox
+            .schedule(GameObject.class, saved.getId())
+            .then(changeEventPublisher.publish(ChangeEventDTO.of(type, saved)))
+            .thenReturn(saved);
+    }
+
+    private static ChangeEventDTO.Type partialUpdateType(GameObject gameObject) {
+        return ChangeEventDTO.partialUpdateType(
+            gameObject.getX() != null || gameObject.getY() != null,
+            gameObject.getIsEnabled(),
+            gameObject.getBitmap() != null || gameObject.getBitmapContentType() != null || gameObject.getApplicationId() != null
+        );
     }
 }
@@ -1,15 +1,19 @@
 package ir.ac.iust.comp.sa.web.rest;
 
 import ir.ac.iust.comp.sa.repository.LayerRepository;
+import ir.ac.iust.comp.sa.repository.search.SearchArea;
+import ir.ac.iust.comp.sa.repository.search.SearchCursor;
+import ir.ac.iust.comp.sa.repository.search.SearchSlice;
 import ir.ac.iust.comp.sa.service.LayerService;
+import ir.ac.iust.comp.sa.service.criteria.LayerCriteria;
 import ir.ac.iust.comp.sa.service.dto.LayerDTO;
 import ir.ac.iust.comp.sa.web.rest.errors.BadRequestAlertException;
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Supplier;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -87,6 +91,7 @@ public class LayerResource {
      * @param layerDTO the layerDTO to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated layerDTO,
      * or with status {@code 400 (Bad Request)} if the layerDTO is not valid,
+     * or with status {@code 409 (Conflict)} if the layerDTO was updated since its version,
      * or with status {@code 500 (Internal Server Error)} if the layerDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
@@ -102,6 +107,9 @@ public class LayerResource {
         if (!Objects.equals(id, layerDTO.getId())) {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
+        if (layerDTO.getVersion() == null) {
+            throw new BadRequestAlertException("A version is required", ENTITY_NAME, "versionnull");
+        }
 
         return layerRepository
             .existsById(id)
@@ -127,9 +135,10 @@ public class LayerResource {
      *
      * @param id the id of the layerDTO to save.
      * @param layerDTO the layerDTO to update.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated layerDTO,
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated layerDTO without its buffer,
      * or with status {@code 400 (Bad Request)} if the layerDTO is not valid,
      * or with status {@code 404 (Not Found)} if the layerDTO is not found,
+     * or with status {@code 409 (Conflict)} if the layerDTO was updated since its version,
      * or with status {@code 500 (Internal Server Error)} if the layerDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
@@ -145,40 +154,35 @@ public class LayerResource {
         if (!Objects.equals(id, layerDTO.getId())) {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
+        if (layerDTO.getVersion() == null) {
+            throw new BadRequestAlertException("A version is required", ENTITY_NAME, "versionnull");
+        }
 
-        return layerRepository
-            .existsById(id)
-            .flatMap(exists -> {
-                if (!exists) {
-                    return Mono.error(new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
-                }
-
-                Mono<LayerDTO> result = layerService.partialUpdate(layerDTO);
-
-                return result
-                    .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
-                    .map(res ->
-                        ResponseEntity
-                            .ok()
-                            .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, res.getId().toString()))
-                            .body(res)
-                    );
-            });
+        return layerService
+            .partialUpdate(layerDTO)
+            .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
+            .map(res ->
+                ResponseEntity
+                    .ok()
+                    .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, res.getId().toString()))
+                    .body(res)
+            );
     }
 
     /**
      * {@code GET  /layers} : get all the layers.
      *
+     * @param criteria the criteria which the requested layers should match.
      * @param pageable the pagination information.
      * @param request a {@link ServerHttpRequest} request.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of layers in body.
      */
     @GetMapping("/layers")
-    public Mono<ResponseEntity<List<LayerDTO>>> getAllLayers(Pageable pageable, ServerHttpRequest request) {
-        log.debug("REST request to get a page of Layers");
+    public Mono<ResponseEntity<List<LayerDTO>>> getAllLayers(LayerCriteria criteria, Pageable pageable, ServerHttpRequest request) {
+        log.debug("REST request to get a page of Layers by criteria: {}", criteria);
         return layerService
-            .countAll()
-            .zipWith(layerService.findAll(pageable).collectList())
+            .countByCriteria(criteria)
+            .zipWith(layerService.findByCriteria(criteria, pageable).collectList())
             .map(countWithEntities -> {
                 return ResponseEntity
                     .ok()
@@ -192,6 +196,18 @@ public class LayerResource {
             });
     }
 
+    /**
+     * {@code GET  /layers/count} : count all the layers.
+     *
+     * @param criteria the criteria which the requested layers should match.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the count in body.
+     */
+    @GetMapping("/layers/count")
+    public Mono<ResponseEntity<Long>> countLayers(LayerCriteria criteria) {
+        log.debug("REST request to count Layers by criteria: {}", criteria);
+        return layerService.countByCriteria(criteria).map(count -> ResponseEntity.status(HttpStatus.OK).body(count));
+    }
+
     /**
      * {@code GET  /layers/:id} : get the "id" layer.
      *
@@ -230,17 +246,115 @@ public class LayerResource {
      * to the query.
      *
      * @param query the query of the layer search.
-     * @param pageable the pagination information.
-     * @param request a {@link ServerHttpRequest} request.
-     * @return the result of the search.
+     * @param size the number of layers of the page.
+     * @param searchAfter the cursor of the page, from the {@code X-Search-After} header of the previous page.
+     * @param full whether to load the full layers, including their buffer, from the database.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the page of layers in body.
      */
     @GetMapping("/_search/layers")
-    public Mono<ResponseEntity<Flux<LayerDTO>>> searchLayers(@RequestParam String query, Pageable pageable, ServerHttpRequest request) {
+    public Mono<ResponseEntity<Flux<LayerDTO>>> searchLayers(
+        @RequestParam String query,
+        @RequestParam(defaultValue = "20") int size,
+        @RequestParam(required = false) SearchCursor searchAfter,
+        @RequestParam(defaultValue = "false") boolean full
+    ) {
         log.debug("REST request to search for a page of Layers for query {}", query);
-        return layerService
-            .searchCount()
-            .map(total -> new PageImpl<>(new ArrayList<>(), pageable, total))
-            .map(page -> PaginationUtil.generatePaginationHttpHeaders(UriComponentsBuilder.fromHttpRequest(request), page))
-            .map(headers -> ResponseEntity.ok().headers(headers).body(layerService.search(query, pageable)));
+        return toResponse(layerService.search(query, size, searchAfter, full));
+    }
+
+    /**
+     * {@code SEARCH  /_search/layers/within?x=:x&y=:y&radius=:radius} : search for the layers at most
+     * {@code radius} away from a point, nearest first.
+     *
+     * @param x the x coordinate of the point.
+     * @param y the y coordinate of the point.
+     * @param radius the maximum distance from the point.
+     * @param query the query the layers must also match, if any.
+     * @param size the maximum number of layers.
+     * @param full whether to load the full layers, including their buffer, from the database.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the layers in body, or with status {@code 400 (Bad Request)} if the area is invalid.
+     */
+    @GetMapping("/_search/layers/within")
+    public Mono<ResponseEntity<Flux<LayerDTO>>> searchLayersWithin(
+        @RequestParam double x,
+        @RequestParam double y,
+        @RequestParam double radius,
+        @RequestParam(required = false) String query,
+        @RequestParam(defaultValue = "20") int size,
+        @RequestParam(defaultValue = "false") boolean full
+    ) {
+        log.debug("REST request to search for the Layers within {} of ({}, {})", radius, x, y);
+        return searchLayersInArea(query, () -> SearchArea.circle(x, y, radius), size, full);
+    }
+
+    /**
+     * {@code SEARCH  /_search/layers/box?minX=:minX&minY=:minY&maxX=:maxX&maxY=:maxY} : search for the layers inside
+     * a bounding box, nearest to its center first.
+     *
+     * @param minX the smallest x coordinate of the box.
+     * @param minY the smallest y coordinate of the box.
+     * @param maxX the largest x coordinate of the box.
+     * @param maxY the largest y coordinate of the box.
+     * @param query the query the layers must also match, if any.
+     * @param size the maximum number of layers.
+     * @param full whether to load the full layers, including their buffer, from the database.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the layers in body, or with status {@code 400 (Bad Request)} if the area is invalid.
+     */
+    @GetMapping("/_search/layers/box")
+    public Mono<ResponseEntity<Flux<LayerDTO>>> searchLayersInBox(
+        @RequestParam double minX,
+        @RequestParam double minY,
+        @RequestParam double maxX,
+        @RequestParam double maxY,
+        @RequestParam(required = false) String query,
+        @RequestParam(defaultValue = "20") int size,
+        @RequestParam(defaultValue = "false") boolean full
+    ) {
+        log.debug("REST request to search for the Layers in ({}, {}) - ({}, {})", minX, minY, maxX, maxY);
+        return searchLayersInArea(query, () -> SearchArea.box(minX, minY, maxX, maxY), size, full);
+    }
+
+    /**
+     * {@code SEARCH  /_search/layers/nearest?x=:x&y=:y&k=:k} : search for the {@code k} layers nearest to a point,
+     * nearest first.
+     *
+     * @param x the x coordinate of the point.
+     * @param y the y coordinate of the point.
+     * @param k the number of layers.
+     * @param query the query the layers must also match, if any.
+     * @param full whether to load the full layers, including their buffer, from the database.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the layers in body, or with status {@code 400 (Bad Request)} if the point is invalid.
+     */
+    @GetMapping("/_search/layers/nearest")
+    public Mono<ResponseEntity<Flux<LayerDTO>>> searchNearestLayers(
+        @RequestParam double x,
+        @RequestParam double y,
+        @RequestParam(defaultValue = "10") int k,
+        @RequestParam(required = false) String query,
+        @RequestParam(defaultValue = "false") boolean full
+    ) {
+        log.debug("REST request to search for the {} Layers nearest to ({}, {})", k, x, y);
+        return searchLayersInArea(query, () -> SearchArea.nearest(x, y), k, full);
+    }
+
+    private Mono<ResponseEntity<Flux<LayerDTO>>> searchLayersInArea(String query, Supplier<SearchArea> area, int size, boolean full) {
+        return toResponse(layerService.searchArea(query, toSearchArea(area), size, full));
+    }
+
+    private Mono<ResponseEntity<Flux<LayerDTO>>> toResponse(Mono<SearchSlice<LayerDTO>> search) {
+        return search.map(results ->
+            ResponseEntity
+                .ok()
+                .headers(SearchPaginationUtil.generateSearchHttpHeaders(results))
+                .body(Flux.fromIterable(results.getContent()))
+        );
+    }
+
+    private static SearchArea toSearchArea(Supplier<SearchArea> area) {
+        try {
+            return area.get();
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME, "invalidarea");
+        }
     }
 }
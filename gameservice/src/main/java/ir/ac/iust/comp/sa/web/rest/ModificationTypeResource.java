@@ -3,7 +3,10 @@ package ir.ac.iust.comp.sa.web.rest;
 import ir.ac.iust.comp.sa.domain.ModificationType;
 import ir.ac.iust.comp.sa.repository.ModificationTypeRepository;
 import ir.ac.iust.comp.sa.repository.search.ModificationTypeSearchRepository;
+import ir.ac.iust.comp.sa.repository.search.SearchCursor;
+import ir.ac.iust.comp.sa.service.SearchOutbox;
 import ir.ac.iust.comp.sa.web.rest.errors.BadRequestAlertException;
+import ir.ac.iust.comp.sa.web.rest.vm.NdjsonStreamVM;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
@@ -12,6 +15,7 @@ import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -42,12 +46,20 @@ public class ModificationTypeResource {
 
     private final ModificationTypeSearchRepository modificationTypeSearchRepository;
 
+    private final SearchOutbox searchOutbox;
+
+    private final NdjsonStreamWriter ndjsonStreamWriter;
+
     public ModificationTypeResource(
         ModificationTypeRepository modificationTypeRepository,
-        ModificationTypeSearchRepository modificationTypeSearchRepository
+        ModificationTypeSearchRepository modificationTypeSearchRepository,
+        SearchOutbox searchOutbox,
+        NdjsonStreamWriter ndjsonStreamWriter
     ) {
         this.modificationTypeRepository = modificationTypeRepository;
         this.modificationTypeSearchRepository = modificationTypeSearchRepository;
+        this.searchOutbox = searchOutbox;
+        this.ndjsonStreamWriter = ndjsonStreamWriter;
     }
 
     /**
@@ -66,7 +78,7 @@ public class ModificationTypeResource {
         }
         return modificationTypeRepository
             .save(modificationType)
-            .flatMap(modificationTypeSearchRepository::save)
+            .flatMap(saved -> searchOutbox.schedule(ModificationType.class, saved.getId()).thenReturn(saved))
             .map(result -> {
                 try {
                     return ResponseEntity
@@ -111,7 +123,7 @@ public class ModificationTypeResource {
 
                 return modificationTypeRepository
                     .save(modificationType)
-                    .flatMap(modificationTypeSearchRepository::save)
+                    .flatMap(saved -> searchOutbox.schedule(ModificationType.class, saved.getId()).thenReturn(saved))
                     .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
                     .map(result ->
                         ResponseEntity
@@ -163,11 +175,7 @@ public class ModificationTypeResource {
                         return existingModificationType;
                     })
                     .flatMap(modificationTypeRepository::save)
-                    .flatMap(savedModificationType -> {
-                        modificationTypeSearchRepository.save(savedModificationType);
-
-                        return Mono.just(savedModificationType);
-                    });
+                    .flatMap(saved -> searchOutbox.schedule(ModificationType.class, saved.getId()).thenReturn(saved));
 
                 return result
                     .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
@@ -193,12 +201,15 @@ public class ModificationTypeResource {
 
     /**
      * {@code GET  /modification-types} : get all the modificationTypes as a stream.
-     * @return the {@link Flux} of modificationTypes.
+     *
+     * @param options the prefetch and chunk sizes of the stream.
+     * @return the {@link Flux} of chunks of newline delimited modificationTypes.
      */
     @GetMapping(value = "/modification-types", produces = MediaType.APPLICATION_NDJSON_VALUE)
-    public Flux<ModificationType> getAllModificationTypesAsStream() {
-        log.debug("REST request to get all ModificationTypes as a stream");
-        return modificationTypeRepository.findAll();
+    public Flux<DataBuffer> getAllModificationTypesAsStream(NdjsonStreamVM options) {
+        log.debug("REST request to get all ModificationTypes as a stream: {}", options);
+        ndjsonStreamWriter.validate(ENTITY_NAME, options);
+        return ndjsonStreamWriter.write("modification-types", options, modificationTypeRepository.findAll());
     }
 
     /**
@@ -226,7 +237,7 @@ public class ModificationTypeResource {
         log.debug("REST request to delete ModificationType : {}", id);
         return modificationTypeRepository
             .deleteById(id)
-            .then(modificationTypeSearchRepository.deleteById(id))
+            .then(searchOutbox.schedule(ModificationType.class, id))
             .map(result ->
                 ResponseEntity
                     .noContent()
@@ -240,11 +251,24 @@ public class ModificationTypeResource {
      * to the query.
      *
      * @param query the query of the modificationType search.
-     * @return the result of the search.
+     * @param size the number of modificationTypes of the page.
+     * @param searchAfter the cursor of the page, from the {@code X-Search-After} header of the previous page.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the page of modificationTypes in body.
      */
     @GetMapping("/_search/modification-types")
-    public Mono<List<ModificationType>> searchModificationTypes(@RequestParam String query) {
-        log.debug("REST request to search ModificationTypes for query {}", query);
-        return modificationTypeSearchRepository.search(query).collectList();
+    public Mono<ResponseEntity<Flux<ModificationType>>> searchModificationTypes(
+        @RequestParam String query,
+        @RequestParam(defaultValue = "20") int size,
+        @RequestParam(required = false) SearchCursor searchAfter
+    ) {
+        log.debug("REST request to search for a page of ModificationTypes for query {}", query);
+        return modificationTypeSearchRepository
+            .search(query, size, searchAfter)
+            .map(results ->
+                ResponseEntity
+                    .ok()
+                    .headers(SearchPaginationUtil.generateSearchHttpHeaders(results))
+                    .body(Flux.fromIterable(results.getContent()))
+            );
     }
 }
@@ -3,7 +3,10 @@ package ir.ac.iust.comp.sa.web.rest;
 import ir.ac.iust.comp.sa.domain.MyApplication;
 import ir.ac.iust.comp.sa.repository.MyApplicationRepository;
 import ir.ac.iust.comp.sa.repository.search.MyApplicationSearchRepository;
+import ir.ac.iust.comp.sa.repository.search.SearchCursor;
+import ir.ac.iust.comp.sa.service.SearchOutbox;
 import ir.ac.iust.comp.sa.web.rest.errors.BadRequestAlertException;
+import ir.ac.iust.comp.sa.web.rest.vm.NdjsonStreamVM;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
@@ -12,6 +15,7 @@ import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -42,12 +46,20 @@ public class MyApplicationResource {
 
     private final MyApplicationSearchRepository myApplicationSearchRepository;
 
+    private final SearchOutbox searchOutbox;
+
+    private final NdjsonStreamWriter ndjsonStreamWriter;
+
     public MyApplicationResource(
         MyApplicationRepository myApplicationRepository,
-        MyApplicationSearchRepository myApplicationSearchRepository
+        MyApplicationSearchRepository myApplicationSearchRepository,
+        SearchOutbox searchOutbox,
+        NdjsonStreamWriter ndjsonStreamWriter
     ) {
         this.myApplicationRepository = myApplicationRepository;
         this.myApplicationSearchRepository = myApplicationSearchRepository;
+        this.searchOutbox = searchOutbox;
+        this.ndjsonStreamWriter = ndjsonStreamWriter;
     }
 
     /**
@@ -65,7 +77,7 @@ public class MyApplicationResource {
         }
         return myApplicationRepository
             .save(myApplication)
-            .flatMap(myApplicationSearchRepository::save)
+            .flatMap(saved -> searchOutbox.schedule(MyApplication.class, saved.getId()).thenReturn(saved))
             .map(result -> {
                 try {
                     return ResponseEntity
@@ -110,7 +122,7 @@ public class MyApplicationResource {
 
                 return myApplicationRepository
                     .save(myApplication)
-                    .flatMap(myApplicationSearchRepository::save)
+                    .flatMap(saved -> searchOutbox.schedule(MyApplication.class, saved.getId()).thenReturn(saved))
                     .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
                     .map(result ->
                         ResponseEntity
@@ -158,11 +170,7 @@ public class MyApplicationResource {
                         return existingMyApplication;
                     })
                     .flatMap(myApplicationRepository::save)
-                    .flatMap(savedMyApplication -> {
-                        myApplicationSearchRepository.save(savedMyApplication);
-
-                        return Mono.just(savedMyApplication);
-                    });
+                    .flatMap(saved -> searchOutbox.schedule(MyApplication.class, saved.getId()).thenReturn(saved));
 
                 return result
                     .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
@@ -188,12 +196,15 @@ public class MyApplicationResource {
 
     /**
      * {@code GET  /my-applications} : get all the myApplications as a stream.
-     * @return the {@link Flux} of myApplications.
+     *
+     * @param options the prefetch and chunk sizes of the stream.
+     * @return the {@link Flux} of chunks of newline delimited myApplications.
      */
     @GetMapping(value = "/my-applications", produces = MediaType.APPLICATION_NDJSON_VALUE)
-    public Flux<MyApplication> getAllMyApplicationsAsStream() {
-        log.debug("REST request to get all MyApplications as a stream");
-        return myApplicationRepository.findAll();
+    public Flux<DataBuffer> getAllMyApplicationsAsStream(NdjsonStreamVM options) {
+        log.debug("REST request to get all MyApplications as a stream: {}", options);
+        ndjsonStreamWriter.validate(ENTITY_NAME, options);
+        return ndjsonStreamWriter.write("my-applications", options, myApplicationRepository.findAll());
     }
 
     /**
@@ -221,7 +232,7 @@ public class MyApplicationResource {
         log.debug("REST request to delete MyApplication : {}", id);
         return myApplicationRepository
             .deleteById(id)
-            .then(myApplicationSearchRepository.deleteById(id))
+            .then(searchOutbox.schedule(MyApplication.class, id))
             .map(result ->
                 ResponseEntity
                     .noContent()
@@ -235,11 +246,24 @@ public class MyApplicationResource {
      * to the query.
      *
      * @param query the query of the myApplication search.
-     * @return the result of the search.
+     * @param size the number of myApplications of the page.
+     * @param searchAfter the cursor of the page, from the {@code X-Search-After} header of the previous page.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the page of myApplications in body.
      */
     @GetMapping("/_search/my-applications")
-    public Mono<List<MyApplication>> searchMyApplications(@RequestParam String query) {
-        log.debug("REST request to search MyApplications for query {}", query);
-        return myApplicationSearchRepository.search(query).collectList();
+    public Mono<ResponseEntity<Flux<MyApplication>>> searchMyApplications(
+        @RequestParam String query,
+        @RequestParam(defaultValue = "20") int size,
+        @RequestParam(required = false) SearchCursor searchAfter
+    ) {
+        log.debug("REST request to search for a page of MyApplications for query {}", query);
+        return myApplicationSearchRepository
+            .search(query, size, searchAfter)
+            .map(results ->
+                ResponseEntity
+                    .ok()
+                    .headers(SearchPaginationUtil.generateSearchHttpHeaders(results))
+                    .body(Flux.fromIterable(results.getContent()))
+            );
     }
 }
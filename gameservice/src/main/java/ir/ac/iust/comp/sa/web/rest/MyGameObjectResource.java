@@ -3,7 +3,10 @@ package ir.ac.iust.comp.sa.web.rest;
 import ir.ac.iust.comp.sa.domain.MyGameObject;
 import ir.ac.iust.comp.sa.repository.MyGameObjectRepository;
 import ir.ac.iust.comp.sa.repository.search.MyGameObjectSearchRepository;
+import ir.ac.iust.comp.sa.repository.search.SearchCursor;
+import ir.ac.iust.comp.sa.service.SearchOutbox;
 import ir.ac.iust.comp.sa.web.rest.errors.BadRequestAlertException;
+import ir.ac.iust.comp.sa.web.rest.vm.NdjsonStreamVM;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
@@ -12,6 +15,7 @@ import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -42,9 +46,20 @@ public class MyGameObjectResource {
 
     private final MyGameObjectSearchRepository myGameObjectSearchRepository;
 
-    public MyGameObjectResource(MyGameObjectRepository myGameObjectRepository, MyGameObjectSearchRepository myGameObjectSearchRepository) {
+    private final SearchOutbox searchOutbox;
+
+    private final NdjsonStreamWriter ndjsonStreamWriter;
+
+    public MyGameObjectResource(
+        MyGameObjectRepository myGameObjectRepository,
+        MyGameObjectSearchRepository myGameObjectSearchRepository,
+        SearchOutbox searchOutbox,
+        NdjsonStreamWriter ndjsonStreamWriter
+    ) {
         this.myGameObjectRepository = myGameObjectRepository;
         this.myGameObjectSearchRepository = myGameObjectSearchRepository;
+        this.searchOutbox = searchOutbox;
+        this.ndjsonStreamWriter = ndjsonStreamWriter;
     }
 
     /**
@@ -62,7 +77,7 @@ public class MyGameObjectResource {
         }
         return myGameObjectRepository
             .save(myGameObject)
-            .flatMap(myGameObjectSearchRepository::save)
+            .flatMap(saved -> searchOutbox.schedule(MyGameObject.class, saved.getId()).thenReturn(saved))
             .map(result -> {
                 try {
                     return ResponseEntity
@@ -107,7 +122,7 @@ public class MyGameObjectResource {
 
                 return myGameObjectRepository
                     .save(myGameObject)
-                    .flatMap(myGameObjectSearchRepository::save)
+                    .flatMap(saved -> searchOutbox.schedule(MyGameObject.class, saved.getId()).thenReturn(saved))
                     .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
                     .map(result ->
                         ResponseEntity
@@ -155,11 +170,7 @@ public class MyGameObjectResource {
                         return existingMyGameObject;
                     })
                     .flatMap(myGameObjectRepository::save)
-                    .flatMap(savedMyGameObject -> {
-                        myGameObjectSearchRepository.save(savedMyGameObject);
-
-                        return Mono.just(savedMyGameObject);
-                    });
+                    .flatMap(saved -> searchOutbox.schedule(MyGameObject.class, saved.getId()).thenReturn(saved));
 
                 return result
                     .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
@@ -185,12 +196,15 @@ public class MyGameObjectResource {
 
     /**
      * {@code GET  /my-game-objects} : get all the myGameObjects as a stream.
-     * @return the {@link Flux} of myGameObjects.
+     *
+     * @param options the prefetch and chunk sizes of the stream.
+     * @return the {@link Flux} of chunks of newline delimited myGameObjects.
      */
     @GetMapping(value = "/my-game-objects", produces = MediaType.APPLICATION_NDJSON_VALUE)
-    public Flux<MyGameObject> getAllMyGameObjectsAsStream() {
-        log.debug("REST request to get all MyGameObjects as a stream");
-        return myGameObjectRepository.findAll();
+    public Flux<DataBuffer> getAllMyGameObjectsAsStream(NdjsonStreamVM options) {
+        log.debug("REST request to get all MyGameObjects as a stream: {}", options);
+        ndjsonStreamWriter.validate(ENTITY_NAME, options);
+        return ndjsonStreamWriter.write("my-game-objects", options, myGameObjectRepository.findAll());
     }
 
     /**
@@ -218,7 +232,7 @@ public class MyGameObjectResource {
         log.debug("REST request to delete MyGameObject : {}", id);
         return myGameObjectRepository
             .deleteById(id)
-            .then(myGameObjectSearchRepository.deleteById(id))
+            .then(searchOutbox.schedule(MyGameObject.class, id))
             .map(result ->
                 ResponseEntity
                     .noContent()
@@ -232,11 +246,24 @@ public class MyGameObjectResource {
      * to the query.
      *
      * @param query the query of the myGameObject search.
-     * @return the result of the search.
+     * @param size the number of myGameObjects of the page.
+     * @param searchAfter the cursor of the page, from the {@code X-Search-After} header of the previous page.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the page of myGameObjects in body.
      */
     @GetMapping("/_search/my-game-objects")
-    public Mono<List<MyGameObject>> searchMyGameObjects(@RequestParam String query) {
-        log.debug("REST request to search MyGameObjects for query {}", query);
-        return myGameObjectSearchRepository.search(query).collectList();
+    public Mono<ResponseEntity<Flux<MyGameObject>>> searchMyGameObjects(
+        @RequestParam String query,
+        @RequestParam(defaultValue = "20") int size,
+        @RequestParam(required = false) SearchCursor searchAfter
+    ) {
+        log.debug("REST request to search for a page of MyGameObjects for query {}", query);
+        return myGameObjectSearchRepository
+            .search(query, size, searchAfter)
+            .map(results ->
+                ResponseEntity
+                    .ok()
+                    .headers(SearchPaginationUtil.generateSearchHttpHeaders(results))
+                    .body(Flux.fromIterable(results.getContent()))
+            );
     }
 }
@@ -0,0 +1,190 @@
+package ir.ac.iust.comp.sa.web.rest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import ir.ac.iust.comp.sa.config.ApplicationProperties;
+import ir.ac.iust.comp.sa.web.rest.errors.BadRequestAlertException;
+import ir.ac.iust.comp.sa.web.rest.vm.NdjsonStreamVM;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+/**
+ * Writes the {@code application/x-ndjson} streams of the entities, a chunk of records per network write.
+ * <p>
+ * Records are requested from the database {@code prefetch} rows at a time, so a slow client holds at most a few
+ * chunks in memory while the rows it hasn't read yet stay in the database. Each stream reports the records and bytes it
+ * wrote, its duration, and its backlog of the records read from the database but not handed to the connection yet.
+ */
+@Component
+public class NdjsonStreamWriter {
+
+    private static final String METRIC_PREFIX = "streams.ndjson.";
+
+    private static final Set<String> PROJECTIONS = Set.of(NdjsonStreamVM.PROJECTION_FULL, NdjsonStreamVM.PROJECTION_WITHOUT_BLOBS);
+
+    private static final byte NEW_LINE = '\n';
+
+    private final Logger log = LoggerFactory.getLogger(NdjsonStreamWriter.class);
+
+    private final ObjectWriter writer;
+
+    private final ApplicationProperties.Streams properties;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, StreamMeters> meters = new ConcurrentHashMap<>();
+
+    public NdjsonStreamWriter(ObjectMapper objectMapper, ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        this.writer = objectMapper.writer();
+        this.properties = applicationProperties.getStreams();
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Checks the parameters of a stream.
+     *
+     * @param stream the name of the stream, e.g. {@code game-objects}.
+     * @param options the parameters of the stream.
+     * @throws BadRequestAlertException if the projection is unknown or a size isn't positive.
+     */
+    public void validate(String stream, NdjsonStreamVM options) {
+        if (!PROJECTIONS.contains(options.getProjection())) {
+            throw new BadRequestAlertException("Invalid projection", stream, "projectioninvalid");
+        }
+        if (
+            (options.getPrefetch() != null && options.getPrefetch() <= 0) || (options.getChunkSize() != null && options.getChunkSize() <= 0)
+        ) {
+            throw new BadRequestAlertException("Invalid prefetch or chunk size", stream, "sizeinvalid");
+        }
+    }
+
+    /**
+     * Streams records as newline delimited JSON.
+     *
+     * @param stream the name of the stream, tagging its metrics.
+     * @param options the parameters of the stream, see {@link #validate(String, NdjsonStreamVM)}.
+     * @param records the records to stream.
+     * @return the chunks of newline delimited JSON records.
+     */
+    public Flux<DataBuffer> write(String stream, NdjsonStreamVM options, Flux<?> records) {
+        int prefetch = size(options.getPrefetch(), properties.getPrefetch(), properties.getMaxPrefetch());
+        int chunkSize = size(options.getChunkSize(), properties.getChunkSize(), properties.getMaxChunkSize());
+        StreamMeters streamMeters = meters.computeIfAbsent(stream, StreamMeters::new);
+        return Flux.defer(() -> {
+            long start = System.nanoTime();
+            AtomicLong written = new AtomicLong();
+            AtomicLong pending = new AtomicLong();
+            streamMeters.active.incrementAndGet();
+            return records
+                .limitRate(prefetch)
+                .map(record -> {
+                    pending.incrementAndGet();
+                    streamMeters.backlog.incrementAndGet();
+                    return toJsonLine(record);
+                })
+                .buffer(chunkSize)
+                .map(lines -> {
+                    DataBuffer chunk = join(lines);
+                    pending.addAndGet(-lines.size());
+                    streamMeters.backlog.addAndGet(-lines.size());
+                    streamMeters.records.increment(lines.size());
+                    streamMeters.bytes.increment(chunk.readableByteCount());
+                    written.addAndGet(lines.size());
+                    return chunk;
+                })
+                .doFinally(signal -> {
+                    long duration = System.nanoTime() - start;
+                    // records left in a chunk when the client cancels the stream
+                    streamMeters.backlog.addAndGet(-pending.getAndSet(0));
+                    streamMeters.active.decrementAndGet();
+                    streamMeters.duration.record(duration, TimeUnit.NANOSECONDS);
+                    log.debug("Streamed {} {} in {} ms: {}", written.get(), stream, TimeUnit.NANOSECONDS.toMillis(duration), signal);
+                });
+        });
+    }
+
+    private byte[] toJsonLine(Object record) {
+        try {
+            return writer.writeValueAsBytes(record);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static DataBuffer join(List<byte[]> lines) {
+        int length = lines.size();
+        for (byte[] line : lines) {
+            length += line.length;
+        }
+        DataBuffer chunk = DefaultDataBufferFactory.sharedInstance.allocateBuffer(length);
+        for (byte[] line : lines) {
+            chunk.write(line).write(NEW_LINE);
+        }
+        return chunk;
+    }
+
+    private static int size(Integer requested, int defaultSize, int maxSize) {
+        return requested == null ? defaultSize : Math.min(requested, maxSize);
+    }
+
+    private class StreamMeters {
+
+        private final AtomicInteger active = new AtomicInteger();
+
+        private final AtomicLong backlog = new AtomicLong();
+
+        private final Counter records;
+
+        private final Counter bytes;
+
+        private final Timer duration;
+
+        StreamMeters(String stream) {
+            Gauge
+                .builder(METRIC_PREFIX + "active", active, AtomicInteger::get)
+                .description("Streams being written")
+                .tag("stream", stream)
+                .register(meterRegistry);
+            Gauge
+                .builder(METRIC_PREFIX + "backlog", backlog, AtomicLong::get)
+                .description("Records read from the database and not handed to the connections yet")
+                .tag("stream", stream)
+                .register(meterRegistry);
+            this.records =
+                Counter
+                    .builder(METRIC_PREFIX + "records")
+                    .description("Records written")
+                    .tag("stream", stream)
+                    .register(meterRegistry);
+            this.bytes =
+                Counter
+                    .builder(METRIC_PREFIX + "bytes")
+                    .description("Bytes written")
+                    .tag("stream", stream)
+                    .register(meterRegistry);
+            this.duration =
+                Timer
+                    .builder(METRIC_PREFIX + "duration")
+                    .description("Duration of the streams")
+                    .tag("stream", stream)
+                    .register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package ir.ac.iust.comp.sa.web.rest;
+
+import ir.ac.iust.comp.sa.repository.ApplicationRepository;
+import ir.ac.iust.comp.sa.service.SceneService;
+import ir.ac.iust.comp.sa.service.dto.SceneDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+import tech.jhipster.web.util.reactive.ResponseUtil;
+
+/**
+ * REST controller synchronizing the scenes of the {@link ir.ac.iust.comp.sa.domain.Application}s.
+ * <p>
+ * A client loads the scene once, then polls the changes since the {@code sequence} of the last response it got, from
+ * any instance. It receives a snapshot again, flagged as such, when it fell too far behind.
+ */
+@RestController
+@RequestMapping("/api")
+public class SceneResource {
+
+    private final Logger log = LoggerFactory.getLogger(SceneResource.class);
+
+    private final SceneService sceneService;
+
+    private final ApplicationRepository applicationRepository;
+
+    public SceneResource(SceneService sceneService, ApplicationRepository applicationRepository) {
+        this.sceneService = sceneService;
+        this.applicationRepository = applicationRepository;
+    }
+
+    /**
+     * {@code GET  /applications/:id/scene} : get a snapshot of the scene of the "id" application.
+     *
+     * @param id the id of the application.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the layers and game objects of the application
+     * in body, without their binary content, or with status {@code 404 (Not Found)}.
+     */
+    @GetMapping("/applications/{id}/scene")
+    public Mono<ResponseEntity<SceneDTO>> getScene(@PathVariable Long id) {
+        log.debug("REST request to get the scene of Application : {}", id);
+        return ResponseUtil.wrapOrNotFound(ifExists(id).flatMap(exists -> sceneService.snapshot(id)));
+    }
+
+    /**
+     * {@code GET  /applications/:id/scene/changes} : get the changes of the scene of the "id" application.
+     *
+     * @param id the id of the application.
+     * @param since the sequence number of the last scene received.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the changes since in body, or a snapshot if they
+     * aren't available anymore, or with status {@code 404 (Not Found)}.
+     */
+    @GetMapping("/applications/{id}/scene/changes")
+    public Mono<ResponseEntity<SceneDTO>> getSceneChanges(@PathVariable Long id, @RequestParam long since) {
+        log.debug("REST request to get the changes of the scene of Application : {} since {}", id, since);
+        return ResponseUtil.wrapOrNotFound(ifExists(id).flatMap(exists -> sceneService.changesSince(id, since)));
+    }
+
+    private Mono<Boolean> ifExists(Long id) {
+        return applicationRepository.existsById(id).filter(Boolean::booleanValue);
+    }
+}
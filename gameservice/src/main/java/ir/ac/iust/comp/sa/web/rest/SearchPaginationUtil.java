@@ -0,0 +1,36 @@
+package ir.ac.iust.comp.sa.web.rest;
+
+import ir.ac.iust.comp.sa.repository.search.SearchSlice;
+import org.springframework.http.HttpHeaders;
+
+/**
+ * Utility class handling the pagination headers of search results.
+ * <p>
+ * The {@code X-Search-After} header holds the cursor to give back as the {@code searchAfter} parameter to fetch the
+ * next page; it is absent on the last page. {@code X-Total-Count} is only sent with the first page.
+ */
+final class SearchPaginationUtil {
+
+    static final String HEADER_X_TOTAL_COUNT = "X-Total-Count";
+
+    static final String HEADER_X_SEARCH_AFTER = "X-Search-After";
+
+    private SearchPaginationUtil() {}
+
+    /**
+     * Generates the pagination headers of a page of search results.
+     *
+     * @param slice the page of search results.
+     * @return the headers.
+     */
+    static HttpHeaders generateSearchHttpHeaders(SearchSlice<?> slice) {
+        HttpHeaders headers = new HttpHeaders();
+        if (slice.getTotalHits() != null) {
+            headers.add(HEADER_X_TOTAL_COUNT, Long.toString(slice.getTotalHits()));
+        }
+        if (slice.getNext() != null) {
+            headers.add(HEADER_X_SEARCH_AFTER, slice.getNext().toString());
+        }
+        return headers;
+    }
+}
@@ -0,0 +1,83 @@
+package ir.ac.iust.comp.sa.web.rest;
+
+import ir.ac.iust.comp.sa.config.Constants;
+import ir.ac.iust.comp.sa.service.SearchEntities;
+import ir.ac.iust.comp.sa.service.SearchReindexService;
+import ir.ac.iust.comp.sa.service.dto.SearchReindexJobDTO;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+import tech.jhipster.web.util.reactive.ResponseUtil;
+
+/**
+ * REST controller rebuilding the search indices of the entities.
+ */
+@RestController
+@RequestMapping("/api/admin/search")
+@Profile("!" + Constants.SPRING_PROFILE_LUCENE)
+public class SearchReindexResource {
+
+    private final Logger log = LoggerFactory.getLogger(SearchReindexResource.class);
+
+    private final SearchReindexService searchReindexService;
+
+    private final SearchEntities searchEntities;
+
+    public SearchReindexResource(SearchReindexService searchReindexService, SearchEntities searchEntities) {
+        this.searchReindexService = searchReindexService;
+        this.searchEntities = searchEntities;
+    }
+
+    /**
+     * {@code POST  /admin/search/reindex/:entityType} : Starts rebuilding the search index of an entity.
+     *
+     * @param entityType the simple name of the entity class, e.g. {@code GameObject}.
+     * @return the {@link ResponseEntity} with status {@code 202 (Accepted)} and with body the started job,
+     * or with status {@code 404 (Not Found)} if the entity isn't indexed,
+     * or with status {@code 409 (Conflict)} if its index is already being rebuilt.
+     */
+    @PostMapping("/reindex/{entityType}")
+    public Mono<ResponseEntity<SearchReindexJobDTO>> reindex(@PathVariable String entityType) {
+        log.debug("REST request to rebuild the search index of {}", entityType);
+        if (searchEntities.get(entityType).isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown search entity type: " + entityType);
+        }
+        return Mono.just(
+            searchReindexService
+                .start(entityType)
+                .map(job -> ResponseEntity.accepted().body(job))
+                .orElseThrow(() ->
+                    new ResponseStatusException(HttpStatus.CONFLICT, "The search index of " + entityType + " is already being rebuilt")
+                )
+        );
+    }
+
+    /**
+     * {@code GET  /admin/search/reindex} : get the last rebuild of each search index.
+     *
+     * @return the list of jobs.
+     */
+    @GetMapping("/reindex")
+    public Mono<List<SearchReindexJobDTO>> getAllReindexJobs() {
+        log.debug("REST request to get all search index rebuilds");
+        return Mono.just(searchReindexService.findAllJobs());
+    }
+
+    /**
+     * {@code GET  /admin/search/reindex/:entityType} : get the progress of the last rebuild of the search index of an entity.
+     *
+     * @param entityType the simple name of the entity class.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the job, or with status {@code 404 (Not Found)}.
+     */
+    @GetMapping("/reindex/{entityType}")
+    public Mono<ResponseEntity<SearchReindexJobDTO>> getReindexJob(@PathVariable String entityType) {
+        log.debug("REST request to get the search index rebuild of {}", entityType);
+        return ResponseUtil.wrapOrNotFound(Mono.justOrEmpty(searchReindexService.findJob(entityType)));
+    }
+}
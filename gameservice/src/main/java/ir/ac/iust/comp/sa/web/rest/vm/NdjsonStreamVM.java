@@ -0,0 +1,55 @@
+package ir.ac.iust.comp.sa.web.rest.vm;
+
+/**
+ * View Model of the query parameters of the {@code application/x-ndjson} streams.
+ */
+public class NdjsonStreamVM {
+
+    public static final String PROJECTION_FULL = "full";
+
+    public static final String PROJECTION_WITHOUT_BLOBS = "without-blobs";
+
+    private String projection = PROJECTION_FULL;
+
+    private Integer prefetch;
+
+    private Integer chunkSize;
+
+    public String getProjection() {
+        return projection;
+    }
+
+    public void setProjection(String projection) {
+        this.projection = projection;
+    }
+
+    public boolean isWithoutBlobs() {
+        return PROJECTION_WITHOUT_BLOBS.equals(projection);
+    }
+
+    public Integer getPrefetch() {
+        return prefetch;
+    }
+
+    public void setPrefetch(Integer prefetch) {
+        this.prefetch = prefetch;
+    }
+
+    public Integer getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(Integer chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "NdjsonStreamVM{" +
+            "projection='" + projection + "'" +
+            ", prefetch=" + prefetch +
+            ", chunkSize=" + chunkSize +
+            "}";
+    }
+}
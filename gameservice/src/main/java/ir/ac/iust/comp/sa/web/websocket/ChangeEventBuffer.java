@@ -0,0 +1,135 @@
+package ir.ac.iust.comp.sa.web.websocket;
+
+import ir.ac.iust.comp.sa.service.dto.ChangeEventDTO;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+
+/**
+ * Bounded buffer of the change events waiting to be sent to a client, coalescing the events of the same entity.
+ * <p>
+ * A client falling behind receives the latest state of the entities rather than every intermediate change: a pending
+ * event is replaced by the next event of the same entity, keeping its place in the queue, and the oldest pending event
+ * is dropped once the buffer is full.
+ */
+final class ChangeEventBuffer {
+
+    enum Outcome {
+        QUEUED,
+        MERGED,
+        DROPPED,
+    }
+
+    private final int capacity;
+
+    private final Map<String, ChangeEventDTO> pending = new LinkedHashMap<>();
+
+    ChangeEventBuffer(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("The capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+    }
+
+    /**
+     * Buffers the events of a hot stream until they are requested.
+     *
+     * @param events the events, consumed as fast as they come.
+     * @param capacity the maximum number of pending events.
+     * @param scheduler the scheduler sending the pending events downstream.
+     * @param outcomes the listener of the outcome of each buffered event.
+     * @return the events, coalesced while the subscriber falls behind.
+     */
+    static Flux<ChangeEventDTO> coalesce(Flux<ChangeEventDTO> events, int capacity, Scheduler scheduler, Consumer<Outcome> outcomes) {
+        return Flux.create(sink -> {
+            ChangeEventBuffer buffer = new ChangeEventBuffer(capacity);
+            Scheduler.Worker worker = scheduler.createWorker();
+            AtomicInteger wip = new AtomicInteger();
+            Runnable drain = () -> {
+                int missed = 1;
+                do {
+                    ChangeEventDTO event;
+                    while (sink.requestedFromDownstream() > 0 && (event = buffer.poll()) != null) {
+                        sink.next(event);
+                    }
+                    missed = wip.addAndGet(-missed);
+                } while (missed != 0);
+            };
+            Runnable scheduleDrain = () -> {
+                if (wip.getAndIncrement() == 0) {
+                    worker.schedule(drain);
+                }
+            };
+            Disposable subscription = events.subscribe(
+                event -> {
+                    outcomes.accept(buffer.offer(event));
+                    scheduleDrain.run();
+                },
+                sink::error
+            );
+            sink.onRequest(n -> scheduleDrain.run());
+            sink.onDispose(() -> {
+                subscription.dispose();
+                worker.dispose();
+            });
+        });
+    }
+
+    synchronized Outcome offer(ChangeEventDTO event) {
+        String key = event.getEntity() + ":" + event.getId();
+        ChangeEventDTO previous = pending.get(key);
+        if (previous != null) {
+            if (previous.getType() != ChangeEventDTO.Type.CREATED) {
+                pending.put(key, event);
+            } else if (event.getType() == ChangeEventDTO.Type.DELETED) {
+                // the client never saw the entity
+                pending.remove(key);
+            } else {
+                pending.put(key, created(event));
+            }
+            return Outcome.MERGED;
+        }
+        Outcome outcome = Outcome.QUEUED;
+        if (pending.size() >= capacity) {
+            Iterator<ChangeEventDTO> oldest = pending.values().iterator();
+            oldest.next();
+            oldest.remove();
+            outcome = Outcome.DROPPED;
+        }
+        pending.put(key, event);
+        return outcome;
+    }
+
+    synchronized ChangeEventDTO poll() {
+        Iterator<ChangeEventDTO> oldest = pending.values().iterator();
+        if (!oldest.hasNext()) {
+            return null;
+        }
+        ChangeEventDTO event = oldest.next();
+        oldest.remove();
+        return event;
+    }
+
+    synchronized int size() {
+        return pending.size();
+    }
+
+    private static ChangeEventDTO created(ChangeEventDTO event) {
+        // events are shared by all the subscribers, so they are copied rather than changed
+        ChangeEventDTO created = new ChangeEventDTO();
+        created.setEntity(event.getEntity());
+        created.setType(ChangeEventDTO.Type.CREATED);
+        created.setId(event.getId());
+        created.setApplicationId(event.getApplicationId());
+        created.setX(event.getX());
+        created.setY(event.getY());
+        created.setIsEnabled(event.getIsEnabled());
+        created.setVersion(event.getVersion());
+        return created;
+    }
+}
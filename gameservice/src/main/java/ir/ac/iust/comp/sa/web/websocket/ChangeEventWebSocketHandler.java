@@ -0,0 +1,214 @@
+package ir.ac.iust.comp.sa.web.websocket;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import ir.ac.iust.comp.sa.config.ApplicationProperties;
+import ir.ac.iust.comp.sa.service.ChangeEventPublisher;
+import ir.ac.iust.comp.sa.service.InterestManager;
+import ir.ac.iust.comp.sa.service.dto.ChangeEventDTO;
+import ir.ac.iust.comp.sa.service.dto.ViewportDTO;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.reactive.socket.CloseStatus;
+import org.springframework.web.reactive.socket.WebSocketHandler;
+import org.springframework.web.reactive.socket.WebSocketMessage;
+import org.springframework.web.reactive.socket.WebSocketSession;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * WebSocket pushing the committed changes of the game objects and layers to the clients, as JSON text frames.
+ * <p>
+ * Clients subscribe with the optional {@code applicationId} and {@code entity} ({@code game-object} or {@code layer})
+ * query parameters, e.g. {@code /websocket/changes?applicationId=1&entity=layer}. The events waiting to be sent to a
+ * client are held in a {@link ChangeEventBuffer} of {@code application.changes.buffer-size} events, so a slow client
+ * never holds back the writers nor the other clients.
+ * <p>
+ * Clients of an application may also send a viewport with the {@code minX}, {@code minY}, {@code maxX} and {@code maxY}
+ * query parameters, then move it by sending {@link ViewportDTO} JSON text frames: they only receive the changes of the
+ * game objects within their viewport, routed by the {@link InterestManager}, while the changes of the layers are still
+ * all sent.
+ */
+@Component
+public class ChangeEventWebSocketHandler implements WebSocketHandler {
+
+    public static final String PATH = "/websocket/changes";
+
+    private static final String METRIC_PREFIX = "changes.websocket.";
+
+    private static final List<String> VIEWPORT_PARAMETERS = List.of("minX", "minY", "maxX", "maxY");
+
+    private final Logger log = LoggerFactory.getLogger(ChangeEventWebSocketHandler.class);
+
+    private final ChangeEventPublisher changeEventPublisher;
+
+    private final InterestManager interestManager;
+
+    private final ObjectWriter writer;
+
+    private final ObjectReader viewportReader;
+
+    private final int bufferSize;
+
+    private final AtomicInteger sessions = new AtomicInteger();
+
+    private final Map<ChangeEventBuffer.Outcome, Counter> outcomes;
+
+    private final Counter sent;
+
+    public ChangeEventWebSocketHandler(
+        ChangeEventPublisher changeEventPublisher,
+        InterestManager interestManager,
+        ObjectMapper objectMapper,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
+    ) {
+        this.changeEventPublisher = changeEventPublisher;
+        this.interestManager = interestManager;
+        this.writer = objectMapper.writerFor(ChangeEventDTO.class);
+        this.viewportReader = objectMapper.readerFor(ViewportDTO.class);
+        this.bufferSize = applicationProperties.getChanges().getBufferSize();
+        Gauge
+            .builder(METRIC_PREFIX + "sessions", sessions, AtomicInteger::get)
+            .description("Clients subscribed to the changes")
+            .register(meterRegistry);
+        this.outcomes =
+            Map.of(
+                ChangeEventBuffer.Outcome.QUEUED,
+                eventCounter("queued", meterRegistry),
+                ChangeEventBuffer.Outcome.MERGED,
+                eventCounter("merged", meterRegistry),
+                ChangeEventBuffer.Outcome.DROPPED,
+                eventCounter("dropped", meterRegistry)
+            );
+        this.sent = eventCounter("sent", meterRegistry);
+    }
+
+    @Override
+    public Mono<Void> handle(WebSocketSession session) {
+        MultiValueMap<String, String> parameters = UriComponentsBuilder
+            .fromUri(session.getHandshakeInfo().getUri())
+            .build()
+            .getQueryParams();
+        String entity = parameters.getFirst("entity");
+        Long applicationId;
+        ViewportDTO viewport = null;
+        try {
+            applicationId = parameters.containsKey("applicationId") ? Long.valueOf(parameters.getFirst("applicationId")) : null;
+            if (parameters.keySet().stream().anyMatch(VIEWPORT_PARAMETERS::contains)) {
+                viewport = viewport(parameters);
+            }
+        } catch (NumberFormatException e) {
+            return session.close(CloseStatus.BAD_DATA.withReason("Invalid applicationId or viewport"));
+        }
+        if (entity != null && !ChangeEventDTO.ENTITIES.contains(entity)) {
+            return session.close(CloseStatus.BAD_DATA.withReason("Invalid entity"));
+        }
+        if (viewport != null && applicationId == null) {
+            return session.close(CloseStatus.BAD_DATA.withReason("A viewport needs an applicationId"));
+        }
+        log.debug("Subscribing session {} to the changes of {} in application {}", session.getId(), entity, applicationId);
+
+        InterestManager.Subscription subscription = viewport == null || ChangeEventDTO.LAYER.equals(entity)
+            ? null
+            : interestManager.subscribe(applicationId);
+        Flux<ChangeEventDTO> events = changeEventPublisher
+            .events()
+            .filter(event ->
+                (entity == null || entity.equals(event.getEntity())) &&
+                (applicationId == null || Objects.equals(applicationId, event.getApplicationId())) &&
+                (subscription == null || !ChangeEventDTO.GAME_OBJECT.equals(event.getEntity()))
+            );
+        if (subscription != null) {
+            events = Flux.merge(subscription.events(), events);
+        }
+        Mono<Void> output = session.send(
+            ChangeEventBuffer
+                .coalesce(events, bufferSize, Schedulers.parallel(), outcome -> outcomes.get(outcome).increment())
+                .map(event -> session.textMessage(toJson(event)))
+                .doOnNext(message -> sent.increment())
+        );
+        // the inbound side completes when the client closes the connection
+        Mono<Void> input = subscription == null
+            ? session.receive().then()
+            : subscription
+                .move(viewport)
+                .thenMany(
+                    session.receive().map(WebSocketMessage::getPayloadAsText).concatMap(text -> subscription.move(readViewport(text)))
+                )
+                .then()
+                .onErrorResume(
+                    IllegalArgumentException.class,
+                    e -> {
+                        log.debug("Closing session {} on invalid viewport: {}", session.getId(), e.getMessage());
+                        return session.close(CloseStatus.BAD_DATA.withReason("Invalid viewport"));
+                    }
+                );
+        return Mono
+            .firstWithSignal(output, input)
+            .doOnSubscribe(s -> sessions.incrementAndGet())
+            .doFinally(signal -> {
+                sessions.decrementAndGet();
+                if (subscription != null) {
+                    subscription.dispose();
+                }
+                log.debug("Session {} unsubscribed from the changes: {}", session.getId(), signal);
+            });
+    }
+
+    private static ViewportDTO viewport(MultiValueMap<String, String> parameters) {
+        return new ViewportDTO(
+            coordinate(parameters, "minX"),
+            coordinate(parameters, "minY"),
+            coordinate(parameters, "maxX"),
+            coordinate(parameters, "maxY")
+        );
+    }
+
+    private static Float coordinate(MultiValueMap<String, String> parameters, String name) {
+        String value = parameters.getFirst(name);
+        if (value == null) {
+            throw new NumberFormatException("Missing " + name);
+        }
+        return Float.valueOf(value);
+    }
+
+    private ViewportDTO readViewport(String json) {
+        try {
+            return viewportReader.readValue(json);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid viewport " + json, e);
+        }
+    }
+
+    private String toJson(ChangeEventDTO event) {
+        try {
+            return writer.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Counter eventCounter(String outcome, MeterRegistry meterRegistry) {
+        return Counter
+            .builder(METRIC_PREFIX + "events")
+            .description("Change events handled for the clients")
+            .tag("outcome", outcome)
+            .register(meterRegistry);
+    }
+}
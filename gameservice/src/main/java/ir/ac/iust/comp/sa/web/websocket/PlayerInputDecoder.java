@@ -0,0 +1,46 @@
+package ir.ac.iust.comp.sa.web.websocket;
+
+import ir.ac.iust.comp.sa.service.dto.PlayerInputDTO;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.core.io.buffer.DataBuffer;
+
+/**
+ * Decodes the binary WebSocket messages of {@link PlayerInputWebSocketHandler}.
+ * <p>
+ * A message holds one or more inputs of {@link #INPUT_LENGTH} bytes each, in network byte order: the sequence number of
+ * the input (8 bytes), the time the client sent it in epoch milliseconds (8 bytes), the id of the game object (8 bytes),
+ * the ordinal of its {@link PlayerInputDTO.Type type} (1 byte), then its x and y (4 bytes each, IEEE 754).
+ */
+final class PlayerInputDecoder {
+
+    static final int INPUT_LENGTH = Long.BYTES + Long.BYTES + Long.BYTES + Byte.BYTES + Float.BYTES + Float.BYTES;
+
+    private static final PlayerInputDTO.Type[] TYPES = PlayerInputDTO.Type.values();
+
+    private PlayerInputDecoder() {}
+
+    /**
+     * @throws IllegalArgumentException if the message is empty or truncated, or an input type is unknown.
+     */
+    static List<PlayerInputDTO> decode(DataBuffer message) {
+        int length = message.readableByteCount();
+        if (length == 0 || length % INPUT_LENGTH != 0) {
+            throw new IllegalArgumentException("Invalid message length " + length);
+        }
+        ByteBuffer buffer = message.asByteBuffer();
+        List<PlayerInputDTO> inputs = new ArrayList<>(length / INPUT_LENGTH);
+        while (buffer.hasRemaining()) {
+            long sequence = buffer.getLong();
+            long timestamp = buffer.getLong();
+            long gameObjectId = buffer.getLong();
+            int type = buffer.get();
+            if (type < 0 || type >= TYPES.length) {
+                throw new IllegalArgumentException("Unknown input type " + type);
+            }
+            inputs.add(new PlayerInputDTO(sequence, timestamp, gameObjectId, TYPES[type], buffer.getFloat(), buffer.getFloat()));
+        }
+        return inputs;
+    }
+}
@@ -0,0 +1,210 @@
+package ir.ac.iust.comp.sa.web.websocket;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import ir.ac.iust.comp.sa.config.ApplicationProperties;
+import ir.ac.iust.comp.sa.repository.ApplicationRepository;
+import ir.ac.iust.comp.sa.service.PlayerInputBatch;
+import ir.ac.iust.comp.sa.service.PlayerInputService;
+import ir.ac.iust.comp.sa.service.dto.PlayerInputDTO;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.socket.CloseStatus;
+import org.springframework.web.reactive.socket.WebSocketHandler;
+import org.springframework.web.reactive.socket.WebSocketMessage;
+import org.springframework.web.reactive.socket.WebSocketSession;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * WebSocket receiving the inputs of a player on the game objects of an application, as binary messages decoded by
+ * {@link PlayerInputDecoder}.
+ * <p>
+ * Clients connect with the {@code applicationId} query parameter, e.g. {@code /websocket/inputs?applicationId=1}.
+ * Inputs received during a tick of {@code application.inputs.tick} are coalesced per game object and applied in a single
+ * batched update by {@link PlayerInputService}, instead of one transaction per input. Inputs numbered at or below the
+ * last accepted one are duplicates or arrived out of order, and are dropped. Once a batch is committed the client
+ * receives an 8 bytes binary acknowledgement holding the highest sequence number applied, so it can reconcile its
+ * predicted state. A batch still pending when the client disconnects is applied, without acknowledgement.
+ */
+@Component
+public class PlayerInputWebSocketHandler implements WebSocketHandler {
+
+    public static final String PATH = "/websocket/inputs";
+
+    private static final String METRIC_PREFIX = "inputs.websocket.";
+
+    private static final long LAST_TICK = -1L;
+
+    private final Logger log = LoggerFactory.getLogger(PlayerInputWebSocketHandler.class);
+
+    private final PlayerInputService playerInputService;
+
+    private final ApplicationRepository applicationRepository;
+
+    private final ApplicationProperties.Inputs properties;
+
+    private final AtomicInteger sessions = new AtomicInteger();
+
+    private final Counter receivedInputs;
+
+    private final Counter staleInputs;
+
+    private final Counter appliedInputs;
+
+    private final Counter failedInputs;
+
+    private final DistributionSummary batchSize;
+
+    private final Timer latency;
+
+    public PlayerInputWebSocketHandler(
+        PlayerInputService playerInputService,
+        ApplicationRepository applicationRepository,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
+    ) {
+        this.playerInputService = playerInputService;
+        this.applicationRepository = applicationRepository;
+        this.properties = applicationProperties.getInputs();
+        Gauge
+            .builder(METRIC_PREFIX + "sessions", sessions, AtomicInteger::get)
+            .description("Clients sending inputs")
+            .register(meterRegistry);
+        this.receivedInputs = inputCounter("received", meterRegistry);
+        this.staleInputs = inputCounter("stale", meterRegistry);
+        this.appliedInputs = inputCounter("applied", meterRegistry);
+        this.failedInputs = inputCounter("failed", meterRegistry);
+        this.batchSize =
+            DistributionSummary
+                .builder(METRIC_PREFIX + "batch.size")
+                .description("Inputs applied per batch")
+                .register(meterRegistry);
+        this.latency =
+            Timer
+                .builder(METRIC_PREFIX + "latency")
+                .description("Time from the reception of an input to the commit of its batch")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Mono<Void> handle(WebSocketSession session) {
+        Long applicationId;
+        try {
+            applicationId =
+                Long.valueOf(
+                    UriComponentsBuilder.fromUri(session.getHandshakeInfo().getUri()).build().getQueryParams().getFirst("applicationId")
+                );
+        } catch (NumberFormatException e) {
+            return session.close(CloseStatus.BAD_DATA.withReason("Invalid applicationId"));
+        }
+        return applicationRepository
+            .existsById(applicationId)
+            .flatMap(exists ->
+                exists ? ingest(session, applicationId) : session.close(CloseStatus.BAD_DATA.withReason("Unknown application"))
+            );
+    }
+
+    private Mono<Void> ingest(WebSocketSession session, Long applicationId) {
+        log.debug("Receiving the inputs of session {} on application {}", session.getId(), applicationId);
+        Inputs inputs = new Inputs();
+        // the inbound side completes when the client closes the connection
+        Mono<Void> input = session
+            .receive()
+            .doOnNext(message -> inputs.accept(PlayerInputDecoder.decode(message.getPayload())))
+            .then()
+            .onErrorResume(
+                IllegalArgumentException.class,
+                e -> {
+                    log.debug("Closing session {} on invalid input: {}", session.getId(), e.getMessage());
+                    return session.close(CloseStatus.BAD_DATA.withReason(e.getMessage()));
+                }
+            );
+        // ticks missed while a batch is being applied are dropped, their inputs going to the next batch
+        return Flux
+            .interval(properties.getTick())
+            .onBackpressureDrop()
+            .takeUntilOther(input)
+            .concatWith(Mono.just(LAST_TICK))
+            .concatMap(tick -> apply(session, applicationId, inputs.drain(), tick != LAST_TICK), 1)
+            .then()
+            .doOnSubscribe(subscription -> sessions.incrementAndGet())
+            .doFinally(signal -> {
+                sessions.decrementAndGet();
+                log.debug("Session {} stopped sending inputs on application {}: {}", session.getId(), applicationId, signal);
+            });
+    }
+
+    private Mono<Void> apply(WebSocketSession session, Long applicationId, PlayerInputBatch batch, boolean acknowledge) {
+        if (batch.isEmpty()) {
+            return Mono.empty();
+        }
+        return playerInputService
+            .apply(applicationId, batch)
+            .doOnNext(updated -> {
+                long now = System.nanoTime();
+                batch.forEachReceivedNanos(receivedNanos -> latency.record(now - receivedNanos, TimeUnit.NANOSECONDS));
+                appliedInputs.increment(batch.size());
+                batchSize.record(batch.size());
+            })
+            .onErrorResume(e -> {
+                log.warn("Failed to apply {} inputs of session {}: {}", batch.size(), session.getId(), e.getMessage());
+                failedInputs.increment(batch.size());
+                return Mono.empty();
+            })
+            .filter(updated -> acknowledge)
+            .flatMap(updated -> session.send(Mono.just(acknowledgement(session, batch.getLastSequence()))));
+    }
+
+    private static WebSocketMessage acknowledgement(WebSocketSession session, long sequence) {
+        return session.binaryMessage(bufferFactory -> bufferFactory.wrap(ByteBuffer.allocate(Long.BYTES).putLong(0, sequence)));
+    }
+
+    private static Counter inputCounter(String outcome, MeterRegistry meterRegistry) {
+        return Counter
+            .builder(METRIC_PREFIX + "inputs")
+            .description("Player inputs handled")
+            .tag("outcome", outcome)
+            .register(meterRegistry);
+    }
+
+    /**
+     * The inputs of a session waiting for the next tick, filled by the inbound side and drained by the ticks.
+     */
+    private class Inputs {
+
+        private PlayerInputBatch batch = new PlayerInputBatch();
+
+        private long lastSequence;
+
+        synchronized void accept(List<PlayerInputDTO> inputs) {
+            long now = System.nanoTime();
+            for (PlayerInputDTO input : inputs) {
+                if (input.getSequence() <= lastSequence) {
+                    staleInputs.increment();
+                    continue;
+                }
+                lastSequence = input.getSequence();
+                input.setReceivedNanos(now);
+                batch.add(input);
+                receivedInputs.increment();
+            }
+        }
+
+        synchronized PlayerInputBatch drain() {
+            PlayerInputBatch drained = batch;
+            batch = new PlayerInputBatch();
+            return drained;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package ir.ac.iust.comp.sa.web.websocket;
+
+import ir.ac.iust.comp.sa.service.dto.ScreenFrameDTO;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+
+/**
+ * Encodes the screen frames in the binary WebSocket messages of {@link ScreenFrameWebSocketHandler}.
+ * <p>
+ * A message holds, in network byte order: the sequence number of the frame for the client (8 bytes), the capture time
+ * of the frame in epoch milliseconds (8 bytes), the length of the content type (2 bytes), the content type in UTF-8,
+ * then the screen buffer as is.
+ */
+final class ScreenFrameEncoder {
+
+    static final int FIXED_HEADER_LENGTH = Long.BYTES + Long.BYTES + Short.BYTES;
+
+    private ScreenFrameEncoder() {}
+
+    static DataBuffer encode(DataBufferFactory bufferFactory, long sequence, ScreenFrameDTO frame) {
+        byte[] contentType = frame.getContentType() == null ? new byte[0] : frame.getContentType().getBytes(StandardCharsets.UTF_8);
+        ByteBuffer header = ByteBuffer
+            .allocate(FIXED_HEADER_LENGTH + contentType.length)
+            .putLong(sequence)
+            .putLong(frame.getCapturedAt().toEpochMilli())
+            .putShort((short) contentType.length)
+            .put(contentType);
+        header.flip();
+        DataBuffer message = bufferFactory.allocateBuffer(header.remaining() + frame.getData().length);
+        return message.write(header).write(frame.getData());
+    }
+}
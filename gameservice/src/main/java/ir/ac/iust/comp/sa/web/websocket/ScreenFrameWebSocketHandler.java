@@ -0,0 +1,169 @@
+package ir.ac.iust.comp.sa.web.websocket;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import ir.ac.iust.comp.sa.config.ApplicationProperties;
+import ir.ac.iust.comp.sa.repository.ApplicationRepository;
+import ir.ac.iust.comp.sa.service.ScreenFramePublisher;
+import ir.ac.iust.comp.sa.service.dto.ScreenFrameDTO;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.reactive.socket.CloseStatus;
+import org.springframework.web.reactive.socket.WebSocketHandler;
+import org.springframework.web.reactive.socket.WebSocketMessage;
+import org.springframework.web.reactive.socket.WebSocketSession;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
+
+/**
+ * WebSocket pushing the screen buffers of an application to the clients, as binary frames encoded by
+ * {@link ScreenFrameEncoder}.
+ * <p>
+ * Clients subscribe with the {@code applicationId} and the optional {@code fps} query parameters, e.g.
+ * {@code /websocket/screens?applicationId=1&fps=20}. The screen is sampled at most {@code fps} times per second, and only
+ * sent when it changed. A frame is written once the previous one is written to the connection; the frames waiting
+ * meanwhile are queued up to {@code application.screens.queue-size}, dropping the oldest ones, so a slow client skips
+ * frames. Frames are numbered per client when queued, so the gaps in the sequence numbers count the skipped frames.
+ */
+@Component
+public class ScreenFrameWebSocketHandler implements WebSocketHandler {
+
+    public static final String PATH = "/websocket/screens";
+
+    private static final String METRIC_PREFIX = "screens.websocket.";
+
+    private final Logger log = LoggerFactory.getLogger(ScreenFrameWebSocketHandler.class);
+
+    private final ScreenFramePublisher screenFramePublisher;
+
+    private final ApplicationRepository applicationRepository;
+
+    private final ApplicationProperties.Screens properties;
+
+    private final AtomicInteger sessions = new AtomicInteger();
+
+    private final AtomicLong queued = new AtomicLong();
+
+    private final DistributionSummary queueDepth;
+
+    private final Counter queuedFrames;
+
+    private final Counter droppedFrames;
+
+    private final Counter sentFrames;
+
+    public ScreenFrameWebSocketHandler(
+        ScreenFramePublisher screenFramePublisher,
+        ApplicationRepository applicationRepository,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
+    ) {
+        this.screenFramePublisher = screenFramePublisher;
+        this.applicationRepository = applicationRepository;
+        this.properties = applicationProperties.getScreens();
+        Gauge
+            .builder(METRIC_PREFIX + "sessions", sessions, AtomicInteger::get)
+            .description("Clients subscribed to the screens")
+            .register(meterRegistry);
+        Gauge
+            .builder(METRIC_PREFIX + "queued", queued, AtomicLong::get)
+            .description("Frames waiting to be sent to the clients")
+            .register(meterRegistry);
+        this.queueDepth =
+            DistributionSummary
+                .builder(METRIC_PREFIX + "queue.depth")
+                .description("Frames waiting to be sent to a client when a frame is queued")
+                .register(meterRegistry);
+        this.queuedFrames = frameCounter("queued", meterRegistry);
+        this.droppedFrames = frameCounter("dropped", meterRegistry);
+        this.sentFrames = frameCounter("sent", meterRegistry);
+    }
+
+    @Override
+    public Mono<Void> handle(WebSocketSession session) {
+        MultiValueMap<String, String> parameters = UriComponentsBuilder
+            .fromUri(session.getHandshakeInfo().getUri())
+            .build()
+            .getQueryParams();
+        Long applicationId;
+        int fps;
+        try {
+            applicationId = Long.valueOf(parameters.getFirst("applicationId"));
+            fps = parameters.containsKey("fps") ? Integer.parseInt(parameters.getFirst("fps")) : properties.getFps();
+        } catch (NumberFormatException e) {
+            return session.close(CloseStatus.BAD_DATA.withReason("Invalid applicationId or fps"));
+        }
+        if (fps <= 0) {
+            return session.close(CloseStatus.BAD_DATA.withReason("Invalid fps"));
+        }
+        int pacedFps = Math.min(fps, properties.getMaxFps());
+        return applicationRepository
+            .existsById(applicationId)
+            .flatMap(exists ->
+                exists ? stream(session, applicationId, pacedFps) : session.close(CloseStatus.BAD_DATA.withReason("Unknown application"))
+            );
+    }
+
+    private Mono<Void> stream(WebSocketSession session, Long applicationId, int fps) {
+        log.debug("Subscribing session {} to the screen of application {} at {} fps", session.getId(), applicationId, fps);
+        AtomicLong sequence = new AtomicLong();
+        AtomicInteger depth = new AtomicInteger();
+        Mono<Void> output = screenFramePublisher
+            .frames(applicationId)
+            .sample(Duration.ofNanos(Duration.ofSeconds(1).toNanos() / fps))
+            .map(frame -> Tuples.of(sequence.incrementAndGet(), frame))
+            .doOnNext(frame -> {
+                queued.incrementAndGet();
+                queuedFrames.increment();
+                queueDepth.record(depth.incrementAndGet());
+            })
+            .onBackpressureBuffer(
+                properties.getQueueSize(),
+                dropped -> {
+                    queued.decrementAndGet();
+                    depth.decrementAndGet();
+                    droppedFrames.increment();
+                },
+                BufferOverflowStrategy.DROP_OLDEST
+            )
+            .doOnNext(frame -> {
+                queued.decrementAndGet();
+                depth.decrementAndGet();
+            })
+            // one frame at a time, each send completing once the frame is written to the connection
+            .concatMap(frame -> session.send(Mono.just(binaryMessage(session, frame))).doOnSuccess(sent -> sentFrames.increment()), 1)
+            .then();
+        // the inbound side completes when the client closes the connection
+        Mono<Void> input = session.receive().then();
+        return Mono
+            .firstWithSignal(output, input)
+            .doOnSubscribe(subscription -> sessions.incrementAndGet())
+            .doFinally(signal -> {
+                sessions.decrementAndGet();
+                queued.addAndGet(-depth.getAndSet(0));
+                log.debug("Session {} unsubscribed from the screen of application {}: {}", session.getId(), applicationId, signal);
+            });
+    }
+
+    private static WebSocketMessage binaryMessage(WebSocketSession session, Tuple2<Long, ScreenFrameDTO> frame) {
+        return session.binaryMessage(bufferFactory -> ScreenFrameEncoder.encode(bufferFactory, frame.getT1(), frame.getT2()));
+    }
+
+    private static Counter frameCounter(String outcome, MeterRegistry meterRegistry) {
+        return Counter
+            .builder(METRIC_PREFIX + "frames")
+            .description("Screen frames handled for the clients")
+            .tag("outcome", outcome)
+            .register(meterRegistry);
+    }
+}
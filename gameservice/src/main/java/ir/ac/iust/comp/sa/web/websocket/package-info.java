@@ -0,0 +1,4 @@
+/**
+ * WebSocket handlers.
+ */
+package ir.ac.iust.comp.sa.web.websocket;
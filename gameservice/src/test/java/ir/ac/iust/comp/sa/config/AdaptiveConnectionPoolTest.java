@@ -0,0 +1,86 @@
+package ir.ac.iust.comp.sa.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import io.r2dbc.spi.R2dbcNonTransientResourceException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Publisher;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import reactor.core.publisher.Mono;
+
+class AdaptiveConnectionPoolTest {
+
+    private MeterRegistry meterRegistry;
+
+    private AdaptiveConnectionPool pool;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        R2dbcProperties.Pool r2dbcPool = new R2dbcProperties.Pool();
+        r2dbcPool.setInitialSize(0);
+        r2dbcPool.setMaxSize(1);
+        r2dbcPool.setMaxAcquireTime(Duration.ofSeconds(1));
+        ApplicationProperties.Pool properties = new ApplicationProperties.Pool();
+        properties.setMinSize(1);
+        properties.setMaxSize(4);
+        properties.setTargetAcquireTime(Duration.ofMillis(50));
+        properties.setResizeStep(1);
+        // resized by the test only
+        properties.setResizeInterval(Duration.ofDays(1));
+        pool = AdaptiveConnectionPool.create(new FailingConnectionFactory(), r2dbcPool, properties, "test", meterRegistry);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        pool.dispose();
+    }
+
+    @Test
+    void growsOnFailedAcquires() {
+        assertThatThrownBy(() -> pool.create().block()).isInstanceOf(R2dbcNonTransientResourceException.class);
+
+        pool.resize();
+
+        assertThat(pool.getSizeLimit()).isEqualTo(2);
+        assertThat(meterRegistry.get("r2dbc.pool.acquire").tag("outcome", "failure").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("r2dbc.pool.acquire").tag("outcome", "failure").timer().totalTime(TimeUnit.SECONDS))
+            .isGreaterThanOrEqualTo(1);
+        assertThat(meterRegistry.get("r2dbc.pool.acquire").tag("outcome", "success").timer().count()).isZero();
+    }
+
+    @Test
+    void buildsTheConnectionFactoryFromAllTheSettings() {
+        R2dbcProperties r2dbcProperties = new R2dbcProperties();
+        r2dbcProperties.setUrl("r2dbc:pool:h2:mem:///test");
+        r2dbcProperties.setUsername("user");
+        r2dbcProperties.getProperties().put("DB_CLOSE_DELAY", "-1");
+
+        ConnectionFactory connectionFactory = AdaptiveConnectionPool.unpooledConnectionFactory(r2dbcProperties);
+
+        assertThat(connectionFactory.getMetadata().getName()).isEqualTo("H2");
+    }
+
+    private static class FailingConnectionFactory implements ConnectionFactory {
+
+        @Override
+        public Publisher<? extends Connection> create() {
+            return Mono.error(new R2dbcNonTransientResourceException("database unavailable"));
+        }
+
+        @Override
+        public ConnectionFactoryMetadata getMetadata() {
+            return () -> "failing";
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package ir.ac.iust.comp.sa.domain.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.within;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.elasticsearch.core.geo.GeoPoint;
+
+class SearchLocationTest {
+
+    @Test
+    void locatesThePositionsOfTheSearchableArea() {
+        long clamped = SearchLocation.clampedCount();
+
+        GeoPoint location = SearchLocation.of(100f, -50f);
+
+        assertThat(location.getLon()).isCloseTo(100 / 100_000d, within(1e-9));
+        assertThat(location.getLat()).isCloseTo(-50 / 100_000d, within(1e-9));
+        assertThat(SearchLocation.of(null, 1f)).isNull();
+        assertThat(SearchLocation.clampedCount()).isEqualTo(clamped);
+    }
+
+    @Test
+    void clampsThePositionsOutOfTheSearchableArea() {
+        long clamped = SearchLocation.clampedCount();
+
+        GeoPoint location = SearchLocation.of(2e7f, Float.NEGATIVE_INFINITY);
+
+        assertThat(location.getLon()).isEqualTo(180);
+        assertThat(location.getLat()).isEqualTo(-90);
+        assertThat(SearchLocation.clampedCount()).isEqualTo(clamped + 1);
+    }
+
+    @Test
+    void rejectsTheSearchesOutOfTheSearchableArea() {
+        assertThatIllegalArgumentException().isThrownBy(() -> SearchLocation.point(0, SearchLocation.MAX_Y + 1));
+    }
+}
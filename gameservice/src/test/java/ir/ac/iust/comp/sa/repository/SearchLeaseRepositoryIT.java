@@ -0,0 +1,52 @@
+package ir.ac.iust.comp.sa.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import ir.ac.iust.comp.sa.IntegrationTest;
+import java.time.Duration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Integration tests for the {@link SearchLeaseRepository}.
+ */
+@IntegrationTest
+class SearchLeaseRepositoryIT {
+
+    private static final String LEASE = "test-lease";
+
+    @Autowired
+    private SearchLeaseRepository searchLeaseRepository;
+
+    @AfterEach
+    public void cleanup() {
+        searchLeaseRepository.deleteAll().block();
+    }
+
+    @Test
+    void onlyOneOwnerHoldsALease() {
+        assertThat(searchLeaseRepository.acquire(LEASE, "a", Duration.ofMinutes(1)).block()).isTrue();
+        assertThat(searchLeaseRepository.acquire(LEASE, "b", Duration.ofMinutes(1)).block()).isFalse();
+        // renewed by its owner
+        assertThat(searchLeaseRepository.acquire(LEASE, "a", Duration.ofMinutes(1)).block()).isTrue();
+        assertThat(searchLeaseRepository.findById(LEASE).block().getOwner()).isEqualTo("a");
+    }
+
+    @Test
+    void anExpiredLeaseIsTakenOver() {
+        assertThat(searchLeaseRepository.acquire(LEASE, "a", Duration.ofMinutes(-1)).block()).isTrue();
+        assertThat(searchLeaseRepository.acquire(LEASE, "b", Duration.ofMinutes(1)).block()).isTrue();
+        assertThat(searchLeaseRepository.acquire(LEASE, "a", Duration.ofMinutes(1)).block()).isFalse();
+    }
+
+    @Test
+    void aReleasedLeaseIsTakenOver() {
+        assertThat(searchLeaseRepository.acquire(LEASE, "a", Duration.ofMinutes(1)).block()).isTrue();
+        // only released by its owner
+        searchLeaseRepository.release(LEASE, "b").block();
+        assertThat(searchLeaseRepository.acquire(LEASE, "b", Duration.ofMinutes(1)).block()).isFalse();
+        searchLeaseRepository.release(LEASE, "a").block();
+        assertThat(searchLeaseRepository.acquire(LEASE, "b", Duration.ofMinutes(1)).block()).isTrue();
+    }
+}
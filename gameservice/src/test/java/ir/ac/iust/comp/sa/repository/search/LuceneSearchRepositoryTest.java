@@ -0,0 +1,144 @@
+package ir.ac.iust.comp.sa.repository.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import ir.ac.iust.comp.sa.config.ApplicationProperties;
+import ir.ac.iust.comp.sa.domain.Layer;
+import ir.ac.iust.comp.sa.domain.search.LayerSearchDocument;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.elasticsearch.core.convert.MappingElasticsearchConverter;
+import org.springframework.data.elasticsearch.core.mapping.SimpleElasticsearchMappingContext;
+
+class LuceneSearchRepositoryTest {
+
+    @TempDir
+    Path directory;
+
+    private LuceneIndexes indexes;
+
+    private LayerSearchRepository repository;
+
+    @BeforeEach
+    public void setUp() {
+        ApplicationProperties.Lucene properties = new ApplicationProperties.Lucene();
+        properties.setDirectory(directory.toString());
+        indexes = new LuceneIndexes(properties);
+        MappingElasticsearchConverter converter = new MappingElasticsearchConverter(new SimpleElasticsearchMappingContext());
+        converter.afterPropertiesSet();
+        repository = LuceneSearchRepositories.layers(indexes, converter);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        indexes.close();
+    }
+
+    @Test
+    void searchesSavedDocuments() {
+        repository.saveAll(List.of(layer(1L, "image/png"), layer(2L, "image/jpeg"))).blockLast();
+        indexes.get(LayerSearchDocument.class).refresh();
+
+        SearchSlice<LayerSearchDocument> slice = repository.search("id:2", 20, null).block();
+
+        assertThat(slice.getTotalHits()).isEqualTo(1L);
+        assertThat(slice.getNext()).isNull();
+        assertThat(slice.getContent()).extracting(LayerSearchDocument::getId).containsExactly(2L);
+        assertThat(slice.getContent().get(0).getBufferContentType()).isEqualTo("image/jpeg");
+        assertThat(repository.search("png", 20, null).block().getContent()).extracting(LayerSearchDocument::getId).containsExactly(1L);
+    }
+
+    @Test
+    void pagesThroughResultsWithCursors() {
+        repository.saveAll(LongStream.rangeClosed(1, 5).mapToObj(id -> layer(id, "image/png")).collect(Collectors.toList())).blockLast();
+        indexes.get(LayerSearchDocument.class).refresh();
+
+        SearchSlice<LayerSearchDocument> first = repository.search("*:*", 3, null).block();
+        SearchSlice<LayerSearchDocument> second = repository.search("*:*", 3, first.getNext()).block();
+
+        assertThat(first.getTotalHits()).isEqualTo(5L);
+        assertThat(first.getContent()).extracting(LayerSearchDocument::getId).containsExactly(1L, 2L, 3L);
+        assertThat(second.getTotalHits()).isNull();
+        assertThat(second.getNext()).isNull();
+        assertThat(second.getContent()).extracting(LayerSearchDocument::getId).containsExactly(4L, 5L);
+    }
+
+    @Test
+    void replacesAndDeletesDocuments() {
+        repository.save(layer(1L, "image/png")).block();
+        repository.save(layer(1L, "image/gif")).block();
+        repository.save(layer(2L, "image/png")).block();
+        repository.deleteById(2L).block();
+        indexes.get(LayerSearchDocument.class).refresh();
+
+        assertThat(repository.count().block()).isEqualTo(1L);
+        assertThat(repository.findById(1L).block().getBufferContentType()).isEqualTo("image/gif");
+        assertThat(repository.findById(2L).block()).isNull();
+    }
+
+    @Test
+    void searchesByDistance() {
+        repository
+            .saveAll(List.of(layer(1L, 0f, 0f), layer(2L, 30f, 40f), layer(3L, 3f, 4f), layer(4L, null, null), layer(5L, -500f, 10f)))
+            .blockLast();
+        indexes.get(LayerSearchDocument.class).refresh();
+
+        assertThat(repository.searchArea(null, SearchArea.circle(0, 0, 50), 20).block().getContent())
+            .extracting(LayerSearchDocument::getId)
+            .containsExactly(1L, 3L, 2L);
+        assertThat(repository.searchArea("id:(2 OR 3)", SearchArea.box(0, 0, 40, 40), 20).block().getContent())
+            .extracting(LayerSearchDocument::getId)
+            .containsExactly(2L, 3L);
+        SearchSlice<LayerSearchDocument> nearest = repository.searchArea(null, SearchArea.nearest(31, 41), 2).block();
+        // found within the first circles, so not counted
+        assertThat(nearest.getTotalHits()).isNull();
+        assertThat(nearest.getContent()).extracting(LayerSearchDocument::getId).containsExactly(2L, 3L);
+        // only found once the circles cover the whole plane
+        assertThat(repository.searchArea(null, SearchArea.nearest(31, 41), 10).block().getContent())
+            .extracting(LayerSearchDocument::getId)
+            .containsExactly(2L, 3L, 1L, 5L);
+    }
+
+    @Test
+    void sortsAllTheDocuments() {
+        repository.saveAll(List.of(layer(1L, "image/png"), layer(2L, "image/gif"), layer(3L, "image/jpeg"))).blockLast();
+        indexes.get(LayerSearchDocument.class).refresh();
+
+        assertThat(repository.findAll(Sort.by(Sort.Order.desc("id"))).collectList().block())
+            .extracting(LayerSearchDocument::getId)
+            .containsExactly(3L, 2L, 1L);
+        assertThat(repository.findAll(Sort.by("bufferContentType")).collectList().block())
+            .extracting(LayerSearchDocument::getId)
+            .containsExactly(2L, 3L, 1L);
+        assertThatThrownBy(() -> repository.findAll(Sort.by("unknown")).blockLast()).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void rejectsInvalidQueries() {
+        assertThatThrownBy(() -> repository.search("id:(", 20, null).block()).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static LayerSearchDocument layer(Long id, Float x, Float y) {
+        Layer layer = new Layer();
+        layer.setId(id);
+        layer.setX(x);
+        layer.setY(y);
+        return LayerSearchDocument.of(layer);
+    }
+
+    private static LayerSearchDocument layer(Long id, String bufferContentType) {
+        LayerSearchDocument document = new LayerSearchDocument();
+        document.setId(id);
+        document.setBufferContentType(bufferContentType);
+        document.setIsEnabled(true);
+        return document;
+    }
+}
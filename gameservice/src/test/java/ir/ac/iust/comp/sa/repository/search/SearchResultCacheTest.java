@@ -0,0 +1,80 @@
+package ir.ac.iust.comp.sa.repository.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import ir.ac.iust.comp.sa.config.ApplicationProperties;
+import ir.ac.iust.comp.sa.domain.GameObject;
+import ir.ac.iust.comp.sa.domain.Layer;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+class SearchResultCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private SearchResultCache cache;
+
+    private AtomicInteger searches;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new SearchResultCache(new ApplicationProperties(), meterRegistry);
+        searches = new AtomicInteger();
+    }
+
+    @Test
+    void answersRepeatedQueriesFromMemory() {
+        search(Layer.class, "isEnabled:true");
+        search(Layer.class, "  isEnabled:true ");
+        search(Layer.class, "isEnabled:false");
+
+        assertThat(searches.get()).isEqualTo(2);
+        assertThat(meterRegistry.get("cache.hit.ratio").tag("cache", "search.results").gauge().value()).isEqualTo(1d / 3);
+    }
+
+    @Test
+    void evictsTheResultsOfTheWrittenEntityType() {
+        search(Layer.class, "*");
+        search(GameObject.class, "*");
+
+        cache.invalidate(Layer.class);
+        search(Layer.class, "*");
+        search(GameObject.class, "*");
+
+        assertThat(searches.get()).isEqualTo(3);
+    }
+
+    @Test
+    void doesNotCacheSearchesOverlappingAnEviction() {
+        Sinks.One<SearchSlice<String>> pending = Sinks.one();
+        Mono<SearchSlice<String>> overlapping = cache.get(Layer.class, "*", 20, null, pending::asMono);
+        overlapping.subscribe();
+
+        cache.invalidate(Layer.class);
+        pending.tryEmitValue(new SearchSlice<>(List.of("stale"), 1L, null));
+
+        assertThat(search(Layer.class, "*").getContent()).containsExactly("fresh");
+    }
+
+    private SearchSlice<String> search(Class<?> entityType, String query) {
+        return cache
+            .get(
+                entityType,
+                query,
+                20,
+                null,
+                () ->
+                    Mono.fromCallable(() -> {
+                        searches.incrementAndGet();
+                        return new SearchSlice<>(List.of("fresh"), 1L, null);
+                    })
+            )
+            .block();
+    }
+}
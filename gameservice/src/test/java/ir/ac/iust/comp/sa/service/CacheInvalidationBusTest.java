@@ -0,0 +1,152 @@
+package ir.ac.iust.comp.sa.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import ir.ac.iust.comp.sa.config.ApplicationProperties;
+import ir.ac.iust.comp.sa.config.KafkaProperties;
+import ir.ac.iust.comp.sa.service.dto.CacheInvalidationDTO;
+import ir.ac.iust.comp.sa.service.serde.CacheInvalidationSerde;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.kafka.receiver.ReceiverOptions;
+import reactor.kafka.sender.KafkaSender;
+import reactor.kafka.sender.SenderRecord;
+import reactor.kafka.sender.SenderResult;
+
+class CacheInvalidationBusTest {
+
+    private static final String TOPIC = "cache-invalidations";
+
+    private static final String CACHE = "cache";
+
+    private final List<SenderRecord<String, byte[], CacheInvalidationDTO>> records = new CopyOnWriteArrayList<>();
+
+    private final List<ReceiverOptions<String, byte[]>> receiverOptions = new CopyOnWriteArrayList<>();
+
+    private final Sinks.Many<ConsumerRecord<String, byte[]>> receiver = Sinks.many().multicast().directBestEffort();
+
+    private final List<String> evicted = new CopyOnWriteArrayList<>();
+
+    private final CacheInvalidationSerde serde = new CacheInvalidationSerde();
+
+    private MeterRegistry meterRegistry;
+
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        KafkaSender<String, byte[]> kafkaSender = mock(KafkaSender.class);
+        when(kafkaSender.send(any()))
+            .thenAnswer(invocation ->
+                Flux
+                    .from((Publisher<SenderRecord<String, byte[], CacheInvalidationDTO>>) invocation.getArgument(0))
+                    .doOnNext(records::add)
+                    .map(this::result)
+            );
+        meterRegistry = new SimpleMeterRegistry();
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getCacheInvalidation().setTopic(TOPIC);
+        // batches only complete on their size
+        applicationProperties.getCacheInvalidation().setWindow(Duration.ofMinutes(1));
+        applicationProperties.getCacheInvalidation().setMaxBatchSize(4);
+        cacheInvalidationBus =
+            new CacheInvalidationBus(
+                kafkaSender,
+                new KafkaProperties(),
+                applicationProperties,
+                meterRegistry,
+                options -> {
+                    receiverOptions.add(options);
+                    return receiver.asFlux();
+                }
+            );
+        cacheInvalidationBus.register(CACHE, evicted::add);
+        cacheInvalidationBus.start();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        cacheInvalidationBus.stop();
+    }
+
+    @Test
+    void evictsLocallyThenPublishesTheDistinctInvalidationsOfABatch() {
+        cacheInvalidationBus.invalidate(CACHE, "a").block();
+        cacheInvalidationBus.invalidate(CACHE, "b").block();
+        cacheInvalidationBus.invalidate(CACHE, "a").block();
+
+        assertThat(evicted).containsExactly("a", "b", "a");
+        assertThat(records).isEmpty();
+
+        cacheInvalidationBus.invalidate(CACHE, "a").block();
+
+        assertThat(records).extracting(record -> record.key()).containsExactly("cache:a", "cache:b");
+        assertThat(serde.deserialize(TOPIC, records.get(0).value()))
+            .extracting(CacheInvalidationDTO::getSource, CacheInvalidationDTO::getCache, CacheInvalidationDTO::getKey)
+            .containsExactly(cacheInvalidationBus.getSource(), CACHE, "a");
+        assertThat(meterRegistry.get("cache.invalidations.invalidations").tag("outcome", "coalesced").counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("cache.invalidations.invalidations").tag("outcome", "sent").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void evictsTheInvalidationsOfTheOtherInstances() {
+        receive(new CacheInvalidationDTO("other", CACHE, "a"));
+        receive(new CacheInvalidationDTO(cacheInvalidationBus.getSource(), CACHE, "b"));
+        receive(new CacheInvalidationDTO("other", "unknown", "c"));
+
+        assertThat(evicted).containsExactly("a");
+        assertThat(receiverOptions)
+            .extracting(options -> options.consumerProperty("group.id"))
+            .containsExactly("gameservice-invalidations-" + cacheInvalidationBus.getSource());
+    }
+
+    @Test
+    void ignoresInvalidPayloads() {
+        receiver.tryEmitNext(new ConsumerRecord<>(TOPIC, 0, 0L, "cache:a", new byte[] { 1, 2, 3 }));
+        receive(new CacheInvalidationDTO("other", CACHE, "a"));
+
+        assertThat(evicted).containsExactly("a");
+        assertThat(meterRegistry.get("cache.invalidations.invalidations").tag("outcome", "failed").counter().count()).isEqualTo(1);
+    }
+
+    private void receive(CacheInvalidationDTO invalidation) {
+        String key = invalidation.getCache() + ":" + invalidation.getKey();
+        receiver.tryEmitNext(new ConsumerRecord<>(TOPIC, 0, 0L, key, serde.serialize(TOPIC, invalidation)));
+    }
+
+    private SenderResult<CacheInvalidationDTO> result(SenderRecord<String, byte[], CacheInvalidationDTO> record) {
+        RecordMetadata metadata = new RecordMetadata(new TopicPartition(record.topic(), 0), 0, records.size(), 0L, 0L, 0, 0);
+        return new SenderResult<>() {
+            @Override
+            public RecordMetadata recordMetadata() {
+                return metadata;
+            }
+
+            @Override
+            public Exception exception() {
+                return null;
+            }
+
+            @Override
+            public CacheInvalidationDTO correlationMetadata() {
+                return record.correlationMetadata();
+            }
+        };
+    }
+}
@@ -0,0 +1,126 @@
+package ir.ac.iust.comp.sa.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import ir.ac.iust.comp.sa.config.ApplicationProperties;
+import ir.ac.iust.comp.sa.domain.Application;
+import ir.ac.iust.comp.sa.domain.GameObject;
+import ir.ac.iust.comp.sa.service.dto.ChangeEventDTO;
+import ir.ac.iust.comp.sa.service.dto.DomainEventDTO;
+import ir.ac.iust.comp.sa.service.serde.DomainEventSerde;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.kafka.sender.KafkaSender;
+import reactor.kafka.sender.SenderRecord;
+import reactor.kafka.sender.SenderResult;
+
+class DomainEventPublisherTest {
+
+    private static final String TOPIC = "entity-changes";
+
+    private final List<SenderRecord<String, byte[], Long>> records = new CopyOnWriteArrayList<>();
+
+    private ChangeEventPublisher changeEventPublisher;
+
+    private MeterRegistry meterRegistry;
+
+    private DomainEventPublisher domainEventPublisher;
+
+    private boolean failing;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        KafkaSender<String, byte[]> kafkaSender = mock(KafkaSender.class);
+        when(kafkaSender.send(any()))
+            .thenAnswer(invocation ->
+                Flux
+                    .from((Publisher<SenderRecord<String, byte[], Long>>) invocation.getArgument(0))
+                    .doOnNext(records::add)
+                    .map(this::result)
+            );
+        changeEventPublisher = new ChangeEventPublisher();
+        meterRegistry = new SimpleMeterRegistry();
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getEvents().setTopic(TOPIC);
+        domainEventPublisher =
+            new DomainEventPublisher(
+                changeEventPublisher,
+                kafkaSender,
+                applicationProperties,
+                meterRegistry
+            );
+        domainEventPublisher.start();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        domainEventPublisher.stop();
+    }
+
+    @Test
+    void publishesTheChangesKeyedByEntity() {
+        GameObject gameObject = new GameObject().x(1f).y(2f).isEnabled(true).version(3L);
+        gameObject.setId(1L);
+        gameObject.setApplicationId(2L);
+        changeEventPublisher.publish(ChangeEventDTO.of(ChangeEventDTO.Type.MOVED, gameObject)).block();
+        domainEventPublisher.publish(DomainEventDTO.of(ChangeEventDTO.Type.CREATED, new Application().id(2L).width(640f))).block();
+
+        assertThat(records).extracting(record -> record.topic()).containsOnly(TOPIC);
+        assertThat(records).extracting(record -> record.key()).containsExactly("game-object:1", "application:2");
+        DomainEventSerde serde = new DomainEventSerde();
+        assertThat(serde.deserialize(TOPIC, records.get(0).value()))
+            .extracting(DomainEventDTO::getType, DomainEventDTO::getX, DomainEventDTO::getVersion)
+            .containsExactly(ChangeEventDTO.Type.MOVED, 1f, 3L);
+        assertThat(serde.deserialize(TOPIC, records.get(1).value()))
+            .extracting(DomainEventDTO::getType, DomainEventDTO::getWidth)
+            .containsExactly(ChangeEventDTO.Type.CREATED, 640f);
+        assertThat(meterRegistry.get("events.kafka.events").tag("outcome", "sent").counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("events.kafka.latency").timer().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("events.kafka.in-flight").gauge().value()).isZero();
+    }
+
+    @Test
+    void countsTheEventsTheBrokerFailedToAcknowledge() {
+        failing = true;
+
+        domainEventPublisher.publish(DomainEventDTO.of(ChangeEventDTO.Type.DELETED, new Application().id(2L))).block();
+
+        assertThat(records).hasSize(1);
+        assertThat(meterRegistry.get("events.kafka.events").tag("outcome", "failed").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("events.kafka.events").tag("outcome", "sent").counter().count()).isZero();
+    }
+
+    private SenderResult<Long> result(SenderRecord<String, byte[], Long> record) {
+        RecordMetadata metadata = new RecordMetadata(new TopicPartition(record.topic(), 0), 0, records.size(), 0L, 0L, 0, 0);
+        Exception exception = failing ? new IllegalStateException("broker unavailable") : null;
+        return new SenderResult<>() {
+            @Override
+            public RecordMetadata recordMetadata() {
+                return exception == null ? metadata : null;
+            }
+
+            @Override
+            public Exception exception() {
+                return exception;
+            }
+
+            @Override
+            public Long correlationMetadata() {
+                return record.correlationMetadata();
+            }
+        };
+    }
+}
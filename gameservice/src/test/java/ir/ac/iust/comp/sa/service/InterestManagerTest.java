@@ -0,0 +1,148 @@
+package ir.ac.iust.comp.sa.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.anyFloat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import ir.ac.iust.comp.sa.config.ApplicationProperties;
+import ir.ac.iust.comp.sa.domain.GameObject;
+import ir.ac.iust.comp.sa.repository.GameObjectRepository;
+import ir.ac.iust.comp.sa.service.dto.ChangeEventDTO;
+import ir.ac.iust.comp.sa.service.dto.ViewportDTO;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+class InterestManagerTest {
+
+    private static final Long APPLICATION_ID = 1L;
+
+    private ChangeEventPublisher changeEventPublisher;
+
+    private GameObjectRepository gameObjectRepository;
+
+    private InterestManager interestManager;
+
+    @BeforeEach
+    public void setUp() {
+        changeEventPublisher = new ChangeEventPublisher();
+        gameObjectRepository = mock(GameObjectRepository.class);
+        when(gameObjectRepository.findAllInAreaWithoutBlob(anyLong(), anyFloat(), anyFloat(), anyFloat(), anyFloat()))
+            .thenReturn(Flux.empty());
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getChanges().getInterest().setCellSize(100);
+        applicationProperties.getChanges().getInterest().setMargin(10);
+        applicationProperties.getChanges().getInterest().setMaxCells(16);
+        interestManager = new InterestManager(changeEventPublisher, gameObjectRepository, applicationProperties, new SimpleMeterRegistry());
+        interestManager.start();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        interestManager.stop();
+    }
+
+    @Test
+    void routesChangesToTheViewportsTheyTouch() {
+        List<ChangeEventDTO> left = subscribe(new ViewportDTO(0f, 0f, 100f, 100f));
+        List<ChangeEventDTO> right = subscribe(new ViewportDTO(500f, 0f, 600f, 100f));
+
+        publish(1L, 50f, 50f, 1L);
+        // within the margin of the left viewport only
+        publish(2L, 105f, 50f, 1L);
+        publish(3L, 550f, 50f, 1L);
+        // out of both viewports
+        publish(4L, 300f, 50f, 1L);
+
+        assertThat(left).extracting(ChangeEventDTO::getId).containsExactly(1L, 2L);
+        assertThat(right).extracting(ChangeEventDTO::getId).containsExactly(3L);
+    }
+
+    @Test
+    void sendsTheChangeMovingAGameObjectOutOfTheViewportThenStops() {
+        List<ChangeEventDTO> events = subscribe(new ViewportDTO(0f, 0f, 100f, 100f));
+
+        publish(1L, 50f, 50f, 1L);
+        publish(1L, 300f, 50f, 2L);
+        publish(1L, 310f, 50f, 3L);
+
+        assertThat(events).extracting(ChangeEventDTO::getX).containsExactly(50f, 300f);
+    }
+
+    @Test
+    void sendsTheGameObjectsEnteringAMovedViewport() {
+        InterestManager.Subscription subscription = interestManager.subscribe(APPLICATION_ID);
+        List<ChangeEventDTO> events = new CopyOnWriteArrayList<>();
+        subscription.events().subscribe(events::add);
+        subscription.move(new ViewportDTO(0f, 0f, 100f, 100f)).block();
+        publish(1L, 50f, 50f, 2L);
+        when(gameObjectRepository.findAllInAreaWithoutBlob(APPLICATION_ID, 40f, -10f, 210f, 110f))
+            .thenReturn(Flux.just(gameObject(1L, 50f, 50f, 2L), gameObject(2L, 150f, 50f, 1L)));
+
+        subscription.move(new ViewportDTO(50f, 0f, 200f, 100f)).block();
+        publish(2L, 160f, 50f, 2L);
+
+        assertThat(events)
+            .extracting(ChangeEventDTO::getId, ChangeEventDTO::getType)
+            .containsExactly(
+                tuple(1L, ChangeEventDTO.Type.MOVED),
+                tuple(2L, ChangeEventDTO.Type.ENTERED),
+                tuple(2L, ChangeEventDTO.Type.MOVED)
+            );
+    }
+
+    @Test
+    void ignoresTheOlderStateOfAGameObjectThatLeftTheViewportDuringTheRead() {
+        InterestManager.Subscription subscription = interestManager.subscribe(APPLICATION_ID);
+        List<ChangeEventDTO> events = new CopyOnWriteArrayList<>();
+        subscription.events().subscribe(events::add);
+        subscription.move(new ViewportDTO(0f, 0f, 100f, 100f)).block();
+        publish(1L, 50f, 50f, 1L);
+        Sinks.Many<GameObject> read = Sinks.many().unicast().onBackpressureBuffer();
+        when(gameObjectRepository.findAllInAreaWithoutBlob(APPLICATION_ID, -10f, -10f, 210f, 110f)).thenReturn(read.asFlux());
+
+        subscription.move(new ViewportDTO(0f, 0f, 200f, 100f)).subscribe();
+        publish(1L, 500f, 50f, 2L);
+        read.tryEmitNext(gameObject(1L, 50f, 50f, 1L));
+        read.tryEmitComplete();
+        publish(1L, 510f, 50f, 3L);
+
+        assertThat(events).extracting(ChangeEventDTO::getX).containsExactly(50f, 500f);
+    }
+
+    @Test
+    void rejectsInvalidViewports() {
+        InterestManager.Subscription subscription = interestManager.subscribe(APPLICATION_ID);
+
+        assertThatIllegalArgumentException().isThrownBy(() -> subscription.move(new ViewportDTO(10f, 0f, 0f, 10f)).block());
+        assertThatIllegalArgumentException().isThrownBy(() -> subscription.move(new ViewportDTO(0f, 0f, 1000f, 1000f)).block());
+    }
+
+    private List<ChangeEventDTO> subscribe(ViewportDTO viewport) {
+        InterestManager.Subscription subscription = interestManager.subscribe(APPLICATION_ID);
+        List<ChangeEventDTO> events = new CopyOnWriteArrayList<>();
+        subscription.events().subscribe(events::add);
+        subscription.move(viewport).block();
+        return events;
+    }
+
+    private void publish(Long id, float x, float y, long version) {
+        changeEventPublisher.publish(ChangeEventDTO.of(ChangeEventDTO.Type.MOVED, gameObject(id, x, y, version))).block();
+    }
+
+    private static GameObject gameObject(Long id, float x, float y, long version) {
+        GameObject gameObject = new GameObject().x(x).y(y).isEnabled(true).version(version);
+        gameObject.setId(id);
+        gameObject.setApplicationId(APPLICATION_ID);
+        return gameObject;
+    }
+}
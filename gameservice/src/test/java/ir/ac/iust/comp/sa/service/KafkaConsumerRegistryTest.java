@@ -0,0 +1,100 @@
+package ir.ac.iust.comp.sa.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import ir.ac.iust.comp.sa.config.ApplicationProperties;
+import ir.ac.iust.comp.sa.config.KafkaProperties;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Sinks;
+import reactor.kafka.receiver.ReceiverOptions;
+
+class KafkaConsumerRegistryTest {
+
+    private final List<ReceiverOptions<String, String>> receiverOptions = new CopyOnWriteArrayList<>();
+
+    private final List<Sinks.Many<ConsumerRecord<String, String>>> receivers = new CopyOnWriteArrayList<>();
+
+    private MeterRegistry meterRegistry;
+
+    private KafkaConsumerRegistry kafkaConsumerRegistry;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getKafkaConsumers().setReplaySize(1);
+        kafkaConsumerRegistry =
+            new KafkaConsumerRegistry(
+                new KafkaProperties(),
+                applicationProperties,
+                meterRegistry,
+                options -> {
+                    Sinks.Many<ConsumerRecord<String, String>> receiver = Sinks.many().multicast().directBestEffort();
+                    receiverOptions.add(options);
+                    receivers.add(receiver);
+                    return receiver.asFlux();
+                }
+            );
+    }
+
+    @Test
+    void sharesOneConsumerBetweenTheSubscribersOfTheSameTopics() {
+        List<String> first = new CopyOnWriteArrayList<>();
+        List<String> second = new CopyOnWriteArrayList<>();
+        Disposable firstSubscription = kafkaConsumerRegistry
+            .consume(List.of("a", "b"), Map.of())
+            .subscribe(record -> first.add(record.value()));
+        Disposable secondSubscription = kafkaConsumerRegistry
+            .consume(List.of("b", "a"), Map.of())
+            .subscribe(record -> second.add(record.value()));
+
+        emit(0, "value");
+
+        assertThat(receivers).hasSize(1);
+        assertThat(receiverOptions.get(0).subscriptionTopics()).containsExactlyInAnyOrder("a", "b");
+        assertThat(first).containsExactly("value");
+        assertThat(second).containsExactly("value");
+        assertThat(meterRegistry.get("kafka.consumers.subscribers").gauge().value()).isEqualTo(2);
+
+        firstSubscription.dispose();
+        assertThat(receivers.get(0).currentSubscriberCount()).isEqualTo(1);
+        secondSubscription.dispose();
+        assertThat(receivers.get(0).currentSubscriberCount()).isZero();
+        assertThat(meterRegistry.get("kafka.consumers.active").gauge().value()).isZero();
+    }
+
+    @Test
+    void replaysTheLastRecordsToLateSubscribers() {
+        Disposable firstSubscription = kafkaConsumerRegistry.consume(List.of("a"), Map.of()).subscribe();
+        emit(0, "old");
+        emit(0, "last");
+
+        List<String> late = new CopyOnWriteArrayList<>();
+        kafkaConsumerRegistry.consume(List.of("a"), Map.of()).subscribe(record -> late.add(record.value()));
+        emit(0, "new");
+
+        assertThat(late).containsExactly("last", "new");
+        firstSubscription.dispose();
+    }
+
+    @Test
+    void startsAConsumerPerConsumerProperties() {
+        kafkaConsumerRegistry.consume(List.of("a"), Map.of("group.id", "first")).subscribe();
+        kafkaConsumerRegistry.consume(List.of("a"), Map.of("group.id", "second")).subscribe();
+
+        assertThat(receiverOptions).extracting(options -> options.groupId()).containsExactlyInAnyOrder("first", "second");
+        assertThat(meterRegistry.get("kafka.consumers.active").gauge().value()).isEqualTo(2);
+    }
+
+    private void emit(int receiver, String value) {
+        receivers.get(receiver).tryEmitNext(new ConsumerRecord<>("a", 0, 0L, null, value));
+    }
+}
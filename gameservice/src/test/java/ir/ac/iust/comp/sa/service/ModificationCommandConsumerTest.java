@@ -0,0 +1,169 @@
+package ir.ac.iust.comp.sa.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import ir.ac.iust.comp.sa.config.ApplicationProperties;
+import ir.ac.iust.comp.sa.config.KafkaProperties;
+import ir.ac.iust.comp.sa.domain.enumeration.EnumModType;
+import ir.ac.iust.comp.sa.service.dto.ModificationCommandDTO;
+import ir.ac.iust.comp.sa.service.serde.ModificationCommandSerde;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.kafka.receiver.KafkaReceiver;
+import reactor.kafka.receiver.ReceiverOffset;
+import reactor.kafka.receiver.ReceiverOptions;
+import reactor.kafka.receiver.ReceiverRecord;
+
+class ModificationCommandConsumerTest {
+
+    private static final String TOPIC = "commands";
+
+    private static final TopicPartition PARTITION = new TopicPartition(TOPIC, 0);
+
+    private final Sinks.Many<ReceiverRecord<String, byte[]>> receiver = Sinks.many().unicast().onBackpressureBuffer();
+
+    private final List<ReceiverOptions<String, byte[]>> receiverOptions = new CopyOnWriteArrayList<>();
+
+    // the result of applying the command of each game object
+    private final Map<Long, Mono<Integer>> results = new ConcurrentHashMap<>();
+
+    private final ModificationCommandSerde serde = new ModificationCommandSerde();
+
+    private ModificationCommandService modificationCommandService;
+
+    private MeterRegistry meterRegistry;
+
+    private ModificationCommandConsumer modificationCommandConsumer;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        modificationCommandService = mock(ModificationCommandService.class);
+        when(modificationCommandService.apply(any()))
+            .thenAnswer(invocation -> {
+                ModificationCommandDTO command = invocation.getArgument(0);
+                return results.getOrDefault(command.getGameObjectId(), Mono.just(1));
+            });
+        KafkaReceiver<String, byte[]> kafkaReceiver = mock(KafkaReceiver.class);
+        when(kafkaReceiver.receive()).thenReturn(receiver.asFlux());
+        meterRegistry = new SimpleMeterRegistry();
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getCommands().setTopic(TOPIC);
+        applicationProperties.getCommands().setConcurrency(2);
+        applicationProperties.getCommands().setMaxRetries(2);
+        applicationProperties.getCommands().setRetryBackoff(Duration.ofMillis(1));
+        applicationProperties.getCommands().setLagInterval(Duration.ofMinutes(1));
+        modificationCommandConsumer =
+            new ModificationCommandConsumer(
+                modificationCommandService,
+                new KafkaProperties(),
+                applicationProperties,
+                meterRegistry,
+                options -> {
+                    receiverOptions.add(options);
+                    return kafkaReceiver;
+                }
+            );
+        modificationCommandConsumer.start();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        modificationCommandConsumer.stop();
+    }
+
+    @Test
+    void appliesTheCommandsOfALaneInOrderAndTheLanesInParallel() {
+        Sinks.One<Integer> first = Sinks.one();
+        results.put(1L, first.asMono());
+        // "1" and "2" hash to different lanes
+        ReceiverOffset offset0 = send(0, "1", command(1L));
+        ReceiverOffset offset1 = send(1, "1", command(2L));
+        ReceiverOffset offset2 = send(2, "2", command(3L));
+
+        verify(modificationCommandService, timeout(5000)).apply(argThat(command -> command.getGameObjectId() == 3L));
+        verify(modificationCommandService, never()).apply(argThat(command -> command.getGameObjectId() == 2L));
+        // applied, but not acknowledged before the previous commands of its partition
+        verify(offset2, never()).acknowledge();
+
+        first.tryEmitValue(1);
+
+        verify(offset2, timeout(5000)).acknowledge();
+        verify(modificationCommandService).apply(argThat(command -> command.getGameObjectId() == 2L));
+        // acknowledged on its own once applied, while the next one was still pending
+        verify(offset0).acknowledge();
+        verify(offset1, never()).acknowledge();
+        assertThat(receiverOptions).hasSize(1);
+        assertThat(receiverOptions.get(0).subscriptionTopics()).containsExactly(TOPIC);
+        assertThat(count("applied")).isEqualTo(3);
+    }
+
+    @Test
+    void countsTheRejectedIgnoredAndFailedCommands() {
+        AtomicInteger attempts = new AtomicInteger();
+        results.put(2L, Mono.error(new IllegalArgumentException("invalid")));
+        results.put(3L, Mono.just(0));
+        results.put(4L, Mono.defer(() -> Mono.error(new IllegalStateException("attempt " + attempts.incrementAndGet()))));
+
+        send(0, "1", new byte[] { 1, 2, 3 });
+        send(1, "1", command(2L));
+        send(2, "1", command(3L));
+        ReceiverOffset last = send(3, "1", command(4L));
+
+        // the consumer moves past all of them
+        verify(last, timeout(5000)).acknowledge();
+        assertThat(count("rejected")).isEqualTo(2);
+        assertThat(count("ignored")).isEqualTo(1);
+        assertThat(count("failed")).isEqualTo(1);
+        assertThat(count("applied")).isZero();
+        // retried after the first attempt
+        assertThat(attempts).hasValue(3);
+    }
+
+    private ReceiverOffset send(long offset, String key, ModificationCommandDTO command) {
+        return send(offset, key, serde.serialize(TOPIC, command));
+    }
+
+    private ReceiverOffset send(long offset, String key, byte[] value) {
+        ReceiverOffset receiverOffset = mock(ReceiverOffset.class);
+        when(receiverOffset.topicPartition()).thenReturn(PARTITION);
+        when(receiverOffset.offset()).thenReturn(offset);
+        ConsumerRecord<String, byte[]> record = new ConsumerRecord<>(TOPIC, PARTITION.partition(), offset, key, value);
+        receiver.tryEmitNext(new ReceiverRecord<>(record, receiverOffset));
+        return receiverOffset;
+    }
+
+    private double count(String outcome) {
+        return meterRegistry.get("commands.kafka.commands").tag("outcome", outcome).counter().count();
+    }
+
+    private static ModificationCommandDTO command(Long gameObjectId) {
+        ModificationCommandDTO command = new ModificationCommandDTO();
+        command.setType(EnumModType.TRANLATION);
+        command.setApplicationId(1L);
+        command.setGameObjectId(gameObjectId);
+        command.setX(1f);
+        command.setY(2f);
+        return command;
+    }
+}
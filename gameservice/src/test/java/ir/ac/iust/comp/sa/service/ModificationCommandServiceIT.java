@@ -0,0 +1,115 @@
+package ir.ac.iust.comp.sa.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.within;
+
+import ir.ac.iust.comp.sa.IntegrationTest;
+import ir.ac.iust.comp.sa.domain.Application;
+import ir.ac.iust.comp.sa.domain.GameObject;
+import ir.ac.iust.comp.sa.domain.enumeration.EnumModType;
+import ir.ac.iust.comp.sa.repository.GameObjectRepository;
+import ir.ac.iust.comp.sa.service.dto.ChangeEventDTO;
+import ir.ac.iust.comp.sa.service.dto.ModificationCommandDTO;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Integration tests for the {@link ModificationCommandService}.
+ */
+@IntegrationTest
+class ModificationCommandServiceIT {
+
+    private static final Float DEFAULT_X = 1F;
+
+    private static final Float DEFAULT_Y = 1F;
+
+    @Autowired
+    private ModificationCommandService modificationCommandService;
+
+    @Autowired
+    private GameObjectRepository gameObjectRepository;
+
+    @Autowired
+    private ChangeEventPublisher changeEventPublisher;
+
+    @Autowired
+    private EntityManager em;
+
+    private Application application;
+
+    private GameObject gameObject;
+
+    @BeforeEach
+    public void initTest() {
+        application = em.insert(new Application().width(1f).height(1f)).block();
+        gameObject =
+            gameObjectRepository
+                .save(new GameObject().x(DEFAULT_X).y(DEFAULT_Y).isEnabled(false).applicationId(application.getId()))
+                .block();
+    }
+
+    @AfterEach
+    public void cleanup() {
+        em.deleteAll(GameObject.class).block();
+        em.deleteAll(Application.class).block();
+    }
+
+    @Test
+    void applyModificationCommands() throws Exception {
+        ModificationCommandDTO translation = command(EnumModType.TRANLATION);
+        translation.setX(1f);
+        translation.setY(2f);
+        assertThat(modificationCommandService.apply(translation).block()).isEqualTo(1);
+        // a quarter turn around the origin
+        ModificationCommandDTO rotation = command(EnumModType.ROTATION);
+        rotation.setX(0f);
+        rotation.setY(0f);
+        rotation.setAngle(90f);
+        CompletableFuture<ChangeEventDTO> event = changeEventPublisher.events().next().toFuture();
+        assertThat(modificationCommandService.apply(rotation).block()).isEqualTo(1);
+        ModificationCommandDTO render = command(EnumModType.RENDER);
+        render.setVisible(true);
+        assertThat(modificationCommandService.apply(render).block()).isEqualTo(1);
+
+        GameObject updated = gameObjectRepository.findById(gameObject.getId()).block();
+        assertThat(updated.getX()).isCloseTo(-(DEFAULT_Y + 2f), within(0.001f));
+        assertThat(updated.getY()).isCloseTo(DEFAULT_X + 1f, within(0.001f));
+        assertThat(updated.getIsEnabled()).isTrue();
+        assertThat(updated.getVersion()).isEqualTo(gameObject.getVersion() + 3);
+        ChangeEventDTO moved = event.get(5, TimeUnit.SECONDS);
+        assertThat(moved.getType()).isEqualTo(ChangeEventDTO.Type.MOVED);
+        assertThat(moved.getY()).isCloseTo(DEFAULT_X + 1f, within(0.001f));
+    }
+
+    @Test
+    void ignoreCommandsOnTheGameObjectsOfOtherApplications() {
+        ModificationCommandDTO translation = command(EnumModType.TRANLATION);
+        translation.setApplicationId(application.getId() + 1);
+        translation.setX(1f);
+        translation.setY(2f);
+        assertThat(modificationCommandService.apply(translation).block()).isZero();
+
+        assertThat(gameObjectRepository.findById(gameObject.getId()).block().getX()).isEqualTo(DEFAULT_X);
+    }
+
+    @Test
+    void rejectCommandsMissingTheirArguments() {
+        ModificationCommandDTO noPivot = command(EnumModType.ROTATION);
+        assertThatIllegalArgumentException().isThrownBy(() -> modificationCommandService.apply(noPivot).block());
+        ModificationCommandDTO none = command(EnumModType.NONE);
+        assertThatIllegalArgumentException().isThrownBy(() -> modificationCommandService.apply(none).block());
+    }
+
+    private ModificationCommandDTO command(EnumModType type) {
+        ModificationCommandDTO command = new ModificationCommandDTO();
+        command.setType(type);
+        command.setApplicationId(application.getId());
+        command.setGameObjectId(gameObject.getId());
+        return command;
+    }
+}
@@ -0,0 +1,70 @@
+package ir.ac.iust.comp.sa.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+import reactor.kafka.receiver.ReceiverOffset;
+
+class PendingOffsetsTest {
+
+    private static final TopicPartition PARTITION = new TopicPartition("commands", 0);
+
+    private static final TopicPartition OTHER_PARTITION = new TopicPartition("commands", 1);
+
+    private final PendingOffsets pendingOffsets = new PendingOffsets();
+
+    @Test
+    void acknowledgesAnOffsetOnceThePreviousOnesAreProcessed() {
+        ReceiverOffset first = received(PARTITION, 10);
+        ReceiverOffset second = received(PARTITION, 11);
+        ReceiverOffset third = received(PARTITION, 12);
+
+        pendingOffsets.processed(second);
+        pendingOffsets.processed(third);
+        verify(second, never()).acknowledge();
+        verify(third, never()).acknowledge();
+        assertThat(pendingOffsets.nextOffsets()).containsEntry(PARTITION, 10L);
+
+        pendingOffsets.processed(first);
+        verify(first, never()).acknowledge();
+        verify(third).acknowledge();
+        assertThat(pendingOffsets.nextOffsets()).containsEntry(PARTITION, 13L);
+    }
+
+    @Test
+    void tracksThePartitionsIndependently() {
+        ReceiverOffset first = received(PARTITION, 10);
+        ReceiverOffset other = received(OTHER_PARTITION, 20);
+
+        pendingOffsets.processed(other);
+
+        verify(other).acknowledge();
+        verify(first, never()).acknowledge();
+        assertThat(pendingOffsets.nextOffsets()).containsEntry(PARTITION, 10L).containsEntry(OTHER_PARTITION, 21L);
+    }
+
+    @Test
+    void forgetsTheRevokedPartitions() {
+        ReceiverOffset first = received(PARTITION, 10);
+
+        pendingOffsets.revoked(List.of(PARTITION));
+        pendingOffsets.processed(first);
+
+        verify(first, never()).acknowledge();
+        assertThat(pendingOffsets.nextOffsets()).isEmpty();
+    }
+
+    private ReceiverOffset received(TopicPartition topicPartition, long offset) {
+        ReceiverOffset receiverOffset = mock(ReceiverOffset.class);
+        when(receiverOffset.topicPartition()).thenReturn(topicPartition);
+        when(receiverOffset.offset()).thenReturn(offset);
+        pendingOffsets.received(receiverOffset);
+        return receiverOffset;
+    }
+}
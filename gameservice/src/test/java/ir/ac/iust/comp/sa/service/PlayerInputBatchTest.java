@@ -0,0 +1,65 @@
+package ir.ac.iust.comp.sa.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import ir.ac.iust.comp.sa.service.dto.PlayerInputDTO;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class PlayerInputBatchTest {
+
+    @Test
+    void coalescesTheInputsOfAGameObject() {
+        PlayerInputBatch batch = new PlayerInputBatch();
+        batch.add(input(1L, 1L, PlayerInputDTO.Type.MOVE_BY, 1f, 2f));
+        batch.add(input(2L, 1L, PlayerInputDTO.Type.MOVE_BY, 3f, -1f));
+        batch.add(input(3L, 2L, PlayerInputDTO.Type.DISABLE, 0f, 0f));
+        batch.add(input(4L, 2L, PlayerInputDTO.Type.ENABLE, 0f, 0f));
+
+        assertThat(batch.size()).isEqualTo(4);
+        assertThat(batch.getEntries()).hasSize(2);
+        assertThat(batch.getLastSequence()).isEqualTo(4L);
+        PlayerInputBatch.Entry moved = batch.getEntry(1L);
+        assertThat(moved.getX()).isNull();
+        assertThat(moved.getDx()).isEqualTo(4f);
+        assertThat(moved.getDy()).isEqualTo(1f);
+        assertThat(moved.getIsEnabled()).isNull();
+        assertThat(moved.isPositionSet()).isTrue();
+        PlayerInputBatch.Entry enabled = batch.getEntry(2L);
+        assertThat(enabled.getIsEnabled()).isTrue();
+        assertThat(enabled.isPositionSet()).isFalse();
+    }
+
+    @Test
+    void aPositionReplacesThePreviousOffsets() {
+        PlayerInputBatch batch = new PlayerInputBatch();
+        batch.add(input(1L, 1L, PlayerInputDTO.Type.MOVE_BY, 1f, 2f));
+        batch.add(input(2L, 1L, PlayerInputDTO.Type.MOVE_TO, 10f, 20f));
+        batch.add(input(3L, 1L, PlayerInputDTO.Type.MOVE_BY, 0.5f, 0f));
+
+        PlayerInputBatch.Entry entry = batch.getEntry(1L);
+        assertThat(entry.getX()).isEqualTo(10f);
+        assertThat(entry.getY()).isEqualTo(20f);
+        assertThat(entry.getDx()).isEqualTo(0.5f);
+        assertThat(entry.getDy()).isZero();
+    }
+
+    @Test
+    void keepsTheReceptionTimeOfEachInput() {
+        PlayerInputBatch batch = new PlayerInputBatch();
+        for (long sequence = 1; sequence <= 40; sequence++) {
+            PlayerInputDTO input = input(sequence, 1L, PlayerInputDTO.Type.MOVE_BY, 1f, 0f);
+            input.setReceivedNanos(sequence * 100);
+            batch.add(input);
+        }
+
+        List<Long> receivedNanos = new ArrayList<>();
+        batch.forEachReceivedNanos(receivedNanos::add);
+        assertThat(receivedNanos).hasSize(40).startsWith(100L, 200L).endsWith(4000L);
+    }
+
+    private static PlayerInputDTO input(long sequence, Long gameObjectId, PlayerInputDTO.Type type, float x, float y) {
+        return new PlayerInputDTO(sequence, 0L, gameObjectId, type, x, y);
+    }
+}
@@ -0,0 +1,105 @@
+package ir.ac.iust.comp.sa.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import ir.ac.iust.comp.sa.IntegrationTest;
+import ir.ac.iust.comp.sa.domain.Application;
+import ir.ac.iust.comp.sa.domain.GameObject;
+import ir.ac.iust.comp.sa.domain.SearchOutboxEntry;
+import ir.ac.iust.comp.sa.repository.GameObjectRepository;
+import ir.ac.iust.comp.sa.repository.SearchOutboxRepository;
+import ir.ac.iust.comp.sa.service.dto.ChangeEventDTO;
+import ir.ac.iust.comp.sa.service.dto.PlayerInputDTO;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Integration tests for the {@link PlayerInputService}.
+ */
+@IntegrationTest
+class PlayerInputServiceIT {
+
+    @Autowired
+    private PlayerInputService playerInputService;
+
+    @Autowired
+    private GameObjectRepository gameObjectRepository;
+
+    @Autowired
+    private SearchOutboxRepository searchOutboxRepository;
+
+    @Autowired
+    private ChangeEventPublisher changeEventPublisher;
+
+    @Autowired
+    private EntityManager em;
+
+    private Application application;
+
+    private GameObject gameObject;
+
+    @BeforeEach
+    public void initTest() {
+        em.deleteAll(SearchOutboxEntry.class).block();
+        application = em.insert(new Application().width(1f).height(1f)).block();
+        gameObject = gameObjectRepository.save(new GameObject().x(1f).y(1f).isEnabled(false).applicationId(application.getId())).block();
+    }
+
+    @AfterEach
+    public void cleanup() {
+        em.deleteAll(SearchOutboxEntry.class).block();
+        em.deleteAll(GameObject.class).block();
+        em.deleteAll(Application.class).block();
+    }
+
+    @Test
+    void applyPlayerInputsInOneBatch() throws Exception {
+        CompletableFuture<ChangeEventDTO> event = changeEventPublisher.events().next().toFuture();
+
+        PlayerInputBatch batch = new PlayerInputBatch();
+        batch.add(new PlayerInputDTO(1L, 0L, gameObject.getId(), PlayerInputDTO.Type.MOVE_BY, 1f, 2f));
+        batch.add(new PlayerInputDTO(2L, 0L, gameObject.getId(), PlayerInputDTO.Type.MOVE_BY, 1f, 2f));
+        batch.add(new PlayerInputDTO(3L, 0L, gameObject.getId(), PlayerInputDTO.Type.ENABLE, 0f, 0f));
+        // inputs on the game objects of other applications are ignored
+        assertThat(playerInputService.apply(application.getId() + 1, batch).block()).isZero();
+        assertThat(playerInputService.apply(application.getId(), batch).block()).isEqualTo(1);
+
+        GameObject updated = gameObjectRepository.findById(gameObject.getId()).block();
+        assertThat(updated.getX()).isEqualTo(gameObject.getX() + 2f);
+        assertThat(updated.getY()).isEqualTo(gameObject.getY() + 4f);
+        assertThat(updated.getIsEnabled()).isTrue();
+        assertThat(updated.getVersion()).isEqualTo(gameObject.getVersion() + 1);
+        ChangeEventDTO moved = event.get(5, TimeUnit.SECONDS);
+        assertThat(moved.getType()).isEqualTo(ChangeEventDTO.Type.UPDATED);
+        assertThat(moved.getX()).isEqualTo(gameObject.getX() + 2f);
+        assertThat(searchOutboxRepository.findAll().collectList().block())
+            .extracting(SearchOutboxEntry::getEntityType, SearchOutboxEntry::getEntityId)
+            .containsExactly(tuple("GameObject", gameObject.getId()));
+    }
+
+    @Test
+    void reindexTheGameObjectsLeavingTheirCell() {
+        GameObject other = gameObjectRepository.save(new GameObject().x(1f).y(1f).applicationId(application.getId())).block();
+
+        PlayerInputBatch batch = new PlayerInputBatch();
+        // within the cell of 64 units of the game object
+        batch.add(new PlayerInputDTO(1L, 0L, gameObject.getId(), PlayerInputDTO.Type.MOVE_BY, 10f, 10f));
+        batch.add(new PlayerInputDTO(2L, 0L, other.getId(), PlayerInputDTO.Type.MOVE_BY, 100f, 0f));
+        assertThat(playerInputService.apply(application.getId(), batch).block()).isEqualTo(2);
+
+        assertThat(searchOutboxRepository.findAll().collectList().block())
+            .extracting(SearchOutboxEntry::getEntityId)
+            .containsExactly(other.getId());
+    }
+
+    @Test
+    void applyAnEmptyBatch() {
+        assertThat(playerInputService.apply(application.getId(), new PlayerInputBatch()).block()).isZero();
+        assertThat(gameObjectRepository.findById(gameObject.getId()).block().getVersion()).isEqualTo(gameObject.getVersion());
+    }
+}
@@ -0,0 +1,103 @@
+package ir.ac.iust.comp.sa.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import ir.ac.iust.comp.sa.config.ApplicationProperties;
+import ir.ac.iust.comp.sa.domain.ChangeFeedEntry;
+import ir.ac.iust.comp.sa.repository.ChangeFeedEntryRepository;
+import ir.ac.iust.comp.sa.service.dto.ChangeEventDTO;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+class SceneChangeLogTest {
+
+    private ChangeFeedEntryRepository changeFeedEntryRepository;
+
+    private SceneChangeLog sceneChangeLog;
+
+    @BeforeEach
+    public void setUp() {
+        changeFeedEntryRepository = mock(ChangeFeedEntryRepository.class);
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getScenes().setMaxChanges(3);
+        sceneChangeLog = new SceneChangeLog(changeFeedEntryRepository, applicationProperties);
+    }
+
+    @Test
+    void readsTheChangesOfAnApplicationFromTheJournal() {
+        journal(5L, 12L);
+        when(changeFeedEntryRepository.findAfter(7L, null, 1L, 4)).thenReturn(Flux.just(entry(9L, 10L), entry(12L, 11L)));
+
+        assertThat(sceneChangeLog.getSequence().block()).isEqualTo(12L);
+        assertThat(sceneChangeLog.changesSince(1L, 7L).block())
+            .extracting(ChangeEventDTO::getSequence, ChangeEventDTO::getId)
+            .containsExactly(tuple(9L, 10L), tuple(12L, 11L));
+    }
+
+    @Test
+    void resyncsTheClientsOutOfTheJournal() {
+        journal(5L, 12L);
+        when(changeFeedEntryRepository.findAfter(anyLong(), isNull(), eq(1L), anyInt())).thenReturn(Flux.empty());
+
+        // the changes after 3 were pruned, the first one being 5
+        assertThat(sceneChangeLog.changesSince(1L, 3L).blockOptional()).isEmpty();
+        assertThat(sceneChangeLog.changesSince(1L, 4L).blockOptional()).hasValueSatisfying(changes -> assertThat(changes).isEmpty());
+        // ahead of the journal, e.g. of another database
+        assertThat(sceneChangeLog.changesSince(1L, 13L).blockOptional()).isEmpty();
+    }
+
+    @Test
+    void resyncsTheClientsTooFarBehind() {
+        journal(1L, 20L);
+        List<ChangeFeedEntry> entries = LongStream
+            .rangeClosed(1, 4)
+            .mapToObj(sequence -> entry(sequence, sequence))
+            .collect(Collectors.toList());
+        when(changeFeedEntryRepository.findAfter(0L, null, 1L, 4)).thenReturn(Flux.fromIterable(entries));
+
+        assertThat(sceneChangeLog.changesSince(1L, 0L).blockOptional()).isEmpty();
+    }
+
+    @Test
+    void readsAnEmptyJournal() {
+        when(changeFeedEntryRepository.findFirstSequence()).thenReturn(Mono.empty());
+        when(changeFeedEntryRepository.findLastSequence()).thenReturn(Mono.empty());
+        when(changeFeedEntryRepository.findAfter(0L, null, 1L, 4)).thenReturn(Flux.empty());
+
+        assertThat(sceneChangeLog.getSequence().block()).isZero();
+        assertThat(sceneChangeLog.changesSince(1L, 0L).block()).isEqualTo(List.of());
+        assertThat(sceneChangeLog.changesSince(1L, 1L).blockOptional()).isEmpty();
+    }
+
+    private void journal(Long first, Long last) {
+        when(changeFeedEntryRepository.findFirstSequence()).thenReturn(Mono.just(first));
+        when(changeFeedEntryRepository.findLastSequence()).thenReturn(Mono.just(last));
+    }
+
+    private static ChangeFeedEntry entry(Long sequence, Long gameObjectId) {
+        return new ChangeFeedEntry()
+            .sequence(sequence)
+            .entityType(ChangeEventDTO.GAME_OBJECT)
+            .entityId(gameObjectId)
+            .applicationId(1L)
+            .changeType(ChangeEventDTO.Type.MOVED.name())
+            .x(1f)
+            .y(1f)
+            .isEnabled(true)
+            .version(1L)
+            .createdDate(Instant.now());
+    }
+}
@@ -0,0 +1,55 @@
+package ir.ac.iust.comp.sa.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import ir.ac.iust.comp.sa.IntegrationTest;
+import ir.ac.iust.comp.sa.repository.SearchLeaseRepository;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Integration tests for the {@link SearchOutboxPause} service.
+ */
+@IntegrationTest
+class SearchOutboxPauseIT {
+
+    @Autowired
+    private SearchOutboxPause searchOutboxPause;
+
+    @Autowired
+    private SearchLeaseRepository searchLeaseRepository;
+
+    @AfterEach
+    public void cleanup() {
+        searchLeaseRepository.deleteAll().block();
+    }
+
+    @Test
+    void pausesAnEntityTypeOnAllTheInstancesWhileTheWorkRuns() throws Exception {
+        Sinks.One<String> work = Sinks.one();
+        CompletableFuture<String> paused = searchOutboxPause.pausing("GameObject", work.asMono()).toFuture();
+
+        for (int attempt = 0; attempt < 50 && searchOutboxPause.findPaused().block().isEmpty(); attempt++) {
+            Thread.sleep(100);
+        }
+        assertThat(searchOutboxPause.findPaused().block()).containsExactly("GameObject");
+        // another instance can't pause it meanwhile
+        assertThatThrownBy(() -> searchOutboxPause.pausing("GameObject", Mono.just("other")).block())
+            .isInstanceOf(IllegalStateException.class);
+
+        work.tryEmitValue("done");
+        assertThat(paused.get(10, TimeUnit.SECONDS)).isEqualTo("done");
+
+        // released asynchronously once the work ends
+        for (int attempt = 0; attempt < 50 && !searchOutboxPause.findPaused().block().isEmpty(); attempt++) {
+            Thread.sleep(100);
+        }
+        assertThat(searchOutboxPause.findPaused().block()).isEmpty();
+    }
+}
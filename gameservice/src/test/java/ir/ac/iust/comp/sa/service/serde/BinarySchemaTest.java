@@ -0,0 +1,102 @@
+package ir.ac.iust.comp.sa.service.serde;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import ir.ac.iust.comp.sa.domain.enumeration.EnumModType;
+import ir.ac.iust.comp.sa.service.dto.ChangeEventDTO;
+import ir.ac.iust.comp.sa.service.dto.DomainEventDTO;
+import ir.ac.iust.comp.sa.service.dto.ModificationCommandDTO;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Properties;
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.jupiter.api.Test;
+
+class BinarySchemaTest {
+
+    private static final String V1 = "name:string,kind:symbol(A|B),count:long";
+
+    private static final String V2 = V1.replace("A|B", "A|B|C") + ",ratio:float,active:boolean,at:instant";
+
+    @Test
+    void roundTripsTheDomainEvents() throws Exception {
+        DomainEventSerde serde = new DomainEventSerde();
+        DomainEventDTO event = new DomainEventDTO();
+        event.setEntity(ChangeEventDTO.GAME_OBJECT);
+        event.setType(ChangeEventDTO.Type.MOVED);
+        event.setId(123456789L);
+        event.setApplicationId(-1L);
+        event.setX(1.5f);
+        event.setY(-2f);
+        event.setIsEnabled(true);
+        event.setVersion(7L);
+        event.setTimestamp(Instant.parse("2021-09-01T10:15:30.123456789Z"));
+
+        byte[] payload = serde.serialize("events", event);
+        DomainEventDTO read = serde.deserialize("events", payload);
+
+        assertThat(read).usingRecursiveComparison().isEqualTo(event);
+        byte[] json = new ObjectMapper().registerModule(new JavaTimeModule()).writeValueAsBytes(event);
+        assertThat(payload.length).isLessThan(json.length / 3);
+    }
+
+    @Test
+    void roundTripsTheModificationCommands() {
+        ModificationCommandSerde serde = new ModificationCommandSerde();
+        ModificationCommandDTO command = new ModificationCommandDTO();
+        command.setType(EnumModType.ROTATION);
+        command.setApplicationId(1L);
+        command.setGameObjectId(2L);
+        command.setX(0f);
+        command.setY(0f);
+        command.setAngle(90f);
+
+        assertThat(serde.deserialize("commands", serde.serialize("commands", command))).usingRecursiveComparison().isEqualTo(command);
+    }
+
+    @Test
+    void readsThePayloadsOfTheOtherVersions() {
+        BinarySchema v1 = BinarySchema.parse("test", schemas(V1, null));
+        BinarySchema v2 = BinarySchema.parse("test", schemas(V1, V2));
+        Instant at = Instant.ofEpochSecond(-1, 5);
+
+        assertThat(v2.getVersion()).isEqualTo(2);
+        assertThat(v1.read(v2.write(new Object[] { "é", "C", 300L, 0.5f, false, at }))).containsExactly("é", null, 300L);
+        assertThat(v1.read(v2.write(new Object[] { "n", "B", null, null, true, null }))).containsExactly("n", "B", null);
+        assertThat(v2.read(v1.write(new Object[] { null, "A", -300L }))).containsExactly(null, "A", -300L, null, null, null);
+        assertThat(v2.read(v2.write(new Object[] { "", "C", Long.MIN_VALUE, 0.5f, false, at })))
+            .containsExactly("", "C", Long.MIN_VALUE, 0.5f, false, at);
+    }
+
+    @Test
+    void rejectsIncompatibleVersions() {
+        assertThatIllegalStateException().isThrownBy(() -> BinarySchema.parse("test", schemas(V1, "name:string,count:long")));
+        assertThatIllegalStateException().isThrownBy(() -> BinarySchema.parse("test", schemas(V1, V1.replace("A|B", "B|A"))));
+        String retyped = V1.replace("count:long", "count:float");
+        assertThatIllegalStateException().isThrownBy(() -> BinarySchema.parse("test", schemas(V1, retyped)));
+        assertThatIllegalStateException().isThrownBy(() -> BinarySchema.parse("other", schemas(V1, null)));
+    }
+
+    @Test
+    void rejectsInvalidPayloads() {
+        BinarySchema schema = BinarySchema.parse("test", schemas(V1, null));
+        byte[] payload = schema.write(new Object[] { "name", "A", 1L });
+
+        assertThatThrownBy(() -> schema.read(new byte[] { 1, 1, 0 })).isInstanceOf(SerializationException.class);
+        assertThatThrownBy(() -> schema.read(Arrays.copyOf(payload, 5))).isInstanceOf(SerializationException.class);
+        assertThatThrownBy(() -> schema.write(new Object[] { "name", "C", 1L })).isInstanceOf(SerializationException.class);
+    }
+
+    private static Properties schemas(String v1, String v2) {
+        Properties schemas = new Properties();
+        schemas.setProperty("test.1", v1);
+        if (v2 != null) {
+            schemas.setProperty("test.2", v2);
+        }
+        return schemas;
+    }
+}
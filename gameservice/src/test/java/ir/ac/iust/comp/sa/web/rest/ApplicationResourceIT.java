@@ -7,12 +7,21 @@ import static org.mockito.Mockito.*;
 
 import ir.ac.iust.comp.sa.IntegrationTest;
 import ir.ac.iust.comp.sa.domain.Application;
+import ir.ac.iust.comp.sa.domain.SearchOutboxEntry;
+import ir.ac.iust.comp.sa.domain.search.ApplicationSearchDocument;
 import ir.ac.iust.comp.sa.repository.ApplicationRepository;
+import ir.ac.iust.comp.sa.repository.SearchOutboxRepository;
 import ir.ac.iust.comp.sa.repository.search.ApplicationSearchRepository;
+import ir.ac.iust.comp.sa.repository.search.SearchSlice;
 import ir.ac.iust.comp.sa.service.EntityManager;
+import ir.ac.iust.comp.sa.service.ScreenFramePublisher;
+import ir.ac.iust.comp.sa.service.dto.ScreenFrameDTO;
 import java.time.Duration;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -26,7 +35,6 @@ import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.reactive.server.WebTestClient;
 import org.springframework.util.Base64Utils;
-import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 /**
@@ -67,6 +75,12 @@ class ApplicationResourceIT {
     @Autowired
     private ApplicationSearchRepository mockApplicationSearchRepository;
 
+    @Autowired
+    private SearchOutboxRepository searchOutboxRepository;
+
+    @Autowired
+    private ScreenFramePublisher screenFramePublisher;
+
     @Autowired
     private EntityManager em;
 
@@ -127,8 +141,6 @@ class ApplicationResourceIT {
     @Test
     void createApplication() throws Exception {
         int databaseSizeBeforeCreate = applicationRepository.findAll().collectList().block().size();
-        // Configure the mock search repository
-        when(mockApplicationSearchRepository.save(any())).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
         // Create the Application
         webTestClient
             .post()
@@ -148,8 +160,8 @@ class ApplicationResourceIT {
         assertThat(testApplication.getScreenBuffer()).isEqualTo(DEFAULT_SCREEN_BUFFER);
         assertThat(testApplication.getScreenBufferContentType()).isEqualTo(DEFAULT_SCREEN_BUFFER_CONTENT_TYPE);
 
-        // Validate the Application in Elasticsearch
-        verify(mockApplicationSearchRepository, times(1)).save(testApplication);
+        // Validate the Application is queued for indexing in Elasticsearch
+        assertThat(searchOutboxEntries(testApplication.getId())).hasSize(1);
     }
 
     @Test
@@ -174,7 +186,7 @@ class ApplicationResourceIT {
         assertThat(applicationList).hasSize(databaseSizeBeforeCreate);
 
         // Validate the Application in Elasticsearch
-        verify(mockApplicationSearchRepository, times(0)).save(application);
+        verify(mockApplicationSearchRepository, times(0)).save(any());
     }
 
     @Test
@@ -276,8 +288,6 @@ class ApplicationResourceIT {
 
     @Test
     void putNewApplication() throws Exception {
-        // Configure the mock search repository
-        when(mockApplicationSearchRepository.save(any())).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
         // Initialize the database
         applicationRepository.save(application).block();
 
@@ -309,8 +319,8 @@ class ApplicationResourceIT {
         assertThat(testApplication.getScreenBuffer()).isEqualTo(UPDATED_SCREEN_BUFFER);
         assertThat(testApplication.getScreenBufferContentType()).isEqualTo(UPDATED_SCREEN_BUFFER_CONTENT_TYPE);
 
-        // Validate the Application in Elasticsearch
-        verify(mockApplicationSearchRepository).save(testApplication);
+        // Validate the Application is queued for indexing in Elasticsearch
+        assertThat(searchOutboxEntries(testApplication.getId())).hasSize(1);
     }
 
     @Test
@@ -333,7 +343,7 @@ class ApplicationResourceIT {
         assertThat(applicationList).hasSize(databaseSizeBeforeUpdate);
 
         // Validate the Application in Elasticsearch
-        verify(mockApplicationSearchRepository, times(0)).save(application);
+        verify(mockApplicationSearchRepository, times(0)).save(any());
     }
 
     @Test
@@ -356,7 +366,7 @@ class ApplicationResourceIT {
         assertThat(applicationList).hasSize(databaseSizeBeforeUpdate);
 
         // Validate the Application in Elasticsearch
-        verify(mockApplicationSearchRepository, times(0)).save(application);
+        verify(mockApplicationSearchRepository, times(0)).save(any());
     }
 
     @Test
@@ -379,7 +389,7 @@ class ApplicationResourceIT {
         assertThat(applicationList).hasSize(databaseSizeBeforeUpdate);
 
         // Validate the Application in Elasticsearch
-        verify(mockApplicationSearchRepository, times(0)).save(application);
+        verify(mockApplicationSearchRepository, times(0)).save(any());
     }
 
     @Test
@@ -412,6 +422,38 @@ class ApplicationResourceIT {
         assertThat(testApplication.getHeight()).isEqualTo(UPDATED_HEIGHT);
         assertThat(testApplication.getScreenBuffer()).isEqualTo(DEFAULT_SCREEN_BUFFER);
         assertThat(testApplication.getScreenBufferContentType()).isEqualTo(DEFAULT_SCREEN_BUFFER_CONTENT_TYPE);
+
+        // Validate the Application is queued for indexing in Elasticsearch
+        assertThat(searchOutboxEntries(partialUpdatedApplication.getId())).hasSize(1);
+    }
+
+    @Test
+    void partialUpdateApplicationPublishesScreenFrame() throws Exception {
+        // Initialize the database
+        applicationRepository.save(application).block();
+        CompletableFuture<ScreenFrameDTO> frame = screenFramePublisher
+            .frames(application.getId())
+            .filter(published -> Arrays.equals(published.getData(), UPDATED_SCREEN_BUFFER))
+            .next()
+            .toFuture();
+
+        Application partialUpdatedApplication = new Application();
+        partialUpdatedApplication.setId(application.getId());
+        partialUpdatedApplication.screenBuffer(UPDATED_SCREEN_BUFFER);
+
+        webTestClient
+            .patch()
+            .uri(ENTITY_API_URL_ID, partialUpdatedApplication.getId())
+            .contentType(MediaType.valueOf("application/merge-patch+json"))
+            .bodyValue(TestUtil.convertObjectToJsonBytes(partialUpdatedApplication))
+            .exchange()
+            .expectStatus()
+            .isOk();
+
+        // Validate the new screen buffer is published once committed, with the stored content type
+        ScreenFrameDTO published = frame.get(5, TimeUnit.SECONDS);
+        assertThat(published.getApplicationId()).isEqualTo(application.getId());
+        assertThat(published.getContentType()).isEqualTo(DEFAULT_SCREEN_BUFFER_CONTENT_TYPE);
     }
 
     @Test
@@ -455,7 +497,7 @@ class ApplicationResourceIT {
         int databaseSizeBeforeUpdate = applicationRepository.findAll().collectList().block().size();
         application.setId(count.incrementAndGet());
 
-        // If the entity doesn't have an ID, it will throw BadRequestAlertException
+        // If the entity doesn't exist, the update matches no row and a 404 is returned
         webTestClient
             .patch()
             .uri(ENTITY_API_URL_ID, application.getId())
@@ -463,14 +505,14 @@ class ApplicationResourceIT {
             .bodyValue(TestUtil.convertObjectToJsonBytes(application))
             .exchange()
             .expectStatus()
-            .isBadRequest();
+            .isNotFound();
 
         // Validate the Application in the database
         List<Application> applicationList = applicationRepository.findAll().collectList().block();
         assertThat(applicationList).hasSize(databaseSizeBeforeUpdate);
 
         // Validate the Application in Elasticsearch
-        verify(mockApplicationSearchRepository, times(0)).save(application);
+        verify(mockApplicationSearchRepository, times(0)).save(any());
     }
 
     @Test
@@ -493,7 +535,7 @@ class ApplicationResourceIT {
         assertThat(applicationList).hasSize(databaseSizeBeforeUpdate);
 
         // Validate the Application in Elasticsearch
-        verify(mockApplicationSearchRepository, times(0)).save(application);
+        verify(mockApplicationSearchRepository, times(0)).save(any());
     }
 
     @Test
@@ -516,13 +558,11 @@ class ApplicationResourceIT {
         assertThat(applicationList).hasSize(databaseSizeBeforeUpdate);
 
         // Validate the Application in Elasticsearch
-        verify(mockApplicationSearchRepository, times(0)).save(application);
+        verify(mockApplicationSearchRepository, times(0)).save(any());
     }
 
     @Test
     void deleteApplication() {
-        // Configure the mock search repository
-        when(mockApplicationSearchRepository.deleteById(anyLong())).thenReturn(Mono.empty());
         // Initialize the database
         applicationRepository.save(application).block();
 
@@ -541,22 +581,56 @@ class ApplicationResourceIT {
         List<Application> applicationList = applicationRepository.findAll().collectList().block();
         assertThat(applicationList).hasSize(databaseSizeBeforeDelete - 1);
 
-        // Validate the Application in Elasticsearch
-        verify(mockApplicationSearchRepository, times(1)).deleteById(application.getId());
+        // Validate the Application is queued for indexing in Elasticsearch
+        assertThat(searchOutboxEntries(application.getId())).hasSize(1);
     }
 
     @Test
     void searchApplication() {
+        // Initialize the database
+        applicationRepository.save(application).block();
         // Configure the mock search repository
-        when(mockApplicationSearchRepository.save(any())).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        when(mockApplicationSearchRepository.search("id:" + application.getId(), 20, null))
+            .thenReturn(Mono.just(new SearchSlice<>(List.of(ApplicationSearchDocument.of(application)), 1L, null)));
+
+        // Search the application, without its screenBuffer
+        webTestClient
+            .get()
+            .uri(ENTITY_SEARCH_API_URL + "?query=id:" + application.getId())
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .contentType(MediaType.APPLICATION_JSON)
+            .expectHeader()
+            .valueEquals("X-Total-Count", "1")
+            .expectHeader()
+            .doesNotExist("X-Search-After")
+            .expectBody()
+            .jsonPath("$.[*].id")
+            .value(hasItem(application.getId().intValue()))
+            .jsonPath("$.[*].width")
+            .value(hasItem(DEFAULT_WIDTH.doubleValue()))
+            .jsonPath("$.[*].height")
+            .value(hasItem(DEFAULT_HEIGHT.doubleValue()))
+            .jsonPath("$.[*].screenBufferContentType")
+            .value(hasItem(DEFAULT_SCREEN_BUFFER_CONTENT_TYPE))
+            .jsonPath("$.[0].screenBuffer")
+            .doesNotExist();
+    }
+
+    @Test
+    void searchApplicationWithFullEntities() {
         // Initialize the database
         applicationRepository.save(application).block();
-        when(mockApplicationSearchRepository.search("id:" + application.getId())).thenReturn(Flux.just(application));
+        // Configure the mock search repository
+        when(mockApplicationSearchRepository.search("id:" + application.getId(), 20, null))
+            .thenReturn(Mono.just(new SearchSlice<>(List.of(ApplicationSearchDocument.of(application)), 1L, null)));
 
         // Search the application
         webTestClient
             .get()
-            .uri(ENTITY_SEARCH_API_URL + "?query=id:" + application.getId())
+            .uri(ENTITY_SEARCH_API_URL + "?query=id:" + application.getId() + "&full=true")
             .exchange()
             .expectStatus()
             .isOk()
@@ -574,4 +648,12 @@ class ApplicationResourceIT {
             .jsonPath("$.[*].screenBuffer")
             .value(hasItem(Base64Utils.encodeToString(DEFAULT_SCREEN_BUFFER)));
     }
+
+    private List<SearchOutboxEntry> searchOutboxEntries(Long id) {
+        return searchOutboxRepository
+            .findAll()
+            .filter(entry -> "Application".equals(entry.getEntityType()) && id.equals(entry.getEntityId()))
+            .collectList()
+            .block();
+    }
 }
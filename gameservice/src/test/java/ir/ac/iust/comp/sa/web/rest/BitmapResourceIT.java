@@ -7,8 +7,12 @@ import static org.mockito.Mockito.*;
 
 import ir.ac.iust.comp.sa.IntegrationTest;
 import ir.ac.iust.comp.sa.domain.Bitmap;
+import ir.ac.iust.comp.sa.domain.SearchOutboxEntry;
+import ir.ac.iust.comp.sa.domain.search.BitmapSearchDocument;
 import ir.ac.iust.comp.sa.repository.BitmapRepository;
+import ir.ac.iust.comp.sa.repository.SearchOutboxRepository;
 import ir.ac.iust.comp.sa.repository.search.BitmapSearchRepository;
+import ir.ac.iust.comp.sa.repository.search.SearchSlice;
 import ir.ac.iust.comp.sa.service.EntityManager;
 import java.time.Duration;
 import java.util.List;
@@ -26,7 +30,6 @@ import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.reactive.server.WebTestClient;
 import org.springframework.util.Base64Utils;
-import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 /**
@@ -61,6 +64,9 @@ class BitmapResourceIT {
     @Autowired
     private BitmapSearchRepository mockBitmapSearchRepository;
 
+    @Autowired
+    private SearchOutboxRepository searchOutboxRepository;
+
     @Autowired
     private EntityManager em;
 
@@ -113,8 +119,6 @@ class BitmapResourceIT {
     @Test
     void createBitmap() throws Exception {
         int databaseSizeBeforeCreate = bitmapRepository.findAll().collectList().block().size();
-        // Configure the mock search repository
-        when(mockBitmapSearchRepository.save(any())).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
         // Create the Bitmap
         webTestClient
             .post()
@@ -132,8 +136,8 @@ class BitmapResourceIT {
         assertThat(testBitmap.getBlob()).isEqualTo(DEFAULT_BLOB);
         assertThat(testBitmap.getBlobContentType()).isEqualTo(DEFAULT_BLOB_CONTENT_TYPE);
 
-        // Validate the Bitmap in Elasticsearch
-        verify(mockBitmapSearchRepository, times(1)).save(testBitmap);
+        // Validate the Bitmap is queued for indexing in Elasticsearch
+        assertThat(searchOutboxEntries(testBitmap.getId())).hasSize(1);
     }
 
     @Test
@@ -158,7 +162,7 @@ class BitmapResourceIT {
         assertThat(bitmapList).hasSize(databaseSizeBeforeCreate);
 
         // Validate the Bitmap in Elasticsearch
-        verify(mockBitmapSearchRepository, times(0)).save(bitmap);
+        verify(mockBitmapSearchRepository, times(0)).save(any());
     }
 
     @Test
@@ -250,8 +254,6 @@ class BitmapResourceIT {
 
     @Test
     void putNewBitmap() throws Exception {
-        // Configure the mock search repository
-        when(mockBitmapSearchRepository.save(any())).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
         // Initialize the database
         bitmapRepository.save(bitmap).block();
 
@@ -277,8 +279,8 @@ class BitmapResourceIT {
         assertThat(testBitmap.getBlob()).isEqualTo(UPDATED_BLOB);
         assertThat(testBitmap.getBlobContentType()).isEqualTo(UPDATED_BLOB_CONTENT_TYPE);
 
-        // Validate the Bitmap in Elasticsearch
-        verify(mockBitmapSearchRepository).save(testBitmap);
+        // Validate the Bitmap is queued for indexing in Elasticsearch
+        assertThat(searchOutboxEntries(testBitmap.getId())).hasSize(1);
     }
 
     @Test
@@ -301,7 +303,7 @@ class BitmapResourceIT {
         assertThat(bitmapList).hasSize(databaseSizeBeforeUpdate);
 
         // Validate the Bitmap in Elasticsearch
-        verify(mockBitmapSearchRepository, times(0)).save(bitmap);
+        verify(mockBitmapSearchRepository, times(0)).save(any());
     }
 
     @Test
@@ -324,7 +326,7 @@ class BitmapResourceIT {
         assertThat(bitmapList).hasSize(databaseSizeBeforeUpdate);
 
         // Validate the Bitmap in Elasticsearch
-        verify(mockBitmapSearchRepository, times(0)).save(bitmap);
+        verify(mockBitmapSearchRepository, times(0)).save(any());
     }
 
     @Test
@@ -347,7 +349,7 @@ class BitmapResourceIT {
         assertThat(bitmapList).hasSize(databaseSizeBeforeUpdate);
 
         // Validate the Bitmap in Elasticsearch
-        verify(mockBitmapSearchRepository, times(0)).save(bitmap);
+        verify(mockBitmapSearchRepository, times(0)).save(any());
     }
 
     @Test
@@ -376,6 +378,9 @@ class BitmapResourceIT {
         Bitmap testBitmap = bitmapList.get(bitmapList.size() - 1);
         assertThat(testBitmap.getBlob()).isEqualTo(DEFAULT_BLOB);
         assertThat(testBitmap.getBlobContentType()).isEqualTo(DEFAULT_BLOB_CONTENT_TYPE);
+
+        // Validate the Bitmap is queued for indexing in Elasticsearch
+        assertThat(searchOutboxEntries(partialUpdatedBitmap.getId())).hasSize(1);
     }
 
     @Test
@@ -413,7 +418,7 @@ class BitmapResourceIT {
         int databaseSizeBeforeUpdate = bitmapRepository.findAll().collectList().block().size();
         bitmap.setId(count.incrementAndGet());
 
-        // If the entity doesn't have an ID, it will throw BadRequestAlertException
+        // If the entity doesn't exist, the update matches no row and a 404 is returned
         webTestClient
             .patch()
             .uri(ENTITY_API_URL_ID, bitmap.getId())
@@ -421,14 +426,14 @@ class BitmapResourceIT {
             .bodyValue(TestUtil.convertObjectToJsonBytes(bitmap))
             .exchange()
             .expectStatus()
-            .isBadRequest();
+            .isNotFound();
 
         // Validate the Bitmap in the database
         List<Bitmap> bitmapList = bitmapRepository.findAll().collectList().block();
         assertThat(bitmapList).hasSize(databaseSizeBeforeUpdate);
 
         // Validate the Bitmap in Elasticsearch
-        verify(mockBitmapSearchRepository, times(0)).save(bitmap);
+        verify(mockBitmapSearchRepository, times(0)).save(any());
     }
 
     @Test
@@ -451,7 +456,7 @@ class BitmapResourceIT {
         assertThat(bitmapList).hasSize(databaseSizeBeforeUpdate);
 
         // Validate the Bitmap in Elasticsearch
-        verify(mockBitmapSearchRepository, times(0)).save(bitmap);
+        verify(mockBitmapSearchRepository, times(0)).save(any());
     }
 
     @Test
@@ -474,13 +479,11 @@ class BitmapResourceIT {
         assertThat(bitmapList).hasSize(databaseSizeBeforeUpdate);
 
         // Validate the Bitmap in Elasticsearch
-        verify(mockBitmapSearchRepository, times(0)).save(bitmap);
+        verify(mockBitmapSearchRepository, times(0)).save(any());
     }
 
     @Test
     void deleteBitmap() {
-        // Configure the mock search repository
-        when(mockBitmapSearchRepository.deleteById(anyLong())).thenReturn(Mono.empty());
         // Initialize the database
         bitmapRepository.save(bitmap).block();
 
@@ -499,22 +502,52 @@ class BitmapResourceIT {
         List<Bitmap> bitmapList = bitmapRepository.findAll().collectList().block();
         assertThat(bitmapList).hasSize(databaseSizeBeforeDelete - 1);
 
-        // Validate the Bitmap in Elasticsearch
-        verify(mockBitmapSearchRepository, times(1)).deleteById(bitmap.getId());
+        // Validate the Bitmap is queued for indexing in Elasticsearch
+        assertThat(searchOutboxEntries(bitmap.getId())).hasSize(1);
     }
 
     @Test
     void searchBitmap() {
+        // Initialize the database
+        bitmapRepository.save(bitmap).block();
         // Configure the mock search repository
-        when(mockBitmapSearchRepository.save(any())).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        when(mockBitmapSearchRepository.search("id:" + bitmap.getId(), 20, null))
+            .thenReturn(Mono.just(new SearchSlice<>(List.of(BitmapSearchDocument.of(bitmap)), 1L, null)));
+
+        // Search the bitmap, without its blob
+        webTestClient
+            .get()
+            .uri(ENTITY_SEARCH_API_URL + "?query=id:" + bitmap.getId())
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .contentType(MediaType.APPLICATION_JSON)
+            .expectHeader()
+            .valueEquals("X-Total-Count", "1")
+            .expectHeader()
+            .doesNotExist("X-Search-After")
+            .expectBody()
+            .jsonPath("$.[*].id")
+            .value(hasItem(bitmap.getId().intValue()))
+            .jsonPath("$.[*].blobContentType")
+            .value(hasItem(DEFAULT_BLOB_CONTENT_TYPE))
+            .jsonPath("$.[0].blob")
+            .doesNotExist();
+    }
+
+    @Test
+    void searchBitmapWithFullEntities() {
         // Initialize the database
         bitmapRepository.save(bitmap).block();
-        when(mockBitmapSearchRepository.search("id:" + bitmap.getId())).thenReturn(Flux.just(bitmap));
+        // Configure the mock search repository
+        when(mockBitmapSearchRepository.search("id:" + bitmap.getId(), 20, null))
+            .thenReturn(Mono.just(new SearchSlice<>(List.of(BitmapSearchDocument.of(bitmap)), 1L, null)));
 
         // Search the bitmap
         webTestClient
             .get()
-            .uri(ENTITY_SEARCH_API_URL + "?query=id:" + bitmap.getId())
+            .uri(ENTITY_SEARCH_API_URL + "?query=id:" + bitmap.getId() + "&full=true")
             .exchange()
             .expectStatus()
             .isOk()
@@ -528,4 +561,12 @@ class BitmapResourceIT {
             .jsonPath("$.[*].blob")
             .value(hasItem(Base64Utils.encodeToString(DEFAULT_BLOB)));
     }
+
+    private List<SearchOutboxEntry> searchOutboxEntries(Long id) {
+        return searchOutboxRepository
+            .findAll()
+            .filter(entry -> "Bitmap".equals(entry.getEntityType()) && id.equals(entry.getEntityId()))
+            .collectList()
+            .block();
+    }
 }
@@ -0,0 +1,146 @@
+package ir.ac.iust.comp.sa.web.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import ir.ac.iust.comp.sa.IntegrationTest;
+import ir.ac.iust.comp.sa.domain.ChangeFeedEntry;
+import ir.ac.iust.comp.sa.repository.ChangeFeedEntryRepository;
+import ir.ac.iust.comp.sa.service.dto.ChangeEventDTO;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+/**
+ * Integration tests for the {@link ChangeFeedResource} REST controller.
+ */
+@IntegrationTest
+@AutoConfigureWebTestClient
+@WithMockUser
+class ChangeFeedResourceIT {
+
+    private static final String ENTITY_API_URL = "/api/changes";
+
+    private static final ParameterizedTypeReference<ServerSentEvent<ChangeEventDTO>> EVENT_TYPE = new ParameterizedTypeReference<>() {};
+
+    @Autowired
+    private ChangeFeedEntryRepository changeFeedEntryRepository;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    private List<ChangeFeedEntry> entries;
+
+    @BeforeEach
+    void journalChanges() {
+        changeFeedEntryRepository.deleteAll().block();
+        entries =
+            changeFeedEntryRepository
+                .saveAll(
+                    List.of(
+                        entry(11L, ChangeEventDTO.GAME_OBJECT, 1L, ChangeEventDTO.Type.CREATED),
+                        entry(12L, ChangeEventDTO.LAYER, 2L, ChangeEventDTO.Type.MOVED),
+                        entry(13L, ChangeEventDTO.GAME_OBJECT, 1L, ChangeEventDTO.Type.DISABLED)
+                    )
+                )
+                .collectList()
+                .block();
+    }
+
+    @AfterEach
+    void cleanup() {
+        changeFeedEntryRepository.deleteAll().block();
+    }
+
+    @Test
+    void streamChangesSinceSequence() {
+        List<ServerSentEvent<ChangeEventDTO>> events = stream(ENTITY_API_URL + "?since=" + entries.get(0).getSequence(), null, 2);
+
+        assertThat(events)
+            .extracting(ServerSentEvent::id)
+            .containsExactly(String.valueOf(entries.get(1).getSequence()), String.valueOf(entries.get(2).getSequence()));
+        assertThat(events.get(0).data())
+            .extracting(ChangeEventDTO::getEntity, ChangeEventDTO::getType, ChangeEventDTO::getId, ChangeEventDTO::getX)
+            .containsExactly(ChangeEventDTO.LAYER, ChangeEventDTO.Type.MOVED, 2L, 1f);
+    }
+
+    @Test
+    void streamChangesOfEntityAfterLastEventId() {
+        List<ServerSentEvent<ChangeEventDTO>> events = stream(
+            ENTITY_API_URL + "?since=0&entity=game-object",
+            entries.get(0).getSequence(),
+            1
+        );
+
+        assertThat(events.get(0).data())
+            .extracting(ChangeEventDTO::getSequence, ChangeEventDTO::getType, ChangeEventDTO::getIsEnabled)
+            .containsExactly(entries.get(2).getSequence(), ChangeEventDTO.Type.DISABLED, false);
+    }
+
+    @Test
+    void streamChangesSincePrunedSequence() {
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?since=" + (entries.get(0).getSequence() - 2))
+            .accept(MediaType.TEXT_EVENT_STREAM)
+            .exchange()
+            .expectStatus()
+            .isEqualTo(HttpStatus.GONE);
+    }
+
+    @Test
+    void streamChangesOfInvalidEntity() {
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?entity=bitmap")
+            .accept(MediaType.TEXT_EVENT_STREAM)
+            .exchange()
+            .expectStatus()
+            .isBadRequest();
+    }
+
+    private List<ServerSentEvent<ChangeEventDTO>> stream(String uri, Long lastEventId, int count) {
+        return webTestClient
+            .get()
+            .uri(uri)
+            .headers(headers -> {
+                if (lastEventId != null) {
+                    headers.set("Last-Event-ID", lastEventId.toString());
+                }
+            })
+            .accept(MediaType.TEXT_EVENT_STREAM)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .returnResult(EVENT_TYPE)
+            .getResponseBody()
+            .filter(event -> event.data() != null)
+            .take(count)
+            .collectList()
+            .block(Duration.ofSeconds(10));
+    }
+
+    private static ChangeFeedEntry entry(Long sequence, String entityType, Long entityId, ChangeEventDTO.Type changeType) {
+        return new ChangeFeedEntry()
+            .sequence(sequence)
+            .entityType(entityType)
+            .entityId(entityId)
+            .applicationId(1L)
+            .changeType(changeType.name())
+            .x(1f)
+            .y(2f)
+            .isEnabled(changeType != ChangeEventDTO.Type.DISABLED)
+            .version(1L)
+            .createdDate(Instant.now());
+    }
+}
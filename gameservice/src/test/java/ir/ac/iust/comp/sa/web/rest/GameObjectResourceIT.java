@@ -7,12 +7,24 @@ import static org.mockito.Mockito.*;
 
 import ir.ac.iust.comp.sa.IntegrationTest;
 import ir.ac.iust.comp.sa.domain.GameObject;
+import ir.ac.iust.comp.sa.domain.SearchOutboxEntry;
+import ir.ac.iust.comp.sa.domain.search.GameObjectSearchDocument;
 import ir.ac.iust.comp.sa.repository.GameObjectRepository;
+import ir.ac.iust.comp.sa.repository.SearchOutboxRepository;
 import ir.ac.iust.comp.sa.repository.search.GameObjectSearchRepository;
+import ir.ac.iust.comp.sa.repository.search.SearchArea;
+import ir.ac.iust.comp.sa.repository.search.SearchCursor;
+import ir.ac.iust.comp.sa.repository.search.SearchSlice;
+import ir.ac.iust.comp.sa.service.ChangeEventPublisher;
 import ir.ac.iust.comp.sa.service.EntityManager;
+import ir.ac.iust.comp.sa.service.dto.ChangeEventDTO;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.Base64;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -26,7 +38,6 @@ import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.reactive.server.WebTestClient;
 import org.springframework.util.Base64Utils;
-import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 /**
@@ -70,6 +81,12 @@ class GameObjectResourceIT {
     @Autowired
     private GameObjectSearchRepository mockGameObjectSearchRepository;
 
+    @Autowired
+    private SearchOutboxRepository searchOutboxRepository;
+
+    @Autowired
+    private ChangeEventPublisher changeEventPublisher;
+
     @Autowired
     private EntityManager em;
 
@@ -132,8 +149,6 @@ class GameObjectResourceIT {
     @Test
     void createGameObject() throws Exception {
         int databaseSizeBeforeCreate = gameObjectRepository.findAll().collectList().block().size();
-        // Configure the mock search repository
-        when(mockGameObjectSearchRepository.save(any())).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
         // Create the GameObject
         webTestClient
             .post()
@@ -154,8 +169,30 @@ class GameObjectResourceIT {
         assertThat(testGameObject.getBitmapContentType()).isEqualTo(DEFAULT_BITMAP_CONTENT_TYPE);
         assertThat(testGameObject.getIsEnabled()).isEqualTo(DEFAULT_IS_ENABLED);
 
-        // Validate the GameObject in Elasticsearch
-        verify(mockGameObjectSearchRepository, times(1)).save(testGameObject);
+        // Validate the GameObject is queued for indexing in Elasticsearch
+        assertThat(searchOutboxEntries(testGameObject.getId())).hasSize(1);
+    }
+
+    @Test
+    void createGameObjectPublishesChangeEvent() throws Exception {
+        CompletableFuture<ChangeEventDTO> event = changeEventPublisher.events().next().toFuture();
+
+        webTestClient
+            .post()
+            .uri(ENTITY_API_URL)
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(TestUtil.convertObjectToJsonBytes(gameObject))
+            .exchange()
+            .expectStatus()
+            .isCreated();
+
+        // Validate the change is published once committed, without the bitmap
+        ChangeEventDTO created = event.get(5, TimeUnit.SECONDS);
+        assertThat(created.getEntity()).isEqualTo(ChangeEventDTO.GAME_OBJECT);
+        assertThat(created.getType()).isEqualTo(ChangeEventDTO.Type.CREATED);
+        assertThat(created.getId()).isEqualTo(gameObjectRepository.findAll().blockLast().getId());
+        assertThat(created.getX()).isEqualTo(DEFAULT_X);
+        assertThat(created.getIsEnabled()).isEqualTo(DEFAULT_IS_ENABLED);
     }
 
     @Test
@@ -180,7 +217,7 @@ class GameObjectResourceIT {
         assertThat(gameObjectList).hasSize(databaseSizeBeforeCreate);
 
         // Validate the GameObject in Elasticsearch
-        verify(mockGameObjectSearchRepository, times(0)).save(gameObject);
+        verify(mockGameObjectSearchRepository, times(0)).save(any());
     }
 
     @Test
@@ -213,6 +250,44 @@ class GameObjectResourceIT {
         assertThat(testGameObject.getIsEnabled()).isEqualTo(DEFAULT_IS_ENABLED);
     }
 
+    @Test
+    void getAllGameObjectsAsStreamWithoutBlobs() {
+        // Initialize the database
+        gameObjectRepository.save(gameObject).block();
+        gameObjectRepository.save(createUpdatedEntity(em)).block();
+
+        List<GameObject> gameObjectList = webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?projection=without-blobs&chunkSize=1&prefetch=1")
+            .accept(MediaType.APPLICATION_NDJSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+            .returnResult(GameObject.class)
+            .getResponseBody()
+            .collectList()
+            .block(Duration.ofSeconds(5));
+
+        assertThat(gameObjectList).hasSize(2).contains(gameObject);
+        GameObject testGameObject = gameObjectList.get(gameObjectList.indexOf(gameObject));
+        assertThat(testGameObject.getX()).isEqualTo(DEFAULT_X);
+        assertThat(testGameObject.getBitmap()).isNull();
+        assertThat(testGameObject.getBitmapContentType()).isEqualTo(DEFAULT_BITMAP_CONTENT_TYPE);
+    }
+
+    @Test
+    void getAllGameObjectsAsStreamWithInvalidProjection() {
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?projection=bitmaps")
+            .accept(MediaType.APPLICATION_NDJSON)
+            .exchange()
+            .expectStatus()
+            .isBadRequest();
+    }
+
     @Test
     void getAllGameObjects() {
         // Initialize the database
@@ -243,6 +318,181 @@ class GameObjectResourceIT {
             .value(hasItem(DEFAULT_IS_ENABLED.booleanValue()));
     }
 
+    @Test
+    void getGameObjectsByIdFiltering() {
+        // Initialize the database
+        gameObjectRepository.save(gameObject).block();
+
+        Long id = gameObject.getId();
+
+        defaultGameObjectShouldBeFound("id.equals=" + id);
+        defaultGameObjectShouldNotBeFound("id.notEquals=" + id);
+
+        defaultGameObjectShouldBeFound("id.greaterThanOrEqual=" + id);
+        defaultGameObjectShouldNotBeFound("id.greaterThan=" + id);
+
+        defaultGameObjectShouldBeFound("id.lessThanOrEqual=" + id);
+        defaultGameObjectShouldNotBeFound("id.lessThan=" + id);
+    }
+
+    @Test
+    void getAllGameObjectsByXIsEqualToSomething() {
+        // Initialize the database
+        gameObjectRepository.save(gameObject).block();
+
+        // Get all the gameObjectList where x equals to DEFAULT_X
+        defaultGameObjectShouldBeFound("x.equals=" + DEFAULT_X);
+
+        // Get all the gameObjectList where x equals to UPDATED_X
+        defaultGameObjectShouldNotBeFound("x.equals=" + UPDATED_X);
+    }
+
+    @Test
+    void getAllGameObjectsByXIsInShouldWork() {
+        // Initialize the database
+        gameObjectRepository.save(gameObject).block();
+
+        // Get all the gameObjectList where x in DEFAULT_X or UPDATED_X
+        defaultGameObjectShouldBeFound("x.in=" + DEFAULT_X + "," + UPDATED_X);
+
+        // Get all the gameObjectList where x equals to UPDATED_X
+        defaultGameObjectShouldNotBeFound("x.in=" + UPDATED_X);
+    }
+
+    @Test
+    void getAllGameObjectsByXIsNullOrNotNull() {
+        // Initialize the database
+        gameObjectRepository.save(gameObject).block();
+
+        // Get all the gameObjectList where x is not null
+        defaultGameObjectShouldBeFound("x.specified=true");
+
+        // Get all the gameObjectList where x is null
+        defaultGameObjectShouldNotBeFound("x.specified=false");
+    }
+
+    @Test
+    void getAllGameObjectsByXIsGreaterThanSomething() {
+        // Initialize the database
+        gameObjectRepository.save(gameObject).block();
+
+        // Get all the gameObjectList where x is greater than a smaller x
+        defaultGameObjectShouldBeFound("x.greaterThan=" + (DEFAULT_X - 1));
+
+        // Get all the gameObjectList where x is greater than DEFAULT_X
+        defaultGameObjectShouldNotBeFound("x.greaterThan=" + DEFAULT_X);
+    }
+
+    @Test
+    void getAllGameObjectsByYIsLessThanSomething() {
+        // Initialize the database
+        gameObjectRepository.save(gameObject).block();
+
+        // Get all the gameObjectList where y is less than DEFAULT_Y
+        defaultGameObjectShouldNotBeFound("y.lessThan=" + DEFAULT_Y);
+
+        // Get all the gameObjectList where y is less than a bigger y
+        defaultGameObjectShouldBeFound("y.lessThan=" + (DEFAULT_Y + 1));
+    }
+
+    @Test
+    void getAllGameObjectsByBitmapContentTypeContainsSomething() {
+        // Initialize the database
+        gameObjectRepository.save(gameObject).block();
+
+        // Get all the gameObjectList where bitmapContentType contains DEFAULT_BITMAP_CONTENT_TYPE
+        defaultGameObjectShouldBeFound("bitmapContentType.contains=" + DEFAULT_BITMAP_CONTENT_TYPE);
+
+        // Get all the gameObjectList where bitmapContentType doesn't contain DEFAULT_BITMAP_CONTENT_TYPE
+        defaultGameObjectShouldNotBeFound("bitmapContentType.doesNotContain=" + DEFAULT_BITMAP_CONTENT_TYPE);
+    }
+
+    @Test
+    void getAllGameObjectsByIsEnabledAndXRange() {
+        // Initialize the database
+        gameObjectRepository.save(gameObject).block();
+
+        String xRange = "&x.greaterThanOrEqual=" + DEFAULT_X + "&x.lessThan=" + UPDATED_X;
+
+        // Get all the gameObjectList where isEnabled equals to DEFAULT_IS_ENABLED in a range of x
+        defaultGameObjectShouldBeFound("isEnabled.equals=" + DEFAULT_IS_ENABLED + xRange);
+
+        // Get all the gameObjectList where isEnabled equals to UPDATED_IS_ENABLED in the same range
+        defaultGameObjectShouldNotBeFound("isEnabled.equals=" + UPDATED_IS_ENABLED + xRange);
+    }
+
+    /**
+     * Executes the search, and checks that the default entity is returned.
+     */
+    private void defaultGameObjectShouldBeFound(String filter) {
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?sort=id,desc&" + filter)
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .contentType(MediaType.APPLICATION_JSON)
+            .expectBody()
+            .jsonPath("$.[*].id")
+            .value(hasItem(gameObject.getId().intValue()))
+            .jsonPath("$.[*].x")
+            .value(hasItem(DEFAULT_X.doubleValue()))
+            .jsonPath("$.[*].y")
+            .value(hasItem(DEFAULT_Y.doubleValue()))
+            .jsonPath("$.[*].isEnabled")
+            .value(hasItem(DEFAULT_IS_ENABLED.booleanValue()));
+
+        // Check, that the count call also returns 1
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "/count?sort=id,desc&" + filter)
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .contentType(MediaType.APPLICATION_JSON)
+            .expectBody()
+            .jsonPath("$")
+            .value(is(1));
+    }
+
+    /**
+     * Executes the search, and checks that the default entity is not returned.
+     */
+    private void defaultGameObjectShouldNotBeFound(String filter) {
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?sort=id,desc&" + filter)
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .contentType(MediaType.APPLICATION_JSON)
+            .expectBody()
+            .jsonPath("$")
+            .isArray()
+            .jsonPath("$")
+            .isEmpty();
+
+        // Check, that the count call also returns 0
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "/count?sort=id,desc&" + filter)
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .contentType(MediaType.APPLICATION_JSON)
+            .expectBody()
+            .jsonPath("$")
+            .value(is(0));
+    }
+
     @Test
     void getGameObject() {
         // Initialize the database
@@ -287,8 +537,6 @@ class GameObjectResourceIT {
 
     @Test
     void putNewGameObject() throws Exception {
-        // Configure the mock search repository
-        when(mockGameObjectSearchRepository.save(any())).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
         // Initialize the database
         gameObjectRepository.save(gameObject).block();
 
@@ -322,8 +570,8 @@ class GameObjectResourceIT {
         assertThat(testGameObject.getBitmapContentType()).isEqualTo(UPDATED_BITMAP_CONTENT_TYPE);
         assertThat(testGameObject.getIsEnabled()).isEqualTo(UPDATED_IS_ENABLED);
 
-        // Validate the GameObject in Elasticsearch
-        verify(mockGameObjectSearchRepository).save(testGameObject);
+        // Validate the GameObject is queued for indexing in Elasticsearch
+        assertThat(searchOutboxEntries(testGameObject.getId())).hasSize(1);
     }
 
     @Test
@@ -346,7 +594,7 @@ class GameObjectResourceIT {
         assertThat(gameObjectList).hasSize(databaseSizeBeforeUpdate);
 
         // Validate the GameObject in Elasticsearch
-        verify(mockGameObjectSearchRepository, times(0)).save(gameObject);
+        verify(mockGameObjectSearchRepository, times(0)).save(any());
     }
 
     @Test
@@ -369,7 +617,7 @@ class GameObjectResourceIT {
         assertThat(gameObjectList).hasSize(databaseSizeBeforeUpdate);
 
         // Validate the GameObject in Elasticsearch
-        verify(mockGameObjectSearchRepository, times(0)).save(gameObject);
+        verify(mockGameObjectSearchRepository, times(0)).save(any());
     }
 
     @Test
@@ -392,7 +640,7 @@ class GameObjectResourceIT {
         assertThat(gameObjectList).hasSize(databaseSizeBeforeUpdate);
 
         // Validate the GameObject in Elasticsearch
-        verify(mockGameObjectSearchRepository, times(0)).save(gameObject);
+        verify(mockGameObjectSearchRepository, times(0)).save(any());
     }
 
     @Test
@@ -407,6 +655,7 @@ class GameObjectResourceIT {
         partialUpdatedGameObject.setId(gameObject.getId());
 
         partialUpdatedGameObject
+            .version(gameObject.getVersion())
             .y(UPDATED_Y)
             .bitmap(UPDATED_BITMAP)
             .bitmapContentType(UPDATED_BITMAP_CONTENT_TYPE)
@@ -430,6 +679,9 @@ class GameObjectResourceIT {
         assertThat(testGameObject.getBitmap()).isEqualTo(UPDATED_BITMAP);
         assertThat(testGameObject.getBitmapContentType()).isEqualTo(UPDATED_BITMAP_CONTENT_TYPE);
         assertThat(testGameObject.getIsEnabled()).isEqualTo(UPDATED_IS_ENABLED);
+
+        // Validate the GameObject is queued for indexing in Elasticsearch
+        assertThat(searchOutboxEntries(partialUpdatedGameObject.getId())).hasSize(1);
     }
 
     @Test
@@ -444,6 +696,7 @@ class GameObjectResourceIT {
         partialUpdatedGameObject.setId(gameObject.getId());
 
         partialUpdatedGameObject
+            .version(gameObject.getVersion())
             .x(UPDATED_X)
             .y(UPDATED_Y)
             .bitmap(UPDATED_BITMAP)
@@ -474,8 +727,9 @@ class GameObjectResourceIT {
     void patchNonExistingGameObject() throws Exception {
         int databaseSizeBeforeUpdate = gameObjectRepository.findAll().collectList().block().size();
         gameObject.setId(count.incrementAndGet());
+        gameObject.setVersion(0L);
 
-        // If the entity doesn't have an ID, it will throw BadRequestAlertException
+        // If the entity doesn't exist, the update matches no row and a 404 is returned
         webTestClient
             .patch()
             .uri(ENTITY_API_URL_ID, gameObject.getId())
@@ -483,14 +737,14 @@ class GameObjectResourceIT {
             .bodyValue(TestUtil.convertObjectToJsonBytes(gameObject))
             .exchange()
             .expectStatus()
-            .isBadRequest();
+            .isNotFound();
 
         // Validate the GameObject in the database
         List<GameObject> gameObjectList = gameObjectRepository.findAll().collectList().block();
         assertThat(gameObjectList).hasSize(databaseSizeBeforeUpdate);
 
         // Validate the GameObject in Elasticsearch
-        verify(mockGameObjectSearchRepository, times(0)).save(gameObject);
+        verify(mockGameObjectSearchRepository, times(0)).save(any());
     }
 
     @Test
@@ -513,7 +767,7 @@ class GameObjectResourceIT {
         assertThat(gameObjectList).hasSize(databaseSizeBeforeUpdate);
 
         // Validate the GameObject in Elasticsearch
-        verify(mockGameObjectSearchRepository, times(0)).save(gameObject);
+        verify(mockGameObjectSearchRepository, times(0)).save(any());
     }
 
     @Test
@@ -536,13 +790,76 @@ class GameObjectResourceIT {
         assertThat(gameObjectList).hasSize(databaseSizeBeforeUpdate);
 
         // Validate the GameObject in Elasticsearch
-        verify(mockGameObjectSearchRepository, times(0)).save(gameObject);
+        verify(mockGameObjectSearchRepository, times(0)).save(any());
+    }
+
+    @Test
+    void patchGameObjectWithOutdatedVersion() throws Exception {
+        // Initialize the database
+        gameObjectRepository.save(gameObject).block();
+        Long version = gameObject.getVersion();
+
+        GameObject partialUpdatedGameObject = new GameObject();
+        partialUpdatedGameObject.setId(gameObject.getId());
+        partialUpdatedGameObject.y(UPDATED_Y).version(version);
+
+        webTestClient
+            .patch()
+            .uri(ENTITY_API_URL_ID, partialUpdatedGameObject.getId())
+            .contentType(MediaType.valueOf("application/merge-patch+json"))
+            .bodyValue(TestUtil.convertObjectToJsonBytes(partialUpdatedGameObject))
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.version")
+            .isEqualTo(version + 1);
+
+        // The same version was already updated, so a second update based on it conflicts
+        partialUpdatedGameObject.x(UPDATED_X);
+        webTestClient
+            .patch()
+            .uri(ENTITY_API_URL_ID, partialUpdatedGameObject.getId())
+            .contentType(MediaType.valueOf("application/merge-patch+json"))
+            .bodyValue(TestUtil.convertObjectToJsonBytes(partialUpdatedGameObject))
+            .exchange()
+            .expectStatus()
+            .isEqualTo(409);
+
+        // Validate the GameObject in the database
+        GameObject testGameObject = gameObjectRepository.findById(gameObject.getId()).block();
+        assertThat(testGameObject.getX()).isEqualTo(DEFAULT_X);
+        assertThat(testGameObject.getY()).isEqualTo(UPDATED_Y);
+        assertThat(testGameObject.getVersion()).isEqualTo(version + 1);
+    }
+
+    @Test
+    void patchGameObjectWithoutVersion() throws Exception {
+        // Initialize the database
+        gameObjectRepository.save(gameObject).block();
+        Long version = gameObject.getVersion();
+
+        GameObject partialUpdatedGameObject = new GameObject();
+        partialUpdatedGameObject.setId(gameObject.getId());
+        partialUpdatedGameObject.y(UPDATED_Y);
+
+        webTestClient
+            .patch()
+            .uri(ENTITY_API_URL_ID, partialUpdatedGameObject.getId())
+            .contentType(MediaType.valueOf("application/merge-patch+json"))
+            .bodyValue(TestUtil.convertObjectToJsonBytes(partialUpdatedGameObject))
+            .exchange()
+            .expectStatus()
+            .isBadRequest();
+
+        // Without version, the update could overwrite a concurrent one, so it is rejected
+        GameObject testGameObject = gameObjectRepository.findById(gameObject.getId()).block();
+        assertThat(testGameObject.getY()).isEqualTo(DEFAULT_Y);
+        assertThat(testGameObject.getVersion()).isEqualTo(version);
     }
 
     @Test
     void deleteGameObject() {
-        // Configure the mock search repository
-        when(mockGameObjectSearchRepository.deleteById(anyLong())).thenReturn(Mono.empty());
         // Initialize the database
         gameObjectRepository.save(gameObject).block();
 
@@ -561,22 +878,58 @@ class GameObjectResourceIT {
         List<GameObject> gameObjectList = gameObjectRepository.findAll().collectList().block();
         assertThat(gameObjectList).hasSize(databaseSizeBeforeDelete - 1);
 
-        // Validate the GameObject in Elasticsearch
-        verify(mockGameObjectSearchRepository, times(1)).deleteById(gameObject.getId());
+        // Validate the GameObject is queued for indexing in Elasticsearch
+        assertThat(searchOutboxEntries(gameObject.getId())).hasSize(1);
     }
 
     @Test
     void searchGameObject() {
+        // Initialize the database
+        gameObjectRepository.save(gameObject).block();
         // Configure the mock search repository
-        when(mockGameObjectSearchRepository.save(any())).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        when(mockGameObjectSearchRepository.search("id:" + gameObject.getId(), 20, null))
+            .thenReturn(Mono.just(new SearchSlice<>(List.of(GameObjectSearchDocument.of(gameObject)), 1L, null)));
+
+        // Search the gameObject, without its bitmap
+        webTestClient
+            .get()
+            .uri(ENTITY_SEARCH_API_URL + "?query=id:" + gameObject.getId())
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .contentType(MediaType.APPLICATION_JSON)
+            .expectHeader()
+            .valueEquals("X-Total-Count", "1")
+            .expectHeader()
+            .doesNotExist("X-Search-After")
+            .expectBody()
+            .jsonPath("$.[*].id")
+            .value(hasItem(gameObject.getId().intValue()))
+            .jsonPath("$.[*].x")
+            .value(hasItem(DEFAULT_X.doubleValue()))
+            .jsonPath("$.[*].y")
+            .value(hasItem(DEFAULT_Y.doubleValue()))
+            .jsonPath("$.[*].bitmapContentType")
+            .value(hasItem(DEFAULT_BITMAP_CONTENT_TYPE))
+            .jsonPath("$.[0].bitmap")
+            .doesNotExist()
+            .jsonPath("$.[*].isEnabled")
+            .value(hasItem(DEFAULT_IS_ENABLED.booleanValue()));
+    }
+
+    @Test
+    void searchGameObjectWithFullEntities() {
         // Initialize the database
         gameObjectRepository.save(gameObject).block();
-        when(mockGameObjectSearchRepository.search("id:" + gameObject.getId())).thenReturn(Flux.just(gameObject));
+        // Configure the mock search repository
+        when(mockGameObjectSearchRepository.search("id:" + gameObject.getId(), 20, null))
+            .thenReturn(Mono.just(new SearchSlice<>(List.of(GameObjectSearchDocument.of(gameObject)), 1L, null)));
 
         // Search the gameObject
         webTestClient
             .get()
-            .uri(ENTITY_SEARCH_API_URL + "?query=id:" + gameObject.getId())
+            .uri(ENTITY_SEARCH_API_URL + "?query=id:" + gameObject.getId() + "&full=true")
             .exchange()
             .expectStatus()
             .isOk()
@@ -596,4 +949,85 @@ class GameObjectResourceIT {
             .jsonPath("$.[*].isEnabled")
             .value(hasItem(DEFAULT_IS_ENABLED.booleanValue()));
     }
+
+    @Test
+    void searchGameObjectAfterCursor() {
+        // Initialize the database
+        gameObjectRepository.save(gameObject).block();
+        SearchCursor after = searchCursor(1.0f, gameObject.getId() - 1);
+        SearchCursor next = searchCursor(1.0f, gameObject.getId());
+        // Configure the mock search repository
+        when(mockGameObjectSearchRepository.search("id:*", 1, after))
+            .thenReturn(Mono.just(new SearchSlice<>(List.of(GameObjectSearchDocument.of(gameObject)), null, next)));
+
+        // Search the page following the cursor
+        webTestClient
+            .get()
+            .uri(ENTITY_SEARCH_API_URL + "?query=id:*&size=1&searchAfter=" + after)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .doesNotExist("X-Total-Count")
+            .expectHeader()
+            .valueEquals("X-Search-After", next.toString())
+            .expectBody()
+            .jsonPath("$.[*].id")
+            .value(hasItem(gameObject.getId().intValue()));
+    }
+
+    @Test
+    void searchGameObjectWithInvalidCursor() {
+        webTestClient
+            .get()
+            .uri(ENTITY_SEARCH_API_URL + "?query=id:*&searchAfter=not-a-cursor")
+            .exchange()
+            .expectStatus()
+            .isBadRequest();
+    }
+
+    @Test
+    void searchNearestGameObjects() {
+        // Initialize the database
+        gameObjectRepository.save(gameObject).block();
+        // Configure the mock search repository
+        when(mockGameObjectSearchRepository.searchArea(isNull(), any(SearchArea.class), eq(3)))
+            .thenReturn(Mono.just(new SearchSlice<>(List.of(GameObjectSearchDocument.of(gameObject)), 1L, null)));
+
+        // Search the gameObjects nearest to a point
+        webTestClient
+            .get()
+            .uri(ENTITY_SEARCH_API_URL + "/nearest?x=10&y=-5&k=3")
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .valueEquals("X-Total-Count", "1")
+            .expectBody()
+            .jsonPath("$.[*].id")
+            .value(hasItem(gameObject.getId().intValue()));
+    }
+
+    @Test
+    void searchGameObjectsWithinInvalidRadius() {
+        webTestClient
+            .get()
+            .uri(ENTITY_SEARCH_API_URL + "/within?x=0&y=0&radius=-1")
+            .exchange()
+            .expectStatus()
+            .isBadRequest();
+    }
+
+    private List<SearchOutboxEntry> searchOutboxEntries(Long id) {
+        return searchOutboxRepository
+            .findAll()
+            .filter(entry -> "GameObject".equals(entry.getEntityType()) && id.equals(entry.getEntityId()))
+            .collectList()
+            .block();
+    }
+
+    private static SearchCursor searchCursor(float score, long id) {
+        String cursor = score + ":" + id;
+        return SearchCursor.valueOf(Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.getBytes(StandardCharsets.UTF_8)));
+    }
 }
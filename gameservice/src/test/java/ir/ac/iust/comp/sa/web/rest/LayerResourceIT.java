@@ -6,15 +6,25 @@ import static org.hamcrest.Matchers.is;
 import static org.mockito.Mockito.*;
 
 import ir.ac.iust.comp.sa.IntegrationTest;
+import ir.ac.iust.comp.sa.domain.Application;
 import ir.ac.iust.comp.sa.domain.Layer;
+import ir.ac.iust.comp.sa.domain.SearchOutboxEntry;
+import ir.ac.iust.comp.sa.domain.search.LayerSearchDocument;
 import ir.ac.iust.comp.sa.repository.LayerRepository;
+import ir.ac.iust.comp.sa.repository.SearchOutboxRepository;
 import ir.ac.iust.comp.sa.repository.search.LayerSearchRepository;
+import ir.ac.iust.comp.sa.repository.search.SearchArea;
+import ir.ac.iust.comp.sa.repository.search.SearchSlice;
+import ir.ac.iust.comp.sa.service.ChangeEventPublisher;
 import ir.ac.iust.comp.sa.service.EntityManager;
+import ir.ac.iust.comp.sa.service.dto.ChangeEventDTO;
 import ir.ac.iust.comp.sa.service.dto.LayerDTO;
 import ir.ac.iust.comp.sa.service.mapper.LayerMapper;
 import java.time.Duration;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -25,12 +35,10 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
 import org.springframework.data.domain.PageImpl;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.reactive.server.WebTestClient;
 import org.springframework.util.Base64Utils;
-import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 /**
@@ -77,6 +85,12 @@ class LayerResourceIT {
     @Autowired
     private LayerSearchRepository mockLayerSearchRepository;
 
+    @Autowired
+    private SearchOutboxRepository searchOutboxRepository;
+
+    @Autowired
+    private ChangeEventPublisher changeEventPublisher;
+
     @Autowired
     private EntityManager em;
 
@@ -139,8 +153,6 @@ class LayerResourceIT {
     @Test
     void createLayer() throws Exception {
         int databaseSizeBeforeCreate = layerRepository.findAll().collectList().block().size();
-        // Configure the mock search repository
-        when(mockLayerSearchRepository.save(any())).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
         // Create the Layer
         LayerDTO layerDTO = layerMapper.toDto(layer);
         webTestClient
@@ -162,8 +174,8 @@ class LayerResourceIT {
         assertThat(testLayer.getBufferContentType()).isEqualTo(DEFAULT_BUFFER_CONTENT_TYPE);
         assertThat(testLayer.getIsEnabled()).isEqualTo(DEFAULT_IS_ENABLED);
 
-        // Validate the Layer in Elasticsearch
-        verify(mockLayerSearchRepository, times(1)).save(testLayer);
+        // Validate the Layer is queued for indexing in Elasticsearch
+        assertThat(searchOutboxEntries(testLayer.getId())).hasSize(1);
     }
 
     @Test
@@ -189,7 +201,7 @@ class LayerResourceIT {
         assertThat(layerList).hasSize(databaseSizeBeforeCreate);
 
         // Validate the Layer in Elasticsearch
-        verify(mockLayerSearchRepository, times(0)).save(layer);
+        verify(mockLayerSearchRepository, times(0)).save(any());
     }
 
     @Test
@@ -222,6 +234,181 @@ class LayerResourceIT {
             .value(hasItem(DEFAULT_IS_ENABLED.booleanValue()));
     }
 
+    @Test
+    void getLayersByIdFiltering() {
+        // Initialize the database
+        layerRepository.save(layer).block();
+
+        Long id = layer.getId();
+
+        defaultLayerShouldBeFound("id.equals=" + id);
+        defaultLayerShouldNotBeFound("id.notEquals=" + id);
+
+        defaultLayerShouldBeFound("id.greaterThanOrEqual=" + id);
+        defaultLayerShouldNotBeFound("id.greaterThan=" + id);
+
+        defaultLayerShouldBeFound("id.lessThanOrEqual=" + id);
+        defaultLayerShouldNotBeFound("id.lessThan=" + id);
+    }
+
+    @Test
+    void getAllLayersByXIsEqualToSomething() {
+        // Initialize the database
+        layerRepository.save(layer).block();
+
+        // Get all the layerList where x equals to DEFAULT_X
+        defaultLayerShouldBeFound("x.equals=" + DEFAULT_X);
+
+        // Get all the layerList where x equals to UPDATED_X
+        defaultLayerShouldNotBeFound("x.equals=" + UPDATED_X);
+    }
+
+    @Test
+    void getAllLayersByXIsInShouldWork() {
+        // Initialize the database
+        layerRepository.save(layer).block();
+
+        // Get all the layerList where x in DEFAULT_X or UPDATED_X
+        defaultLayerShouldBeFound("x.in=" + DEFAULT_X + "," + UPDATED_X);
+
+        // Get all the layerList where x equals to UPDATED_X
+        defaultLayerShouldNotBeFound("x.in=" + UPDATED_X);
+    }
+
+    @Test
+    void getAllLayersByXIsNullOrNotNull() {
+        // Initialize the database
+        layerRepository.save(layer).block();
+
+        // Get all the layerList where x is not null
+        defaultLayerShouldBeFound("x.specified=true");
+
+        // Get all the layerList where x is null
+        defaultLayerShouldNotBeFound("x.specified=false");
+    }
+
+    @Test
+    void getAllLayersByXIsGreaterThanSomething() {
+        // Initialize the database
+        layerRepository.save(layer).block();
+
+        // Get all the layerList where x is greater than a smaller x
+        defaultLayerShouldBeFound("x.greaterThan=" + (DEFAULT_X - 1));
+
+        // Get all the layerList where x is greater than DEFAULT_X
+        defaultLayerShouldNotBeFound("x.greaterThan=" + DEFAULT_X);
+    }
+
+    @Test
+    void getAllLayersByYIsLessThanSomething() {
+        // Initialize the database
+        layerRepository.save(layer).block();
+
+        // Get all the layerList where y is less than DEFAULT_Y
+        defaultLayerShouldNotBeFound("y.lessThan=" + DEFAULT_Y);
+
+        // Get all the layerList where y is less than a bigger y
+        defaultLayerShouldBeFound("y.lessThan=" + (DEFAULT_Y + 1));
+    }
+
+    @Test
+    void getAllLayersByBufferContentTypeContainsSomething() {
+        // Initialize the database
+        layerRepository.save(layer).block();
+
+        // Get all the layerList where bufferContentType contains DEFAULT_BUFFER_CONTENT_TYPE
+        defaultLayerShouldBeFound("bufferContentType.contains=" + DEFAULT_BUFFER_CONTENT_TYPE);
+
+        // Get all the layerList where bufferContentType doesn't contain DEFAULT_BUFFER_CONTENT_TYPE
+        defaultLayerShouldNotBeFound("bufferContentType.doesNotContain=" + DEFAULT_BUFFER_CONTENT_TYPE);
+    }
+
+    @Test
+    void getAllLayersByIsEnabledAndXRange() {
+        // Initialize the database
+        layerRepository.save(layer).block();
+
+        String xRange = "&x.greaterThanOrEqual=" + DEFAULT_X + "&x.lessThan=" + UPDATED_X;
+
+        // Get all the layerList where isEnabled equals to DEFAULT_IS_ENABLED in a range of x
+        defaultLayerShouldBeFound("isEnabled.equals=" + DEFAULT_IS_ENABLED + xRange);
+
+        // Get all the layerList where isEnabled equals to UPDATED_IS_ENABLED in the same range
+        defaultLayerShouldNotBeFound("isEnabled.equals=" + UPDATED_IS_ENABLED + xRange);
+    }
+
+    /**
+     * Executes the search, and checks that the default entity is returned.
+     */
+    private void defaultLayerShouldBeFound(String filter) {
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?sort=id,desc&" + filter)
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .contentType(MediaType.APPLICATION_JSON)
+            .expectBody()
+            .jsonPath("$.[*].id")
+            .value(hasItem(layer.getId().intValue()))
+            .jsonPath("$.[*].x")
+            .value(hasItem(DEFAULT_X.doubleValue()))
+            .jsonPath("$.[*].y")
+            .value(hasItem(DEFAULT_Y.doubleValue()))
+            .jsonPath("$.[*].isEnabled")
+            .value(hasItem(DEFAULT_IS_ENABLED.booleanValue()));
+
+        // Check, that the count call also returns 1
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "/count?sort=id,desc&" + filter)
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .contentType(MediaType.APPLICATION_JSON)
+            .expectBody()
+            .jsonPath("$")
+            .value(is(1));
+    }
+
+    /**
+     * Executes the search, and checks that the default entity is not returned.
+     */
+    private void defaultLayerShouldNotBeFound(String filter) {
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?sort=id,desc&" + filter)
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .contentType(MediaType.APPLICATION_JSON)
+            .expectBody()
+            .jsonPath("$")
+            .isArray()
+            .jsonPath("$")
+            .isEmpty();
+
+        // Check, that the count call also returns 0
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "/count?sort=id,desc&" + filter)
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .contentType(MediaType.APPLICATION_JSON)
+            .expectBody()
+            .jsonPath("$")
+            .value(is(0));
+    }
+
     @Test
     void getLayer() {
         // Initialize the database
@@ -266,8 +453,6 @@ class LayerResourceIT {
 
     @Test
     void putNewLayer() throws Exception {
-        // Configure the mock search repository
-        when(mockLayerSearchRepository.save(any())).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
         // Initialize the database
         layerRepository.save(layer).block();
 
@@ -302,8 +487,8 @@ class LayerResourceIT {
         assertThat(testLayer.getBufferContentType()).isEqualTo(UPDATED_BUFFER_CONTENT_TYPE);
         assertThat(testLayer.getIsEnabled()).isEqualTo(UPDATED_IS_ENABLED);
 
-        // Validate the Layer in Elasticsearch
-        verify(mockLayerSearchRepository).save(testLayer);
+        // Validate the Layer is queued for indexing in Elasticsearch
+        assertThat(searchOutboxEntries(testLayer.getId())).hasSize(1);
     }
 
     @Test
@@ -329,7 +514,7 @@ class LayerResourceIT {
         assertThat(layerList).hasSize(databaseSizeBeforeUpdate);
 
         // Validate the Layer in Elasticsearch
-        verify(mockLayerSearchRepository, times(0)).save(layer);
+        verify(mockLayerSearchRepository, times(0)).save(any());
     }
 
     @Test
@@ -355,7 +540,7 @@ class LayerResourceIT {
         assertThat(layerList).hasSize(databaseSizeBeforeUpdate);
 
         // Validate the Layer in Elasticsearch
-        verify(mockLayerSearchRepository, times(0)).save(layer);
+        verify(mockLayerSearchRepository, times(0)).save(any());
     }
 
     @Test
@@ -381,7 +566,7 @@ class LayerResourceIT {
         assertThat(layerList).hasSize(databaseSizeBeforeUpdate);
 
         // Validate the Layer in Elasticsearch
-        verify(mockLayerSearchRepository, times(0)).save(layer);
+        verify(mockLayerSearchRepository, times(0)).save(any());
     }
 
     @Test
@@ -395,7 +580,11 @@ class LayerResourceIT {
         Layer partialUpdatedLayer = new Layer();
         partialUpdatedLayer.setId(layer.getId());
 
-        partialUpdatedLayer.buffer(UPDATED_BUFFER).bufferContentType(UPDATED_BUFFER_CONTENT_TYPE).isEnabled(UPDATED_IS_ENABLED);
+        partialUpdatedLayer
+            .version(layer.getVersion())
+            .buffer(UPDATED_BUFFER)
+            .bufferContentType(UPDATED_BUFFER_CONTENT_TYPE)
+            .isEnabled(UPDATED_IS_ENABLED);
 
         webTestClient
             .patch()
@@ -415,6 +604,9 @@ class LayerResourceIT {
         assertThat(testLayer.getBuffer()).isEqualTo(UPDATED_BUFFER);
         assertThat(testLayer.getBufferContentType()).isEqualTo(UPDATED_BUFFER_CONTENT_TYPE);
         assertThat(testLayer.getIsEnabled()).isEqualTo(UPDATED_IS_ENABLED);
+
+        // Validate the Layer is queued for indexing in Elasticsearch
+        assertThat(searchOutboxEntries(partialUpdatedLayer.getId())).hasSize(1);
     }
 
     @Test
@@ -429,6 +621,7 @@ class LayerResourceIT {
         partialUpdatedLayer.setId(layer.getId());
 
         partialUpdatedLayer
+            .version(layer.getVersion())
             .x(UPDATED_X)
             .y(UPDATED_Y)
             .buffer(UPDATED_BUFFER)
@@ -459,11 +652,12 @@ class LayerResourceIT {
     void patchNonExistingLayer() throws Exception {
         int databaseSizeBeforeUpdate = layerRepository.findAll().collectList().block().size();
         layer.setId(count.incrementAndGet());
+        layer.setVersion(0L);
 
         // Create the Layer
         LayerDTO layerDTO = layerMapper.toDto(layer);
 
-        // If the entity doesn't have an ID, it will throw BadRequestAlertException
+        // If the entity doesn't exist, the update matches no row and a 404 is returned
         webTestClient
             .patch()
             .uri(ENTITY_API_URL_ID, layerDTO.getId())
@@ -471,14 +665,14 @@ class LayerResourceIT {
             .bodyValue(TestUtil.convertObjectToJsonBytes(layerDTO))
             .exchange()
             .expectStatus()
-            .isBadRequest();
+            .isNotFound();
 
         // Validate the Layer in the database
         List<Layer> layerList = layerRepository.findAll().collectList().block();
         assertThat(layerList).hasSize(databaseSizeBeforeUpdate);
 
         // Validate the Layer in Elasticsearch
-        verify(mockLayerSearchRepository, times(0)).save(layer);
+        verify(mockLayerSearchRepository, times(0)).save(any());
     }
 
     @Test
@@ -504,7 +698,7 @@ class LayerResourceIT {
         assertThat(layerList).hasSize(databaseSizeBeforeUpdate);
 
         // Validate the Layer in Elasticsearch
-        verify(mockLayerSearchRepository, times(0)).save(layer);
+        verify(mockLayerSearchRepository, times(0)).save(any());
     }
 
     @Test
@@ -530,14 +724,122 @@ class LayerResourceIT {
         assertThat(layerList).hasSize(databaseSizeBeforeUpdate);
 
         // Validate the Layer in Elasticsearch
-        verify(mockLayerSearchRepository, times(0)).save(layer);
+        verify(mockLayerSearchRepository, times(0)).save(any());
+    }
+
+    @Test
+    void patchLayerWithOutdatedVersion() throws Exception {
+        // Initialize the database
+        layerRepository.save(layer).block();
+        Long version = layer.getVersion();
+
+        Layer partialUpdatedLayer = new Layer();
+        partialUpdatedLayer.setId(layer.getId());
+        partialUpdatedLayer.y(UPDATED_Y).version(version);
+
+        webTestClient
+            .patch()
+            .uri(ENTITY_API_URL_ID, partialUpdatedLayer.getId())
+            .contentType(MediaType.valueOf("application/merge-patch+json"))
+            .bodyValue(TestUtil.convertObjectToJsonBytes(partialUpdatedLayer))
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.version")
+            .isEqualTo(version + 1);
+
+        // The same version was already updated, so a second update based on it conflicts
+        partialUpdatedLayer.x(UPDATED_X);
+        webTestClient
+            .patch()
+            .uri(ENTITY_API_URL_ID, partialUpdatedLayer.getId())
+            .contentType(MediaType.valueOf("application/merge-patch+json"))
+            .bodyValue(TestUtil.convertObjectToJsonBytes(partialUpdatedLayer))
+            .exchange()
+            .expectStatus()
+            .isEqualTo(409);
+
+        // Validate the Layer in the database
+        Layer testLayer = layerRepository.findById(layer.getId()).block();
+        assertThat(testLayer.getX()).isEqualTo(DEFAULT_X);
+        assertThat(testLayer.getY()).isEqualTo(UPDATED_Y);
+        assertThat(testLayer.getVersion()).isEqualTo(version + 1);
+    }
+
+    @Test
+    void patchLayerWithoutVersion() throws Exception {
+        // Initialize the database
+        layerRepository.save(layer).block();
+        Long version = layer.getVersion();
+
+        Layer partialUpdatedLayer = new Layer();
+        partialUpdatedLayer.setId(layer.getId());
+        partialUpdatedLayer.y(UPDATED_Y);
+
+        webTestClient
+            .patch()
+            .uri(ENTITY_API_URL_ID, partialUpdatedLayer.getId())
+            .contentType(MediaType.valueOf("application/merge-patch+json"))
+            .bodyValue(TestUtil.convertObjectToJsonBytes(partialUpdatedLayer))
+            .exchange()
+            .expectStatus()
+            .isBadRequest();
+
+        // Without version, the update could overwrite a concurrent one, so it is rejected
+        Layer testLayer = layerRepository.findById(layer.getId()).block();
+        assertThat(testLayer.getY()).isEqualTo(DEFAULT_Y);
+        assertThat(testLayer.getVersion()).isEqualTo(version);
+    }
+
+    @Test
+    void moveLayerPublishesChangeEvent() throws Exception {
+        // Initialize the database
+        layerRepository.save(layer).block();
+        CompletableFuture<ChangeEventDTO> event = changeEventPublisher.events().next().toFuture();
+
+        // Move the layer using partial update
+        Layer partialUpdatedLayer = new Layer().x(UPDATED_X).y(UPDATED_Y).version(layer.getVersion());
+        partialUpdatedLayer.setId(layer.getId());
+
+        webTestClient
+            .patch()
+            .uri(ENTITY_API_URL_ID, partialUpdatedLayer.getId())
+            .contentType(MediaType.valueOf("application/merge-patch+json"))
+            .bodyValue(TestUtil.convertObjectToJsonBytes(partialUpdatedLayer))
+            .exchange()
+            .expectStatus()
+            .isOk();
+
+        ChangeEventDTO moved = event.get(5, TimeUnit.SECONDS);
+        assertThat(moved.getEntity()).isEqualTo(ChangeEventDTO.LAYER);
+        assertThat(moved.getType()).isEqualTo(ChangeEventDTO.Type.MOVED);
+        assertThat(moved.getId()).isEqualTo(layer.getId());
+        assertThat(moved.getX()).isEqualTo(UPDATED_X);
+        assertThat(moved.getY()).isEqualTo(UPDATED_Y);
+        assertThat(moved.getIsEnabled()).isEqualTo(DEFAULT_IS_ENABLED);
+    }
+
+    @Test
+    void deleteLayerPublishesChangeEvent() throws Exception {
+        // Initialize the database with a layer of an application
+        Application application = em.insert(ApplicationResourceIT.createEntity(em)).block();
+        layerRepository.save(layer.applicationId(application.getId())).block();
+        CompletableFuture<ChangeEventDTO> event = changeEventPublisher.events().next().toFuture();
+
+        webTestClient.delete().uri(ENTITY_API_URL_ID, layer.getId()).exchange().expectStatus().isNoContent();
+
+        ChangeEventDTO deleted = event.get(5, TimeUnit.SECONDS);
+        assertThat(deleted.getType()).isEqualTo(ChangeEventDTO.Type.DELETED);
+        assertThat(deleted.getId()).isEqualTo(layer.getId());
+        assertThat(deleted.getApplicationId()).isEqualTo(application.getId());
+        assertThat(deleted.getX()).isNull();
+
+        ApplicationResourceIT.deleteEntities(em);
     }
 
     @Test
     void deleteLayer() {
-        // Configure the mock search repository
-        when(mockLayerSearchRepository.save(any())).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
-        when(mockLayerSearchRepository.deleteById(anyLong())).thenReturn(Mono.empty());
         // Initialize the database
         layerRepository.save(layer).block();
 
@@ -556,23 +858,58 @@ class LayerResourceIT {
         List<Layer> layerList = layerRepository.findAll().collectList().block();
         assertThat(layerList).hasSize(databaseSizeBeforeDelete - 1);
 
-        // Validate the Layer in Elasticsearch
-        verify(mockLayerSearchRepository, times(1)).deleteById(layer.getId());
+        // Validate the Layer is queued for indexing in Elasticsearch
+        assertThat(searchOutboxEntries(layer.getId())).hasSize(1);
     }
 
     @Test
     void searchLayer() {
+        // Initialize the database
+        layerRepository.save(layer).block();
         // Configure the mock search repository
-        when(mockLayerSearchRepository.save(any())).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
-        when(mockLayerSearchRepository.count()).thenReturn(Mono.just(1L));
+        when(mockLayerSearchRepository.search("id:" + layer.getId(), 20, null))
+            .thenReturn(Mono.just(new SearchSlice<>(List.of(LayerSearchDocument.of(layer)), 1L, null)));
+
+        // Search the layer, without its buffer
+        webTestClient
+            .get()
+            .uri(ENTITY_SEARCH_API_URL + "?query=id:" + layer.getId())
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .contentType(MediaType.APPLICATION_JSON)
+            .expectHeader()
+            .valueEquals("X-Total-Count", "1")
+            .expectHeader()
+            .doesNotExist("X-Search-After")
+            .expectBody()
+            .jsonPath("$.[*].id")
+            .value(hasItem(layer.getId().intValue()))
+            .jsonPath("$.[*].x")
+            .value(hasItem(DEFAULT_X.doubleValue()))
+            .jsonPath("$.[*].y")
+            .value(hasItem(DEFAULT_Y.doubleValue()))
+            .jsonPath("$.[*].bufferContentType")
+            .value(hasItem(DEFAULT_BUFFER_CONTENT_TYPE))
+            .jsonPath("$.[0].buffer")
+            .doesNotExist()
+            .jsonPath("$.[*].isEnabled")
+            .value(hasItem(DEFAULT_IS_ENABLED.booleanValue()));
+    }
+
+    @Test
+    void searchLayerWithFullEntities() {
         // Initialize the database
         layerRepository.save(layer).block();
-        when(mockLayerSearchRepository.search("id:" + layer.getId(), PageRequest.of(0, 20))).thenReturn(Flux.just(layer));
+        // Configure the mock search repository
+        when(mockLayerSearchRepository.search("id:" + layer.getId(), 20, null))
+            .thenReturn(Mono.just(new SearchSlice<>(List.of(LayerSearchDocument.of(layer)), 1L, null)));
 
         // Search the layer
         webTestClient
             .get()
-            .uri(ENTITY_SEARCH_API_URL + "?query=id:" + layer.getId())
+            .uri(ENTITY_SEARCH_API_URL + "?query=id:" + layer.getId() + "&full=true")
             .exchange()
             .expectStatus()
             .isOk()
@@ -592,4 +929,44 @@ class LayerResourceIT {
             .jsonPath("$.[*].isEnabled")
             .value(hasItem(DEFAULT_IS_ENABLED.booleanValue()));
     }
+
+    @Test
+    void searchLayersInBox() {
+        // Initialize the database
+        layerRepository.save(layer).block();
+        // Configure the mock search repository
+        when(mockLayerSearchRepository.searchArea(eq("isEnabled:true"), any(SearchArea.class), eq(20)))
+            .thenReturn(Mono.just(new SearchSlice<>(List.of(LayerSearchDocument.of(layer)), 1L, null)));
+
+        // Search the layers in a box
+        webTestClient
+            .get()
+            .uri(ENTITY_SEARCH_API_URL + "/box?minX=-100&minY=-100&maxX=100&maxY=100&query=isEnabled:true")
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .valueEquals("X-Total-Count", "1")
+            .expectBody()
+            .jsonPath("$.[*].id")
+            .value(hasItem(layer.getId().intValue()));
+    }
+
+    @Test
+    void searchLayersInEmptyBox() {
+        webTestClient
+            .get()
+            .uri(ENTITY_SEARCH_API_URL + "/box?minX=100&minY=0&maxX=0&maxY=100")
+            .exchange()
+            .expectStatus()
+            .isBadRequest();
+    }
+
+    private List<SearchOutboxEntry> searchOutboxEntries(Long id) {
+        return searchOutboxRepository
+            .findAll()
+            .filter(entry -> "Layer".equals(entry.getEntityType()) && id.equals(entry.getEntityId()))
+            .collectList()
+            .block();
+    }
 }
@@ -7,9 +7,12 @@ import static org.mockito.Mockito.*;
 
 import ir.ac.iust.comp.sa.IntegrationTest;
 import ir.ac.iust.comp.sa.domain.ModificationType;
+import ir.ac.iust.comp.sa.domain.SearchOutboxEntry;
 import ir.ac.iust.comp.sa.domain.enumeration.EnumModType;
 import ir.ac.iust.comp.sa.repository.ModificationTypeRepository;
+import ir.ac.iust.comp.sa.repository.SearchOutboxRepository;
 import ir.ac.iust.comp.sa.repository.search.ModificationTypeSearchRepository;
+import ir.ac.iust.comp.sa.repository.search.SearchSlice;
 import ir.ac.iust.comp.sa.service.EntityManager;
 import java.time.Duration;
 import java.util.List;
@@ -26,7 +29,6 @@ import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWeb
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.reactive.server.WebTestClient;
-import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 /**
@@ -59,6 +61,9 @@ class ModificationTypeResourceIT {
     @Autowired
     private ModificationTypeSearchRepository mockModificationTypeSearchRepository;
 
+    @Autowired
+    private SearchOutboxRepository searchOutboxRepository;
+
     @Autowired
     private EntityManager em;
 
@@ -111,8 +116,6 @@ class ModificationTypeResourceIT {
     @Test
     void createModificationType() throws Exception {
         int databaseSizeBeforeCreate = modificationTypeRepository.findAll().collectList().block().size();
-        // Configure the mock search repository
-        when(mockModificationTypeSearchRepository.save(any())).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
         // Create the ModificationType
         webTestClient
             .post()
@@ -129,8 +132,8 @@ class ModificationTypeResourceIT {
         ModificationType testModificationType = modificationTypeList.get(modificationTypeList.size() - 1);
         assertThat(testModificationType.getType()).isEqualTo(DEFAULT_TYPE);
 
-        // Validate the ModificationType in Elasticsearch
-        verify(mockModificationTypeSearchRepository, times(1)).save(testModificationType);
+        // Validate the ModificationType is queued for indexing in Elasticsearch
+        assertThat(searchOutboxEntries(testModificationType.getId())).hasSize(1);
     }
 
     @Test
@@ -242,8 +245,6 @@ class ModificationTypeResourceIT {
 
     @Test
     void putNewModificationType() throws Exception {
-        // Configure the mock search repository
-        when(mockModificationTypeSearchRepository.save(any())).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
         // Initialize the database
         modificationTypeRepository.save(modificationType).block();
 
@@ -268,8 +269,8 @@ class ModificationTypeResourceIT {
         ModificationType testModificationType = modificationTypeList.get(modificationTypeList.size() - 1);
         assertThat(testModificationType.getType()).isEqualTo(UPDATED_TYPE);
 
-        // Validate the ModificationType in Elasticsearch
-        verify(mockModificationTypeSearchRepository).save(testModificationType);
+        // Validate the ModificationType is queued for indexing in Elasticsearch
+        assertThat(searchOutboxEntries(testModificationType.getId())).hasSize(1);
     }
 
     @Test
@@ -366,6 +367,9 @@ class ModificationTypeResourceIT {
         assertThat(modificationTypeList).hasSize(databaseSizeBeforeUpdate);
         ModificationType testModificationType = modificationTypeList.get(modificationTypeList.size() - 1);
         assertThat(testModificationType.getType()).isEqualTo(DEFAULT_TYPE);
+
+        // Validate the ModificationType is queued for indexing in Elasticsearch
+        assertThat(searchOutboxEntries(partialUpdatedModificationType.getId())).hasSize(1);
     }
 
     @Test
@@ -468,8 +472,6 @@ class ModificationTypeResourceIT {
 
     @Test
     void deleteModificationType() {
-        // Configure the mock search repository
-        when(mockModificationTypeSearchRepository.deleteById(anyLong())).thenReturn(Mono.empty());
         // Initialize the database
         modificationTypeRepository.save(modificationType).block();
 
@@ -488,17 +490,17 @@ class ModificationTypeResourceIT {
         List<ModificationType> modificationTypeList = modificationTypeRepository.findAll().collectList().block();
         assertThat(modificationTypeList).hasSize(databaseSizeBeforeDelete - 1);
 
-        // Validate the ModificationType in Elasticsearch
-        verify(mockModificationTypeSearchRepository, times(1)).deleteById(modificationType.getId());
+        // Validate the ModificationType is queued for indexing in Elasticsearch
+        assertThat(searchOutboxEntries(modificationType.getId())).hasSize(1);
     }
 
     @Test
     void searchModificationType() {
-        // Configure the mock search repository
-        when(mockModificationTypeSearchRepository.save(any())).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
         // Initialize the database
         modificationTypeRepository.save(modificationType).block();
-        when(mockModificationTypeSearchRepository.search("id:" + modificationType.getId())).thenReturn(Flux.just(modificationType));
+        // Configure the mock search repository
+        when(mockModificationTypeSearchRepository.search("id:" + modificationType.getId(), 20, null))
+            .thenReturn(Mono.just(new SearchSlice<>(List.of(modificationType), 1L, null)));
 
         // Search the modificationType
         webTestClient
@@ -509,10 +511,22 @@ class ModificationTypeResourceIT {
             .isOk()
             .expectHeader()
             .contentType(MediaType.APPLICATION_JSON)
+            .expectHeader()
+            .valueEquals("X-Total-Count", "1")
+            .expectHeader()
+            .doesNotExist("X-Search-After")
             .expectBody()
             .jsonPath("$.[*].id")
             .value(hasItem(modificationType.getId().intValue()))
             .jsonPath("$.[*].type")
             .value(hasItem(DEFAULT_TYPE.toString()));
     }
+
+    private List<SearchOutboxEntry> searchOutboxEntries(Long id) {
+        return searchOutboxRepository
+            .findAll()
+            .filter(entry -> "ModificationType".equals(entry.getEntityType()) && id.equals(entry.getEntityId()))
+            .collectList()
+            .block();
+    }
 }
@@ -7,8 +7,11 @@ import static org.mockito.Mockito.*;
 
 import ir.ac.iust.comp.sa.IntegrationTest;
 import ir.ac.iust.comp.sa.domain.MyApplication;
+import ir.ac.iust.comp.sa.domain.SearchOutboxEntry;
 import ir.ac.iust.comp.sa.repository.MyApplicationRepository;
+import ir.ac.iust.comp.sa.repository.SearchOutboxRepository;
 import ir.ac.iust.comp.sa.repository.search.MyApplicationSearchRepository;
+import ir.ac.iust.comp.sa.repository.search.SearchSlice;
 import ir.ac.iust.comp.sa.service.EntityManager;
 import java.time.Duration;
 import java.util.List;
@@ -25,7 +28,6 @@ import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWeb
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.reactive.server.WebTestClient;
-import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 /**
@@ -55,6 +57,9 @@ class MyApplicationResourceIT {
     @Autowired
     private MyApplicationSearchRepository mockMyApplicationSearchRepository;
 
+    @Autowired
+    private SearchOutboxRepository searchOutboxRepository;
+
     @Autowired
     private EntityManager em;
 
@@ -107,8 +112,6 @@ class MyApplicationResourceIT {
     @Test
     void createMyApplication() throws Exception {
         int databaseSizeBeforeCreate = myApplicationRepository.findAll().collectList().block().size();
-        // Configure the mock search repository
-        when(mockMyApplicationSearchRepository.save(any())).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
         // Create the MyApplication
         webTestClient
             .post()
@@ -124,8 +127,8 @@ class MyApplicationResourceIT {
         assertThat(myApplicationList).hasSize(databaseSizeBeforeCreate + 1);
         MyApplication testMyApplication = myApplicationList.get(myApplicationList.size() - 1);
 
-        // Validate the MyApplication in Elasticsearch
-        verify(mockMyApplicationSearchRepository, times(1)).save(testMyApplication);
+        // Validate the MyApplication is queued for indexing in Elasticsearch
+        assertThat(searchOutboxEntries(testMyApplication.getId())).hasSize(1);
     }
 
     @Test
@@ -232,8 +235,6 @@ class MyApplicationResourceIT {
 
     @Test
     void putNewMyApplication() throws Exception {
-        // Configure the mock search repository
-        when(mockMyApplicationSearchRepository.save(any())).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
         // Initialize the database
         myApplicationRepository.save(myApplication).block();
 
@@ -256,8 +257,8 @@ class MyApplicationResourceIT {
         assertThat(myApplicationList).hasSize(databaseSizeBeforeUpdate);
         MyApplication testMyApplication = myApplicationList.get(myApplicationList.size() - 1);
 
-        // Validate the MyApplication in Elasticsearch
-        verify(mockMyApplicationSearchRepository).save(testMyApplication);
+        // Validate the MyApplication is queued for indexing in Elasticsearch
+        assertThat(searchOutboxEntries(testMyApplication.getId())).hasSize(1);
     }
 
     @Test
@@ -353,6 +354,9 @@ class MyApplicationResourceIT {
         List<MyApplication> myApplicationList = myApplicationRepository.findAll().collectList().block();
         assertThat(myApplicationList).hasSize(databaseSizeBeforeUpdate);
         MyApplication testMyApplication = myApplicationList.get(myApplicationList.size() - 1);
+
+        // Validate the MyApplication is queued for indexing in Elasticsearch
+        assertThat(searchOutboxEntries(partialUpdatedMyApplication.getId())).hasSize(1);
     }
 
     @Test
@@ -452,8 +456,6 @@ class MyApplicationResourceIT {
 
     @Test
     void deleteMyApplication() {
-        // Configure the mock search repository
-        when(mockMyApplicationSearchRepository.deleteById(anyLong())).thenReturn(Mono.empty());
         // Initialize the database
         myApplicationRepository.save(myApplication).block();
 
@@ -472,17 +474,17 @@ class MyApplicationResourceIT {
         List<MyApplication> myApplicationList = myApplicationRepository.findAll().collectList().block();
         assertThat(myApplicationList).hasSize(databaseSizeBeforeDelete - 1);
 
-        // Validate the MyApplication in Elasticsearch
-        verify(mockMyApplicationSearchRepository, times(1)).deleteById(myApplication.getId());
+        // Validate the MyApplication is queued for indexing in Elasticsearch
+        assertThat(searchOutboxEntries(myApplication.getId())).hasSize(1);
     }
 
     @Test
     void searchMyApplication() {
-        // Configure the mock search repository
-        when(mockMyApplicationSearchRepository.save(any())).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
         // Initialize the database
         myApplicationRepository.save(myApplication).block();
-        when(mockMyApplicationSearchRepository.search("id:" + myApplication.getId())).thenReturn(Flux.just(myApplication));
+        // Configure the mock search repository
+        when(mockMyApplicationSearchRepository.search("id:" + myApplication.getId(), 20, null))
+            .thenReturn(Mono.just(new SearchSlice<>(List.of(myApplication), 1L, null)));
 
         // Search the myApplication
         webTestClient
@@ -493,8 +495,20 @@ class MyApplicationResourceIT {
             .isOk()
             .expectHeader()
             .contentType(MediaType.APPLICATION_JSON)
+            .expectHeader()
+            .valueEquals("X-Total-Count", "1")
+            .expectHeader()
+            .doesNotExist("X-Search-After")
             .expectBody()
             .jsonPath("$.[*].id")
             .value(hasItem(myApplication.getId().intValue()));
     }
+
+    private List<SearchOutboxEntry> searchOutboxEntries(Long id) {
+        return searchOutboxRepository
+            .findAll()
+            .filter(entry -> "MyApplication".equals(entry.getEntityType()) && id.equals(entry.getEntityId()))
+            .collectList()
+            .block();
+    }
 }
@@ -7,8 +7,11 @@ import static org.mockito.Mockito.*;
 
 import ir.ac.iust.comp.sa.IntegrationTest;
 import ir.ac.iust.comp.sa.domain.MyGameObject;
+import ir.ac.iust.comp.sa.domain.SearchOutboxEntry;
 import ir.ac.iust.comp.sa.repository.MyGameObjectRepository;
+import ir.ac.iust.comp.sa.repository.SearchOutboxRepository;
 import ir.ac.iust.comp.sa.repository.search.MyGameObjectSearchRepository;
+import ir.ac.iust.comp.sa.repository.search.SearchSlice;
 import ir.ac.iust.comp.sa.service.EntityManager;
 import java.time.Duration;
 import java.util.List;
@@ -25,7 +28,6 @@ import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWeb
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.reactive.server.WebTestClient;
-import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 /**
@@ -55,6 +57,9 @@ class MyGameObjectResourceIT {
     @Autowired
     private MyGameObjectSearchRepository mockMyGameObjectSearchRepository;
 
+    @Autowired
+    private SearchOutboxRepository searchOutboxRepository;
+
     @Autowired
     private EntityManager em;
 
@@ -107,8 +112,6 @@ class MyGameObjectResourceIT {
     @Test
     void createMyGameObject() throws Exception {
         int databaseSizeBeforeCreate = myGameObjectRepository.findAll().collectList().block().size();
-        // Configure the mock search repository
-        when(mockMyGameObjectSearchRepository.save(any())).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
         // Create the MyGameObject
         webTestClient
             .post()
@@ -124,8 +127,8 @@ class MyGameObjectResourceIT {
         assertThat(myGameObjectList).hasSize(databaseSizeBeforeCreate + 1);
         MyGameObject testMyGameObject = myGameObjectList.get(myGameObjectList.size() - 1);
 
-        // Validate the MyGameObject in Elasticsearch
-        verify(mockMyGameObjectSearchRepository, times(1)).save(testMyGameObject);
+        // Validate the MyGameObject is queued for indexing in Elasticsearch
+        assertThat(searchOutboxEntries(testMyGameObject.getId())).hasSize(1);
     }
 
     @Test
@@ -232,8 +235,6 @@ class MyGameObjectResourceIT {
 
     @Test
     void putNewMyGameObject() throws Exception {
-        // Configure the mock search repository
-        when(mockMyGameObjectSearchRepository.save(any())).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
         // Initialize the database
         myGameObjectRepository.save(myGameObject).block();
 
@@ -256,8 +257,8 @@ class MyGameObjectResourceIT {
         assertThat(myGameObjectList).hasSize(databaseSizeBeforeUpdate);
         MyGameObject testMyGameObject = myGameObjectList.get(myGameObjectList.size() - 1);
 
-        // Validate the MyGameObject in Elasticsearch
-        verify(mockMyGameObjectSearchRepository).save(testMyGameObject);
+        // Validate the MyGameObject is queued for indexing in Elasticsearch
+        assertThat(searchOutboxEntries(testMyGameObject.getId())).hasSize(1);
     }
 
     @Test
@@ -353,6 +354,9 @@ class MyGameObjectResourceIT {
         List<MyGameObject> myGameObjectList = myGameObjectRepository.findAll().collectList().block();
         assertThat(myGameObjectList).hasSize(databaseSizeBeforeUpdate);
         MyGameObject testMyGameObject = myGameObjectList.get(myGameObjectList.size() - 1);
+
+        // Validate the MyGameObject is queued for indexing in Elasticsearch
+        assertThat(searchOutboxEntries(partialUpdatedMyGameObject.getId())).hasSize(1);
     }
 
     @Test
@@ -452,8 +456,6 @@ class MyGameObjectResourceIT {
 
     @Test
     void deleteMyGameObject() {
-        // Configure the mock search repository
-        when(mockMyGameObjectSearchRepository.deleteById(anyLong())).thenReturn(Mono.empty());
         // Initialize the database
         myGameObjectRepository.save(myGameObject).block();
 
@@ -472,17 +474,17 @@ class MyGameObjectResourceIT {
         List<MyGameObject> myGameObjectList = myGameObjectRepository.findAll().collectList().block();
         assertThat(myGameObjectList).hasSize(databaseSizeBeforeDelete - 1);
 
-        // Validate the MyGameObject in Elasticsearch
-        verify(mockMyGameObjectSearchRepository, times(1)).deleteById(myGameObject.getId());
+        // Validate the MyGameObject is queued for indexing in Elasticsearch
+        assertThat(searchOutboxEntries(myGameObject.getId())).hasSize(1);
     }
 
     @Test
     void searchMyGameObject() {
-        // Configure the mock search repository
-        when(mockMyGameObjectSearchRepository.save(any())).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
         // Initialize the database
         myGameObjectRepository.save(myGameObject).block();
-        when(mockMyGameObjectSearchRepository.search("id:" + myGameObject.getId())).thenReturn(Flux.just(myGameObject));
+        // Configure the mock search repository
+        when(mockMyGameObjectSearchRepository.search("id:" + myGameObject.getId(), 20, null))
+            .thenReturn(Mono.just(new SearchSlice<>(List.of(myGameObject), 1L, null)));
 
         // Search the myGameObject
         webTestClient
@@ -493,8 +495,20 @@ class MyGameObjectResourceIT {
             .isOk()
             .expectHeader()
             .contentType(MediaType.APPLICATION_JSON)
+            .expectHeader()
+            .valueEquals("X-Total-Count", "1")
+            .expectHeader()
+            .doesNotExist("X-Search-After")
             .expectBody()
             .jsonPath("$.[*].id")
             .value(hasItem(myGameObject.getId().intValue()));
     }
+
+    private List<SearchOutboxEntry> searchOutboxEntries(Long id) {
+        return searchOutboxRepository
+            .findAll()
+            .filter(entry -> "MyGameObject".equals(entry.getEntityType()) && id.equals(entry.getEntityId()))
+            .collectList()
+            .block();
+    }
 }
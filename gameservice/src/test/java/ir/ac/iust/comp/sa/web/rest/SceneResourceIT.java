@@ -0,0 +1,141 @@
+package ir.ac.iust.comp.sa.web.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import ir.ac.iust.comp.sa.IntegrationTest;
+import ir.ac.iust.comp.sa.domain.Application;
+import ir.ac.iust.comp.sa.domain.ChangeFeedEntry;
+import ir.ac.iust.comp.sa.domain.GameObject;
+import ir.ac.iust.comp.sa.repository.ChangeFeedEntryRepository;
+import ir.ac.iust.comp.sa.repository.GameObjectRepository;
+import ir.ac.iust.comp.sa.service.EntityManager;
+import ir.ac.iust.comp.sa.service.dto.ChangeEventDTO;
+import ir.ac.iust.comp.sa.service.dto.SceneDTO;
+import java.time.Instant;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+/**
+ * Integration tests for the {@link SceneResource} REST controller.
+ */
+@IntegrationTest
+@AutoConfigureWebTestClient
+@WithMockUser
+class SceneResourceIT {
+
+    private static final String ENTITY_API_URL = "/api/applications/{id}/scene";
+
+    @Autowired
+    private GameObjectRepository gameObjectRepository;
+
+    @Autowired
+    private ChangeFeedEntryRepository changeFeedEntryRepository;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    private Application application;
+
+    private GameObject gameObject;
+
+    @BeforeEach
+    public void initTest() {
+        changeFeedEntryRepository.deleteAll().block();
+        GameObjectResourceIT.deleteEntities(em);
+        application = em.insert(ApplicationResourceIT.createEntity(em)).block();
+        gameObject = gameObjectRepository.save(GameObjectResourceIT.createEntity(em).applicationId(application.getId())).block();
+    }
+
+    @AfterEach
+    public void cleanup() {
+        changeFeedEntryRepository.deleteAll().block();
+        GameObjectResourceIT.deleteEntities(em);
+        ApplicationResourceIT.deleteEntities(em);
+    }
+
+    @Test
+    void getScene() {
+        SceneDTO scene = getScene(ENTITY_API_URL, application.getId());
+
+        assertThat(scene.isSnapshot()).isTrue();
+        assertThat(scene.getSequence()).isZero();
+        assertThat(scene.getLayers()).isEmpty();
+        assertThat(scene.getGameObjects()).extracting(GameObject::getId).containsExactly(gameObject.getId());
+        assertThat(scene.getGameObjects().get(0).getBitmap()).isNull();
+    }
+
+    @Test
+    void getSceneChangesSinceSequence() {
+        journal(10L, application.getId(), 1f);
+        SceneDTO scene = getScene(ENTITY_API_URL, application.getId());
+        // journaled by the database triggers, whichever instance made the changes
+        journal(11L, application.getId() + 1, 1f);
+        journal(12L, application.getId(), 5f);
+
+        SceneDTO delta = getScene(ENTITY_API_URL + "/changes?since={since}", application.getId(), scene.getSequence());
+
+        assertThat(scene.getSequence()).isEqualTo(10L);
+        assertThat(delta.isSnapshot()).isFalse();
+        assertThat(delta.getSequence()).isEqualTo(12L);
+        assertThat(delta.getChanges())
+            .extracting(ChangeEventDTO::getId, ChangeEventDTO::getType, ChangeEventDTO::getX, ChangeEventDTO::getSequence)
+            .containsExactly(tuple(gameObject.getId(), ChangeEventDTO.Type.MOVED, 5f, 12L));
+    }
+
+    @Test
+    void getSceneChangesSincePrunedSequence() {
+        journal(10L, application.getId(), 1f);
+
+        SceneDTO scene = getScene(ENTITY_API_URL + "/changes?since=5", application.getId());
+
+        assertThat(scene.isSnapshot()).isTrue();
+        assertThat(scene.getSequence()).isEqualTo(10L);
+        assertThat(scene.getGameObjects()).hasSize(1);
+    }
+
+    @Test
+    void getSceneOfNonExistingApplication() {
+        webTestClient.get().uri(ENTITY_API_URL, Long.MAX_VALUE).exchange().expectStatus().isNotFound();
+    }
+
+    private void journal(Long sequence, Long applicationId, Float x) {
+        changeFeedEntryRepository
+            .save(
+                new ChangeFeedEntry()
+                    .sequence(sequence)
+                    .entityType(ChangeEventDTO.GAME_OBJECT)
+                    .entityId(gameObject.getId())
+                    .applicationId(applicationId)
+                    .changeType(ChangeEventDTO.Type.MOVED.name())
+                    .x(x)
+                    .y(gameObject.getY())
+                    .isEnabled(gameObject.getIsEnabled())
+                    .version(gameObject.getVersion())
+                    .createdDate(Instant.now())
+            )
+            .block();
+    }
+
+    private SceneDTO getScene(String uri, Object... uriVariables) {
+        return webTestClient
+            .get()
+            .uri(uri, uriVariables)
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody(SceneDTO.class)
+            .returnResult()
+            .getResponseBody();
+    }
+}
@@ -0,0 +1,54 @@
+package ir.ac.iust.comp.sa.web.rest;
+
+import ir.ac.iust.comp.sa.IntegrationTest;
+import ir.ac.iust.comp.sa.security.AuthoritiesConstants;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+/**
+ * Integration tests for the {@link SearchReindexResource} REST controller.
+ */
+@IntegrationTest
+@AutoConfigureWebTestClient
+@WithMockUser(authorities = AuthoritiesConstants.ADMIN)
+class SearchReindexResourceIT {
+
+    private static final String REINDEX_API_URL = "/api/admin/search/reindex";
+    private static final String REINDEX_API_URL_ENTITY = REINDEX_API_URL + "/{entityType}";
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Test
+    void reindexUnknownEntityType() {
+        webTestClient.post().uri(REINDEX_API_URL_ENTITY, "Unknown").exchange().expectStatus().isNotFound();
+    }
+
+    @Test
+    @WithMockUser
+    void reindexRequiresAdmin() {
+        webTestClient.post().uri(REINDEX_API_URL_ENTITY, "GameObject").exchange().expectStatus().isForbidden();
+    }
+
+    @Test
+    void getNonExistingReindexJob() {
+        webTestClient.get().uri(REINDEX_API_URL_ENTITY, "Unknown").exchange().expectStatus().isNotFound();
+    }
+
+    @Test
+    void getAllReindexJobs() {
+        webTestClient
+            .get()
+            .uri(REINDEX_API_URL)
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .contentType(MediaType.APPLICATION_JSON);
+    }
+}
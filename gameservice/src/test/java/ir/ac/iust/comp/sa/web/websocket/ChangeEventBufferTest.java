@@ -0,0 +1,105 @@
+package ir.ac.iust.comp.sa.web.websocket;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import ir.ac.iust.comp.sa.domain.GameObject;
+import ir.ac.iust.comp.sa.domain.Layer;
+import ir.ac.iust.comp.sa.service.dto.ChangeEventDTO;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscription;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+class ChangeEventBufferTest {
+
+    @Test
+    void mergesTheEventsOfTheSameEntity() {
+        ChangeEventBuffer buffer = new ChangeEventBuffer(10);
+
+        assertThat(buffer.offer(moved(1L, 1f))).isEqualTo(ChangeEventBuffer.Outcome.QUEUED);
+        assertThat(buffer.offer(moved(2L, 1f))).isEqualTo(ChangeEventBuffer.Outcome.QUEUED);
+        assertThat(buffer.offer(moved(1L, 2f))).isEqualTo(ChangeEventBuffer.Outcome.MERGED);
+
+        assertThat(buffer.poll()).extracting(ChangeEventDTO::getId, ChangeEventDTO::getX).containsExactly(1L, 2f);
+        assertThat(buffer.poll()).extracting(ChangeEventDTO::getId, ChangeEventDTO::getX).containsExactly(2L, 1f);
+        assertThat(buffer.poll()).isNull();
+    }
+
+    @Test
+    void keepsPendingCreationsUntilDeleted() {
+        ChangeEventBuffer buffer = new ChangeEventBuffer(10);
+        ChangeEventDTO update = moved(1L, 2f);
+
+        buffer.offer(ChangeEventDTO.of(ChangeEventDTO.Type.CREATED, new GameObject().id(1L).x(1f)));
+        buffer.offer(update);
+        buffer.offer(ChangeEventDTO.of(ChangeEventDTO.Type.CREATED, new GameObject().id(2L)));
+        buffer.offer(ChangeEventDTO.of(ChangeEventDTO.Type.DELETED, new GameObject().id(2L)));
+
+        assertThat(buffer.poll())
+            .extracting(ChangeEventDTO::getType, ChangeEventDTO::getX)
+            .containsExactly(ChangeEventDTO.Type.CREATED, 2f);
+        assertThat(buffer.poll()).isNull();
+        assertThat(update.getType()).isEqualTo(ChangeEventDTO.Type.MOVED);
+    }
+
+    @Test
+    void dropsTheOldestEventsWhenFull() {
+        ChangeEventBuffer buffer = new ChangeEventBuffer(2);
+
+        buffer.offer(moved(1L, 1f));
+        buffer.offer(moved(2L, 1f));
+        buffer.offer(ChangeEventDTO.of(ChangeEventDTO.Type.MOVED, new Layer().id(1L)));
+
+        assertThat(buffer.size()).isEqualTo(2);
+        assertThat(buffer.poll().getEntity()).isEqualTo(ChangeEventDTO.GAME_OBJECT);
+        assertThat(buffer.poll().getEntity()).isEqualTo(ChangeEventDTO.LAYER);
+    }
+
+    @Test
+    void coalescesWhileTheSubscriberFallsBehind() {
+        Sinks.Many<ChangeEventDTO> events = Sinks.many().multicast().directBestEffort();
+        List<ChangeEventBuffer.Outcome> outcomes = new ArrayList<>();
+        List<Long> received = new ArrayList<>();
+        BaseSubscriber<ChangeEventDTO> subscriber = new BaseSubscriber<>() {
+            @Override
+            protected void hookOnSubscribe(Subscription subscription) {
+                // requested by the test
+            }
+
+            @Override
+            protected void hookOnNext(ChangeEventDTO event) {
+                received.add(event.getId());
+            }
+        };
+        ChangeEventBuffer.coalesce(events.asFlux(), 2, Schedulers.immediate(), outcomes::add).subscribe(subscriber);
+
+        events.tryEmitNext(moved(1L, 1f));
+        events.tryEmitNext(moved(1L, 2f));
+        events.tryEmitNext(moved(2L, 1f));
+        events.tryEmitNext(moved(3L, 1f));
+        assertThat(received).isEmpty();
+        subscriber.request(2);
+        assertThat(received).containsExactly(2L, 3L);
+        events.tryEmitNext(moved(4L, 1f));
+        subscriber.request(1);
+        assertThat(received).containsExactly(2L, 3L, 4L);
+        subscriber.cancel();
+
+        assertThat(outcomes)
+            .containsExactly(
+                ChangeEventBuffer.Outcome.QUEUED,
+                ChangeEventBuffer.Outcome.MERGED,
+                ChangeEventBuffer.Outcome.QUEUED,
+                ChangeEventBuffer.Outcome.DROPPED,
+                ChangeEventBuffer.Outcome.QUEUED
+            );
+        assertThat(events.currentSubscriberCount()).isZero();
+    }
+
+    private static ChangeEventDTO moved(Long id, Float x) {
+        return ChangeEventDTO.of(ChangeEventDTO.Type.MOVED, new GameObject().id(id).x(x));
+    }
+}
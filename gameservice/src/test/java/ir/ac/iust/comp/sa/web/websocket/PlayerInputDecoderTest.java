@@ -0,0 +1,44 @@
+package ir.ac.iust.comp.sa.web.websocket;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.tuple;
+
+import ir.ac.iust.comp.sa.service.dto.PlayerInputDTO;
+import java.nio.ByteBuffer;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+
+class PlayerInputDecoderTest {
+
+    private final DefaultDataBufferFactory bufferFactory = DefaultDataBufferFactory.sharedInstance;
+
+    @Test
+    void decodesTheInputsOfAMessage() {
+        ByteBuffer message = ByteBuffer.allocate(2 * PlayerInputDecoder.INPUT_LENGTH);
+        message.putLong(7L).putLong(1_700_000_000_000L).putLong(3L).put((byte) 0).putFloat(1.5f).putFloat(-2f);
+        message.putLong(8L).putLong(1_700_000_000_001L).putLong(4L).put((byte) 3).putFloat(0f).putFloat(0f);
+        message.flip();
+
+        List<PlayerInputDTO> inputs = PlayerInputDecoder.decode(bufferFactory.wrap(message));
+
+        assertThat(inputs)
+            .extracting(PlayerInputDTO::getSequence, PlayerInputDTO::getGameObjectId, PlayerInputDTO::getType)
+            .containsExactly(tuple(7L, 3L, PlayerInputDTO.Type.MOVE_BY), tuple(8L, 4L, PlayerInputDTO.Type.DISABLE));
+        assertThat(inputs.get(0).getTimestamp()).isEqualTo(1_700_000_000_000L);
+        assertThat(inputs.get(0).getX()).isEqualTo(1.5f);
+        assertThat(inputs.get(0).getY()).isEqualTo(-2f);
+    }
+
+    @Test
+    void rejectsTruncatedMessagesAndUnknownTypes() {
+        byte[] truncated = new byte[PlayerInputDecoder.INPUT_LENGTH - 1];
+        assertThatIllegalArgumentException().isThrownBy(() -> PlayerInputDecoder.decode(bufferFactory.wrap(truncated)));
+
+        ByteBuffer message = ByteBuffer.allocate(PlayerInputDecoder.INPUT_LENGTH);
+        message.putLong(1L).putLong(1L).putLong(1L).put((byte) 9);
+        message.rewind();
+        assertThatIllegalArgumentException().isThrownBy(() -> PlayerInputDecoder.decode(bufferFactory.wrap(message)));
+    }
+}
@@ -0,0 +1,42 @@
+package ir.ac.iust.comp.sa.web.websocket;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import ir.ac.iust.comp.sa.service.dto.ScreenFrameDTO;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+
+class ScreenFrameEncoderTest {
+
+    @Test
+    void encodesTheHeaderBeforeTheScreenBuffer() {
+        Instant capturedAt = Instant.ofEpochMilli(1_700_000_000_000L);
+        ScreenFrameDTO frame = new ScreenFrameDTO(1L, "image/png", new byte[] { 1, 2, 3 }, capturedAt);
+
+        DataBuffer message = ScreenFrameEncoder.encode(DefaultDataBufferFactory.sharedInstance, 42L, frame);
+
+        ByteBuffer bytes = message.asByteBuffer();
+        assertThat(bytes.getLong()).isEqualTo(42L);
+        assertThat(bytes.getLong()).isEqualTo(capturedAt.toEpochMilli());
+        byte[] contentType = new byte[bytes.getShort()];
+        bytes.get(contentType);
+        assertThat(new String(contentType, StandardCharsets.UTF_8)).isEqualTo("image/png");
+        byte[] data = new byte[bytes.remaining()];
+        bytes.get(data);
+        assertThat(data).containsExactly(1, 2, 3);
+    }
+
+    @Test
+    void encodesAMissingContentTypeAsEmpty() {
+        ScreenFrameDTO frame = new ScreenFrameDTO(1L, null, new byte[] { 7 }, Instant.now());
+
+        DataBuffer message = ScreenFrameEncoder.encode(DefaultDataBufferFactory.sharedInstance, 1L, frame);
+
+        assertThat(message.readableByteCount()).isEqualTo(ScreenFrameEncoder.FIXED_HEADER_LENGTH + 1);
+        assertThat(message.asByteBuffer().getShort(Long.BYTES + Long.BYTES)).isZero();
+    }
+}
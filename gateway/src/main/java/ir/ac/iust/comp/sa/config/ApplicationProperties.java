@@ -9,4 +9,34 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
  * See {@link tech.jhipster.config.JHipsterProperties} for a good example.
  */
 @ConfigurationProperties(prefix = "application", ignoreUnknownFields = false)
-public class ApplicationProperties {}
+public class ApplicationProperties {
+
+    private final KafkaConsumers kafkaConsumers = new KafkaConsumers();
+
+    public KafkaConsumers getKafkaConsumers() {
+        return kafkaConsumers;
+    }
+
+    public static class KafkaConsumers {
+
+        private int replaySize = 16;
+
+        private int bufferSize = 256;
+
+        public int getReplaySize() {
+            return replaySize;
+        }
+
+        public void setReplaySize(int replaySize) {
+            this.replaySize = replaySize;
+        }
+
+        public int getBufferSize() {
+            return bufferSize;
+        }
+
+        public void setBufferSize(int bufferSize) {
+            this.bufferSize = bufferSize;
+        }
+    }
+}
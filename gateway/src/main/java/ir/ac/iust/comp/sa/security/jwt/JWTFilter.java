@@ -1,5 +1,6 @@
 package ir.ac.iust.comp.sa.security.jwt;
 
+import java.util.List;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.ReactiveSecurityContextHolder;
@@ -7,16 +8,30 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.server.ServerWebExchange;
 import org.springframework.web.server.WebFilter;
 import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.util.UriComponentsBuilder;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
 import reactor.core.publisher.Mono;
 
 /**
  * Filters incoming requests and installs a Spring Security principal if a header corresponding to a valid user is
- * found.
+ * found. The {@code /websocket/**} handshakes and {@code /api/changes} event streams of the services, whose headers
+ * can't be set by browsers, may pass the token in the {@code access_token} query parameter instead: it is then moved
+ * to the {@code Authorization} header, so that it isn't forwarded to the service or logged with the URI.
  */
 public class JWTFilter implements WebFilter {
 
     public static final String AUTHORIZATION_HEADER = "Authorization";
 
+    public static final String AUTHORIZATION_TOKEN = "access_token";
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private static final List<PathPattern> QUERY_TOKEN_PATHS = List.of(
+        PathPatternParser.defaultInstance.parse("/services/*/websocket/**"),
+        PathPatternParser.defaultInstance.parse("/services/*/api/changes")
+    );
+
     private final TokenProvider tokenProvider;
 
     public JWTFilter(TokenProvider tokenProvider) {
@@ -25,19 +40,39 @@ public class JWTFilter implements WebFilter {
 
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
-        String jwt = resolveToken(exchange.getRequest());
+        ServerHttpRequest request = exchange.getRequest();
+        String jwt = resolveToken(request);
+        ServerWebExchange filtered = exchange;
+        if (jwt == null && acceptsQueryToken(request)) {
+            jwt = request.getQueryParams().getFirst(AUTHORIZATION_TOKEN);
+            if (StringUtils.hasText(jwt)) {
+                filtered = exchange.mutate().request(moveQueryToken(request, jwt)).build();
+            }
+        }
         if (StringUtils.hasText(jwt) && this.tokenProvider.validateToken(jwt)) {
             Authentication authentication = this.tokenProvider.getAuthentication(jwt);
-            return chain.filter(exchange).subscriberContext(ReactiveSecurityContextHolder.withAuthentication(authentication));
+            return chain.filter(filtered).subscriberContext(ReactiveSecurityContextHolder.withAuthentication(authentication));
         }
-        return chain.filter(exchange);
+        return chain.filter(filtered);
     }
 
     private String resolveToken(ServerHttpRequest request) {
         String bearerToken = request.getHeaders().getFirst(AUTHORIZATION_HEADER);
-        if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
-            return bearerToken.substring(7);
+        if (StringUtils.hasText(bearerToken) && bearerToken.startsWith(BEARER_PREFIX)) {
+            return bearerToken.substring(BEARER_PREFIX.length());
         }
         return null;
     }
+
+    private static boolean acceptsQueryToken(ServerHttpRequest request) {
+        return QUERY_TOKEN_PATHS.stream().anyMatch(pattern -> pattern.matches(request.getPath().pathWithinApplication()));
+    }
+
+    private static ServerHttpRequest moveQueryToken(ServerHttpRequest request, String jwt) {
+        return request
+            .mutate()
+            .uri(UriComponentsBuilder.fromUri(request.getURI()).replaceQueryParam(AUTHORIZATION_TOKEN).build(true).toUri())
+            .headers(headers -> headers.set(AUTHORIZATION_HEADER, BEARER_PREFIX + jwt))
+            .build();
+    }
 }
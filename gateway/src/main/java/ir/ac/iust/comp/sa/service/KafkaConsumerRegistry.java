@@ -0,0 +1,125 @@
+package ir.ac.iust.comp.sa.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import ir.ac.iust.comp.sa.config.ApplicationProperties;
+import ir.ac.iust.comp.sa.config.KafkaProperties;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.kafka.receiver.KafkaReceiver;
+import reactor.kafka.receiver.ReceiverOptions;
+
+/**
+ * Service sharing the Kafka consumers of the instance between their subscribers.
+ * <p>
+ * Subscribers of the same topics with the same consumer properties share a single {@link KafkaReceiver}, started by
+ * the first of them and closed when the last one leaves, instead of each opening its own connections and rebalancing
+ * the group. Late subscribers first receive the last {@code application.kafka-consumers.replay-size} records. Each
+ * subscriber buffers up to {@code application.kafka-consumers.buffer-size} records, then drops the oldest ones, so
+ * that a slow subscriber doesn't hold back the others.
+ */
+@Service
+public class KafkaConsumerRegistry {
+
+    private static final String METRIC_PREFIX = "kafka.consumers.";
+
+    private final Logger log = LoggerFactory.getLogger(KafkaConsumerRegistry.class);
+
+    private final KafkaProperties kafkaProperties;
+
+    private final ApplicationProperties.KafkaConsumers properties;
+
+    private final Function<ReceiverOptions<String, String>, Flux<ConsumerRecord<String, String>>> receivers;
+
+    private final Map<List<Object>, SharedConsumer> consumers = new ConcurrentHashMap<>();
+
+    private final AtomicInteger subscribers = new AtomicInteger();
+
+    private final Counter dropped;
+
+    @Autowired
+    public KafkaConsumerRegistry(
+        KafkaProperties kafkaProperties,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
+    ) {
+        this(kafkaProperties, applicationProperties, meterRegistry, options -> Flux.from(KafkaReceiver.create(options).receive()));
+    }
+
+    KafkaConsumerRegistry(
+        KafkaProperties kafkaProperties,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry,
+        Function<ReceiverOptions<String, String>, Flux<ConsumerRecord<String, String>>> receivers
+    ) {
+        this.kafkaProperties = kafkaProperties;
+        this.properties = applicationProperties.getKafkaConsumers();
+        this.receivers = receivers;
+        Gauge.builder(METRIC_PREFIX + "active", consumers, Map::size).description("Kafka consumers running").register(meterRegistry);
+        Gauge
+            .builder(METRIC_PREFIX + "subscribers", subscribers, AtomicInteger::get)
+            .description("Subscribers of the Kafka consumers")
+            .register(meterRegistry);
+        this.dropped =
+            Counter
+                .builder(METRIC_PREFIX + "dropped")
+                .description("Records dropped for subscribers falling behind")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Subscribes to records of Kafka topics.
+     *
+     * @param topics the topics.
+     * @param consumerParams the consumer properties overriding those of {@link KafkaProperties}, e.g. {@code group.id}.
+     * @return the records received from now on, preceded by the last records received by the shared consumer.
+     */
+    public Flux<ConsumerRecord<String, String>> consume(Collection<String> topics, Map<String, String> consumerParams) {
+        List<Object> key = List.of(new TreeSet<>(topics), new TreeMap<>(consumerParams));
+        return Flux
+            .defer(() -> consumers.computeIfAbsent(key, SharedConsumer::new).records)
+            .onBackpressureBuffer(properties.getBufferSize(), record -> dropped.increment(), BufferOverflowStrategy.DROP_OLDEST)
+            .doOnSubscribe(subscription -> subscribers.incrementAndGet())
+            .doFinally(signal -> subscribers.decrementAndGet());
+    }
+
+    /**
+     * A consumer shared by the subscribers of the same topics with the same properties.
+     */
+    private class SharedConsumer {
+
+        private final Flux<ConsumerRecord<String, String>> records;
+
+        @SuppressWarnings("unchecked")
+        SharedConsumer(List<Object> key) {
+            Collection<String> topics = (Collection<String>) key.get(0);
+            Map<String, Object> consumerProps = kafkaProperties.getConsumerProps();
+            consumerProps.putAll((Map<String, String>) key.get(1));
+            ReceiverOptions<String, String> receiverOptions = ReceiverOptions.<String, String>create(consumerProps).subscription(topics);
+            this.records =
+                receivers
+                    .apply(receiverOptions)
+                    .doOnSubscribe(subscription -> log.debug("Starting the Kafka consumer of {}", key))
+                    .doFinally(signal -> {
+                        log.debug("Stopped the Kafka consumer of {}: {}", key, signal);
+                        consumers.remove(key, this);
+                    })
+                    .replay(properties.getReplaySize())
+                    .refCount();
+        }
+    }
+}
@@ -1,18 +1,22 @@
 package ir.ac.iust.comp.sa.web.rest;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import ir.ac.iust.comp.sa.config.KafkaProperties;
+import ir.ac.iust.comp.sa.service.KafkaConsumerRegistry;
+import ir.ac.iust.comp.sa.web.rest.vm.KafkaMessageVM;
 import java.time.Instant;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ExecutionException;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.kafka.receiver.KafkaReceiver;
-import reactor.kafka.receiver.ReceiverOptions;
 import reactor.kafka.sender.KafkaSender;
 import reactor.kafka.sender.SenderOptions;
 import reactor.kafka.sender.SenderRecord;
@@ -24,12 +28,14 @@ public class IustGatewayKafkaResource {
 
     private final Logger log = LoggerFactory.getLogger(IustGatewayKafkaResource.class);
 
-    private final KafkaProperties kafkaProperties;
     private KafkaSender<String, String> sender;
 
-    public IustGatewayKafkaResource(KafkaProperties kafkaProperties) {
-        this.kafkaProperties = kafkaProperties;
-        this.sender = KafkaSender.create(SenderOptions.create(kafkaProperties.getProducerProps()));
+    private final KafkaConsumerRegistry kafkaConsumerRegistry;
+
+    public IustGatewayKafkaResource(KafkaProperties kafkaProperties, KafkaConsumerRegistry kafkaConsumerRegistry) {
+        // reports the failure of a record in its result rather than failing the batch
+        this.sender = KafkaSender.create(SenderOptions.<String, String>create(kafkaProperties.getProducerProps()).stopOnError(false));
+        this.kafkaConsumerRegistry = kafkaConsumerRegistry;
     }
 
     @PostMapping("/publish/{topic}")
@@ -43,21 +49,43 @@ public class IustGatewayKafkaResource {
             .just(SenderRecord.create(topic, null, null, key, message, null))
             .as(sender::send)
             .next()
-            .map(SenderResult::recordMetadata)
+            .flatMap(result -> result.exception() == null ? Mono.just(result.recordMetadata()) : Mono.error(result.exception()))
             .map(metadata ->
                 new PublishResult(metadata.topic(), metadata.partition(), metadata.offset(), Instant.ofEpochMilli(metadata.timestamp()))
             );
     }
 
+    /**
+     * {@code POST  /publish/:topic/batch} : publish a batch of messages, as newline delimited JSON or a JSON array.
+     * <p>
+     * Messages are sent as they are read from the request, without waiting for the acknowledgement of the previous
+     * ones, and their results are streamed back as the broker acknowledges them. The results of the messages of
+     * different partitions may be out of order, and refer to their message by its index in the batch. A message the
+     * broker failed to store gets an error instead of its partition and offset.
+     *
+     * @param topic the topic.
+     * @param messages the messages.
+     * @return the {@link Flux} of the results of the messages, as newline delimited JSON.
+     */
+    @PostMapping(
+        value = "/publish/{topic}/batch",
+        consumes = { MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE },
+        produces = MediaType.APPLICATION_NDJSON_VALUE
+    )
+    public Flux<BatchPublishResult> publishBatch(@PathVariable String topic, @RequestBody Flux<KafkaMessageVM> messages) {
+        log.debug("REST request to send a batch of messages to Kafka topic {}", topic);
+        return messages
+            .index((index, message) -> SenderRecord.create(topic, null, null, message.getKey(), message.getMessage(), index))
+            .as(sender::send)
+            .map(result -> new BatchPublishResult(topic, result));
+    }
+
     @GetMapping("/consume")
     public Flux<String> consume(@RequestParam("topic") List<String> topics, @RequestParam Map<String, String> consumerParams) {
         log.debug("REST request to consume records from Kafka topics {}", topics);
-        Map<String, Object> consumerProps = kafkaProperties.getConsumerProps();
-        consumerProps.putAll(consumerParams);
+        Map<String, String> consumerProps = new HashMap<>(consumerParams);
         consumerProps.remove("topic");
-
-        ReceiverOptions<String, String> receiverOptions = ReceiverOptions.<String, String>create(consumerProps).subscription(topics);
-        return KafkaReceiver.create(receiverOptions).receive().map(ConsumerRecord::value);
+        return kafkaConsumerRegistry.consume(topics, consumerProps).map(ConsumerRecord::value);
     }
 
     private static class PublishResult {
@@ -74,4 +102,25 @@ public class IustGatewayKafkaResource {
             this.timestamp = timestamp;
         }
     }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private static class BatchPublishResult {
+
+        public final long index;
+        public final String topic;
+        public final Integer partition;
+        public final Long offset;
+        public final Instant timestamp;
+        public final String error;
+
+        private BatchPublishResult(String topic, SenderResult<Long> result) {
+            RecordMetadata metadata = result.exception() == null ? result.recordMetadata() : null;
+            this.index = result.correlationMetadata();
+            this.topic = topic;
+            this.partition = metadata == null ? null : metadata.partition();
+            this.offset = metadata == null ? null : metadata.offset();
+            this.timestamp = metadata == null ? null : Instant.ofEpochMilli(metadata.timestamp());
+            this.error = result.exception() == null ? null : result.exception().getMessage();
+        }
+    }
 }
@@ -0,0 +1,42 @@
+package ir.ac.iust.comp.sa.web.rest.vm;
+
+/**
+ * View Model of a message of a batch published to a Kafka topic.
+ */
+public class KafkaMessageVM {
+
+    private String key;
+
+    private String message;
+
+    /**
+     * @return the key of the message, {@code null} to spread the messages over the partitions.
+     */
+    public String getKey() {
+        return key;
+    }
+
+    public void setKey(String key) {
+        this.key = key;
+    }
+
+    /**
+     * @return the message, {@code null} for a tombstone.
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "KafkaMessageVM{" +
+            "key='" + key + "'" +
+            ", message='" + message + "'" +
+            "}";
+    }
+}
@@ -5,6 +5,7 @@ export interface IGameObject {
   bitmapContentType?: string | null;
   bitmap?: string | null;
   isEnabled?: boolean | null;
+  version?: number | null;
 }
 
 export const defaultValue: Readonly<IGameObject> = {
@@ -147,4 +147,57 @@ class JWTFilterTest {
             )
             .block();
     }
+
+    @Test
+    void testJWTFilterQueryToken() {
+        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+            "test-user",
+            "test-password",
+            Collections.singletonList(new SimpleGrantedAuthority(AuthoritiesConstants.USER))
+        );
+        String jwt = tokenProvider.createToken(authentication, false);
+        MockServerHttpRequest.BaseBuilder request = MockServerHttpRequest.get("/services/gameservice/websocket/changes?applicationId=1&access_token=" + jwt);
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        jwtFilter
+            .filter(
+                exchange,
+                it -> {
+                    assertThat(it.getRequest().getURI().getQuery()).isEqualTo("applicationId=1");
+                    assertThat(it.getRequest().getHeaders().getFirst(JWTFilter.AUTHORIZATION_HEADER)).isEqualTo("Bearer " + jwt);
+                    return Mono
+                        .subscriberContext()
+                        .flatMap(c -> ReactiveSecurityContextHolder.getContext())
+                        .map(SecurityContext::getAuthentication)
+                        .doOnSuccess(auth -> assertThat(auth.getName()).isEqualTo("test-user"))
+                        .then();
+                }
+            )
+            .block();
+    }
+
+    @Test
+    void testJWTFilterQueryTokenOutsideStreams() {
+        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+            "test-user",
+            "test-password",
+            Collections.singletonList(new SimpleGrantedAuthority(AuthoritiesConstants.USER))
+        );
+        String jwt = tokenProvider.createToken(authentication, false);
+        MockServerHttpRequest.BaseBuilder request = MockServerHttpRequest
+            .get("/api/test?access_token=" + jwt)
+            .header("Upgrade", "websocket");
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        jwtFilter
+            .filter(
+                exchange,
+                it ->
+                    Mono
+                        .subscriberContext()
+                        .flatMap(c -> ReactiveSecurityContextHolder.getContext())
+                        .map(SecurityContext::getAuthentication)
+                        .doOnSuccess(auth -> assertThat(auth).isNull())
+                        .then()
+            )
+            .block();
+    }
 }
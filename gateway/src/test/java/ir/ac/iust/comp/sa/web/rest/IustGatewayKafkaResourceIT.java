@@ -2,11 +2,17 @@ package ir.ac.iust.comp.sa.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import ir.ac.iust.comp.sa.config.ApplicationProperties;
 import ir.ac.iust.comp.sa.config.KafkaProperties;
+import ir.ac.iust.comp.sa.service.KafkaConsumerRegistry;
 import java.time.Duration;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
 import org.apache.kafka.clients.consumer.KafkaConsumer;
@@ -52,7 +58,10 @@ class IustGatewayKafkaResourceIT {
         consumerProps.put("client.id", "default-client");
         kafkaProperties.setConsumer(consumerProps);
 
-        IustGatewayKafkaResource kafkaResource = new IustGatewayKafkaResource(kafkaProperties);
+        IustGatewayKafkaResource kafkaResource = new IustGatewayKafkaResource(
+            kafkaProperties,
+            new KafkaConsumerRegistry(kafkaProperties, new ApplicationProperties(), new SimpleMeterRegistry())
+        );
 
         client = WebTestClient.bindToController(kafkaResource).build();
     }
@@ -78,6 +87,34 @@ class IustGatewayKafkaResourceIT {
         assertThat(record.value()).isEqualTo("value-produce");
     }
 
+    @Test
+    void producesBatchesOfMessages() {
+        List<String> results = client
+            .post()
+            .uri("/api/iust-gateway-kafka/publish/topic-produce-batch/batch")
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .bodyValue("{\"key\":\"key\",\"message\":\"value-1\"}\n{\"key\":\"key\",\"message\":\"value-2\"}\n")
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+            .returnResult(String.class)
+            .getResponseBody()
+            .collectList()
+            .block(Duration.ofSeconds(10));
+
+        assertThat(results).hasSize(2).allMatch(result -> result.contains("\"offset\""));
+
+        Map<String, Object> consumerProps = new HashMap<>(getConsumerProps("group-produce-batch"));
+        KafkaConsumer<String, String> consumer = new KafkaConsumer<>(consumerProps);
+        consumer.subscribe(Collections.singletonList("topic-produce-batch"));
+        ConsumerRecords<String, String> records = consumer.poll(Duration.ofSeconds(1));
+
+        assertThat(StreamSupport.stream(records.spliterator(), false).map(ConsumerRecord::value).collect(Collectors.toList()))
+            .containsExactly("value-1", "value-2");
+    }
+
     @Test
     void consumesMessages() {
         Map<String, Object> producerProps = new HashMap<>(getProducerProps());